@@ -91,10 +91,11 @@ public final class HolidayCalendarId
         .sorted(comparing(HolidayCalendarId::getName))
         .collect(toList());
     String normalizedName = Joiner.on('+').join(ids);
+    // the combined calendar is interned, so each distinct combination is only built once
     Function<ReferenceData, HolidayCalendar> resolver =
-        refData -> ids.stream()
+        refData -> HolidayCalendars.combined(ids.stream()
             .map(r -> refData.getValue(r))
-            .reduce(HolidayCalendars.NO_HOLIDAYS, HolidayCalendar::combinedWith);
+            .collect(toList()));
     // cache under the normalized and non-normalized names
     HolidayCalendarId id = CACHE.computeIfAbsent(normalizedName, n -> new HolidayCalendarId(normalizedName, resolver));
     CACHE.putIfAbsent(name, id);
@@ -5,7 +5,14 @@
  */
 package com.opengamma.strata.basics.date;
 
+import static java.util.stream.Collectors.toList;
+
+import java.util.List;
+
+import com.google.common.base.Equivalence;
 import com.google.common.base.Splitter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.opengamma.strata.basics.ReferenceData;
 import com.opengamma.strata.collect.named.ExtendedEnum;
 
@@ -55,6 +62,17 @@ public final class HolidayCalendars {
    * The extended enum lookup from name to instance.
    */
   private static final ExtendedEnum<HolidayCalendar> ENUM_LOOKUP = ExtendedEnum.of(HolidayCalendar.class);
+  /**
+   * The maximum number of combined calendars to cache.
+   */
+  private static final int MAX_COMBINED = 1000;
+  /**
+   * The cache of combined calendars, keyed by the identity of the underlying calendars.
+   * Identity is used as calendars are only compared by identifier in {@code equals()}.
+   * The least recently used combinations are evicted once the maximum size is reached.
+   */
+  private static final Cache<List<Equivalence.Wrapper<HolidayCalendar>>, HolidayCalendar> COMBINED =
+      CacheBuilder.newBuilder().maximumSize(MAX_COMBINED).build();
 
   //-------------------------------------------------------------------------
   /**
@@ -75,13 +93,48 @@ public final class HolidayCalendars {
    */
   public static HolidayCalendar of(String uniqueName) {
     if (uniqueName.contains("+")) {
-      return Splitter.on('+').splitToList(uniqueName).stream()
+      return combined(Splitter.on('+').splitToList(uniqueName).stream()
           .map(HolidayCalendars::of)
-          .reduce(NO_HOLIDAYS, HolidayCalendar::combinedWith);
+          .collect(toList()));
     }
     return ENUM_LOOKUP.lookup(uniqueName);
   }
 
+  /**
+   * Obtains a calendar combining the specified calendars.
+   * <p>
+   * The result is cached, such that the same combination of calendar instances
+   * returns the same combined instance while the combination remains in use.
+   * The cache is bounded, evicting the least recently used combinations.
+   * Where all the calendars are instances of {@link ImmutableHolidayCalendar}, the combination is
+   * materialized once into a single {@code ImmutableHolidayCalendar}, thus date adjustment using
+   * the combined calendar is as fast as using a single calendar.
+   * Otherwise, the calendars are combined using {@link HolidayCalendar#combinedWith(HolidayCalendar)}.
+   * 
+   * @param calendars  the calendars to combine, in order
+   * @return the combined holiday calendar
+   */
+  static HolidayCalendar combined(List<HolidayCalendar> calendars) {
+    List<Equivalence.Wrapper<HolidayCalendar>> key = calendars.stream()
+        .map(cal -> Equivalence.identity().wrap(cal))
+        .collect(toList());
+    HolidayCalendar cached = COMBINED.getIfPresent(key);
+    if (cached != null) {
+      return cached;
+    }
+    HolidayCalendar combined = calendars.stream().reduce(NO_HOLIDAYS, HolidayCalendars::combinedPair);
+    HolidayCalendar existing = COMBINED.asMap().putIfAbsent(key, combined);
+    return existing != null ? existing : combined;
+  }
+
+  // combines two calendars, materializing the result where possible
+  private static HolidayCalendar combinedPair(HolidayCalendar cal1, HolidayCalendar cal2) {
+    if (cal1 instanceof ImmutableHolidayCalendar && cal2 instanceof ImmutableHolidayCalendar) {
+      return ImmutableHolidayCalendar.combined((ImmutableHolidayCalendar) cal1, (ImmutableHolidayCalendar) cal2);
+    }
+    return cal1.combinedWith(cal2);
+  }
+
   /**
    * Gets the extended enum helper.
    * <p>
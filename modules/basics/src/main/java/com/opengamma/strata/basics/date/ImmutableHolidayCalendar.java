@@ -8,6 +8,7 @@ package com.opengamma.strata.basics.date;
 import java.io.Serializable;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
@@ -59,6 +60,14 @@ public final class ImmutableHolidayCalendar
   // when using Integer.numberOfTrailingZeros and Integer.numberOfLeadingZeros)
   // benchmarking showed nextOrSame() and previousOrSame() do not need to be overridden
   // out-of-range and weekend-only (used in testing) are handled using exceptions to fast-path the common case
+  // larger shifts and business day counts use a lazily built dense index of business days
+  // this is built once per instance, and the instances are shared via HolidayCalendars and ReferenceData
+
+  /**
+   * The shift amount above which the business day index is used.
+   * Smaller shifts are faster using the lookup table directly.
+   */
+  private static final int INDEXED_SHIFT_THRESHOLD = 5;
 
   /**
    * The identifier, such as 'GBLO'.
@@ -90,6 +99,11 @@ public final class ImmutableHolidayCalendar
    * Trailing bits are set to 0 so they act as holidays, avoiding month length logic.
    */
   private final int[] lookup;
+  /**
+   * The business day index, built lazily from the lookup table when first needed.
+   * Once built, it is shared by all users of this calendar instance.
+   */
+  private transient volatile BusinessDayIndex businessDayIndex;
 
   //-------------------------------------------------------------------------
   /**
@@ -136,7 +150,9 @@ public final class ImmutableHolidayCalendar
    * Obtains a combined holiday calendar instance.
    * <p>
    * This combines the two input calendars.
-   * It is intended for up-front occasional use rather than continuous use, as it is relatively slow.
+   * It is relatively slow, as the holidays of both calendars are merged into a new calendar.
+   * Where the same combination is needed repeatedly, such as when resolving an identifier
+   * like 'GBLO+USNY', {@link HolidayCalendars#of(String)} caches the combined calendar.
    * 
    * @param cal1  the first calendar
    * @param cal2  the second calendar
@@ -240,6 +256,12 @@ public final class ImmutableHolidayCalendar
   //-------------------------------------------------------------------------
   @Override
   public LocalDate shift(LocalDate date, int amount) {
+    if (amount > INDEXED_SHIFT_THRESHOLD || amount < -INDEXED_SHIFT_THRESHOLD) {
+      LocalDate shifted = businessDayIndex().shift(date, amount);
+      if (shifted != null) {
+        return shifted;
+      }
+    }
     try {
       if (amount > 0) {
         // day-of-month: minus one for zero-based day-of-month, plus one to start from next day
@@ -425,6 +447,27 @@ public final class ImmutableHolidayCalendar
     throw new IllegalArgumentException("Date is outside the accepted range (year 0000 to 10,000): " + date);
   }
 
+  //-------------------------------------------------------------------------
+  @Override
+  public int daysBetween(LocalDate startInclusive, LocalDate endExclusive) {
+    int count = businessDayIndex().daysBetween(startInclusive, endExclusive);
+    if (count >= 0) {
+      return count;
+    }
+    return HolidayCalendar.super.daysBetween(startInclusive, endExclusive);
+  }
+
+  // obtains the business day index, building it if necessary
+  // racing threads may build the index more than once, which is harmless as it is immutable
+  private BusinessDayIndex businessDayIndex() {
+    BusinessDayIndex index = businessDayIndex;
+    if (index == null) {
+      index = new BusinessDayIndex(startYear, lookup);
+      businessDayIndex = index;
+    }
+    return index;
+  }
+
   //-------------------------------------------------------------------------
   @Override
   public boolean equals(Object obj) {
@@ -453,6 +496,80 @@ public final class ImmutableHolidayCalendar
     return "HolidayCalendar[" + getName() + ']';
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Dense index of business days over the range of the lookup table.
+   * <p>
+   * This holds the cumulative number of business days for each date in the range,
+   * and the date of each business day by ordinal, allowing shifts and business day counts
+   * to be calculated with two array lookups regardless of the distance involved.
+   * Dates outside the range are not handled, and must fall back to the standard logic.
+   */
+  static final class BusinessDayIndex {
+    /**
+     * The epoch day of the first date in the range.
+     */
+    private final long startEpochDay;
+    /**
+     * The number of business days before each date, relative to the start of the range.
+     * The array has one more element than the number of days in the range, so the exclusive end can be queried.
+     */
+    private final int[] cumulative;
+    /**
+     * The offset from the start of the range of each business day, by ordinal.
+     */
+    private final int[] ordinals;
+
+    // builds the index from the lookup table
+    BusinessDayIndex(int startYear, int[] lookup) {
+      LocalDate start = LocalDate.of(startYear, 1, 1);
+      this.startEpochDay = start.toEpochDay();
+      int days = (int) (start.plusMonths(lookup.length).toEpochDay() - startEpochDay);
+      this.cumulative = new int[days + 1];
+      int[] offsets = new int[days];
+      int offset = 0;
+      int count = 0;
+      LocalDate firstOfMonth = start;
+      for (int monthData : lookup) {
+        int monthLen = firstOfMonth.lengthOfMonth();
+        for (int dom0 = 0; dom0 < monthLen; dom0++) {
+          cumulative[offset] = count;
+          if ((monthData & (1 << dom0)) != 0) {
+            offsets[count++] = offset;
+          }
+          offset++;
+        }
+        firstOfMonth = firstOfMonth.plusMonths(1);
+      }
+      cumulative[days] = count;
+      this.ordinals = Arrays.copyOf(offsets, count);
+    }
+
+    // shifts the date by the amount of business days, null if out of range
+    LocalDate shift(LocalDate date, int amount) {
+      long offset = date.toEpochDay() - startEpochDay;
+      if (offset < 0 || offset >= cumulative.length - 1) {
+        return null;
+      }
+      // the first business day after the date for positive amounts, or the last before it for negative amounts
+      long target = amount > 0 ? cumulative[(int) offset + 1] + amount - 1L : cumulative[(int) offset] + (long) amount;
+      if (target < 0 || target >= ordinals.length) {
+        return null;
+      }
+      return LocalDate.ofEpochDay(startEpochDay + ordinals[(int) target]);
+    }
+
+    // counts the business days between the dates, negative if out of range
+    int daysBetween(LocalDate startInclusive, LocalDate endExclusive) {
+      long startOffset = startInclusive.toEpochDay() - startEpochDay;
+      long endOffset = endExclusive.toEpochDay() - startEpochDay;
+      if (startOffset < 0 || endOffset >= cumulative.length || startOffset > endOffset) {
+        return -1;
+      }
+      return cumulative[(int) endOffset] - cumulative[(int) startOffset];
+    }
+  }
+
   //------------------------- AUTOGENERATED START -------------------------
   ///CLOVER:OFF
   /**
@@ -383,6 +383,9 @@ public final class PeriodicSchedule
    * If there are explicit stub dates then they will be used.
    * If the stub convention is present, then it will be validated against the stub dates.
    * If the stub convention and stub dates are not present, then no stubs are allowed.
+   * <p>
+   * The schedule is created on each call. Where the same definitions are used many times,
+   * a {@link ScheduleCache} can be used to share the schedules.
    * 
    * @return the schedule
    * @param refData  the reference data, used to find the holiday calendars
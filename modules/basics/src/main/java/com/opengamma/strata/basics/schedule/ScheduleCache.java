@@ -0,0 +1,177 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.basics.schedule;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.ReferenceDataNotFoundException;
+import com.opengamma.strata.basics.date.HolidayCalendar;
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * A bounded cache of schedules created from periodic schedule definitions.
+ * <p>
+ * Trades created from conventions typically share a small number of distinct schedule definitions,
+ * such as those for standard tenors starting on the same date.
+ * This cache allows the {@link Schedule} of each distinct definition to be created once and shared.
+ * <p>
+ * The key is the full {@link PeriodicSchedule} definition plus the holiday calendars it resolves to.
+ * The calendars are compared by identity, as two calendars with the same identifier
+ * may come from different sources of reference data and contain different holidays.
+ * The combined calendars resolved via {@code HolidayCalendarId} are cached, thus are also matched.
+ * <p>
+ * Caching is opt-in, as {@link PeriodicSchedule#createSchedule(ReferenceData)} does not use a cache.
+ * Instead, the application creates a cache, passes the definitions to it, and discards it
+ * when the schedules are no longer needed.
+ * Statistics are recorded so the effectiveness of the cache can be monitored.
+ * <p>
+ * This class is thread-safe.
+ */
+public final class ScheduleCache {
+
+  /**
+   * The underlying cache.
+   */
+  private final Cache<Key, Schedule> cache;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains a cache with the specified maximum size.
+   *
+   * @param maximumSize  the maximum number of schedules to hold
+   * @return the cache
+   */
+  public static ScheduleCache of(int maximumSize) {
+    ArgChecker.notNegative(maximumSize, "maximumSize");
+    return new ScheduleCache(maximumSize);
+  }
+
+  // restricted constructor
+  private ScheduleCache(int maximumSize) {
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maximumSize)
+        .recordStats()
+        .build();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Creates the schedule from the definition, returning a cached schedule if available.
+   * <p>
+   * The result is the same as {@link PeriodicSchedule#createSchedule(ReferenceData)}.
+   * Invalid definitions are not cached, with the exception thrown on each call.
+   * Errors are reported in the same order as {@code createSchedule()}, thus an invalid definition
+   * results in {@link ScheduleException} even if a holiday calendar is also missing.
+   *
+   * @param definition  the schedule definition
+   * @param refData  the reference data, used to find the holiday calendars
+   * @return the schedule
+   * @throws ScheduleException if the definition is invalid
+   */
+  public Schedule createSchedule(PeriodicSchedule definition, ReferenceData refData) {
+    Key key;
+    try {
+      key = new Key(
+          definition,
+          definition.getBusinessDayAdjustment().getCalendar().resolve(refData),
+          definition.calculatedStartDate().getAdjustment().getCalendar().resolve(refData),
+          definition.calculatedEndDate().getAdjustment().getCalendar().resolve(refData));
+    } catch (ReferenceDataNotFoundException ex) {
+      // the definition is validated before the calendars are resolved
+      return definition.createSchedule(refData);
+    }
+    Schedule schedule = cache.getIfPresent(key);
+    if (schedule == null) {
+      // racing threads may both create the schedule, which is harmless as the result is the same
+      schedule = definition.createSchedule(refData);
+      cache.put(key, schedule);
+    }
+    return schedule;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the number of schedules in the cache.
+   *
+   * @return the approximate number of cached schedules
+   */
+  public long size() {
+    return cache.size();
+  }
+
+  /**
+   * Gets the statistics of the cache.
+   * <p>
+   * This includes the number of hits, misses and evictions.
+   *
+   * @return the statistics
+   */
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  /**
+   * Discards all the cached schedules.
+   * <p>
+   * This can be used to release memory once a large set of trades has been resolved.
+   */
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  @Override
+  public String toString() {
+    return "ScheduleCache[size=" + size() + ", " + stats() + "]";
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The cache key, matching the definition by equality and the calendars by identity.
+   */
+  private static final class Key {
+    private final PeriodicSchedule definition;
+    private final HolidayCalendar calendar;
+    private final HolidayCalendar startCalendar;
+    private final HolidayCalendar endCalendar;
+    private final int hashCode;
+
+    private Key(
+        PeriodicSchedule definition,
+        HolidayCalendar calendar,
+        HolidayCalendar startCalendar,
+        HolidayCalendar endCalendar) {
+
+      this.definition = definition;
+      this.calendar = calendar;
+      this.startCalendar = startCalendar;
+      this.endCalendar = endCalendar;
+      this.hashCode = definition.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == this) {
+        return true;
+      }
+      if (obj instanceof Key) {
+        Key other = (Key) obj;
+        return calendar == other.calendar &&
+            startCalendar == other.startCalendar &&
+            endCalendar == other.endCalendar &&
+            definition.equals(other.definition);
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+}
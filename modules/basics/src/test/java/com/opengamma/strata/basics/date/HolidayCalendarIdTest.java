@@ -9,11 +9,15 @@ import static com.opengamma.strata.basics.date.HolidayCalendarIds.NO_HOLIDAYS;
 import static com.opengamma.strata.collect.TestHelper.assertSerialization;
 import static com.opengamma.strata.collect.TestHelper.assertThrows;
 import static com.opengamma.strata.collect.TestHelper.coverPrivateConstructor;
+import static com.opengamma.strata.collect.TestHelper.date;
+import static java.time.DayOfWeek.SATURDAY;
+import static java.time.DayOfWeek.SUNDAY;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertSame;
 
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.opengamma.strata.basics.ImmutableReferenceData;
 import com.opengamma.strata.basics.ReferenceData;
@@ -69,6 +73,29 @@ public class HolidayCalendarIdTest {
     assertEquals(combined.resolve(refData), euCal.combinedWith(gbCal));
   }
 
+  public void test_resolve_combined_immutable() {
+    HolidayCalendarId gb = HolidayCalendarId.of("GB");
+    ImmutableHolidayCalendar gbCal = ImmutableHolidayCalendar.of(gb, ImmutableList.of(date(2016, 8, 29)), SATURDAY, SUNDAY);
+    HolidayCalendarId eu = HolidayCalendarId.of("EU");
+    ImmutableHolidayCalendar euCal = ImmutableHolidayCalendar.of(eu, ImmutableList.of(date(2016, 8, 30)), SATURDAY, SUNDAY);
+    ReferenceData refData = ImmutableReferenceData.of(ImmutableMap.of(gb, gbCal, eu, euCal));
+    HolidayCalendarId combined = gb.combinedWith(eu);
+    HolidayCalendar test = combined.resolve(refData);
+    assertEquals(test instanceof ImmutableHolidayCalendar, true);
+    assertEquals(test.getId(), combined);
+    assertEquals(test.isHoliday(date(2016, 8, 29)), true);
+    assertEquals(test.isHoliday(date(2016, 8, 30)), true);
+    assertEquals(test.isHoliday(date(2016, 8, 31)), false);
+    assertSame(combined.resolve(refData), test);
+    assertSame(HolidayCalendarId.of("GB+EU").resolve(refData), test);
+    // different calendar instances with the same identifiers are not interned together
+    ImmutableHolidayCalendar gbCal2 = ImmutableHolidayCalendar.of(gb, ImmutableList.of(date(2016, 8, 31)), SATURDAY, SUNDAY);
+    ReferenceData refData2 = ImmutableReferenceData.of(ImmutableMap.of(gb, gbCal2, eu, euCal));
+    HolidayCalendar test2 = combined.resolve(refData2);
+    assertEquals(test2.isHoliday(date(2016, 8, 29)), false);
+    assertEquals(test2.isHoliday(date(2016, 8, 31)), true);
+  }
+
   //-------------------------------------------------------------------------
   public void test_combinedWith() {
     HolidayCalendarId gb = HolidayCalendarId.of("GB");
@@ -279,6 +279,18 @@ public class HolidayCalendarTest {
     assertEquals(test, test2);
   }
 
+  public void test_of_combined_interned() {
+    HolidayCalendar test = HolidayCalendars.of("USNY+GBLO");
+    assertEquals(test.getName(), "GBLO+USNY");
+    assertEquals(test instanceof ImmutableHolidayCalendar, true);
+    assertSame(HolidayCalendars.of("USNY+GBLO"), test);
+    HolidayCalendar gblo = HolidayCalendars.of("GBLO");
+    HolidayCalendar usny = HolidayCalendars.of("USNY");
+    LocalDateUtils.stream(LocalDate.of(2014, 1, 1), LocalDate.of(2016, 1, 1)).forEach(date -> {
+      assertEquals(test.isHoliday(date), gblo.isHoliday(date) || usny.isHoliday(date));
+    });
+  }
+
   //-------------------------------------------------------------------------
   @DataProvider(name = "shift")
   static Object[][] data_shift() {
@@ -833,6 +833,37 @@ public class ImmutableHolidayCalendarTest {
     }
   }
 
+  public void test_broadCheck_shiftAndDaysBetween() {
+    LocalDate start = LocalDate.of(2010, 1, 1);
+    LocalDate end = LocalDate.of(2013, 1, 1);
+    Random random = new Random(547698);
+    SortedSet<LocalDate> set = new TreeSet<>();
+    LocalDate date = start;
+    while (date.isBefore(end)) {
+      set.add(date);
+      date = date.plusDays(random.nextInt(10) + 1);
+    }
+    ImmutableHolidayCalendar test = ImmutableHolidayCalendar.of(HolidayCalendarId.of("TestBroad"), set, SATURDAY, SUNDAY);
+    // check shifts and counts that use the index against the one day at a time logic
+    // includes dates and results beyond the end of the holiday data
+    LocalDate checkDate = start.minusDays(20);
+    while (checkDate.isBefore(end.plusDays(20))) {
+      for (int amount : new int[] {-300, -40, -6, 6, 7, 40, 300}) {
+        LocalDate expected = checkDate;
+        for (int i = 0; i < Math.abs(amount); i++) {
+          expected = amount > 0 ? test.next(expected) : test.previous(expected);
+        }
+        assertEquals(test.shift(checkDate, amount), expected);
+      }
+      for (int days : new int[] {0, 1, 5, 100, 600}) {
+        LocalDate endDate = checkDate.plusDays(days);
+        int expected = (int) LocalDateUtils.stream(checkDate, endDate).filter(test::isBusinessDay).count();
+        assertEquals(test.daysBetween(checkDate, endDate), expected);
+      }
+      checkDate = checkDate.plusDays(3);
+    }
+  }
+
   //-------------------------------------------------------------------------
   public void test_equals() {
     ImmutableHolidayCalendar a1 = ImmutableHolidayCalendar.of(TEST_ID, Arrays.asList(WED_2014_07_16), SATURDAY, SUNDAY);
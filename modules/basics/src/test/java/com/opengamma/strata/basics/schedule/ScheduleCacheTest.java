@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.basics.schedule;
+
+import static com.opengamma.strata.basics.date.BusinessDayConventions.MODIFIED_FOLLOWING;
+import static com.opengamma.strata.collect.TestHelper.assertThrows;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static com.opengamma.strata.collect.TestHelper.date;
+import static java.time.DayOfWeek.SATURDAY;
+import static java.time.DayOfWeek.SUNDAY;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.ImmutableReferenceData;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.ReferenceDataNotFoundException;
+import com.opengamma.strata.basics.date.BusinessDayAdjustment;
+import com.opengamma.strata.basics.date.HolidayCalendarId;
+import com.opengamma.strata.basics.date.ImmutableHolidayCalendar;
+
+/**
+ * Test {@link ScheduleCache}.
+ */
+@Test
+public class ScheduleCacheTest {
+
+  private static final HolidayCalendarId CAL_ID = HolidayCalendarId.of("ScheduleCacheTest");
+  private static final ReferenceData REF_DATA = ImmutableReferenceData.of(
+      CAL_ID, ImmutableHolidayCalendar.of(CAL_ID, ImmutableList.of(date(2014, 9, 17)), SATURDAY, SUNDAY));
+  private static final PeriodicSchedule DEFINITION = PeriodicSchedule.builder()
+      .startDate(date(2014, 6, 17))
+      .endDate(date(2016, 6, 17))
+      .frequency(Frequency.P3M)
+      .businessDayAdjustment(BusinessDayAdjustment.of(MODIFIED_FOLLOWING, CAL_ID))
+      .stubConvention(StubConvention.SHORT_INITIAL)
+      .build();
+
+  //-------------------------------------------------------------------------
+  public void test_createSchedule() {
+    ScheduleCache test = ScheduleCache.of(10);
+    Schedule schedule = test.createSchedule(DEFINITION, REF_DATA);
+    assertEquals(schedule, DEFINITION.createSchedule(REF_DATA));
+    assertEquals(schedule.getPeriod(1).getEndDate(), date(2014, 12, 17));
+    assertEquals(schedule.getPeriod(0).getEndDate(), date(2014, 9, 18));
+    assertEquals(test.size(), 1);
+    assertEquals(test.stats().missCount(), 1);
+    assertEquals(test.stats().hitCount(), 0);
+
+    Schedule schedule2 = test.createSchedule(DEFINITION.toBuilder().build(), REF_DATA);
+    assertSame(schedule2, schedule);
+    assertEquals(test.size(), 1);
+    assertEquals(test.stats().missCount(), 1);
+    assertEquals(test.stats().hitCount(), 1);
+
+    test.invalidateAll();
+    assertEquals(test.size(), 0);
+    assertNotSame(test.createSchedule(DEFINITION, REF_DATA), schedule);
+  }
+
+  public void test_createSchedule_differentCalendarInstance() {
+    ScheduleCache test = ScheduleCache.of(10);
+    ReferenceData refData2 = ImmutableReferenceData.of(
+        CAL_ID, ImmutableHolidayCalendar.of(CAL_ID, ImmutableList.of(date(2014, 12, 17)), SATURDAY, SUNDAY));
+    Schedule schedule = test.createSchedule(DEFINITION, REF_DATA);
+    Schedule schedule2 = test.createSchedule(DEFINITION, refData2);
+    assertEquals(test.size(), 2);
+    assertEquals(schedule.getPeriod(0).getEndDate(), date(2014, 9, 18));
+    assertEquals(schedule2.getPeriod(0).getEndDate(), date(2014, 9, 17));
+    assertEquals(schedule2.getPeriod(1).getEndDate(), date(2014, 12, 18));
+  }
+
+  public void test_createSchedule_maximumSize() {
+    ScheduleCache test = ScheduleCache.of(0);
+    Schedule schedule = test.createSchedule(DEFINITION, REF_DATA);
+    assertEquals(test.size(), 0);
+    assertNotSame(test.createSchedule(DEFINITION, REF_DATA), schedule);
+    assertThrowsIllegalArg(() -> ScheduleCache.of(-1));
+  }
+
+  public void test_createSchedule_invalid() {
+    ScheduleCache test = ScheduleCache.of(10);
+    PeriodicSchedule invalid = DEFINITION.toBuilder()
+        .endDate(date(2016, 6, 10))
+        .stubConvention(StubConvention.NONE)
+        .build();
+    assertThrows(() -> test.createSchedule(invalid, REF_DATA), ScheduleException.class);
+    assertEquals(test.size(), 0);
+  }
+
+  public void test_createSchedule_invalidAndMissingCalendar() {
+    ScheduleCache test = ScheduleCache.of(10);
+    PeriodicSchedule invalid = DEFINITION.toBuilder()
+        .endDate(date(2016, 6, 10))
+        .stubConvention(StubConvention.NONE)
+        .build();
+    // the definition is validated before the calendar is found to be missing
+    assertThrows(() -> test.createSchedule(invalid, ReferenceData.empty()), ScheduleException.class);
+    assertThrows(() -> test.createSchedule(DEFINITION, ReferenceData.empty()), ReferenceDataNotFoundException.class);
+    assertEquals(test.size(), 0);
+  }
+
+  public void test_notCachedByDefault() {
+    assertNotSame(DEFINITION.createSchedule(REF_DATA), DEFINITION.createSchedule(REF_DATA));
+  }
+
+}
@@ -11,6 +11,7 @@ import java.util.concurrent.ExecutorService;
 import com.opengamma.strata.basics.CalculationTarget;
 import com.opengamma.strata.basics.ReferenceData;
 import com.opengamma.strata.calc.runner.CalculationListener;
+import com.opengamma.strata.calc.runner.CalculationMetrics;
 import com.opengamma.strata.calc.runner.CalculationTaskRunner;
 import com.opengamma.strata.data.scenario.ScenarioMarketData;
 
@@ -65,6 +66,21 @@ public interface CalculationRunner extends AutoCloseable {
     return DefaultCalculationRunner.of(executor);
   }
 
+  /**
+   * Creates a calculation runner capable of performing calculations, specifying the executor
+   * and the metrics recording the performance of each calculation.
+   * <p>
+   * The metrics record the time taken by each calculation function, measure and target type.
+   * It is the callers responsibility to manage the life-cycle of the executor.
+   * 
+   * @param executor  the executor to use
+   * @param metrics  the metrics to record
+   * @return the calculation runner
+   */
+  public static CalculationRunner of(ExecutorService executor, CalculationMetrics metrics) {
+    return DefaultCalculationRunner.of(executor, metrics);
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Performs calculations for a single set of market data.
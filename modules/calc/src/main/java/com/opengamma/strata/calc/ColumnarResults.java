@@ -0,0 +1,326 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.Messages;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.data.scenario.CurrencyValuesArray;
+
+/**
+ * Results of performing calculations for a set of targets over a set of scenarios, stored by column.
+ * <p>
+ * This is an alternative to {@link Results} for calculations producing a large number of scalar values.
+ * Successful cells containing a {@link CurrencyAmount} or a {@link CurrencyValuesArray} are stored
+ * in primitive arrays, one per column, holding the values of all the rows for the first scenario,
+ * followed by the values of all the rows for the second scenario, and so on.
+ * The currency of each row is stored alongside.
+ * All other cells, including failures, are stored in a sparse map.
+ * <p>
+ * The result of a cell is created when it is requested by {@link #get(int, int)}.
+ * Each column stores either currency amounts or currency arrays, as determined by the first value stored.
+ * Values of the other type, or with a different number of scenarios, are stored in the sparse map.
+ * <p>
+ * Instances are created using {@link #builder(List, int)} or converted from {@link Results}.
+ * This class is immutable and thread-safe.
+ */
+public final class ColumnarResults {
+
+  /**
+   * The column headers.
+   */
+  private final ImmutableList<ColumnHeader> columns;
+  /**
+   * The number of rows.
+   */
+  private final int rowCount;
+  /**
+   * The primitive storage of each column, null if the column has no primitive values.
+   */
+  private final ColumnValues[] columnValues;
+  /**
+   * The cells that are not stored as primitives, keyed by cell index.
+   */
+  private final ImmutableMap<Integer, Result<?>> otherCells;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance containing the same results as the specified results.
+   *
+   * @param results  the results
+   * @return the columnar results
+   */
+  public static ColumnarResults of(Results results) {
+    ArgChecker.notNull(results, "results");
+    Builder builder = builder(results.getColumns(), results.getRowCount());
+    for (int row = 0; row < results.getRowCount(); row++) {
+      for (int column = 0; column < results.getColumnCount(); column++) {
+        builder.set(row, column, results.get(row, column));
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns a builder used to create the results.
+   * <p>
+   * The result of every cell must be set before building.
+   *
+   * @param columns  the column headers
+   * @param rowCount  the number of rows
+   * @return the builder
+   */
+  public static Builder builder(List<ColumnHeader> columns, int rowCount) {
+    return new Builder(columns, rowCount);
+  }
+
+  // restricted constructor
+  private ColumnarResults(
+      ImmutableList<ColumnHeader> columns,
+      int rowCount,
+      ColumnValues[] columnValues,
+      ImmutableMap<Integer, Result<?>> otherCells) {
+
+    this.columns = columns;
+    this.rowCount = rowCount;
+    this.columnValues = columnValues;
+    this.otherCells = otherCells;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the column headers.
+   *
+   * @return the column headers
+   */
+  public ImmutableList<ColumnHeader> getColumns() {
+    return columns;
+  }
+
+  /**
+   * Gets the number of rows in the results.
+   * <p>
+   * The number of rows equals the number of targets input to the calculation.
+   *
+   * @return the number of rows
+   */
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * Gets the number of columns in the results.
+   *
+   * @return the number of columns
+   */
+  public int getColumnCount() {
+    return columns.size();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns the results for a target and column for a set of scenarios.
+   * <p>
+   * Results stored as primitives are converted back to a result each time they are requested.
+   *
+   * @param rowIndex   the index of the row containing the results for a target
+   * @param columnIndex  the index of the column
+   * @return the results for the specified row and column for a set of scenarios
+   */
+  public Result<?> get(int rowIndex, int columnIndex) {
+    ArgChecker.inRange(rowIndex, 0, rowCount, "rowIndex");
+    ArgChecker.inRange(columnIndex, 0, columns.size(), "columnIndex");
+    ColumnValues values = columnValues[columnIndex];
+    if (values != null && values.currencies[rowIndex] != null) {
+      return Result.success(values.get(rowIndex, rowCount));
+    }
+    return otherCells.get(rowIndex * columns.size() + columnIndex);
+  }
+
+  /**
+   * Converts these results to an instance of {@link Results}.
+   * <p>
+   * This creates the result of every cell.
+   *
+   * @return the results
+   */
+  public Results toResults() {
+    List<Result<?>> cells = new ArrayList<>(rowCount * columns.size());
+    for (int row = 0; row < rowCount; row++) {
+      for (int column = 0; column < columns.size(); column++) {
+        cells.add(get(row, column));
+      }
+    }
+    return Results.of(columns, cells);
+  }
+
+  @Override
+  public String toString() {
+    return Messages.format("ColumnarResults[columns={}, rowCount={}]", columns, rowCount);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The primitive values of a column.
+   */
+  private static final class ColumnValues {
+
+    /** Whether the values are currency amounts, rather than currency arrays. */
+    private final boolean amounts;
+    /** The number of scenarios. */
+    private final int scenarioCount;
+    /** The values, indexed by scenario then row. */
+    private final double[] values;
+    /** The currency of each row, null if the row is not stored as primitives. */
+    private final Currency[] currencies;
+
+    private ColumnValues(boolean amounts, int scenarioCount, int rowCount) {
+      this.amounts = amounts;
+      this.scenarioCount = scenarioCount;
+      this.values = new double[Math.multiplyExact(scenarioCount, rowCount)];
+      this.currencies = new Currency[rowCount];
+    }
+
+    // stores the value if it is compatible with the column, returning true if stored
+    private boolean set(int row, int rowCount, Object value) {
+      if (amounts && value instanceof CurrencyAmount) {
+        CurrencyAmount amount = (CurrencyAmount) value;
+        values[row] = amount.getAmount();
+        currencies[row] = amount.getCurrency();
+        return true;
+      }
+      if (!amounts && value instanceof CurrencyValuesArray) {
+        CurrencyValuesArray array = (CurrencyValuesArray) value;
+        if (array.getScenarioCount() != scenarioCount) {
+          return false;
+        }
+        DoubleArray arrayValues = array.getValues();
+        for (int scenario = 0; scenario < scenarioCount; scenario++) {
+          values[scenario * rowCount + row] = arrayValues.get(scenario);
+        }
+        currencies[row] = array.getCurrency();
+        return true;
+      }
+      return false;
+    }
+
+    // creates the value of the row
+    private Object get(int row, int rowCount) {
+      if (amounts) {
+        return CurrencyAmount.of(currencies[row], values[row]);
+      }
+      double[] rowValues = new double[scenarioCount];
+      for (int scenario = 0; scenario < scenarioCount; scenario++) {
+        rowValues[scenario] = values[scenario * rowCount + row];
+      }
+      return CurrencyValuesArray.of(currencies[row], DoubleArray.ofUnsafe(rowValues));
+    }
+
+    // creates the storage suitable for the value, null if the value cannot be stored as primitives
+    private static ColumnValues of(Object value, int rowCount) {
+      if (value instanceof CurrencyAmount) {
+        return new ColumnValues(true, 1, rowCount);
+      }
+      if (value instanceof CurrencyValuesArray) {
+        int scenarioCount = ((CurrencyValuesArray) value).getScenarioCount();
+        // the values of the column must fit in a single array
+        if ((long) scenarioCount * rowCount > Integer.MAX_VALUE) {
+          return null;
+        }
+        return new ColumnValues(false, scenarioCount, rowCount);
+      }
+      return null;
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Builder for columnar results.
+   * <p>
+   * The primitive storage of each column is allocated when the first suitable value is set.
+   * The storage is shared with the built results, thus the builder must not be used after building.
+   * This builder is not thread-safe.
+   */
+  public static final class Builder {
+
+    /** The column headers. */
+    private final ImmutableList<ColumnHeader> columns;
+    /** The number of rows. */
+    private final int rowCount;
+    /** The primitive storage of each column. */
+    private final ColumnValues[] columnValues;
+    /** The cells that are not stored as primitives, keyed by cell index. */
+    private final Map<Integer, Result<?>> otherCells = new HashMap<>();
+    /** The cells that have been set. */
+    private final BitSet setCells;
+
+    private Builder(List<ColumnHeader> columns, int rowCount) {
+      this.columns = ImmutableList.copyOf(ArgChecker.notNull(columns, "columns"));
+      this.rowCount = ArgChecker.notNegative(rowCount, "rowCount");
+      long cellCount = (long) rowCount * columns.size();
+      ArgChecker.isTrue(cellCount <= Integer.MAX_VALUE, "Number of cells must not exceed {}", Integer.MAX_VALUE);
+      this.columnValues = new ColumnValues[columns.size()];
+      this.setCells = new BitSet(rowCount * columns.size());
+    }
+
+    /**
+     * Sets the result of a cell.
+     * <p>
+     * A cell can only be set once.
+     *
+     * @param rowIndex  the index of the row
+     * @param columnIndex  the index of the column
+     * @param result  the result of the cell
+     * @return this builder
+     */
+    public Builder set(int rowIndex, int columnIndex, Result<?> result) {
+      ArgChecker.inRange(rowIndex, 0, rowCount, "rowIndex");
+      ArgChecker.inRange(columnIndex, 0, columns.size(), "columnIndex");
+      ArgChecker.notNull(result, "result");
+      int index = rowIndex * columns.size() + columnIndex;
+      ArgChecker.isFalse(setCells.get(index), "Result already set for row {} and column {}", rowIndex, columnIndex);
+      setCells.set(index);
+      if (result.isSuccess()) {
+        Object value = result.getValue();
+        if (columnValues[columnIndex] == null) {
+          columnValues[columnIndex] = ColumnValues.of(value, rowCount);
+        }
+        if (columnValues[columnIndex] != null && columnValues[columnIndex].set(rowIndex, rowCount, value)) {
+          return this;
+        }
+      }
+      otherCells.put(index, result);
+      return this;
+    }
+
+    /**
+     * Builds the results.
+     *
+     * @return the results
+     * @throws IllegalStateException if the result of any cell has not been set
+     */
+    public ColumnarResults build() {
+      int missing = setCells.nextClearBit(0);
+      if (missing < rowCount * columns.size()) {
+        throw new IllegalStateException(Messages.format(
+            "Result not set for row {} and column {}", missing / columns.size(), missing % columns.size()));
+      }
+      return new ColumnarResults(columns, rowCount, columnValues, ImmutableMap.copyOf(otherCells));
+    }
+  }
+
+}
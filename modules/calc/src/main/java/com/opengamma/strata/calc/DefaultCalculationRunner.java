@@ -11,6 +11,7 @@ import java.util.concurrent.ExecutorService;
 import com.opengamma.strata.basics.CalculationTarget;
 import com.opengamma.strata.basics.ReferenceData;
 import com.opengamma.strata.calc.runner.CalculationListener;
+import com.opengamma.strata.calc.runner.CalculationMetrics;
 import com.opengamma.strata.calc.runner.CalculationTaskRunner;
 import com.opengamma.strata.calc.runner.CalculationTasks;
 import com.opengamma.strata.collect.ArgChecker;
@@ -58,6 +59,20 @@ class DefaultCalculationRunner implements CalculationRunner {
     return new DefaultCalculationRunner(CalculationTaskRunner.of(executor));
   }
 
+  /**
+   * Creates a calculation runner capable of performing calculations, specifying the executor
+   * and the metrics recording the performance of each calculation.
+   * <p>
+   * It is the callers responsibility to manage the life-cycle of the executor.
+   * 
+   * @param executor  the executor to use
+   * @param metrics  the metrics to record
+   * @return the calculation runner
+   */
+  static DefaultCalculationRunner of(ExecutorService executor, CalculationMetrics metrics) {
+    return new DefaultCalculationRunner(CalculationTaskRunner.of(executor, metrics));
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Creates an instance specifying the underlying task runner to use.
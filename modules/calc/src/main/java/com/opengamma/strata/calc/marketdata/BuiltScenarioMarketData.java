@@ -5,6 +5,7 @@
  */
 package com.opengamma.strata.calc.marketdata;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -49,6 +50,8 @@ import com.opengamma.strata.data.scenario.ScenarioMarketData;
  * This implementation differs from {@link ImmutableScenarioMarketData} because it
  * stores the failures that occurred during the build process.
  * These errors are exposed to users when data is queried.
+ * The time taken to build each item of non-observable market data is also stored,
+ * allowing the expensive items, such as curve groups, to be identified.
  */
 @BeanDefinition(builderScope = "private", constructorScope = "package")
 public final class BuiltScenarioMarketData
@@ -56,7 +59,7 @@ public final class BuiltScenarioMarketData
 
   /** An instance containing no market data. */
   private static final BuiltScenarioMarketData EMPTY = new BuiltScenarioMarketData(
-      ImmutableScenarioMarketData.empty(), ImmutableMap.of(), ImmutableMap.of());
+      ImmutableScenarioMarketData.empty(), ImmutableMap.of(), ImmutableMap.of(), ImmutableMap.of());
 
   /**
    * The underlying market data.
@@ -73,6 +76,15 @@ public final class BuiltScenarioMarketData
    */
   @PropertyDefinition(validate = "notNull", builderType = "Map<? extends MarketDataId<?>, Failure>")
   private final ImmutableMap<MarketDataId<?>, Failure> timeSeriesFailures;
+  /**
+   * The time taken to build each item of non-observable market data.
+   * <p>
+   * This contains an entry for each value built by a {@link MarketDataFunction}, whether it succeeded or failed.
+   * Values that were supplied, or that are observable, have no entry.
+   * The times vary between builds, thus they are not included in {@code equals()} and {@code hashCode()}.
+   */
+  @PropertyDefinition(validate = "notNull", builderType = "Map<? extends MarketDataId<?>, Duration>", equalsHashCodeStyle = "omit")
+  private final ImmutableMap<MarketDataId<?>, Duration> buildTimes;
 
   //-------------------------------------------------------------------------
   /**
@@ -191,17 +203,21 @@ public final class BuiltScenarioMarketData
    * @param marketData  the value of the property, not null
    * @param valueFailures  the value of the property, not null
    * @param timeSeriesFailures  the value of the property, not null
+   * @param buildTimes  the value of the property, not null
    */
   BuiltScenarioMarketData(
       ImmutableScenarioMarketData marketData,
       Map<? extends MarketDataId<?>, Failure> valueFailures,
-      Map<? extends MarketDataId<?>, Failure> timeSeriesFailures) {
+      Map<? extends MarketDataId<?>, Failure> timeSeriesFailures,
+      Map<? extends MarketDataId<?>, Duration> buildTimes) {
     JodaBeanUtils.notNull(marketData, "marketData");
     JodaBeanUtils.notNull(valueFailures, "valueFailures");
     JodaBeanUtils.notNull(timeSeriesFailures, "timeSeriesFailures");
+    JodaBeanUtils.notNull(buildTimes, "buildTimes");
     this.marketData = marketData;
     this.valueFailures = ImmutableMap.copyOf(valueFailures);
     this.timeSeriesFailures = ImmutableMap.copyOf(timeSeriesFailures);
+    this.buildTimes = ImmutableMap.copyOf(buildTimes);
   }
 
   @Override
@@ -246,6 +262,18 @@ public final class BuiltScenarioMarketData
     return timeSeriesFailures;
   }
 
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the time taken to build each item of non-observable market data.
+   * <p>
+   * This contains an entry for each value built by a {@link MarketDataFunction}, whether it succeeded or failed.
+   * Values that were supplied, or that are observable, have no entry.
+   * @return the value of the property, not null
+   */
+  public ImmutableMap<MarketDataId<?>, Duration> getBuildTimes() {
+    return buildTimes;
+  }
+
   //-----------------------------------------------------------------------
   @Override
   public boolean equals(Object obj) {
@@ -272,11 +300,12 @@ public final class BuiltScenarioMarketData
 
   @Override
   public String toString() {
-    StringBuilder buf = new StringBuilder(128);
+    StringBuilder buf = new StringBuilder(160);
     buf.append("BuiltScenarioMarketData{");
     buf.append("marketData").append('=').append(marketData).append(',').append(' ');
     buf.append("valueFailures").append('=').append(valueFailures).append(',').append(' ');
-    buf.append("timeSeriesFailures").append('=').append(JodaBeanUtils.toString(timeSeriesFailures));
+    buf.append("timeSeriesFailures").append('=').append(timeSeriesFailures).append(',').append(' ');
+    buf.append("buildTimes").append('=').append(JodaBeanUtils.toString(buildTimes));
     buf.append('}');
     return buf.toString();
   }
@@ -308,6 +337,12 @@ public final class BuiltScenarioMarketData
     @SuppressWarnings({"unchecked", "rawtypes" })
     private final MetaProperty<ImmutableMap<MarketDataId<?>, Failure>> timeSeriesFailures = DirectMetaProperty.ofImmutable(
         this, "timeSeriesFailures", BuiltScenarioMarketData.class, (Class) ImmutableMap.class);
+    /**
+     * The meta-property for the {@code buildTimes} property.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes" })
+    private final MetaProperty<ImmutableMap<MarketDataId<?>, Duration>> buildTimes = DirectMetaProperty.ofImmutable(
+        this, "buildTimes", BuiltScenarioMarketData.class, (Class) ImmutableMap.class);
     /**
      * The meta-properties.
      */
@@ -315,7 +350,8 @@ public final class BuiltScenarioMarketData
         this, null,
         "marketData",
         "valueFailures",
-        "timeSeriesFailures");
+        "timeSeriesFailures",
+        "buildTimes");
 
     /**
      * Restricted constructor.
@@ -332,6 +368,8 @@ public final class BuiltScenarioMarketData
           return valueFailures;
         case -1580093459:  // timeSeriesFailures
           return timeSeriesFailures;
+        case -480893576:  // buildTimes
+          return buildTimes;
       }
       return super.metaPropertyGet(propertyName);
     }
@@ -376,6 +414,14 @@ public final class BuiltScenarioMarketData
       return timeSeriesFailures;
     }
 
+    /**
+     * The meta-property for the {@code buildTimes} property.
+     * @return the meta-property, not null
+     */
+    public MetaProperty<ImmutableMap<MarketDataId<?>, Duration>> buildTimes() {
+      return buildTimes;
+    }
+
     //-----------------------------------------------------------------------
     @Override
     protected Object propertyGet(Bean bean, String propertyName, boolean quiet) {
@@ -386,6 +432,8 @@ public final class BuiltScenarioMarketData
           return ((BuiltScenarioMarketData) bean).getValueFailures();
         case -1580093459:  // timeSeriesFailures
           return ((BuiltScenarioMarketData) bean).getTimeSeriesFailures();
+        case -480893576:  // buildTimes
+          return ((BuiltScenarioMarketData) bean).getBuildTimes();
       }
       return super.propertyGet(bean, propertyName, quiet);
     }
@@ -410,6 +458,7 @@ public final class BuiltScenarioMarketData
     private ImmutableScenarioMarketData marketData;
     private Map<? extends MarketDataId<?>, Failure> valueFailures = ImmutableMap.of();
     private Map<? extends MarketDataId<?>, Failure> timeSeriesFailures = ImmutableMap.of();
+    private Map<? extends MarketDataId<?>, Duration> buildTimes = ImmutableMap.of();
 
     /**
      * Restricted constructor.
@@ -427,6 +476,8 @@ public final class BuiltScenarioMarketData
           return valueFailures;
         case -1580093459:  // timeSeriesFailures
           return timeSeriesFailures;
+        case -480893576:  // buildTimes
+          return buildTimes;
         default:
           throw new NoSuchElementException("Unknown property: " + propertyName);
       }
@@ -445,6 +496,9 @@ public final class BuiltScenarioMarketData
         case -1580093459:  // timeSeriesFailures
           this.timeSeriesFailures = (Map<? extends MarketDataId<?>, Failure>) newValue;
           break;
+        case -480893576:  // buildTimes
+          this.buildTimes = (Map<? extends MarketDataId<?>, Duration>) newValue;
+          break;
         default:
           throw new NoSuchElementException("Unknown property: " + propertyName);
       }
@@ -480,17 +534,19 @@ public final class BuiltScenarioMarketData
       return new BuiltScenarioMarketData(
           marketData,
           valueFailures,
-          timeSeriesFailures);
+          timeSeriesFailures,
+          buildTimes);
     }
 
     //-----------------------------------------------------------------------
     @Override
     public String toString() {
-      StringBuilder buf = new StringBuilder(128);
+      StringBuilder buf = new StringBuilder(160);
       buf.append("BuiltScenarioMarketData.Builder{");
       buf.append("marketData").append('=').append(JodaBeanUtils.toString(marketData)).append(',').append(' ');
       buf.append("valueFailures").append('=').append(JodaBeanUtils.toString(valueFailures)).append(',').append(' ');
-      buf.append("timeSeriesFailures").append('=').append(JodaBeanUtils.toString(timeSeriesFailures));
+      buf.append("timeSeriesFailures").append('=').append(JodaBeanUtils.toString(timeSeriesFailures)).append(',').append(' ');
+      buf.append("buildTimes").append('=').append(JodaBeanUtils.toString(buildTimes));
       buf.append('}');
       return buf.toString();
     }
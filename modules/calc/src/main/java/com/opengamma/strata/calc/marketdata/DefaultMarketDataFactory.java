@@ -9,16 +9,29 @@ import static com.opengamma.strata.collect.Guavate.not;
 import static com.opengamma.strata.collect.Guavate.toImmutableMap;
 import static com.opengamma.strata.collect.Guavate.toImmutableSet;
 
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.MapStream;
+import com.opengamma.strata.collect.result.Failure;
 import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
 import com.opengamma.strata.collect.tuple.Pair;
 import com.opengamma.strata.data.MarketDataId;
 import com.opengamma.strata.data.ObservableId;
@@ -29,6 +42,17 @@ import com.opengamma.strata.data.scenario.ScenarioMarketData;
  * The default market data factory.
  * <p>
  * This uses two providers, one for observable data and one for time-series.
+ * <p>
+ * The market data is built one level of the dependency tree at a time.
+ * Within a level, the non-observable values and the time-series are independent of one another,
+ * and are built using the executor. By default this is a direct executor, building the values sequentially.
+ * An executor backed by a thread-pool can be specified to build the values of each level concurrently.
+ * <p>
+ * The observable data and the time-series of a level are each requested in one batch using the
+ * asynchronous methods of the providers. All the requests of a level are issued before waiting for any of them,
+ * thus a provider completing its futures asynchronously does not block the other requests of the level.
+ * The results are added to the market data in a deterministic order, whatever the order of completion.
+ * The time taken to build each non-observable value is available from {@link BuiltScenarioMarketData#getBuildTimes()}.
  */
 final class DefaultMarketDataFactory implements MarketDataFactory {
 
@@ -41,6 +65,9 @@ final class DefaultMarketDataFactory implements MarketDataFactory {
   /** Market data functions, keyed by the type of the market data ID they can handle. */
   private final Map<Class<? extends MarketDataId<?>>, MarketDataFunction<?, ?>> functions;
 
+  /** Executes the tasks building the market data of each level of the dependency tree. */
+  private final Executor executor;
+
   //-------------------------------------------------------------------------
   /**
    * Creates an instance of the factory based on providers of market data and time-series.
@@ -51,12 +78,32 @@ final class DefaultMarketDataFactory implements MarketDataFactory {
    * @param timeSeriesProvider  the provider time-series
    * @param functions  the functions that create the market data
    */
-  @SuppressWarnings("unchecked")
   DefaultMarketDataFactory(
       ObservableDataProvider observableDataProvider,
       TimeSeriesProvider timeSeriesProvider,
       List<MarketDataFunction<?, ?>> functions) {
 
+    this(observableDataProvider, timeSeriesProvider, MoreExecutors.directExecutor(), functions);
+  }
+
+  /**
+   * Creates an instance of the factory based on providers of market data and time-series,
+   * building the market data using the specified executor.
+   * <p>
+   * The market data functions are used to build the market data.
+   *
+   * @param observableDataProvider  the provider observable market data
+   * @param timeSeriesProvider  the provider time-series
+   * @param executor  the executor used to build the independent items of market data of each level
+   * @param functions  the functions that create the market data
+   */
+  DefaultMarketDataFactory(
+      ObservableDataProvider observableDataProvider,
+      TimeSeriesProvider timeSeriesProvider,
+      Executor executor,
+      List<MarketDataFunction<?, ?>> functions) {
+
+    this.executor = ArgChecker.notNull(executor, "executor");
     this.observableDataProvider = observableDataProvider;
     this.timeSeriesProvider = timeSeriesProvider;
 
@@ -87,13 +134,40 @@ final class DefaultMarketDataFactory implements MarketDataFactory {
       ReferenceData refData,
       ScenarioDefinition scenarioDefinition) {
 
-    BuiltScenarioMarketDataBuilder dataBuilder = BuiltScenarioMarketData.builder(suppliedData.getValuationDate());
-    BuiltScenarioMarketData builtData = dataBuilder.build();
-
     // Build a tree of the market data dependencies. The root of the tree represents the calculations.
     // The children of the root represent the market data directly used in the calculations. The children
     // of those nodes represent the market data required to build that data, and so on
     MarketDataNode root = MarketDataNode.buildDependencyTree(requirements, suppliedData, marketDataConfig, functions);
+    BuiltScenarioMarketDataBuilder dataBuilder = BuiltScenarioMarketData.builder(suppliedData.getValuationDate());
+    return buildMarketData(
+        root, marketDataConfig, suppliedData, refData, scenarioDefinition, observableDataProvider, dataBuilder);
+  }
+
+  /**
+   * Builds the market data of the dependency tree, adding it to the builder.
+   * <p>
+   * Market data already present in the builder is not built again.
+   *
+   * @param dependencyTree  the root of the dependency tree
+   * @param marketDataConfig  configuration needed to build non-observable market data
+   * @param suppliedData  market data supplied by the user
+   * @param refData  the reference data
+   * @param scenarioDefinition  the definition of the scenarios
+   * @param observableDataProvider  the provider of observable market data
+   * @param dataBuilder  the builder, containing the market data that is already available
+   * @return the market data
+   */
+  private BuiltScenarioMarketData buildMarketData(
+      MarketDataNode dependencyTree,
+      MarketDataConfig marketDataConfig,
+      ScenarioMarketData suppliedData,
+      ReferenceData refData,
+      ScenarioDefinition scenarioDefinition,
+      ObservableDataProvider observableDataProvider,
+      BuiltScenarioMarketDataBuilder dataBuilder) {
+
+    MarketDataNode root = dependencyTree;
+    BuiltScenarioMarketData builtData = dataBuilder.build();
 
     // The leaf nodes of the dependency tree represent market data with no missing requirements for market data.
     // This includes:
@@ -123,13 +197,41 @@ final class DefaultMarketDataFactory implements MarketDataFactory {
       // The requirements contained in the leaf nodes
       MarketDataRequirements leafRequirements = pair.getSecond();
 
-      // Time series of observable data ------------------------------------------------------------
+      // Find the IDs of the data that is not already available ----------------------------------
 
-      // Build any time series that are required but not available
-      leafRequirements.getTimeSeries().stream()
+      Set<ObservableId> timeSeriesIds = leafRequirements.getTimeSeries().stream()
           .filter(id -> marketData.getTimeSeries(id).isEmpty())
           .filter(id -> suppliedData.getTimeSeries(id).isEmpty())
-          .forEach(id -> dataBuilder.addTimeSeriesResult(id, timeSeriesProvider.provideTimeSeries(id)));
+          .collect(toImmutableSet());
+
+      Set<ObservableId> observableIds = leafRequirements.getObservables().stream()
+          .filter(not(marketData::containsValue))
+          .filter(not(suppliedData::containsValue))
+          .collect(toImmutableSet());
+
+      Set<MarketDataId<?>> nonObservableIds = leafRequirements.getNonObservables().stream()
+          .filter(not(marketData::containsValue))
+          .filter(not(suppliedData::containsValue))
+          .collect(toImmutableSet());
+
+      // Issue all the requests of the level before waiting for any of them, so the latency of
+      // the providers overlaps with one another and with the building of the non-observable data.
+      // Observable data and time-series are requested in bulk so they can be efficiently requested
+      // from the data providers in one operation
+      CompletableFuture<Map<ObservableId, Result<LocalDateDoubleTimeSeries>>> timeSeriesFuture =
+          timeSeriesIds.isEmpty() ?
+              CompletableFuture.completedFuture(ImmutableMap.of()) :
+              timeSeriesProvider.provideTimeSeriesAsync(timeSeriesIds, executor);
+      CompletableFuture<Map<ObservableId, Result<Double>>> observableFuture =
+          observableIds.isEmpty() ?
+              CompletableFuture.completedFuture(ImmutableMap.of()) :
+              observableDataProvider.provideObservableDataAsync(observableIds, executor);
+      Map<MarketDataId<?>, CompletableFuture<Pair<Result<MarketDataBox<?>>, Duration>>> nonObservableFutures =
+          buildNonObservableData(nonObservableIds, marketDataConfig, marketData, refData);
+
+      // Time series of observable data ------------------------------------------------------------
+
+      MapStream.of(join(timeSeriesFuture)).forEach(dataBuilder::addTimeSeriesResult);
 
       // Copy supplied time series to the scenario data
       leafRequirements.getTimeSeries().stream()
@@ -138,17 +240,8 @@ final class DefaultMarketDataFactory implements MarketDataFactory {
 
       // Single values of observable data -----------------------------------------------------------
 
-      // Filter out IDs for the data that is already available
-      Set<ObservableId> observableIds = leafRequirements.getObservables().stream()
-          .filter(not(marketData::containsValue))
-          .filter(not(suppliedData::containsValue))
-          .collect(toImmutableSet());
-
-      // Observable data is built in bulk so it can be efficiently requested from data provider in one operation
-      if (!observableIds.isEmpty()) {
-        Map<ObservableId, Result<Double>> observableResults = observableDataProvider.provideObservableData(observableIds);
-        MapStream.of(observableResults).forEach((id, res) -> addObservableResult(id, res, scenarioDefinition, dataBuilder));
-      }
+      MapStream.of(join(observableFuture))
+          .forEach((id, res) -> addObservableResult(id, res, scenarioDefinition, dataBuilder));
 
       // Copy observable data from the supplied data to the builder, applying any matching perturbations
       leafRequirements.getObservables().stream()
@@ -157,16 +250,11 @@ final class DefaultMarketDataFactory implements MarketDataFactory {
 
       // Non-observable data -----------------------------------------------------------------------
 
-      // Filter out IDs for the data that is already available and build the rest
-      Set<MarketDataId<?>> nonObservableIds = leafRequirements.getNonObservables().stream()
-          .filter(not(marketData::containsValue))
-          .filter(not(suppliedData::containsValue))
-          .collect(toImmutableSet());
-
-      Map<MarketDataId<?>, Result<MarketDataBox<?>>> nonObservableResults =
-          buildNonObservableData(nonObservableIds, marketDataConfig, marketData, refData);
-
-      MapStream.of(nonObservableResults).forEach((id, result) -> addResult(id, result, scenarioDefinition, dataBuilder));
+      MapStream.of(nonObservableFutures).forEach((id, future) -> {
+        Pair<Result<MarketDataBox<?>>, Duration> timedResult = join(future);
+        addResult(id, timedResult.getFirst(), scenarioDefinition, dataBuilder);
+        dataBuilder.addBuildTime(id, timedResult.getSecond());
+      });
 
       // Copy supplied data to the scenario data after applying perturbations
       leafRequirements.getNonObservables().stream()
@@ -185,17 +273,240 @@ final class DefaultMarketDataFactory implements MarketDataFactory {
   }
 
   //-------------------------------------------------------------------------
+  @Override
+  public IncrementalMarketData buildIncrementalMarketData(
+      MarketDataRequirements requirements,
+      MarketDataConfig marketDataConfig,
+      ScenarioMarketData suppliedData,
+      ReferenceData refData,
+      ScenarioDefinition scenarioDefinition) {
+
+    MarketDataNode root = MarketDataNode.buildDependencyTree(requirements, suppliedData, marketDataConfig, functions);
+
+    // The observable data is recorded so it can be compared to the data provided when rebuilding
+    // The results are recorded when the futures complete, and are only read after the futures are joined
+    Map<ObservableId, Result<Double>> providedData = new ConcurrentHashMap<>();
+    ObservableDataProvider recordingProvider = new ObservableDataProvider() {
+
+      @Override
+      public Map<ObservableId, Result<Double>> provideObservableData(Set<? extends ObservableId> ids) {
+        Map<ObservableId, Result<Double>> results = observableDataProvider.provideObservableData(ids);
+        providedData.putAll(results);
+        return results;
+      }
+
+      @Override
+      public CompletableFuture<Map<ObservableId, Result<Double>>> provideObservableDataAsync(
+          Set<? extends ObservableId> ids,
+          Executor executor) {
+
+        return observableDataProvider.provideObservableDataAsync(ids, executor)
+            .thenApply(results -> {
+              providedData.putAll(results);
+              return results;
+            });
+      }
+    };
+    BuiltScenarioMarketDataBuilder dataBuilder = BuiltScenarioMarketData.builder(suppliedData.getValuationDate());
+    BuiltScenarioMarketData builtData = buildMarketData(
+        root, marketDataConfig, suppliedData, refData, scenarioDefinition, recordingProvider, dataBuilder);
+
+    Set<MarketDataId<?>> rebuiltIds = new HashSet<>();
+    findRebuiltIds(root, node -> true, rebuiltIds);
+    return new IncrementalMarketData(
+        requirements,
+        marketDataConfig,
+        suppliedData,
+        refData,
+        scenarioDefinition,
+        root,
+        providedData,
+        builtData,
+        rebuiltIds);
+  }
+
+  @Override
+  public IncrementalMarketData rebuildMarketData(IncrementalMarketData previous, ScenarioMarketData suppliedData) {
+    MarketDataNode root = previous.getDependencyTree();
+    ScenarioMarketData previousSuppliedData = previous.getSuppliedData();
+
+    // The shape of the dependency tree depends on which items of market data are supplied.
+    // If these have changed, or the valuation date has changed, the market data is built in full
+    if (!suppliedData.getValuationDate().equals(previousSuppliedData.getValuationDate()) ||
+        !isSameDataSupplied(root, suppliedData, previousSuppliedData)) {
+
+      return buildIncrementalMarketData(
+          previous.getRequirements(),
+          previous.getMarketDataConfig(),
+          suppliedData,
+          previous.getRefData(),
+          previous.getScenarioDefinition());
+    }
+
+    // The observable data that is not supplied is requested again in bulk and compared to the previous data.
+    // Time-series that are not supplied are historic data and are reused without being requested again
+    Set<ObservableId> providedIds = new HashSet<>();
+    findProvidedIds(root, suppliedData, providedIds);
+    Map<ObservableId, Result<Double>> providedData = providedIds.isEmpty() ?
+        ImmutableMap.of() :
+        observableDataProvider.provideObservableData(providedIds);
+
+    // The values whose inputs have changed must be rebuilt, along with all the values depending on them
+    Set<MarketDataId<?>> rebuiltIds = new HashSet<>();
+    findRebuiltIds(
+        root,
+        node -> isChanged(node, suppliedData, previousSuppliedData, providedData, previous.getProvidedData()),
+        rebuiltIds);
+
+    // All the other data is reused from the previous build, and will not be built again
+    BuiltScenarioMarketData previousData = previous.getMarketData();
+    Map<MarketDataId<?>, MarketDataBox<?>> reusedValues = MapStream.of(previousData.getMarketData().getValues())
+        .filterKeys(not(rebuiltIds::contains))
+        .toMap();
+    Map<MarketDataId<?>, Failure> reusedFailures = MapStream.of(previousData.getValueFailures())
+        .filterKeys(not(rebuiltIds::contains))
+        .toMap();
+    BuiltScenarioMarketDataBuilder dataBuilder = new BuiltScenarioMarketDataBuilder(
+        previousData.getValuationDate(),
+        previousData.getScenarioCount(),
+        reusedValues,
+        previousData.getMarketData().getTimeSeries(),
+        reusedFailures,
+        previousData.getTimeSeriesFailures());
+    MapStream.of(previousData.getBuildTimes())
+        .filterKeys(not(rebuiltIds::contains))
+        .forEach(dataBuilder::addBuildTime);
+    ObservableDataProvider provider = ids -> MapStream.of(providedData).filterKeys(ids::contains).toMap();
+    BuiltScenarioMarketData builtData = buildMarketData(
+        root,
+        previous.getMarketDataConfig(),
+        suppliedData,
+        previous.getRefData(),
+        previous.getScenarioDefinition(),
+        provider,
+        dataBuilder);
+
+    return new IncrementalMarketData(
+        previous.getRequirements(),
+        previous.getMarketDataConfig(),
+        suppliedData,
+        previous.getRefData(),
+        previous.getScenarioDefinition(),
+        root,
+        providedData,
+        builtData,
+        rebuiltIds);
+  }
+
+  // checks whether the same items of market data in the tree are supplied in both sets of supplied data
+  private static boolean isSameDataSupplied(
+      MarketDataNode node,
+      ScenarioMarketData suppliedData,
+      ScenarioMarketData previousSuppliedData) {
+
+    if (node.getId() != null &&
+        DependencyTreeBuilder.isSupplied(node.getId(), node.getDataType(), suppliedData) !=
+            DependencyTreeBuilder.isSupplied(node.getId(), node.getDataType(), previousSuppliedData)) {
+      return false;
+    }
+    return node.getDependencies().stream()
+        .allMatch(child -> isSameDataSupplied(child, suppliedData, previousSuppliedData));
+  }
+
+  // finds the IDs of the observable values in the tree that are not supplied
+  private static void findProvidedIds(MarketDataNode node, ScenarioMarketData suppliedData, Set<ObservableId> ids) {
+    if (node.isLeaf() &&
+        node.getDataType() == MarketDataNode.DataType.SINGLE_VALUE &&
+        node.getId() instanceof ObservableId &&
+        !suppliedData.containsValue(node.getId())) {
+
+      ids.add((ObservableId) node.getId());
+    }
+    node.getDependencies().forEach(child -> findProvidedIds(child, suppliedData, ids));
+  }
+
+  // checks whether the input represented by a leaf node has changed since the previous build
+  private static boolean isChanged(
+      MarketDataNode leaf,
+      ScenarioMarketData suppliedData,
+      ScenarioMarketData previousSuppliedData,
+      Map<ObservableId, Result<Double>> providedData,
+      Map<ObservableId, Result<Double>> previousProvidedData) {
+
+    MarketDataId<?> id = leaf.getId();
+    if (leaf.getDataType() == MarketDataNode.DataType.TIME_SERIES) {
+      ObservableId observableId = (ObservableId) id;
+      return !suppliedData.getTimeSeries(observableId).isEmpty() &&
+          !Objects.equals(suppliedData.getTimeSeries(observableId), previousSuppliedData.getTimeSeries(observableId));
+    }
+    if (suppliedData.containsValue(id)) {
+      return !Objects.equals(suppliedData.getValue(id), previousSuppliedData.getValue(id));
+    }
+    if (id instanceof ObservableId) {
+      return !Objects.equals(providedData.get(id), previousProvidedData.get(id));
+    }
+    // a value with no dependencies built by a market data function
+    return false;
+  }
+
   /**
-   * Builds items of non-observable market data using a market data function.
+   * Finds the IDs of the single values that must be rebuilt.
+   * <p>
+   * A value must be rebuilt if it is an input that has changed, or if any of its dependencies must be rebuilt.
    *
+   * @param node  the node of the dependency tree
+   * @param changed  the predicate determining whether the input represented by a leaf node has changed
+   * @param rebuiltIds  the set to which the IDs of the values to rebuild are added
+   * @return true if the data represented by the node must be rebuilt
+   */
+  private static boolean findRebuiltIds(
+      MarketDataNode node,
+      Predicate<MarketDataNode> changed,
+      Set<MarketDataId<?>> rebuiltIds) {
+
+    boolean rebuilt = node.isLeaf() && node.getId() != null && changed.test(node);
+    // all the children are visited, as each of them may have dependencies to rebuild
+    for (MarketDataNode child : node.getDependencies()) {
+      rebuilt |= findRebuiltIds(child, changed, rebuiltIds);
+    }
+    if (rebuilt && node.getDataType() == MarketDataNode.DataType.SINGLE_VALUE) {
+      rebuiltIds.add(node.getId());
+    }
+    return rebuilt;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Finds the market data function that builds the specified item of non-observable market data.
+   *
+   * @param id  ID of the market data that should be built
+   * @return the market data function
+   */
+  @SuppressWarnings("unchecked")
+  private MarketDataFunction<?, ?> findFunction(MarketDataId<?> id) {
+    // This cast removes a spurious warning
+    Class<? extends MarketDataId<?>> idClass = (Class<? extends MarketDataId<?>>) id.getClass();
+    MarketDataFunction<?, ?> marketDataFunction = functions.get(idClass);
+
+    if (marketDataFunction == null) {
+      throw new IllegalStateException("No market data function available for market data ID of type " + idClass.getName());
+    }
+    return marketDataFunction;
+  }
+
+  /**
+   * Builds an item of non-observable market data using a market data function, timing the build.
+   *
+   * @param marketDataFunction  the function that builds the market data
    * @param id  ID of the market data that should be built
    * @param marketDataConfig  configuration specifying how the market data should be built
    * @param suppliedData  existing set of market data that contains any data required to build the values
    * @param refData  the reference data, used to resolve trades
-   * @return a result containing the market data or details of why it wasn't built
+   * @return a result containing the market data or details of why it wasn't built, and the time taken
    */
   @SuppressWarnings({"unchecked", "rawtypes"})
-  private Result<MarketDataBox<?>> buildNonObservableData(
+  private static Pair<Result<MarketDataBox<?>>, Duration> buildNonObservableData(
+      MarketDataFunction marketDataFunction,
       MarketDataId id,
       MarketDataConfig marketDataConfig,
       BuiltScenarioMarketData suppliedData,
@@ -206,26 +517,47 @@ final class DefaultMarketDataFactory implements MarketDataFactory {
     // In this class a mixture of functions with different types are stored in a map. This loses the type
     // parameter information. When the functions are extracted from the map and used it's impossible to
     // convince the compiler the operations are safe, although the logic guarantees it.
-
-    // This cast removes a spurious warning
-    Class<? extends MarketDataId<?>> idClass = (Class<? extends MarketDataId<?>>) id.getClass();
-    MarketDataFunction marketDataFunction = functions.get(idClass);
-
-    if (marketDataFunction == null) {
-      throw new IllegalStateException("No market data function available for market data ID of type " + idClass.getName());
-    }
-    return Result.of(() -> marketDataFunction.build(id, marketDataConfig, suppliedData, refData));
+    long start = System.nanoTime();
+    Result<MarketDataBox<?>> result =
+        Result.of(() -> marketDataFunction.build(id, marketDataConfig, suppliedData, refData));
+    return Pair.of(result, Duration.ofNanos(System.nanoTime() - start));
   }
 
-  @SuppressWarnings("unchecked")
-  private Map<MarketDataId<?>, Result<MarketDataBox<?>>> buildNonObservableData(
+  /**
+   * Starts building items of non-observable market data that are independent of one another.
+   * <p>
+   * The items are built using the executor. The returned map is in the order of the IDs.
+   *
+   * @param ids  IDs of the market data that should be built
+   * @param marketDataConfig  configuration specifying how the market data should be built
+   * @param marketData  existing set of market data that contains any data required to build the values
+   * @param refData  the reference data, used to resolve trades
+   * @return the futures of the results containing the market data or details of why it wasn't built,
+   *   and the time taken
+   */
+  private Map<MarketDataId<?>, CompletableFuture<Pair<Result<MarketDataBox<?>>, Duration>>> buildNonObservableData(
       Set<? extends MarketDataId<?>> ids,
       MarketDataConfig marketDataConfig,
       BuiltScenarioMarketData marketData,
       ReferenceData refData) {
 
-    return ids.stream()
-        .collect(toImmutableMap(id -> id, id -> buildNonObservableData(id, marketDataConfig, marketData, refData)));
+    // the functions are found before submitting the tasks so a missing function fails immediately
+    Map<MarketDataId<?>, MarketDataFunction<?, ?>> marketDataFunctions =
+        ids.stream().collect(toImmutableMap(id -> id, this::findFunction));
+    return MapStream.of(marketDataFunctions)
+        .mapValues((id, fn) -> CompletableFuture.supplyAsync(
+            () -> buildNonObservableData(fn, id, marketDataConfig, marketData, refData), executor))
+        .toMap();
+  }
+
+  // waits for the task to complete, rethrowing any exception thrown by the task
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException ex) {
+      Throwables.propagateIfPossible(ex.getCause());
+      throw ex;
+    }
   }
 
   /**
@@ -159,7 +159,7 @@ class DependencyTreeBuilder {
    * @param dataType  the data type of the market data, either a single value or a time series of values
    * @return true if the market data identified by the ID and data type is present in the supplied data
    */
-  private static boolean isSupplied(
+  static boolean isSupplied(
       MarketDataId<?> id,
       MarketDataNode.DataType dataType,
       ScenarioMarketData suppliedData) {
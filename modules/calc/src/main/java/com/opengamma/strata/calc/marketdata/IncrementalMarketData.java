@@ -0,0 +1,186 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.marketdata;
+
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.data.MarketDataId;
+import com.opengamma.strata.data.ObservableId;
+import com.opengamma.strata.data.scenario.ScenarioMarketData;
+
+/**
+ * Market data that has been built and can be rebuilt incrementally.
+ * <p>
+ * This is returned by {@link MarketDataFactory#buildIncrementalMarketData} and
+ * {@link MarketDataFactory#rebuildMarketData}. In addition to the built market data, it retains the inputs
+ * to the build and the tree of dependencies between the items of market data.
+ * When the supplied market data changes, for example when a quote ticks, the factory uses this information
+ * to rebuild only the items of market data that depend on the changed inputs.
+ * The other items are reused by reference.
+ * <p>
+ * Instances must only be passed to the factory that created them.
+ * This class is immutable and thread-safe.
+ */
+public final class IncrementalMarketData {
+
+  /**
+   * The requirements for the market data.
+   */
+  private final MarketDataRequirements requirements;
+  /**
+   * The configuration used to build the market data.
+   */
+  private final MarketDataConfig marketDataConfig;
+  /**
+   * The market data supplied by the user.
+   */
+  private final ScenarioMarketData suppliedData;
+  /**
+   * The reference data.
+   */
+  private final ReferenceData refData;
+  /**
+   * The definition of the scenarios.
+   */
+  private final ScenarioDefinition scenarioDefinition;
+  /**
+   * The tree of dependencies between the items of market data.
+   */
+  private final MarketDataNode dependencyTree;
+  /**
+   * The observable data provided by the observable data provider, before any perturbation.
+   */
+  private final ImmutableMap<ObservableId, Result<Double>> providedData;
+  /**
+   * The built market data.
+   */
+  private final BuiltScenarioMarketData marketData;
+  /**
+   * The IDs of the single values changed by the last build.
+   */
+  private final ImmutableSet<MarketDataId<?>> rebuiltIds;
+
+  // package-private constructor used by the factory
+  IncrementalMarketData(
+      MarketDataRequirements requirements,
+      MarketDataConfig marketDataConfig,
+      ScenarioMarketData suppliedData,
+      ReferenceData refData,
+      ScenarioDefinition scenarioDefinition,
+      MarketDataNode dependencyTree,
+      Map<ObservableId, Result<Double>> providedData,
+      BuiltScenarioMarketData marketData,
+      Set<MarketDataId<?>> rebuiltIds) {
+
+    this.requirements = requirements;
+    this.marketDataConfig = marketDataConfig;
+    this.suppliedData = suppliedData;
+    this.refData = refData;
+    this.scenarioDefinition = scenarioDefinition;
+    this.dependencyTree = dependencyTree;
+    this.providedData = ImmutableMap.copyOf(providedData);
+    this.marketData = marketData;
+    this.rebuiltIds = ImmutableSet.copyOf(rebuiltIds);
+  }
+
+  /**
+   * Creates an instance for market data that was built in full without recording its dependency tree.
+   * <p>
+   * All the values of the market data are treated as rebuilt.
+   *
+   * @param requirements  the requirements for the market data
+   * @param marketDataConfig  the configuration used to build the market data
+   * @param suppliedData  the market data supplied by the user
+   * @param refData  the reference data
+   * @param scenarioDefinition  the definition of the scenarios
+   * @param marketData  the built market data
+   * @return the market data
+   */
+  static IncrementalMarketData ofFullBuild(
+      MarketDataRequirements requirements,
+      MarketDataConfig marketDataConfig,
+      ScenarioMarketData suppliedData,
+      ReferenceData refData,
+      ScenarioDefinition scenarioDefinition,
+      BuiltScenarioMarketData marketData) {
+
+    return new IncrementalMarketData(
+        requirements,
+        marketDataConfig,
+        suppliedData,
+        refData,
+        scenarioDefinition,
+        MarketDataNode.root(ImmutableList.of()),
+        ImmutableMap.of(),
+        marketData,
+        marketData.getMarketData().getValues().keySet());
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the built market data.
+   *
+   * @return the market data, including details of any data that could not be built
+   */
+  public BuiltScenarioMarketData getMarketData() {
+    return marketData;
+  }
+
+  /**
+   * Gets the IDs of the single values that were changed by the last build.
+   * <p>
+   * After a full build this contains all the values of the dependency tree.
+   * After an incremental rebuild it contains the values whose inputs changed, and the values depending on them.
+   * The market data of any other ID is reused from the previous build,
+   * with the exception of supplied data, which is always taken from the latest supplied market data.
+   *
+   * @return the IDs of the values changed by the last build
+   */
+  public ImmutableSet<MarketDataId<?>> getRebuiltIds() {
+    return rebuiltIds;
+  }
+
+  //-------------------------------------------------------------------------
+  MarketDataRequirements getRequirements() {
+    return requirements;
+  }
+
+  MarketDataConfig getMarketDataConfig() {
+    return marketDataConfig;
+  }
+
+  ScenarioMarketData getSuppliedData() {
+    return suppliedData;
+  }
+
+  ReferenceData getRefData() {
+    return refData;
+  }
+
+  ScenarioDefinition getScenarioDefinition() {
+    return scenarioDefinition;
+  }
+
+  MarketDataNode getDependencyTree() {
+    return dependencyTree;
+  }
+
+  ImmutableMap<ObservableId, Result<Double>> getProvidedData() {
+    return providedData;
+  }
+
+  @Override
+  public String toString() {
+    return "IncrementalMarketData[rebuiltIds=" + rebuiltIds + "]";
+  }
+
+}
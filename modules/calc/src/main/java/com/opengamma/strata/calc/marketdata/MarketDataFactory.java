@@ -6,6 +6,7 @@
 package com.opengamma.strata.calc.marketdata;
 
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import com.google.common.collect.ImmutableList;
 import com.opengamma.strata.basics.ReferenceData;
@@ -55,6 +56,32 @@ public interface MarketDataFactory {
     return new DefaultMarketDataFactory(observableDataProvider, timeSeriesProvider, functions);
   }
 
+  /**
+   * Obtains an instance of the factory based on providers of market data and time-series,
+   * building the market data using the specified executor.
+   * <p>
+   * The market data functions are used to build the market data.
+   * <p>
+   * The market data is built one level of the dependency tree at a time.
+   * The independent items of each level, such as curve groups and surfaces, are built concurrently
+   * using the executor, and the results are assembled in a deterministic order.
+   * It is the callers responsibility to manage the life-cycle of the executor.
+   *
+   * @param observableDataProvider  the provider of observable market data
+   * @param timeSeriesProvider  the provider of time-series
+   * @param executor  the executor used to build the market data
+   * @param functions  the functions that create the market data
+   * @return the market data factory
+   */
+  public static MarketDataFactory of(
+      ObservableDataProvider observableDataProvider,
+      TimeSeriesProvider timeSeriesProvider,
+      Executor executor,
+      List<MarketDataFunction<?, ?>> functions) {
+
+    return new DefaultMarketDataFactory(observableDataProvider, timeSeriesProvider, executor, functions);
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Builds a set of market data.
@@ -102,4 +129,71 @@ public interface MarketDataFactory {
       ReferenceData refData,
       ScenarioDefinition scenarioDefinition);
 
+  //-------------------------------------------------------------------------
+  /**
+   * Builds the market data required for performing calculations for a set of scenarios,
+   * retaining the information needed to rebuild it incrementally.
+   * <p>
+   * This builds the same market data as {@link #buildMarketData(MarketDataRequirements, MarketDataConfig,
+   * ScenarioMarketData, ReferenceData, ScenarioDefinition)}.
+   * The result also contains the dependency tree of the market data and the inputs to the build,
+   * allowing the market data to be rebuilt by {@link #rebuildMarketData(IncrementalMarketData, ScenarioMarketData)}
+   * when the supplied market data changes.
+   * <p>
+   * The default implementation builds the market data in full using {@code buildMarketData},
+   * and does not retain the dependency tree. Rebuilding the result also builds the market data in full.
+   *
+   * @param requirements  the market data required for the calculations
+   * @param marketDataConfig  configuration needed to build non-observable market data, for example curves or surfaces
+   * @param suppliedData  the base market data used to derive the data for each scenario
+   * @param refData  the reference data
+   * @param scenarioDefinition  defines how the market data for each scenario is derived from the base data
+   * @return the market data required by the calculations, which can be rebuilt incrementally
+   */
+  public default IncrementalMarketData buildIncrementalMarketData(
+      MarketDataRequirements requirements,
+      MarketDataConfig marketDataConfig,
+      ScenarioMarketData suppliedData,
+      ReferenceData refData,
+      ScenarioDefinition scenarioDefinition) {
+
+    BuiltScenarioMarketData marketData =
+        buildMarketData(requirements, marketDataConfig, suppliedData, refData, scenarioDefinition);
+    return IncrementalMarketData.ofFullBuild(
+        requirements, marketDataConfig, suppliedData, refData, scenarioDefinition, marketData);
+  }
+
+  /**
+   * Rebuilds the market data following a change to the supplied market data.
+   * <p>
+   * The requirements, configuration, reference data and scenario definition of the previous build are used.
+   * The supplied values and time-series are compared to those of the previous build, and the observable
+   * values that are not supplied are requested again from the provider and compared to the previous values.
+   * Only the items of market data depending on the changed inputs are rebuilt.
+   * All other items are reused from the previous build by reference.
+   * <p>
+   * Time-series that are not supplied are assumed not to change, and are not requested again.
+   * If the valuation date has changed, or if different items of market data are supplied,
+   * the market data is built in full.
+   * <p>
+   * The default implementation builds the market data in full using
+   * {@link #buildIncrementalMarketData(MarketDataRequirements, MarketDataConfig, ScenarioMarketData,
+   * ReferenceData, ScenarioDefinition)} with the inputs of the previous build.
+   *
+   * @param previous  the result of the previous build, created by this factory
+   * @param suppliedData  the market data supplied by the user
+   * @return the market data required by the calculations, which can be rebuilt incrementally
+   */
+  public default IncrementalMarketData rebuildMarketData(
+      IncrementalMarketData previous,
+      ScenarioMarketData suppliedData) {
+
+    return buildIncrementalMarketData(
+        previous.getRequirements(),
+        previous.getMarketDataConfig(),
+        suppliedData,
+        previous.getRefData(),
+        previous.getScenarioDefinition());
+  }
+
 }
@@ -9,6 +9,8 @@ import static com.opengamma.strata.collect.Guavate.toImmutableMap;
 
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import com.opengamma.strata.collect.result.FailureReason;
 import com.opengamma.strata.collect.result.Result;
@@ -49,4 +51,25 @@ public interface ObservableDataProvider {
    */
   public abstract Map<ObservableId, Result<Double>> provideObservableData(Set<? extends ObservableId> identifiers);
 
+  /**
+   * Provides market data for the specified identifiers asynchronously.
+   * <p>
+   * The market data factory uses this method to request the market data of the identifiers in one batch,
+   * issuing the requests for the time-series and the observable data of a level of the dependency tree
+   * before waiting for any of them. A provider backed by a remote data source can override this method
+   * to send the request and return immediately, completing the future when the response is received.
+   * <p>
+   * The default implementation invokes {@link #provideObservableData(Set)} using the executor.
+   *
+   * @param identifiers  the market data identifiers to find
+   * @param executor  the executor that may be used to provide the market data
+   * @return a future completed with the map of market data values, keyed by identifier
+   */
+  public default CompletableFuture<Map<ObservableId, Result<Double>>> provideObservableDataAsync(
+      Set<? extends ObservableId> identifiers,
+      Executor executor) {
+
+    return CompletableFuture.supplyAsync(() -> provideObservableData(identifiers), executor);
+  }
+
 }
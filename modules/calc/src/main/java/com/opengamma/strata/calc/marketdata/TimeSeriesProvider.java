@@ -5,6 +5,14 @@
  */
 package com.opengamma.strata.calc.marketdata;
 
+import static com.opengamma.strata.collect.Guavate.toImmutableMap;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import com.opengamma.strata.collect.MapStream;
 import com.opengamma.strata.collect.result.Result;
 import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
 import com.opengamma.strata.data.ObservableId;
@@ -53,4 +61,31 @@ public interface TimeSeriesProvider {
    */
   public abstract Result<LocalDateDoubleTimeSeries> provideTimeSeries(ObservableId identifier);
 
+  /**
+   * Provides the time-series for the specified identifiers asynchronously.
+   * <p>
+   * The market data factory uses this method to request the time-series of the identifiers in one batch,
+   * issuing the requests for the time-series and the observable data of a level of the dependency tree
+   * before waiting for any of them. A provider backed by a remote data source can override this method
+   * to send a single request and return immediately, completing the future when the response is received.
+   * <p>
+   * The default implementation invokes {@link #provideTimeSeries(ObservableId)} for each identifier
+   * using the executor. The returned map must contain one entry for each identifier that was requested.
+   *
+   * @param identifiers  the market data identifiers to find
+   * @param executor  the executor that may be used to provide the time-series
+   * @return a future completed with the map of time-series, keyed by identifier
+   */
+  public default CompletableFuture<Map<ObservableId, Result<LocalDateDoubleTimeSeries>>> provideTimeSeriesAsync(
+      Set<? extends ObservableId> identifiers,
+      Executor executor) {
+
+    Map<ObservableId, CompletableFuture<Result<LocalDateDoubleTimeSeries>>> futures = identifiers.stream()
+        .collect(toImmutableMap(
+            id -> id,
+            id -> CompletableFuture.supplyAsync(() -> provideTimeSeries(id), executor)));
+    return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[futures.size()]))
+        .thenApply(ignored -> MapStream.of(futures).mapValues(CompletableFuture::join).toMap());
+  }
+
 }
@@ -0,0 +1,427 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import static com.opengamma.strata.collect.Guavate.toImmutableMap;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import com.google.common.collect.ImmutableMap;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.calc.Measure;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.data.MarketDataId;
+import com.opengamma.strata.data.MarketDataName;
+import com.opengamma.strata.data.ObservableId;
+import com.opengamma.strata.data.scenario.MarketDataBox;
+import com.opengamma.strata.data.scenario.ScenarioMarketData;
+
+/**
+ * Performance metrics of the calculation tasks run by a calculation runner.
+ * <p>
+ * Metrics are recorded by a runner created with an instance of this class, for example using
+ * {@link CalculationTaskRunner#of(java.util.concurrent.ExecutorService, CalculationMetrics)}.
+ * Runners created without metrics do not record anything, and have no instrumentation overhead.
+ * <p>
+ * For each task, the following are recorded:
+ * <ul>
+ * <li>the wall-clock time taken to run the task
+ * <li>the CPU time used by the thread running the task, if supported by the JVM
+ * <li>the bytes allocated by the thread running the task, if supported by the JVM
+ * <li>the time the task waited between being submitted to the executor and starting to run
+ * <li>the number of market data lookups made by the task
+ * </ul>
+ * The values are aggregated into histograms for each calculation function class, each measure and
+ * each target type, such as the trade type. A task calculating several measures is recorded against each of them.
+ * The statistics can be obtained programmatically, or via JMX by {@linkplain #registerMBean(ObjectName) registering}
+ * the metrics as a {@link CalculationMetricsMXBean}.
+ * <p>
+ * This class is thread-safe. The same instance can be used by several runners.
+ */
+public final class CalculationMetrics {
+
+  /**
+   * The thread management interface of the JVM.
+   */
+  private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+  /**
+   * Whether the CPU time of the current thread can be measured.
+   */
+  private static final boolean CPU_TIME_SUPPORTED =
+      THREAD_BEAN.isCurrentThreadCpuTimeSupported() && THREAD_BEAN.isThreadCpuTimeEnabled();
+  /**
+   * The extended thread management interface that can measure allocations, null if not available.
+   */
+  private static final com.sun.management.ThreadMXBean ALLOCATION_BEAN = allocationBean();
+
+  /**
+   * The statistics of all the tasks.
+   */
+  private volatile StatisticsRecorder total = new StatisticsRecorder();
+  /**
+   * The statistics of the tasks, keyed by the function class.
+   */
+  private final Map<Class<?>, StatisticsRecorder> functions = new ConcurrentHashMap<>();
+  /**
+   * The statistics of the tasks, keyed by measure.
+   */
+  private final Map<Measure, StatisticsRecorder> measures = new ConcurrentHashMap<>();
+  /**
+   * The statistics of the tasks, keyed by target type.
+   */
+  private final Map<Class<?>, StatisticsRecorder> targetTypes = new ConcurrentHashMap<>();
+
+  //-------------------------------------------------------------------------
+  /**
+   * Creates an instance containing no statistics.
+   *
+   * @return the metrics
+   */
+  public static CalculationMetrics create() {
+    return new CalculationMetrics();
+  }
+
+  // restricted constructor
+  private CalculationMetrics() {
+  }
+
+  // finds the interface measuring allocations, if the JVM provides it
+  private static com.sun.management.ThreadMXBean allocationBean() {
+    try {
+      if (THREAD_BEAN instanceof com.sun.management.ThreadMXBean) {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) THREAD_BEAN;
+        if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+          return bean;
+        }
+      }
+    } catch (LinkageError ex) {
+      // the extended interface is not available
+    }
+    return null;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the statistics of all the tasks.
+   *
+   * @return the statistics of all the tasks
+   */
+  public CalculationStatistics getTotalStatistics() {
+    return total.snapshot();
+  }
+
+  /**
+   * Gets the statistics of the tasks, keyed by the calculation function class.
+   *
+   * @return the statistics of the tasks of each function, ordered by class name
+   */
+  public ImmutableMap<Class<?>, CalculationStatistics> getFunctionStatistics() {
+    return snapshot(functions, Class::getName);
+  }
+
+  /**
+   * Gets the statistics of the tasks, keyed by measure.
+   *
+   * @return the statistics of the tasks of each measure, ordered by name
+   */
+  public ImmutableMap<Measure, CalculationStatistics> getMeasureStatistics() {
+    return snapshot(measures, Measure::getName);
+  }
+
+  /**
+   * Gets the statistics of the tasks, keyed by target type.
+   *
+   * @return the statistics of the tasks of each target type, ordered by class name
+   */
+  public ImmutableMap<Class<?>, CalculationStatistics> getTargetTypeStatistics() {
+    return snapshot(targetTypes, Class::getName);
+  }
+
+  // creates a snapshot of the statistics, ordered by the name of the key
+  private static <K> ImmutableMap<K, CalculationStatistics> snapshot(
+      Map<K, StatisticsRecorder> recorders,
+      Function<K, String> nameFunction) {
+
+    return recorders.entrySet().stream()
+        .sorted(Comparator.comparing(e -> nameFunction.apply(e.getKey())))
+        .collect(toImmutableMap(e -> e.getKey(), e -> e.getValue().snapshot()));
+  }
+
+  /**
+   * Discards the statistics recorded so far.
+   * <p>
+   * The statistics of tasks running while the metrics are reset may be partially discarded.
+   */
+  public void reset() {
+    total = new StatisticsRecorder();
+    functions.clear();
+    measures.clear();
+    targetTypes.clear();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Registers the metrics with the platform MBean server.
+   * <p>
+   * The metrics are registered as a {@link CalculationMetricsMXBean}, where the statistics are keyed by name.
+   *
+   * @param objectName  the name of the MBean
+   * @throws IllegalStateException if the MBean cannot be registered
+   */
+  public void registerMBean(ObjectName objectName) {
+    ArgChecker.notNull(objectName, "objectName");
+    try {
+      StandardMBean mbean = new StandardMBean(new MXBeanAdapter(), CalculationMetricsMXBean.class, true);
+      ManagementFactory.getPlatformMBeanServer().registerMBean(mbean, objectName);
+    } catch (JMException ex) {
+      throw new IllegalStateException("Unable to register MBean " + objectName, ex);
+    }
+  }
+
+  /**
+   * Unregisters the metrics from the platform MBean server.
+   *
+   * @param objectName  the name of the MBean
+   * @throws IllegalStateException if the MBean cannot be unregistered
+   */
+  public void unregisterMBean(ObjectName objectName) {
+    ArgChecker.notNull(objectName, "objectName");
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    } catch (JMException ex) {
+      throw new IllegalStateException("Unable to unregister MBean " + objectName, ex);
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns a supplier that executes the task, recording its metrics.
+   * <p>
+   * This is invoked when the task is submitted to the executor, and the queue wait time
+   * is measured from the time of this call.
+   *
+   * @param task  the task
+   * @param marketData  the market data used in the calculation
+   * @param refData  the reference data
+   * @return the supplier executing the task
+   */
+  Supplier<CalculationResults> instrument(CalculationTask task, ScenarioMarketData marketData, ReferenceData refData) {
+    long submitted = System.nanoTime();
+    return () -> execute(task, marketData, refData, submitted);
+  }
+
+  // executes the task, recording its metrics
+  private CalculationResults execute(
+      CalculationTask task,
+      ScenarioMarketData marketData,
+      ReferenceData refData,
+      long submitted) {
+
+    long threadId = Thread.currentThread().getId();
+    long start = System.nanoTime();
+    long startCpu = CPU_TIME_SUPPORTED ? THREAD_BEAN.getCurrentThreadCpuTime() : 0;
+    long startAllocated = ALLOCATION_BEAN != null ? ALLOCATION_BEAN.getThreadAllocatedBytes(threadId) : 0;
+    CountingScenarioMarketData countingData = new CountingScenarioMarketData(marketData);
+
+    CalculationResults results = task.execute(countingData, refData);
+
+    long end = System.nanoTime();
+    long cpuTime = CPU_TIME_SUPPORTED ? THREAD_BEAN.getCurrentThreadCpuTime() - startCpu : -1;
+    long allocated = ALLOCATION_BEAN != null ? ALLOCATION_BEAN.getThreadAllocatedBytes(threadId) - startAllocated : -1;
+    TaskSample sample = new TaskSample(end - start, cpuTime, allocated, start - submitted, countingData.lookups);
+
+    total.record(sample);
+    functions.computeIfAbsent(task.getFunction().getClass(), k -> new StatisticsRecorder()).record(sample);
+    targetTypes.computeIfAbsent(task.getTarget().getClass(), k -> new StatisticsRecorder()).record(sample);
+    for (Measure measure : task.getMeasures()) {
+      measures.computeIfAbsent(measure, k -> new StatisticsRecorder()).record(sample);
+    }
+    return results;
+  }
+
+  @Override
+  public String toString() {
+    return "CalculationMetrics[" + getTotalStatistics() + "]";
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The metrics of a single task.
+   */
+  private static final class TaskSample {
+
+    /** The wall-clock time. */
+    private final long wallTime;
+    /** The CPU time, negative if not measured. */
+    private final long cpuTime;
+    /** The allocated bytes, negative if not measured. */
+    private final long allocatedBytes;
+    /** The queue wait time. */
+    private final long queueWaitTime;
+    /** The number of market data lookups. */
+    private final long marketDataLookups;
+
+    private TaskSample(long wallTime, long cpuTime, long allocatedBytes, long queueWaitTime, long marketDataLookups) {
+      this.wallTime = wallTime;
+      this.cpuTime = cpuTime;
+      this.allocatedBytes = allocatedBytes;
+      this.queueWaitTime = queueWaitTime;
+      this.marketDataLookups = marketDataLookups;
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Records the metrics of tasks, creating snapshots of the statistics.
+   */
+  private static final class StatisticsRecorder {
+
+    /** The wall-clock time. */
+    private final MetricHistogram.Recorder wallTime = new MetricHistogram.Recorder();
+    /** The CPU time. */
+    private final MetricHistogram.Recorder cpuTime = new MetricHistogram.Recorder();
+    /** The allocated bytes. */
+    private final MetricHistogram.Recorder allocatedBytes = new MetricHistogram.Recorder();
+    /** The queue wait time. */
+    private final MetricHistogram.Recorder queueWaitTime = new MetricHistogram.Recorder();
+    /** The number of market data lookups. */
+    private final MetricHistogram.Recorder marketDataLookups = new MetricHistogram.Recorder();
+
+    private void record(TaskSample sample) {
+      wallTime.record(sample.wallTime);
+      if (sample.cpuTime >= 0) {
+        cpuTime.record(sample.cpuTime);
+      }
+      if (sample.allocatedBytes >= 0) {
+        allocatedBytes.record(sample.allocatedBytes);
+      }
+      queueWaitTime.record(sample.queueWaitTime);
+      marketDataLookups.record(sample.marketDataLookups);
+    }
+
+    private CalculationStatistics snapshot() {
+      return new CalculationStatistics(
+          wallTime.snapshot(),
+          cpuTime.snapshot(),
+          allocatedBytes.snapshot(),
+          queueWaitTime.snapshot(),
+          marketDataLookups.snapshot());
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Adapts the metrics to the JMX interface, keying the statistics by name.
+   */
+  private final class MXBeanAdapter implements CalculationMetricsMXBean {
+
+    @Override
+    public CalculationStatistics getTotalStatistics() {
+      return CalculationMetrics.this.getTotalStatistics();
+    }
+
+    @Override
+    public Map<String, CalculationStatistics> getFunctionStatistics() {
+      return byName(CalculationMetrics.this.getFunctionStatistics(), Class::getName);
+    }
+
+    @Override
+    public Map<String, CalculationStatistics> getMeasureStatistics() {
+      return byName(CalculationMetrics.this.getMeasureStatistics(), Measure::getName);
+    }
+
+    @Override
+    public Map<String, CalculationStatistics> getTargetTypeStatistics() {
+      return byName(CalculationMetrics.this.getTargetTypeStatistics(), Class::getName);
+    }
+
+    @Override
+    public void reset() {
+      CalculationMetrics.this.reset();
+    }
+
+    private <K> Map<String, CalculationStatistics> byName(
+        ImmutableMap<K, CalculationStatistics> statistics,
+        Function<K, String> nameFunction) {
+
+      return statistics.entrySet().stream()
+          .collect(toImmutableMap(e -> nameFunction.apply(e.getKey()), e -> e.getValue()));
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Market data that counts the lookups made by a task.
+   * <p>
+   * A task is run by a single thread, thus the count is not synchronized.
+   */
+  private static final class CountingScenarioMarketData implements ScenarioMarketData {
+
+    /** The underlying market data. */
+    private final ScenarioMarketData underlying;
+    /** The number of lookups. */
+    private int lookups;
+
+    private CountingScenarioMarketData(ScenarioMarketData underlying) {
+      this.underlying = underlying;
+    }
+
+    @Override
+    public MarketDataBox<LocalDate> getValuationDate() {
+      return underlying.getValuationDate();
+    }
+
+    @Override
+    public int getScenarioCount() {
+      return underlying.getScenarioCount();
+    }
+
+    @Override
+    public boolean containsValue(MarketDataId<?> id) {
+      lookups++;
+      return underlying.containsValue(id);
+    }
+
+    @Override
+    public <T> MarketDataBox<T> getValue(MarketDataId<T> id) {
+      lookups++;
+      return underlying.getValue(id);
+    }
+
+    @Override
+    public <T> Optional<MarketDataBox<T>> findValue(MarketDataId<T> id) {
+      lookups++;
+      return underlying.findValue(id);
+    }
+
+    @Override
+    public <T> Set<MarketDataId<T>> findIds(MarketDataName<T> name) {
+      lookups++;
+      return underlying.findIds(name);
+    }
+
+    @Override
+    public LocalDateDoubleTimeSeries getTimeSeries(ObservableId id) {
+      lookups++;
+      return underlying.getTimeSeries(id);
+    }
+  }
+
+}
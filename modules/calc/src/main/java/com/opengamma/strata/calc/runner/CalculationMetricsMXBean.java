@@ -0,0 +1,51 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import java.util.Map;
+
+/**
+ * The JMX management interface of {@link CalculationMetrics}.
+ * <p>
+ * The statistics are keyed by the name of the function class, measure or target type.
+ * An instance is registered using {@link CalculationMetrics#registerMBean(javax.management.ObjectName)}.
+ */
+public interface CalculationMetricsMXBean {
+
+  /**
+   * Gets the statistics of all the tasks.
+   *
+   * @return the statistics of all the tasks
+   */
+  public abstract CalculationStatistics getTotalStatistics();
+
+  /**
+   * Gets the statistics of the tasks, keyed by the name of the calculation function class.
+   *
+   * @return the statistics of the tasks of each function
+   */
+  public abstract Map<String, CalculationStatistics> getFunctionStatistics();
+
+  /**
+   * Gets the statistics of the tasks, keyed by the name of the measure.
+   *
+   * @return the statistics of the tasks of each measure
+   */
+  public abstract Map<String, CalculationStatistics> getMeasureStatistics();
+
+  /**
+   * Gets the statistics of the tasks, keyed by the name of the target type.
+   *
+   * @return the statistics of the tasks of each target type
+   */
+  public abstract Map<String, CalculationStatistics> getTargetTypeStatistics();
+
+  /**
+   * Discards the statistics recorded so far.
+   */
+  public abstract void reset();
+
+}
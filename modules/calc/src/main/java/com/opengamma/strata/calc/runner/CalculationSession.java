@@ -0,0 +1,287 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.opengamma.strata.basics.CalculationTarget;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.calc.CalculationRunner;
+import com.opengamma.strata.calc.ColumnHeader;
+import com.opengamma.strata.calc.Results;
+import com.opengamma.strata.calc.marketdata.IncrementalMarketData;
+import com.opengamma.strata.calc.marketdata.MarketDataRequirements;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.data.MarketDataId;
+import com.opengamma.strata.data.scenario.ScenarioMarketData;
+
+/**
+ * A stateful calculation session that recalculates only the results affected by a change to the market data.
+ * <p>
+ * The session is created for a fixed set of {@link CalculationTasks}. On creation, the market data
+ * requirements of each task are used to map each market data ID to the tasks that depend on it.
+ * The session retains the results of the last calculation.
+ * <p>
+ * When the market data is updated, the IDs of the changed market data are passed to
+ * {@link #update(ScenarioMarketData, Set, CalculationListener) update}. Only the tasks depending
+ * on the changed IDs are run, and the listener only receives the results of those tasks.
+ * The new results are merged into the retained results, which are returned.
+ * When the market data is built using {@link IncrementalMarketData}, the IDs of the rebuilt market data,
+ * including the values derived from the changed inputs, are used directly.
+ * <p>
+ * The results contain an item for each scenario, as with
+ * {@link CalculationTaskRunner#calculateMultipleScenarios(CalculationTasks, ScenarioMarketData, ReferenceData)}.
+ * <p>
+ * This class is thread-safe. Calculations and updates are performed one at a time.
+ */
+public final class CalculationSession {
+
+  /**
+   * The runner used to perform the calculations.
+   */
+  private final CalculationTaskRunner taskRunner;
+  /**
+   * The calculation tasks.
+   */
+  private final CalculationTasks tasks;
+  /**
+   * The reference data.
+   */
+  private final ReferenceData refData;
+  /**
+   * The headers of the columns of the results.
+   */
+  private final ImmutableList<ColumnHeader> headers;
+  /**
+   * The indices of the tasks depending on each item of market data.
+   */
+  private final ImmutableSetMultimap<MarketDataId<?>, Integer> dependentTasks;
+  /**
+   * The results of the last calculation, null until the first calculation.
+   */
+  private Results results;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains a session that uses the task runner of the specified calculation runner.
+   * <p>
+   * The session does not manage the life-cycle of the runner.
+   *
+   * @param runner  the calculation runner
+   * @param tasks  the calculation tasks
+   * @param refData  the reference data
+   * @return the session
+   */
+  public static CalculationSession of(CalculationRunner runner, CalculationTasks tasks, ReferenceData refData) {
+    ArgChecker.notNull(runner, "runner");
+    return new CalculationSession(runner.getTaskRunner(), tasks, refData);
+  }
+
+  /**
+   * Obtains a session that uses the specified task runner.
+   * <p>
+   * The session does not manage the life-cycle of the runner.
+   *
+   * @param taskRunner  the calculation task runner
+   * @param tasks  the calculation tasks
+   * @param refData  the reference data
+   * @return the session
+   */
+  public static CalculationSession of(CalculationTaskRunner taskRunner, CalculationTasks tasks, ReferenceData refData) {
+    return new CalculationSession(taskRunner, tasks, refData);
+  }
+
+  // restricted constructor
+  private CalculationSession(CalculationTaskRunner taskRunner, CalculationTasks tasks, ReferenceData refData) {
+    this.taskRunner = ArgChecker.notNull(taskRunner, "taskRunner");
+    this.tasks = ArgChecker.notNull(tasks, "tasks");
+    this.refData = ArgChecker.notNull(refData, "refData");
+    this.headers = tasks.getColumns().stream()
+        .map(c -> c.toHeader())
+        .collect(toImmutableList());
+    this.dependentTasks = dependentTasks(tasks.getTasks(), refData);
+  }
+
+  // maps each item of market data to the tasks requiring it
+  private static ImmutableSetMultimap<MarketDataId<?>, Integer> dependentTasks(
+      List<CalculationTask> tasks,
+      ReferenceData refData) {
+
+    ImmutableSetMultimap.Builder<MarketDataId<?>, Integer> builder = ImmutableSetMultimap.builder();
+    for (int i = 0; i < tasks.size(); i++) {
+      MarketDataRequirements requirements = tasks.get(i).requirements(refData);
+      Integer index = i;
+      requirements.getNonObservables().forEach(id -> builder.put(id, index));
+      requirements.getObservables().forEach(id -> builder.put(id, index));
+      requirements.getTimeSeries().forEach(id -> builder.put(id, index));
+    }
+    return builder.build();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the calculation tasks.
+   *
+   * @return the calculation tasks
+   */
+  public CalculationTasks getTasks() {
+    return tasks;
+  }
+
+  /**
+   * Gets the results of the last calculation.
+   *
+   * @return the results, empty if nothing has been calculated
+   */
+  public synchronized Optional<Results> getResults() {
+    return Optional.ofNullable(results);
+  }
+
+  /**
+   * Finds the tasks affected by a change to the specified market data.
+   * <p>
+   * A task is affected if its market data requirements include any of the IDs.
+   *
+   * @param changedIds  the IDs of the changed market data
+   * @return the affected tasks, in the order of the calculation tasks
+   */
+  public ImmutableList<CalculationTask> affectedTasks(Set<? extends MarketDataId<?>> changedIds) {
+    ArgChecker.notNull(changedIds, "changedIds");
+    SortedSet<Integer> indices = new TreeSet<>();
+    for (MarketDataId<?> id : changedIds) {
+      indices.addAll(dependentTasks.get(id));
+    }
+    return indices.stream()
+        .map(i -> tasks.getTasks().get(i))
+        .collect(toImmutableList());
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Calculates all the results, replacing the retained results.
+   *
+   * @param marketData  the market data to be used in the calculations
+   * @return the results
+   */
+  public synchronized Results calculate(ScenarioMarketData marketData) {
+    ArgChecker.notNull(marketData, "marketData");
+    results = taskRunner.calculateMultipleScenarios(tasks, marketData, refData);
+    return results;
+  }
+
+  /**
+   * Recalculates the results affected by a change to the market data.
+   * <p>
+   * The tasks depending on any of the changed IDs are run using the market data,
+   * and the listener receives their results as they are calculated.
+   * If nothing has been calculated yet, all the tasks are run.
+   * This method blocks until the calculations are complete.
+   *
+   * @param marketData  the updated market data to be used in the calculations
+   * @param changedIds  the IDs of the market data changed since the last calculation
+   * @param listener  listener that is invoked when individual results are calculated
+   * @return the results, containing the new results of the affected cells and the retained results of the others
+   */
+  public synchronized Results update(
+      ScenarioMarketData marketData,
+      Set<? extends MarketDataId<?>> changedIds,
+      CalculationListener listener) {
+
+    ArgChecker.notNull(marketData, "marketData");
+    ArgChecker.notNull(listener, "listener");
+    List<CalculationTask> affected = results == null ? tasks.getTasks() : affectedTasks(changedIds);
+    DeltaListener deltaListener = new DeltaListener(listener);
+    taskRunner.calculateTasksAsync(affected, marketData, refData, deltaListener);
+    List<CalculationResult> delta = deltaListener.result();
+    results = merge(delta);
+    return results;
+  }
+
+  /**
+   * Recalculates the results affected by a rebuild of the market data.
+   * <p>
+   * The tasks depending on any of the {@linkplain IncrementalMarketData#getRebuiltIds() rebuilt IDs}
+   * are run using the rebuilt market data, and the listener receives their results as they are calculated.
+   * This method blocks until the calculations are complete.
+   *
+   * @param marketData  the rebuilt market data
+   * @param listener  listener that is invoked when individual results are calculated
+   * @return the results, containing the new results of the affected cells and the retained results of the others
+   */
+  public Results update(IncrementalMarketData marketData, CalculationListener listener) {
+    ArgChecker.notNull(marketData, "marketData");
+    return update(marketData.getMarketData(), marketData.getRebuiltIds(), listener);
+  }
+
+  // merges the new results into the retained results
+  // if there are no retained results, all the tasks have been run and every cell is replaced
+  private Results merge(List<CalculationResult> delta) {
+    int columnCount = headers.size();
+    Result<?>[] cells = results != null ?
+        results.getCells().toArray(new Result<?>[0]) :
+        new Result<?>[tasks.getTargets().size() * columnCount];
+    for (CalculationResult result : delta) {
+      cells[result.getRowIndex() * columnCount + result.getColumnIndex()] = result.getResult();
+    }
+    return Results.of(headers, Arrays.asList(cells));
+  }
+
+  @Override
+  public String toString() {
+    return "CalculationSession[" + tasks + "]";
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Listener that collects the results and passes them to a delegate listener.
+   */
+  private static final class DeltaListener implements CalculationListener {
+
+    /** The delegate listener. */
+    private final CalculationListener delegate;
+    /** The results received, only accessed by one thread at a time. */
+    private final List<CalculationResult> received = new ArrayList<>();
+    /** The future completed when the calculations are complete. */
+    private final CompletableFuture<List<CalculationResult>> future = new CompletableFuture<>();
+
+    private DeltaListener(CalculationListener delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void resultReceived(CalculationTarget target, CalculationResult result) {
+      received.add(result);
+      delegate.resultReceived(target, result);
+    }
+
+    @Override
+    public void calculationsComplete() {
+      try {
+        delegate.calculationsComplete();
+      } finally {
+        future.complete(received);
+      }
+    }
+
+    // blocks until the calculations are complete
+    private List<CalculationResult> result() {
+      return future.join();
+    }
+  }
+
+}
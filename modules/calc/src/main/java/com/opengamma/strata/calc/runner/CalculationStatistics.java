@@ -0,0 +1,159 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import java.util.Objects;
+
+import com.opengamma.strata.collect.Messages;
+
+/**
+ * Statistics of the calculation tasks run for a calculation function, measure or target type.
+ * <p>
+ * Each statistic is a histogram containing a value for each task.
+ * Times are in nanoseconds. The CPU time and allocated bytes are only recorded if
+ * they are supported by the JVM, in which case their histograms may contain fewer values.
+ * <p>
+ * This class is immutable and thread-safe. Instances are snapshots created by {@link CalculationMetrics}.
+ */
+public final class CalculationStatistics {
+
+  /**
+   * Statistics containing no tasks.
+   */
+  static final CalculationStatistics EMPTY = new CalculationStatistics(
+      MetricHistogram.EMPTY,
+      MetricHistogram.EMPTY,
+      MetricHistogram.EMPTY,
+      MetricHistogram.EMPTY,
+      MetricHistogram.EMPTY);
+
+  /**
+   * The wall-clock time taken to run each task.
+   */
+  private final MetricHistogram wallTime;
+  /**
+   * The CPU time used by the thread running each task.
+   */
+  private final MetricHistogram cpuTime;
+  /**
+   * The bytes allocated by the thread running each task.
+   */
+  private final MetricHistogram allocatedBytes;
+  /**
+   * The time each task waited between being submitted and starting to run.
+   */
+  private final MetricHistogram queueWaitTime;
+  /**
+   * The number of market data lookups made by each task.
+   */
+  private final MetricHistogram marketDataLookups;
+
+  // restricted constructor
+  CalculationStatistics(
+      MetricHistogram wallTime,
+      MetricHistogram cpuTime,
+      MetricHistogram allocatedBytes,
+      MetricHistogram queueWaitTime,
+      MetricHistogram marketDataLookups) {
+
+    this.wallTime = wallTime;
+    this.cpuTime = cpuTime;
+    this.allocatedBytes = allocatedBytes;
+    this.queueWaitTime = queueWaitTime;
+    this.marketDataLookups = marketDataLookups;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the number of tasks.
+   *
+   * @return the number of tasks
+   */
+  public long getTaskCount() {
+    return wallTime.getCount();
+  }
+
+  /**
+   * Gets the wall-clock time taken to run each task, in nanoseconds.
+   *
+   * @return the histogram of the wall-clock time
+   */
+  public MetricHistogram getWallTime() {
+    return wallTime;
+  }
+
+  /**
+   * Gets the CPU time used by the thread running each task, in nanoseconds.
+   *
+   * @return the histogram of the CPU time, empty if not supported by the JVM
+   */
+  public MetricHistogram getCpuTime() {
+    return cpuTime;
+  }
+
+  /**
+   * Gets the number of bytes allocated by the thread running each task.
+   *
+   * @return the histogram of the allocated bytes, empty if not supported by the JVM
+   */
+  public MetricHistogram getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  /**
+   * Gets the time each task waited between being submitted and starting to run, in nanoseconds.
+   *
+   * @return the histogram of the queue wait time
+   */
+  public MetricHistogram getQueueWaitTime() {
+    return queueWaitTime;
+  }
+
+  /**
+   * Gets the number of market data lookups made by each task.
+   * <p>
+   * A lookup is a request for a value, time-series or set of IDs from the market data,
+   * including those made when converting the results to the reporting currency.
+   *
+   * @return the histogram of the market data lookups
+   */
+  public MetricHistogram getMarketDataLookups() {
+    return marketDataLookups;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (obj instanceof CalculationStatistics) {
+      CalculationStatistics other = (CalculationStatistics) obj;
+      return wallTime.equals(other.wallTime) &&
+          cpuTime.equals(other.cpuTime) &&
+          allocatedBytes.equals(other.allocatedBytes) &&
+          queueWaitTime.equals(other.queueWaitTime) &&
+          marketDataLookups.equals(other.marketDataLookups);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(wallTime, cpuTime, allocatedBytes, queueWaitTime, marketDataLookups);
+  }
+
+  @Override
+  public String toString() {
+    return Messages.format(
+        "CalculationStatistics[taskCount={}, wallTime={}, cpuTime={}, queueWaitTime={}]",
+        getTaskCount(),
+        wallTime,
+        cpuTime,
+        queueWaitTime);
+  }
+
+}
@@ -7,6 +7,7 @@ package com.opengamma.strata.calc.runner;
 
 import java.util.List;
 import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
 
 import com.opengamma.strata.basics.ReferenceData;
 import com.opengamma.strata.calc.CalculationRules;
@@ -78,6 +79,47 @@ public interface CalculationTaskRunner extends AutoCloseable {
     return DefaultCalculationTaskRunner.of(executor);
   }
 
+  /**
+   * Creates a calculation task runner capable of performing calculations, specifying the executor
+   * and the metrics recording the performance of each task.
+   * <p>
+   * It is the callers responsibility to manage the life-cycle of the executor.
+   * 
+   * @param executor  the executor to use
+   * @param metrics  the metrics to record
+   * @return the calculation task runner
+   */
+  public static CalculationTaskRunner of(ExecutorService executor, CalculationMetrics metrics) {
+    return DefaultCalculationTaskRunner.of(executor, metrics);
+  }
+
+  /**
+   * Creates a calculation task runner that partitions the tasks across worker processes.
+   * <p>
+   * The worker processes are JVMs started by this method using the Java installation and class path
+   * of the current process. They communicate with the runner over loopback sockets.
+   * Each worker receives its partition of the tasks and the subset of the market data they require,
+   * and the results are streamed back to the listener as they are calculated.
+   * <p>
+   * The targets, parameters, market data, reference data and results must be serializable.
+   * Calculation functions that are not serializable must be stateless, with a public no-arguments constructor,
+   * as they are created by the workers using that constructor.
+   * The worker processes are stopped when the runner is closed:
+   * <pre>
+   *  try (CalculationTaskRunner runner = CalculationTaskRunner.ofProcesses(4, ImmutableList.of("-Xmx8g"))) {
+   *    // use the runner
+   *  }
+   * </pre>
+   * 
+   * @param workerCount  the number of worker processes
+   * @param jvmArguments  the arguments of the worker JVMs, such as the maximum heap size
+   * @return the calculation task runner
+   * @throws java.io.UncheckedIOException if the worker processes cannot be started
+   */
+  public static CalculationTaskRunner ofProcesses(int workerCount, List<String> jvmArguments) {
+    return ProcessCalculationTaskRunner.of(workerCount, jvmArguments);
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Performs calculations for a single set of market data.
@@ -151,6 +193,37 @@ public interface CalculationTaskRunner extends AutoCloseable {
       ReferenceData refData,
       CalculationListener listener);
 
+  /**
+   * Performs a subset of the calculation tasks asynchronously for multiple scenarios,
+   * invoking a listener as each calculation completes.
+   * <p>
+   * This is used to recalculate the cells affected by a change to the market data,
+   * see {@link CalculationSession}. The listener only receives the results of the specified tasks.
+   * If there are no tasks, the listener is notified that the calculations are complete immediately.
+   * <p>
+   * The default implementation calculates the tasks one after the other in the calling thread,
+   * so the listener has received all the results when it returns.
+   * Implementations should override it to calculate the tasks concurrently.
+   * 
+   * @param tasks  the calculation tasks to invoke, which may be empty
+   * @param marketData  the market data to be used in the calculations
+   * @param refData  the reference data to be used in the calculations
+   * @param listener  listener that is invoked when individual results are calculated
+   */
+  public default void calculateTasksAsync(
+      List<CalculationTask> tasks,
+      ScenarioMarketData marketData,
+      ReferenceData refData,
+      CalculationListener listener) {
+
+    if (tasks.isEmpty()) {
+      listener.calculationsComplete();
+      return;
+    }
+    Consumer<CalculationResults> consumer = new ListenerWrapper(listener, tasks.size());
+    tasks.forEach(task -> consumer.accept(task.execute(marketData, refData)));
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Closes any resources held by the component.
@@ -0,0 +1,171 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.calc.runner.WorkerProtocol.CalculateMessage;
+import com.opengamma.strata.calc.runner.WorkerProtocol.ReferenceDataMessage;
+import com.opengamma.strata.calc.runner.WorkerProtocol.ResultMessage;
+import com.opengamma.strata.calc.runner.WorkerProtocol.ShutdownMessage;
+import com.opengamma.strata.calc.runner.WorkerProtocol.TaskDefinition;
+import com.opengamma.strata.collect.result.FailureReason;
+import com.opengamma.strata.collect.result.Result;
+
+/**
+ * The entry point of a worker process started by a multi-process calculation task runner.
+ * <p>
+ * The worker connects to the parent process over a loopback socket, presenting the token it was given
+ * in its environment, and calculates the tasks it receives, sending the results of each task back to
+ * the parent as soon as it is calculated. Results that cannot be serialized are sent as failures.
+ * The tasks are calculated using a thread-pool. The worker exits when asked to by the parent,
+ * or when the connection to the parent is closed.
+ * <p>
+ * The worker is started by {@link CalculationTaskRunner#ofProcesses(int, List)}, and is not intended to be
+ * started directly. The arguments are the port of the parent and, optionally, the number of threads.
+ */
+public final class CalculationWorker {
+
+  private static final Logger log = LoggerFactory.getLogger(CalculationWorker.class);
+
+  /**
+   * The stream from which messages are read.
+   */
+  private final DataInputStream in;
+  /**
+   * The stream to which results are written, also used as the lock when writing.
+   */
+  private final DataOutputStream out;
+  /**
+   * The executor calculating the tasks.
+   */
+  private final ExecutorService executor;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Runs a worker process.
+   *
+   * @param args  the port of the parent process and, optionally, the number of threads
+   * @throws IOException if an error occurs communicating with the parent process
+   */
+  public static void main(String[] args) throws IOException {
+    int port = Integer.parseInt(args[0]);
+    int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+    String token = System.getenv(WorkerProtocol.TOKEN_VARIABLE);
+    if (token == null) {
+      throw new IllegalStateException(
+          "Worker process must be started by a calculation task runner, environment variable " +
+              WorkerProtocol.TOKEN_VARIABLE + " is not set");
+    }
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+      new CalculationWorker(socket, threads, token).run();
+    }
+  }
+
+  // restricted constructor
+  private CalculationWorker(Socket socket, int threads, String token) throws IOException {
+    // the token is sent first, as the parent only sends messages once the connection is accepted
+    this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    this.out.writeUTF(token);
+    this.out.flush();
+    this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+    this.executor = Executors.newFixedThreadPool(Math.max(threads, 1));
+  }
+
+  //-------------------------------------------------------------------------
+  // reads and handles messages until asked to stop
+  private void run() throws IOException {
+    ReferenceData refData = ReferenceData.empty();
+    try {
+      while (true) {
+        Object message = WorkerProtocol.readFrame(in);
+        if (message instanceof ReferenceDataMessage) {
+          refData = ((ReferenceDataMessage) message).refData;
+        } else if (message instanceof CalculateMessage) {
+          calculate((CalculateMessage) message, refData);
+        } else if (message instanceof ShutdownMessage) {
+          return;
+        } else {
+          throw new IllegalStateException("Unexpected message: " + message);
+        }
+      }
+    } catch (EOFException ex) {
+      // the parent has closed the connection
+    } catch (ClassNotFoundException ex) {
+      throw new IllegalStateException("Unable to read message from parent process", ex);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  // submits the tasks to the executor
+  private void calculate(CalculateMessage message, ReferenceData refData) {
+    for (TaskDefinition task : message.tasks) {
+      executor.execute(() -> {
+        List<CalculationResult> cells = calculate(task, message, refData);
+        send(resultMessage(message.calculationId, task, cells));
+      });
+    }
+  }
+
+  // calculates a task, returning a failure for each cell if the task cannot be created
+  private static List<CalculationResult> calculate(
+      TaskDefinition task,
+      CalculateMessage message,
+      ReferenceData refData) {
+
+    try {
+      return task.toTask().execute(message.marketData, refData).getCells();
+    } catch (RuntimeException ex) {
+      log.warn("Failed to calculate task in worker process", ex);
+      return task.failures(Result.failure(ex, "Unable to calculate task in worker process: {}", ex.getMessage()));
+    }
+  }
+
+  // creates the message containing the results, replacing them with failures if they cannot be serialized
+  private static ResultMessage resultMessage(long calculationId, TaskDefinition task, List<CalculationResult> cells) {
+    try {
+      return ResultMessage.of(calculationId, task.taskIndex, cells);
+    } catch (IOException ex) {
+      log.warn("Failed to serialize results in worker process", ex);
+      Result<?> failure = Result.failure(
+          FailureReason.ERROR, ex, "Unable to serialize results in worker process: {}", ex.getMessage());
+      try {
+        return ResultMessage.of(calculationId, task.taskIndex, task.failures(failure));
+      } catch (IOException ex2) {
+        throw new UncheckedIOException(ex2);
+      }
+    }
+  }
+
+  // sends a message to the parent
+  private void send(ResultMessage message) {
+    synchronized (out) {
+      try {
+        message.write(out);
+        out.flush();
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
+
+import com.opengamma.strata.basics.CalculationTarget;
+import com.opengamma.strata.calc.ColumnarResults;
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * Calculation listener that receives the results of individual calculations
+ * and builds a set of {@link ColumnarResults}.
+ * <p>
+ * This is used with the asynchronous methods of {@link CalculationTaskRunner} when the results
+ * contain a large number of scalar values, as the results are stored in primitive arrays as they arrive.
+ * <pre>
+ *  ColumnarResultsListener listener = ColumnarResultsListener.of(tasks);
+ *  taskRunner.calculateMultipleScenariosAsync(tasks, marketData, refData, listener);
+ *  ColumnarResults results = listener.result();
+ * </pre>
+ */
+public final class ColumnarResultsListener extends AggregatingCalculationListener<ColumnarResults> {
+
+  /**
+   * The builder populated with the results as they arrive.
+   */
+  private final ColumnarResults.Builder builder;
+
+  /**
+   * Obtains a listener for the results of the specified tasks.
+   *
+   * @param tasks  the calculation tasks
+   * @return the listener
+   */
+  public static ColumnarResultsListener of(CalculationTasks tasks) {
+    return new ColumnarResultsListener(tasks);
+  }
+
+  // restricted constructor
+  private ColumnarResultsListener(CalculationTasks tasks) {
+    ArgChecker.notNull(tasks, "tasks");
+    this.builder = ColumnarResults.builder(
+        tasks.getColumns().stream().map(c -> c.toHeader()).collect(toImmutableList()),
+        tasks.getTargets().size());
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public void resultReceived(CalculationTarget target, CalculationResult result) {
+    builder.set(result.getRowIndex(), result.getColumnIndex(), result.getResult());
+  }
+
+  @Override
+  protected ColumnarResults createAggregateResult() {
+    return builder.build();
+  }
+
+}
@@ -7,8 +7,7 @@ package com.opengamma.strata.calc.runner;
 
 import static com.opengamma.strata.collect.Guavate.toImmutableList;
 
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
@@ -19,7 +18,6 @@ import java.util.function.Supplier;
 
 import com.opengamma.strata.basics.CalculationTarget;
 import com.opengamma.strata.basics.ReferenceData;
-import com.opengamma.strata.calc.Column;
 import com.opengamma.strata.calc.ColumnHeader;
 import com.opengamma.strata.calc.Results;
 import com.opengamma.strata.collect.ArgChecker;
@@ -40,6 +38,10 @@ class DefaultCalculationTaskRunner implements CalculationTaskRunner {
    * This will typically be multi-threaded, but single or direct executors also work.
    */
   private final ExecutorService executor;
+  /**
+   * The metrics recorded for each task, null if metrics are not recorded.
+   */
+  private final CalculationMetrics metrics;
 
   //-------------------------------------------------------------------------
   /**
@@ -56,7 +58,7 @@ class DefaultCalculationTaskRunner implements CalculationTaskRunner {
    * @return the calculation task runner
    */
   static DefaultCalculationTaskRunner ofMultiThreaded() {
-    return new DefaultCalculationTaskRunner(createExecutor(Runtime.getRuntime().availableProcessors()));
+    return new DefaultCalculationTaskRunner(createExecutor(Runtime.getRuntime().availableProcessors()), null);
   }
 
   /**
@@ -68,7 +70,21 @@ class DefaultCalculationTaskRunner implements CalculationTaskRunner {
    * @return the calculation task runner
    */
   static DefaultCalculationTaskRunner of(ExecutorService executor) {
-    return new DefaultCalculationTaskRunner(executor);
+    return new DefaultCalculationTaskRunner(executor, null);
+  }
+
+  /**
+   * Creates a calculation task runner capable of performing calculations, specifying the executor
+   * and the metrics recording the performance of each task.
+   * <p>
+   * It is the callers responsibility to manage the life-cycle of the executor.
+   * 
+   * @param executor  the executor to use
+   * @param metrics  the metrics to record
+   * @return the calculation task runner
+   */
+  static DefaultCalculationTaskRunner of(ExecutorService executor, CalculationMetrics metrics) {
+    return new DefaultCalculationTaskRunner(executor, ArgChecker.notNull(metrics, "metrics"));
   }
 
   // create an executor with daemon threads
@@ -88,9 +104,11 @@ class DefaultCalculationTaskRunner implements CalculationTaskRunner {
    * Creates an instance specifying the executor to use.
    * 
    * @param executor  the executor that is used to perform the calculations
+   * @param metrics  the metrics recorded for each task, null if metrics are not recorded
    */
-  private DefaultCalculationTaskRunner(ExecutorService executor) {
+  private DefaultCalculationTaskRunner(ExecutorService executor, CalculationMetrics metrics) {
     this.executor = ArgChecker.notNull(executor, "executor");
+    this.metrics = metrics;
   }
 
   //-------------------------------------------------------------------------
@@ -124,7 +142,7 @@ class DefaultCalculationTaskRunner implements CalculationTaskRunner {
    * <p>
    * If this method is called with a {@code ScenarioArray} containing more than one value it throws an exception.
    */
-  private static Result<?> unwrapScenarioResult(Result<?> result) {
+  static Result<?> unwrapScenarioResult(Result<?> result) {
     if (result.isFailure()) {
       return result;
     }
@@ -147,7 +165,7 @@ class DefaultCalculationTaskRunner implements CalculationTaskRunner {
       ScenarioMarketData marketData,
       ReferenceData refData) {
 
-    AggregatingListener listener = new AggregatingListener(tasks.getColumns());
+    AggregatingListener listener = new AggregatingListener(tasks);
     calculateMultipleScenariosAsync(tasks, marketData, refData, listener);
     return listener.result();
   }
@@ -180,6 +198,21 @@ class DefaultCalculationTaskRunner implements CalculationTaskRunner {
     taskList.stream().forEach(task -> runTask(task, marketData, refData, consumer));
   }
 
+  @Override
+  public void calculateTasksAsync(
+      List<CalculationTask> tasks,
+      ScenarioMarketData marketData,
+      ReferenceData refData,
+      CalculationListener listener) {
+
+    if (tasks.isEmpty()) {
+      listener.calculationsComplete();
+      return;
+    }
+    Consumer<CalculationResults> consumer = new ListenerWrapper(listener, tasks.size());
+    tasks.stream().forEach(task -> runTask(task, marketData, refData, consumer));
+  }
+
   // submits a task to the executor to be run
   private void runTask(
       CalculationTask task,
@@ -189,7 +222,10 @@ class DefaultCalculationTaskRunner implements CalculationTaskRunner {
 
     // the task is executed, with the result passed to the consumer
     // the consumer wraps the listener to ensure thread-safety
-    Supplier<CalculationResults> taskExecutor = () -> task.execute(marketData, refData);
+    // the task is only instrumented if metrics are recorded
+    Supplier<CalculationResults> taskExecutor = metrics == null ?
+        () -> task.execute(marketData, refData) :
+        metrics.instrument(task, marketData, refData);
     CompletableFuture.supplyAsync(taskExecutor, executor).thenAccept(consumer);
   }
 
@@ -203,51 +239,33 @@ class DefaultCalculationTaskRunner implements CalculationTaskRunner {
   /**
    * Calculation listener that receives the results of individual calculations
    * and builds a set of {@link Results}. This is used by the non-async methods.
+   * <p>
+   * The results are stored directly in their cell of the grid, which is sized
+   * from the number of targets and columns, thus no sorting is required.
    */
-  private static final class AggregatingListener extends AggregatingCalculationListener<Results> {
-
-    /** Comparator for sorting the results by row and then column. */
-    private static final Comparator<CalculationResult> COMPARATOR =
-        Comparator.comparingInt(CalculationResult::getRowIndex)
-            .thenComparingInt(CalculationResult::getColumnIndex);
+  static final class AggregatingListener extends AggregatingCalculationListener<Results> {
 
-    /** List that is populated with the results as they arrive. */
-    private final List<CalculationResult> results = new ArrayList<>();
+    /** The results of each cell, indexed by row and then column, populated as they arrive. */
+    private final Result<?>[] cells;
 
-    /** The columns that define what values are calculated. */
-    private final List<Column> columns;
+    /** The headers of the columns that define what values are calculated. */
+    private final List<ColumnHeader> headers;
 
-    private AggregatingListener(List<Column> columns) {
-      this.columns = columns;
+    AggregatingListener(CalculationTasks tasks) {
+      this.headers = tasks.getColumns().stream()
+          .map(c -> c.toHeader())
+          .collect(toImmutableList());
+      this.cells = new Result<?>[tasks.getTargets().size() * headers.size()];
     }
 
     @Override
     public void resultReceived(CalculationTarget target, CalculationResult result) {
-      results.add(result);
+      cells[result.getRowIndex() * headers.size() + result.getColumnIndex()] = result.getResult();
     }
 
     @Override
     protected Results createAggregateResult() {
-      results.sort(COMPARATOR);
-      return buildResults(results, columns);
-    }
-
-    /**
-     * Builds a set of results from the results of the individual calculations.
-     *
-     * @param calculationResults  the results of the individual calculations
-     * @param columns  the columns that define what values are calculated
-     * @return the results
-     */
-    private static Results buildResults(List<CalculationResult> calculationResults, List<Column> columns) {
-      List<Result<?>> results =
-          calculationResults.stream()
-              .map(r -> r.getResult())
-              .collect(toImmutableList());
-      List<ColumnHeader> headers = columns.stream()
-          .map(c -> c.toHeader())
-          .collect(toImmutableList());
-      return Results.of(headers, results);
+      return Results.of(headers, Arrays.asList(cells));
     }
   }
 
@@ -257,11 +275,11 @@ class DefaultCalculationTaskRunner implements CalculationTaskRunner {
    * containing a single value before passing the value to the delegate listener.
    * This is used by the single scenario async method.
    */
-  private static final class UnwrappingListener implements CalculationListener {
+  static final class UnwrappingListener implements CalculationListener {
 
     private final CalculationListener delegate;
 
-    private UnwrappingListener(CalculationListener delegate) {
+    UnwrappingListener(CalculationListener delegate) {
       this.delegate = delegate;
     }
 
@@ -5,10 +5,9 @@
  */
 package com.opengamma.strata.calc.runner;
 
-import java.util.LinkedList;
 import java.util.Queue;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 import org.slf4j.Logger;
@@ -26,6 +25,11 @@ import com.opengamma.strata.collect.ArgChecker;
  * Calculations may be performed in bulk for a given target.
  * The logic in this class unwraps the {@link CalculationResults}, calling the
  * listener with each individual {@link CalculationResult}.
+ * <p>
+ * Delivery is lock-free. Each result is added to a concurrent queue and a counter of
+ * undelivered results is incremented. The thread that increments the counter from zero
+ * delivers results from the queue until the counter returns to zero.
+ * No thread ever blocks waiting for another.
  */
 final class ListenerWrapper implements Consumer<CalculationResults> {
 
@@ -34,11 +38,14 @@ final class ListenerWrapper implements Consumer<CalculationResults> {
   /** The wrapped listener. */
   private final CalculationListener listener;
 
-  /** Queue of actions to perform on the delegate. */
-  private final Queue<CalculationResults> queue = new LinkedList<>();
+  /** Queue of results to deliver to the delegate, safe for multiple producers. */
+  private final Queue<CalculationResults> queue = new ConcurrentLinkedQueue<>();
 
-  /** Protects the queue and the executing flag. */
-  private final Lock lock = new ReentrantLock();
+  /**
+   * The number of results added to the queue and not yet delivered.
+   * The thread that increments this from zero delivers results until it returns to zero.
+   */
+  private final AtomicInteger pending = new AtomicInteger();
 
   /** The total number of tasks to be executed. */
   private final int tasksExpected;
@@ -46,21 +53,10 @@ final class ListenerWrapper implements Consumer<CalculationResults> {
   // Mutable state -----------------------------------------------------
 
   /**
-   * Flags whether a call to the underlying listener is executing.
-   * If this flag is set when {@link #accept} is called, the result is added to
-   * the queue and the calling thread returns. The executing thread will ensure
-   * all queued results are delivered.
+   * The number of task results that have been delivered.
+   * This is only accessed by the delivering thread. Successive delivering threads
+   * see the latest value as the hand-over is ordered by the {@link #pending} counter.
    */
-  private boolean executing;
-
-  /**
-   * Flags whether the calculations are complete.
-   * This is set when the number of results received equals {@link #tasksExpected}.
-   * This causes a call to {@link CalculationListener#calculationsComplete()}.
-   */
-  private boolean complete;
-
-  /** The number of task results that have been received. */
   private int tasksReceived;
 
   //-------------------------------------------------------------------------
@@ -91,61 +87,30 @@ final class ListenerWrapper implements Consumer<CalculationResults> {
    */
   @Override
   public void accept(CalculationResults result) {
-    // This is mutated while protected by the lock and accessed while not protected.
-    // This is safe because the executing flag ensures the thread that accesses the
-    // variable while unlocked is the same thread that set its value while guarded by the lock.
-    CalculationResults nextResult;
-
-    lock.lock();
-    try {
-      if (executing) {
-        // Another thread is already invoking the listener. Add the result to
-        // the queue and return. The other thread will ensure the queued results
-        // are delivered.
-        queue.add(result);
-        return;
-      } else {
-        // There is no thread invoking the listener. Set the executing flag to
-        // ensure no other thread passes this point and invoke the listener.
-        executing = true;
-        nextResult = result;
-      }
-    } finally {
-      lock.unlock();
+    queue.add(result);
+    if (pending.getAndIncrement() != 0) {
+      // Another thread is delivering results. It will deliver this result
+      // as it does not stop until the pending count returns to zero.
+      return;
     }
-    // Loop until the nextResult and all the results from the queue have been delivered
-    for (;;) {
+    // Loop until all the results from the queue have been delivered
+    boolean complete = false;
+    do {
+      // the result is present as it was queued before the pending count was incremented
+      CalculationResults nextResult = queue.poll();
       try {
-        // Invoke the listener while not protected by the lock. This allows other threads
-        // to queue results while this thread is delivering them to the listener.
         for (CalculationResult cell : nextResult.getCells()) {
           listener.resultReceived(nextResult.getTarget(), cell);
         }
       } catch (RuntimeException e) {
         log.warn("Exception invoking listener.resultReceived", e);
       }
-      lock.lock();
-      try {
-        if (++tasksReceived == tasksExpected) {
-          // The expected number of results have been received. Set the complete
-          // flag to trigger a call to listener.calculationsComplete after unlocking
-          complete = true;
-          break;
-        } else if (queue.isEmpty()) {
-          // There are no more results to deliver. Unset the executing flag and return.
-          // This allows the next calling thread to deliver results.
-          executing = false;
-          break;
-        } else {
-          // There are results on the queue. This means another thread called accept(),
-          // added a result to the queue and returned while this thread was invoking the listener.
-          // This thread must deliver the results from the queue.
-          nextResult = queue.remove();
-        }
-      } finally {
-        lock.unlock();
+      if (++tasksReceived == tasksExpected) {
+        // The expected number of results have been received
+        complete = true;
       }
-    }
+    } while (pending.decrementAndGet() != 0);
+
     if (complete) {
       try {
         listener.calculationsComplete();
@@ -0,0 +1,233 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.Messages;
+
+/**
+ * A histogram of the values of a metric recorded during calculations.
+ * <p>
+ * The values are non-negative integers, such as a time in nanoseconds or a number of bytes.
+ * The values are counted in buckets whose bounds are powers of two. Bucket zero counts the values
+ * equal to zero, and bucket {@code i} counts the values from 2<sup>i-1</sup> to 2<sup>i</sup>-1.
+ * The exact count, sum, minimum and maximum of the values are also available.
+ * <p>
+ * This class is immutable and thread-safe. Instances are snapshots created by {@link CalculationMetrics}.
+ */
+public final class MetricHistogram {
+
+  /**
+   * The number of buckets.
+   */
+  static final int BUCKET_COUNT = 65;
+  /**
+   * An empty histogram.
+   */
+  static final MetricHistogram EMPTY = new MetricHistogram(new long[BUCKET_COUNT], 0, 0, 0, 0);
+
+  /**
+   * The number of values in each bucket.
+   */
+  private final long[] bucketCounts;
+  /**
+   * The number of values.
+   */
+  private final long count;
+  /**
+   * The sum of the values.
+   */
+  private final long sum;
+  /**
+   * The minimum value, zero if empty.
+   */
+  private final long min;
+  /**
+   * The maximum value, zero if empty.
+   */
+  private final long max;
+
+  // restricted constructor
+  private MetricHistogram(long[] bucketCounts, long count, long sum, long min, long max) {
+    this.bucketCounts = bucketCounts;
+    this.count = count;
+    this.sum = sum;
+    this.min = min;
+    this.max = max;
+  }
+
+  // finds the bucket of a value
+  private static int bucket(long value) {
+    return value <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(value);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the number of values.
+   *
+   * @return the number of values
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Gets the sum of the values.
+   *
+   * @return the sum of the values
+   */
+  public long getSum() {
+    return sum;
+  }
+
+  /**
+   * Gets the minimum value.
+   *
+   * @return the minimum value, zero if there are no values
+   */
+  public long getMin() {
+    return min;
+  }
+
+  /**
+   * Gets the maximum value.
+   *
+   * @return the maximum value, zero if there are no values
+   */
+  public long getMax() {
+    return max;
+  }
+
+  /**
+   * Gets the mean of the values.
+   *
+   * @return the mean of the values, zero if there are no values
+   */
+  public double getMean() {
+    return count == 0 ? 0d : (double) sum / count;
+  }
+
+  /**
+   * Gets the number of values in each bucket.
+   * <p>
+   * The array has 65 elements, bucket {@code i} counting the values from 2<sup>i-1</sup> to 2<sup>i</sup>-1.
+   *
+   * @return the number of values in each bucket
+   */
+  public long[] getBucketCounts() {
+    return bucketCounts.clone();
+  }
+
+  /**
+   * Estimates a percentile of the values.
+   * <p>
+   * The estimate is the upper bound of the bucket containing the percentile, capped by the maximum value.
+   * It is therefore at most twice the actual percentile.
+   *
+   * @param percentile  the percentile, from 0 to 1 inclusive
+   * @return the estimated percentile, zero if there are no values
+   */
+  public long percentile(double percentile) {
+    ArgChecker.inRangeInclusive(percentile, 0d, 1d, "percentile");
+    if (count == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile * count));
+    long cumulative = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      cumulative += bucketCounts[i];
+      if (cumulative >= rank) {
+        long upperBound = i == 0 ? 0 : i == 64 ? Long.MAX_VALUE : (1L << i) - 1;
+        return Math.min(upperBound, max);
+      }
+    }
+    return max;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (obj instanceof MetricHistogram) {
+      MetricHistogram other = (MetricHistogram) obj;
+      return count == other.count &&
+          sum == other.sum &&
+          min == other.min &&
+          max == other.max &&
+          Arrays.equals(bucketCounts, other.bucketCounts);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(count) * 31 + Long.hashCode(sum) * 17 + Arrays.hashCode(bucketCounts);
+  }
+
+  @Override
+  public String toString() {
+    return Messages.format(
+        "MetricHistogram[count={}, mean={}, min={}, max={}]", count, getMean(), min, max);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Records values, creating snapshots of the histogram.
+   * <p>
+   * Values can be recorded concurrently by multiple threads without locking.
+   * A snapshot taken while values are being recorded may not include all of them.
+   */
+  static final class Recorder {
+
+    /** The number of values in each bucket. */
+    private final AtomicLongArray bucketCounts = new AtomicLongArray(BUCKET_COUNT);
+    /** The sum of the values. */
+    private final LongAdder sum = new LongAdder();
+    /** The minimum value. */
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    /** The maximum value. */
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * Records a value, a negative value being recorded as zero.
+     *
+     * @param value  the value
+     */
+    void record(long value) {
+      long recorded = Math.max(value, 0);
+      bucketCounts.incrementAndGet(bucket(recorded));
+      sum.add(recorded);
+      min.accumulateAndGet(recorded, Math::min);
+      max.accumulateAndGet(recorded, Math::max);
+    }
+
+    /**
+     * Creates a snapshot of the values recorded.
+     *
+     * @return the histogram
+     */
+    MetricHistogram snapshot() {
+      long[] counts = new long[BUCKET_COUNT];
+      long count = 0;
+      for (int i = 0; i < BUCKET_COUNT; i++) {
+        counts[i] = bucketCounts.get(i);
+        count += counts[i];
+      }
+      if (count == 0) {
+        return EMPTY;
+      }
+      return new MetricHistogram(counts, count, sum.sum(), min.get(), max.get());
+    }
+  }
+
+}
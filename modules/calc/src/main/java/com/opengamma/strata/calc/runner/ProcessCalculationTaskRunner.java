@@ -0,0 +1,682 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ProcessBuilder.Redirect;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.io.BaseEncoding;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.calc.Results;
+import com.opengamma.strata.calc.marketdata.MarketDataRequirements;
+import com.opengamma.strata.calc.marketdata.MarketDataRequirementsBuilder;
+import com.opengamma.strata.calc.runner.DefaultCalculationTaskRunner.AggregatingListener;
+import com.opengamma.strata.calc.runner.DefaultCalculationTaskRunner.UnwrappingListener;
+import com.opengamma.strata.calc.runner.WorkerProtocol.CalculateMessage;
+import com.opengamma.strata.calc.runner.WorkerProtocol.ReferenceDataMessage;
+import com.opengamma.strata.calc.runner.WorkerProtocol.ResultMessage;
+import com.opengamma.strata.calc.runner.WorkerProtocol.ShutdownMessage;
+import com.opengamma.strata.calc.runner.WorkerProtocol.TaskDefinition;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.result.FailureReason;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.data.MarketDataId;
+import com.opengamma.strata.data.ObservableId;
+import com.opengamma.strata.data.scenario.ImmutableScenarioMarketData;
+import com.opengamma.strata.data.scenario.MarketDataBox;
+import com.opengamma.strata.data.scenario.ScenarioMarketData;
+
+/**
+ * A calculation task runner that partitions the tasks across worker processes.
+ * <p>
+ * The workers are JVMs forked when the runner is created, using the Java installation and class path
+ * of the current process, which connect back to the runner over loopback sockets.
+ * Each worker is given a random token in its environment, and the runner rejects any connection
+ * that does not present the token of one of its workers.
+ * The worker processes are stopped when the runner is closed.
+ * <p>
+ * For each calculation, the tasks are split into one partition per worker. Each worker is sent its tasks
+ * and the subset of the market data required by them, as determined by their {@link MarketDataRequirements}.
+ * The reference data is only sent to a worker when it is a different instance to the one previously sent.
+ * The results are streamed back as each task is calculated, and are passed to the listener of the calculation.
+ * If a worker fails, the tasks it has not calculated produce failure results, and the worker is replaced
+ * by a new process. Until the new process has connected, the tasks are partitioned across the other workers.
+ * <p>
+ * The data is sent using Java serialization. The targets, parameters, market data, reference data and
+ * results must be serializable. A calculation function that is not serializable must be stateless,
+ * with a public no-arguments constructor, and is created by the worker using that constructor.
+ * The runner only deserializes the classes permitted in results, see {@link WorkerProtocol}.
+ * Results that cannot be serialized or deserialized produce failure results for their task.
+ */
+final class ProcessCalculationTaskRunner implements CalculationTaskRunner {
+
+  private static final Logger log = LoggerFactory.getLogger(ProcessCalculationTaskRunner.class);
+
+  /**
+   * The time allowed for the workers to start and connect, in milliseconds.
+   */
+  private static final int CONNECT_TIMEOUT_MILLIS = 60_000;
+  /**
+   * The time allowed for a connection to present its token, in milliseconds.
+   */
+  private static final int HANDSHAKE_TIMEOUT_MILLIS = 10_000;
+  /**
+   * The source of the tokens of the workers.
+   */
+  private static final SecureRandom RANDOM = new SecureRandom();
+  /**
+   * The time allowed for the workers to stop when the runner is closed, in seconds.
+   */
+  private static final int SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+  /**
+   * The command starting a worker process, excluding the port to connect to.
+   */
+  private final ImmutableList<String> command;
+  /**
+   * The connections to the worker processes, indexed by worker, also used as the lock when replacing a worker.
+   */
+  private final List<Worker> workers;
+  /**
+   * The calculations in progress, keyed by ID.
+   */
+  private final Map<Long, Calculation> calculations = new ConcurrentHashMap<>();
+  /**
+   * The ID of the next calculation.
+   */
+  private final AtomicLong nextCalculationId = new AtomicLong();
+  /**
+   * The number of times reference data has been sent to a worker.
+   */
+  private final AtomicInteger referenceDataSentCount = new AtomicInteger();
+  /**
+   * Whether the runner has been closed.
+   */
+  private volatile boolean closed;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Creates a runner, starting the worker processes.
+   *
+   * @param workerCount  the number of worker processes
+   * @param jvmArguments  the arguments of the worker JVMs, such as the maximum heap size
+   * @return the runner
+   * @throws UncheckedIOException if the worker processes cannot be started
+   */
+  static ProcessCalculationTaskRunner of(int workerCount, List<String> jvmArguments) {
+    ArgChecker.notNegativeOrZero(workerCount, "workerCount");
+    ArgChecker.noNulls(jvmArguments, "jvmArguments");
+    List<String> command = new ArrayList<>();
+    command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+    command.addAll(jvmArguments);
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add(CalculationWorker.class.getName());
+    try {
+      return new ProcessCalculationTaskRunner(command, workerCount);
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Unable to start worker processes", ex);
+    }
+  }
+
+  // restricted constructor
+  private ProcessCalculationTaskRunner(List<String> command, int workerCount) throws IOException {
+    this.command = ImmutableList.copyOf(command);
+    this.workers = new ArrayList<>(startWorkers(IntStream.range(0, workerCount).boxed().collect(toImmutableList())));
+    workers.forEach(Worker::start);
+  }
+
+  // starts worker processes with the specified indices, returning once they have connected
+  private List<Worker> startWorkers(List<Integer> indices) throws IOException {
+    // the processes are keyed by the token they present when connecting
+    Map<String, Process> processes = new LinkedHashMap<>();
+    Map<String, Socket> sockets = new HashMap<>();
+    // the port is only open while the workers are connecting
+    try (ServerSocket server = new ServerSocket(0, indices.size(), InetAddress.getLoopbackAddress())) {
+      List<String> processCommand = new ArrayList<>(command);
+      processCommand.add(Integer.toString(server.getLocalPort()));
+      // the output of the workers is shown with the output of this process
+      ProcessBuilder processBuilder = new ProcessBuilder(processCommand)
+          .redirectOutput(Redirect.INHERIT)
+          .redirectError(Redirect.INHERIT);
+      for (int i = 0; i < indices.size(); i++) {
+        // the token is passed in the environment, as the command line is visible to other users
+        String token = newToken();
+        processBuilder.environment().put(WorkerProtocol.TOKEN_VARIABLE, token);
+        processes.put(token, processBuilder.start());
+      }
+      sockets.putAll(accept(server, processes.keySet()));
+      List<Worker> started = new ArrayList<>();
+      for (String token : processes.keySet()) {
+        started.add(new Worker(indices.get(started.size()), processes.get(token), sockets.get(token)));
+      }
+      return started;
+    } catch (IOException ex) {
+      sockets.values().forEach(ProcessCalculationTaskRunner::closeQuietly);
+      processes.values().forEach(Process::destroyForcibly);
+      throw ex;
+    }
+  }
+
+  // creates a random token identifying a worker
+  private static String newToken() {
+    byte[] bytes = new byte[16];
+    RANDOM.nextBytes(bytes);
+    return BaseEncoding.base16().encode(bytes);
+  }
+
+  // accepts a connection from each worker, keyed by its token, rejecting connections without a valid token
+  // package-private for testing
+  static Map<String, Socket> accept(ServerSocket server, Set<String> tokens) throws IOException {
+    Map<String, Socket> sockets = new HashMap<>();
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CONNECT_TIMEOUT_MILLIS);
+    try {
+      while (sockets.size() < tokens.size()) {
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (remainingMillis <= 0) {
+          throw new SocketTimeoutException("Timed out waiting for worker processes to connect");
+        }
+        server.setSoTimeout((int) remainingMillis);
+        Socket socket = server.accept();
+        byte[] presented = readToken(socket);
+        Optional<String> token = tokens.stream()
+            .filter(candidate -> !sockets.containsKey(candidate))
+            .filter(candidate -> MessageDigest.isEqual(candidate.getBytes(StandardCharsets.UTF_8), presented))
+            .findFirst();
+        if (token.isPresent()) {
+          sockets.put(token.get(), socket);
+        } else {
+          log.warn("Rejected connection from {} that did not present the token of a worker process",
+              socket.getRemoteSocketAddress());
+          closeQuietly(socket);
+        }
+      }
+      return sockets;
+    } catch (IOException ex) {
+      sockets.values().forEach(ProcessCalculationTaskRunner::closeQuietly);
+      throw ex;
+    }
+  }
+
+  // reads the token presented by a connection, returning an empty array if it cannot be read in time
+  private static byte[] readToken(Socket socket) {
+    try {
+      socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+      // the stream is not buffered, so nothing beyond the token is read
+      String token = new DataInputStream(socket.getInputStream()).readUTF();
+      socket.setSoTimeout(0);
+      return token.getBytes(StandardCharsets.UTF_8);
+    } catch (IOException ex) {
+      return new byte[0];
+    }
+  }
+
+  // replaces a failed worker with a new process
+  private void restart(Worker worker) {
+    worker.process.destroyForcibly();
+    Worker replacement;
+    try {
+      replacement = startWorkers(ImmutableList.of(worker.index)).get(0);
+    } catch (IOException ex) {
+      log.error("Unable to restart worker process " + worker.index, ex);
+      return;
+    }
+    synchronized (workers) {
+      if (!closed) {
+        workers.set(worker.index, replacement);
+        replacement.start();
+        log.info("Restarted worker process {}", worker.index);
+        return;
+      }
+    }
+    // the runner was closed while the worker was restarting
+    replacement.shutdown();
+    replacement.awaitExit();
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public Results calculateSingleScenario(
+      CalculationTasks tasks,
+      ScenarioMarketData marketData,
+      ReferenceData refData) {
+
+    Results results = calculateMultipleScenarios(tasks, marketData, refData);
+    List<Result<?>> mappedResults = results.getCells().stream()
+        .map(r -> DefaultCalculationTaskRunner.unwrapScenarioResult(r))
+        .collect(toImmutableList());
+    return Results.of(results.getColumns(), mappedResults);
+  }
+
+  @Override
+  public Results calculateMultipleScenarios(
+      CalculationTasks tasks,
+      ScenarioMarketData marketData,
+      ReferenceData refData) {
+
+    AggregatingListener listener = new AggregatingListener(tasks);
+    calculateMultipleScenariosAsync(tasks, marketData, refData, listener);
+    return listener.result();
+  }
+
+  @Override
+  public void calculateSingleScenarioAsync(
+      CalculationTasks tasks,
+      ScenarioMarketData marketData,
+      ReferenceData refData,
+      CalculationListener listener) {
+
+    calculateMultipleScenariosAsync(tasks, marketData, refData, new UnwrappingListener(listener));
+  }
+
+  @Override
+  public void calculateMultipleScenariosAsync(
+      CalculationTasks tasks,
+      ScenarioMarketData marketData,
+      ReferenceData refData,
+      CalculationListener listener) {
+
+    calculateTasksAsync(tasks.getTasks(), marketData, refData, listener);
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The tasks are converted to their serializable form before this method returns.
+   * The tasks are partitioned across the workers that have not failed.
+   * If every worker has failed, all the tasks produce failure results.
+   *
+   * @throws IllegalArgumentException if the target of any task is not serializable
+   */
+  @Override
+  public void calculateTasksAsync(
+      List<CalculationTask> tasks,
+      ScenarioMarketData marketData,
+      ReferenceData refData,
+      CalculationListener listener) {
+
+    ArgChecker.isFalse(closed, "Runner has been closed");
+    if (tasks.isEmpty()) {
+      listener.calculationsComplete();
+      return;
+    }
+    // the tasks are converted before anything is sent, so invalid tasks fail without side effects
+    List<TaskDefinition> definitions = new ArrayList<>(tasks.size());
+    for (int i = 0; i < tasks.size(); i++) {
+      definitions.add(TaskDefinition.of(i, tasks.get(i)));
+    }
+    Consumer<CalculationResults> consumer = new ListenerWrapper(listener, tasks.size());
+    List<Worker> liveWorkers = liveWorkers();
+    if (liveWorkers.isEmpty()) {
+      Result<?> failure = Result.failure(FailureReason.ERROR, "No worker processes are available");
+      tasks.forEach(task -> consumer.accept(CalculationResults.of(task.getTarget(), failures(task, failure))));
+      return;
+    }
+    int partitionSize = (tasks.size() + liveWorkers.size() - 1) / liveWorkers.size();
+    List<List<TaskDefinition>> partitions = Lists.partition(definitions, partitionSize);
+
+    long calculationId = nextCalculationId.getAndIncrement();
+    Calculation calculation = new Calculation(tasks, consumer);
+    Map<Worker, List<TaskDefinition>> assigned = new HashMap<>();
+    for (int i = 0; i < partitions.size(); i++) {
+      calculation.assign(liveWorkers.get(i), partitions.get(i));
+      assigned.put(liveWorkers.get(i), partitions.get(i));
+    }
+    calculations.put(calculationId, calculation);
+    for (Map.Entry<Worker, List<TaskDefinition>> entry : assigned.entrySet()) {
+      List<TaskDefinition> partition = entry.getValue();
+      ImmutableScenarioMarketData partitionData = marketDataSubset(partition, tasks, marketData, refData);
+      entry.getKey().send(calculationId, refData, new CalculateMessage(calculationId, partitionData, partition));
+    }
+  }
+
+  // the workers that have not failed
+  private List<Worker> liveWorkers() {
+    synchronized (workers) {
+      return workers.stream()
+          .filter(worker -> !worker.failed)
+          .collect(toImmutableList());
+    }
+  }
+
+  // creates a failure result for each cell of a task
+  private static List<CalculationResult> failures(CalculationTask task, Result<?> failure) {
+    return task.getCells().stream()
+        .map(cell -> CalculationResult.of(cell.getRowIndex(), cell.getColumnIndex(), failure))
+        .collect(toImmutableList());
+  }
+
+  /**
+   * Selects the market data required by a partition of the tasks.
+   * <p>
+   * Values and time-series required by the tasks but not present in the market data are omitted,
+   * so the tasks fail in the worker as they would if calculated locally.
+   *
+   * @param partition  the definitions of the tasks of the partition
+   * @param tasks  all the tasks
+   * @param marketData  the market data
+   * @param refData  the reference data
+   * @return the market data required by the tasks of the partition
+   */
+  static ImmutableScenarioMarketData marketDataSubset(
+      List<TaskDefinition> partition,
+      List<CalculationTask> tasks,
+      ScenarioMarketData marketData,
+      ReferenceData refData) {
+
+    MarketDataRequirementsBuilder builder = MarketDataRequirements.builder();
+    for (TaskDefinition definition : partition) {
+      builder.addRequirements(tasks.get(definition.taskIndex).requirements(refData));
+    }
+    MarketDataRequirements requirements = builder.build();
+    Map<MarketDataId<?>, MarketDataBox<?>> values = new HashMap<>();
+    for (MarketDataId<?> id : requirements.getObservables()) {
+      marketData.findValue(id).ifPresent(box -> values.put(id, box));
+    }
+    for (MarketDataId<?> id : requirements.getNonObservables()) {
+      marketData.findValue(id).ifPresent(box -> values.put(id, box));
+    }
+    Map<ObservableId, LocalDateDoubleTimeSeries> timeSeries = new HashMap<>();
+    for (ObservableId id : requirements.getTimeSeries()) {
+      LocalDateDoubleTimeSeries series = marketData.getTimeSeries(id);
+      if (!series.isEmpty()) {
+        timeSeries.put(id, series);
+      }
+    }
+    return ImmutableScenarioMarketData.of(
+        marketData.getScenarioCount(), marketData.getValuationDate(), values, timeSeries);
+  }
+
+  // the number of times reference data has been sent to a worker, for testing
+  int getReferenceDataSentCount() {
+    return referenceDataSentCount.get();
+  }
+
+  // the number of workers that have not failed, for testing
+  int getLiveWorkerCount() {
+    return liveWorkers().size();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Stops the worker processes, destroying any that do not exit promptly.
+   * <p>
+   * Calculations in progress produce failure results for the tasks that have not been calculated.
+   */
+  @Override
+  public void close() {
+    List<Worker> stopping;
+    synchronized (workers) {
+      closed = true;
+      stopping = new ArrayList<>(workers);
+    }
+    stopping.forEach(Worker::shutdown);
+    stopping.forEach(Worker::awaitExit);
+  }
+
+  @Override
+  public String toString() {
+    return "ProcessCalculationTaskRunner[workers=" + workers.size() + "]";
+  }
+
+  // closes a socket, ignoring errors
+  private static void closeQuietly(Socket socket) {
+    try {
+      socket.close();
+    } catch (IOException ex) {
+      // ignored
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * A calculation in progress.
+   * <p>
+   * The results of a worker are received by a single thread, which is also the thread notified if the worker fails.
+   */
+  private final class Calculation {
+
+    /** The tasks. */
+    private final List<CalculationTask> tasks;
+    /** The consumer of the results, which is thread-safe. */
+    private final Consumer<CalculationResults> consumer;
+    /** The indices of the tasks not yet calculated, keyed by the worker calculating them. */
+    private final Map<Worker, Set<Integer>> pending = new ConcurrentHashMap<>();
+
+    private Calculation(List<CalculationTask> tasks, Consumer<CalculationResults> consumer) {
+      this.tasks = tasks;
+      this.consumer = consumer;
+    }
+
+    // records the tasks assigned to a worker
+    private void assign(Worker worker, List<TaskDefinition> partition) {
+      Set<Integer> indices = ConcurrentHashMap.newKeySet();
+      partition.forEach(definition -> indices.add(definition.taskIndex));
+      pending.put(worker, indices);
+    }
+
+    // passes the results of a task to the consumer, returning true if the calculation is complete
+    private boolean resultReceived(Worker worker, ResultMessage message) {
+      Set<Integer> indices = pending.get(worker);
+      if (indices != null && indices.remove(message.taskIndex)) {
+        CalculationTask task = tasks.get(message.taskIndex);
+        consumer.accept(CalculationResults.of(task.getTarget(), cells(worker, task, message)));
+      }
+      return isComplete();
+    }
+
+    // deserializes the results of a task, producing failures if they cannot be read
+    private List<CalculationResult> cells(Worker worker, CalculationTask task, ResultMessage message) {
+      try {
+        return message.cells();
+      } catch (IOException | ClassNotFoundException | RuntimeException ex) {
+        log.warn("Unable to read results from worker process " + worker.index, ex);
+        Result<?> failure = Result.failure(
+            FailureReason.ERROR,
+            ex,
+            "Unable to read results from worker process {}: {}",
+            worker.index,
+            ex.getMessage());
+        return failures(task, failure);
+      }
+    }
+
+    // produces failures for the tasks not calculated by a worker, returning true if the calculation is complete
+    private boolean workerFailed(Worker worker, Result<?> failure) {
+      Set<Integer> indices = pending.get(worker);
+      if (indices != null) {
+        for (Integer taskIndex : new ArrayList<>(indices)) {
+          if (indices.remove(taskIndex)) {
+            CalculationTask task = tasks.get(taskIndex);
+            consumer.accept(CalculationResults.of(task.getTarget(), failures(task, failure)));
+          }
+        }
+      }
+      return isComplete();
+    }
+
+    private boolean isComplete() {
+      return pending.values().stream().allMatch(Set::isEmpty);
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The connection to a worker process.
+   */
+  private final class Worker {
+
+    /** The index of the worker. */
+    private final int index;
+    /** The process. */
+    private final Process process;
+    /** The socket connected to the process. */
+    private final Socket socket;
+    /** The stream to which messages are written, guarded by this worker. */
+    private final DataOutputStream out;
+    /** The stream from which results are read, only used by the reader thread. */
+    private final DataInputStream in;
+    /** The thread reading the results. */
+    private final Thread reader;
+    /** The reference data last sent to the worker, guarded by this worker. */
+    private ReferenceData refData;
+    /** Whether the worker has failed. */
+    private volatile boolean failed;
+
+    private Worker(int index, Process process, Socket socket) throws IOException {
+      this.index = index;
+      this.process = process;
+      this.socket = socket;
+      this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+      this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+      this.reader = new Thread(this::read, "ProcessCalculationTaskRunner-worker-" + index);
+      this.reader.setDaemon(true);
+    }
+
+    private void start() {
+      reader.start();
+    }
+
+    // sends a calculation, preceded by the reference data if it has changed
+    private void send(long calculationId, ReferenceData refData, CalculateMessage message) {
+      // the listener is not invoked while holding the lock of the worker
+      write(refData, message).ifPresent(failure -> fail(calculationId, failure));
+    }
+
+    // writes a calculation, returning the failure of its tasks if it cannot be sent
+    private synchronized Optional<Result<?>> write(ReferenceData refData, CalculateMessage message) {
+      if (failed) {
+        return Optional.of(workerFailure(new IOException("Worker process " + index + " has failed")));
+      }
+      // the messages are serialized before anything is written, so a failure leaves the connection usable
+      byte[] refDataFrame;
+      byte[] calculateFrame;
+      try {
+        refDataFrame = this.refData != refData ? WorkerProtocol.serialize(new ReferenceDataMessage(refData)) : null;
+        calculateFrame = WorkerProtocol.serialize(message);
+      } catch (IOException | RuntimeException ex) {
+        log.warn("Unable to serialize calculation for worker process " + index, ex);
+        return Optional.of(Result.failure(
+            FailureReason.ERROR,
+            ex,
+            "Unable to serialize calculation for worker process {}: {}",
+            index,
+            ex.getMessage()));
+      }
+      try {
+        if (refDataFrame != null) {
+          WorkerProtocol.writeFrame(out, refDataFrame);
+        }
+        WorkerProtocol.writeFrame(out, calculateFrame);
+        out.flush();
+      } catch (IOException ex) {
+        // the reference data is not known to have been received, so it is sent again if the connection recovers
+        this.refData = null;
+        return Optional.of(workerFailure(ex));
+      }
+      if (refDataFrame != null) {
+        this.refData = refData;
+        referenceDataSentCount.incrementAndGet();
+      }
+      return Optional.empty();
+    }
+
+    // reads the results until the connection is closed
+    private void read() {
+      try {
+        while (true) {
+          ResultMessage message = ResultMessage.read(in);
+          Calculation calculation = calculations.get(message.calculationId);
+          if (calculation != null && calculation.resultReceived(this, message)) {
+            calculations.remove(message.calculationId);
+          }
+        }
+      } catch (IOException | RuntimeException ex) {
+        failed = true;
+        if (!closed) {
+          log.error("Worker process " + index + " failed", ex);
+        }
+        Result<?> failure = workerFailure(closed ? new IllegalStateException("Runner has been closed") : ex);
+        calculations.keySet().forEach(calculationId -> fail(calculationId, failure));
+        closeQuietly(socket);
+        if (!closed) {
+          restart(this);
+        }
+      }
+    }
+
+    // the failure of the tasks of this worker when the worker has failed
+    private Result<?> workerFailure(Exception cause) {
+      return Result.failure(FailureReason.ERROR, cause, "Worker process {} failed: {}", index, cause.getMessage());
+    }
+
+    // produces failures for the tasks of a calculation not calculated by this worker
+    private void fail(long calculationId, Result<?> failure) {
+      Calculation calculation = calculations.get(calculationId);
+      if (calculation != null && calculation.workerFailed(this, failure)) {
+        calculations.remove(calculationId);
+      }
+    }
+
+    // asks the worker to exit
+    private synchronized void shutdown() {
+      try {
+        WorkerProtocol.writeFrame(out, WorkerProtocol.serialize(new ShutdownMessage()));
+        out.flush();
+      } catch (IOException ex) {
+        // the worker has already stopped
+      }
+    }
+
+    // waits for the process to exit, destroying it if it does not exit promptly
+    private void awaitExit() {
+      try {
+        if (!process.waitFor(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+          process.destroyForcibly();
+        }
+      } catch (InterruptedException ex) {
+        process.destroyForcibly();
+        Thread.currentThread().interrupt();
+      }
+      closeQuietly(socket);
+    }
+  }
+
+}
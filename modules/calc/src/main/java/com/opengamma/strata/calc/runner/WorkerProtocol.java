@@ -0,0 +1,454 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.CalculationTarget;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.calc.Measure;
+import com.opengamma.strata.calc.ReportingCurrency;
+import com.opengamma.strata.collect.Messages;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.data.scenario.ImmutableScenarioMarketData;
+
+/**
+ * The messages exchanged between {@link ProcessCalculationTaskRunner} and {@link CalculationWorker}.
+ * <p>
+ * On connecting, the worker sends the token passed to it by the parent in the environment variable
+ * {@link #TOKEN_VARIABLE}, and the parent rejects any connection that does not present the token
+ * of one of its workers.
+ * <p>
+ * The messages of the parent are serialized using Java serialization, then sent in frames holding the
+ * length and the bytes of the message. A message that cannot be serialized thus fails before anything
+ * is written, and the connection remains usable.
+ * The parent sends the reference data once, followed by a request for each partition of the tasks
+ * it asks the worker to calculate. The worker sends the results of each task as soon as it is calculated,
+ * each in a frame holding the serialized results. The parent only deserializes the classes
+ * permitted in results, see {@link ResultInputStream}.
+ */
+final class WorkerProtocol {
+
+  /**
+   * The name of the environment variable containing the token the worker presents to the parent.
+   */
+  static final String TOKEN_VARIABLE = "STRATA_WORKER_TOKEN";
+
+  /**
+   * Restricted constructor.
+   */
+  private WorkerProtocol() {
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Serializes a message.
+   *
+   * @param message  the message
+   * @return the serialized message
+   * @throws IOException if the message cannot be serialized
+   */
+  static byte[] serialize(Serializable message) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(message);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Writes a frame containing a serialized message of the parent.
+   *
+   * @param out  the stream to write to
+   * @param message  the serialized message
+   * @throws IOException if the frame cannot be written
+   */
+  static void writeFrame(DataOutputStream out, byte[] message) throws IOException {
+    out.writeInt(message.length);
+    out.write(message);
+  }
+
+  /**
+   * Reads a frame written by {@link #writeFrame(DataOutputStream, byte[])}, deserializing the message.
+   *
+   * @param in  the stream to read from
+   * @return the message
+   * @throws IOException if the frame cannot be read or the message cannot be deserialized
+   * @throws ClassNotFoundException if a class of the message cannot be found
+   */
+  static Object readFrame(DataInputStream in) throws IOException, ClassNotFoundException {
+    byte[] message = new byte[readLength(in)];
+    in.readFully(message);
+    try (ObjectInputStream messageIn = new ObjectInputStream(new ByteArrayInputStream(message))) {
+      return messageIn.readObject();
+    }
+  }
+
+  // reads the length of a frame
+  private static int readLength(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      throw new StreamCorruptedException("Invalid length of frame: " + length);
+    }
+    return length;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Message from the parent containing the reference data used by the subsequent calculations.
+   */
+  static final class ReferenceDataMessage implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The reference data. */
+    final ReferenceData refData;
+
+    ReferenceDataMessage(ReferenceData refData) {
+      this.refData = refData;
+    }
+  }
+
+  /**
+   * Message from the parent requesting the calculation of a partition of the tasks.
+   */
+  static final class CalculateMessage implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The ID of the calculation, unique within the parent. */
+    final long calculationId;
+    /** The market data required by the tasks. */
+    final ImmutableScenarioMarketData marketData;
+    /** The tasks. */
+    final ImmutableList<TaskDefinition> tasks;
+
+    CalculateMessage(long calculationId, ImmutableScenarioMarketData marketData, List<TaskDefinition> tasks) {
+      this.calculationId = calculationId;
+      this.marketData = marketData;
+      this.tasks = ImmutableList.copyOf(tasks);
+    }
+  }
+
+  /**
+   * Message from the worker containing the results of a task.
+   * <p>
+   * The results are serialized by the worker when the message is created, so a result that cannot be
+   * serialized is detected before anything is written to the connection.
+   */
+  static final class ResultMessage {
+
+    /** The ID of the calculation. */
+    final long calculationId;
+    /** The index of the task in the calculation. */
+    final int taskIndex;
+    /** The serialized results of the cells of the task. */
+    private final byte[] cells;
+
+    private ResultMessage(long calculationId, int taskIndex, byte[] cells) {
+      this.calculationId = calculationId;
+      this.taskIndex = taskIndex;
+      this.cells = cells;
+    }
+
+    /**
+     * Creates a message, serializing the results.
+     *
+     * @param calculationId  the ID of the calculation
+     * @param taskIndex  the index of the task in the calculation
+     * @param cells  the results of the cells of the task
+     * @return the message
+     * @throws IOException if the results cannot be serialized
+     */
+    static ResultMessage of(long calculationId, int taskIndex, List<CalculationResult> cells) throws IOException {
+      return new ResultMessage(calculationId, taskIndex, serialize(ImmutableList.copyOf(cells)));
+    }
+
+    /**
+     * Reads a message written by {@link #write(DataOutputStream)}.
+     *
+     * @param in  the stream to read from
+     * @return the message
+     * @throws IOException if the message cannot be read
+     */
+    static ResultMessage read(DataInputStream in) throws IOException {
+      long calculationId = in.readLong();
+      int taskIndex = in.readInt();
+      byte[] cells = new byte[readLength(in)];
+      in.readFully(cells);
+      return new ResultMessage(calculationId, taskIndex, cells);
+    }
+
+    /**
+     * Writes the message.
+     *
+     * @param out  the stream to write to
+     * @throws IOException if the message cannot be written
+     */
+    void write(DataOutputStream out) throws IOException {
+      out.writeLong(calculationId);
+      out.writeInt(taskIndex);
+      writeFrame(out, cells);
+    }
+
+    /**
+     * Deserializes the results, only permitting the classes accepted by {@link ResultInputStream}.
+     *
+     * @return the results of the cells of the task
+     * @throws IOException if the results cannot be deserialized, or contain a class that is not permitted
+     * @throws ClassNotFoundException if a class of the results cannot be found
+     */
+    ImmutableList<CalculationResult> cells() throws IOException, ClassNotFoundException {
+      try (ObjectInputStream in = new ResultInputStream(new ByteArrayInputStream(cells))) {
+        Object value = in.readObject();
+        if (!(value instanceof List)) {
+          throw new InvalidObjectException("Results must be a list of CalculationResult");
+        }
+        ImmutableList.Builder<CalculationResult> builder = ImmutableList.builder();
+        for (Object cell : (List<?>) value) {
+          if (!(cell instanceof CalculationResult)) {
+            throw new InvalidObjectException("Results must be a list of CalculationResult");
+          }
+          builder.add((CalculationResult) cell);
+        }
+        return builder.build();
+      }
+    }
+  }
+
+  /**
+   * The stream used by the parent to deserialize the results sent by a worker.
+   * <p>
+   * Only the classes that can make up results are permitted: classes in the {@code java.lang},
+   * {@code java.util}, {@code java.time} and {@code java.math} packages, Strata classes, Guava collections,
+   * exceptions defined by Java, and arrays of these and of primitives. Any other class causes an
+   * {@link InvalidClassException} before an instance of it is created.
+   */
+  static final class ResultInputStream extends ObjectInputStream {
+
+    /** The prefixes of the names of the permitted classes, other than those in {@code java.lang}. */
+    private static final ImmutableList<String> PERMITTED_PREFIXES = ImmutableList.of(
+        "java.util.", "java.time.", "java.math.", "com.opengamma.strata.", "com.google.common.collect.");
+
+    ResultInputStream(InputStream in) throws IOException {
+      super(in);
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+      Class<?> type = super.resolveClass(desc);
+      Class<?> elementType = type;
+      while (elementType.isArray()) {
+        elementType = elementType.getComponentType();
+      }
+      if (!elementType.isPrimitive() && !isPermitted(elementType)) {
+        throw new InvalidClassException(type.getName(), "Class is not permitted in results of a worker process");
+      }
+      return type;
+    }
+
+    @Override
+    protected Class<?> resolveProxyClass(String[] interfaces) throws IOException {
+      throw new InvalidClassException("Proxy classes are not permitted in results of a worker process");
+    }
+
+    // checks if a class is permitted, the class has been loaded but not initialized
+    private static boolean isPermitted(Class<?> type) {
+      String name = type.getName();
+      if (name.startsWith("java.lang.") && name.lastIndexOf('.') == "java.lang".length()) {
+        return true;
+      }
+      if (PERMITTED_PREFIXES.stream().anyMatch(name::startsWith)) {
+        return true;
+      }
+      return name.startsWith("java.") && Throwable.class.isAssignableFrom(type);
+    }
+  }
+
+  /**
+   * Message from the parent asking the worker to exit.
+   */
+  static final class ShutdownMessage implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The serializable form of a {@link CalculationTask}.
+   * <p>
+   * The target and parameters must be serializable. A function that is not serializable is sent as
+   * the name of its class, and is created by the worker using its public no-arguments constructor.
+   * This is only permitted for stateless functions, those without instance fields, as a function
+   * with state could not be recreated with the same configuration.
+   */
+  static final class TaskDefinition implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The index of the task in the calculation. */
+    final int taskIndex;
+    /** The target. */
+    final CalculationTarget target;
+    /** The function, either an instance or the name of its class. */
+    final Object function;
+    /** The parameters. */
+    final CalculationParameters parameters;
+    /** The cells, as row index, column index, measure and reporting currency. */
+    final ImmutableList<CellDefinition> cells;
+
+    private TaskDefinition(
+        int taskIndex,
+        CalculationTarget target,
+        Object function,
+        CalculationParameters parameters,
+        List<CellDefinition> cells) {
+
+      this.taskIndex = taskIndex;
+      this.target = target;
+      this.function = function;
+      this.parameters = parameters;
+      this.cells = ImmutableList.copyOf(cells);
+    }
+
+    /**
+     * Creates the definition of a task.
+     *
+     * @param taskIndex  the index of the task in the calculation
+     * @param task  the task
+     * @return the definition
+     * @throws IllegalArgumentException if the target of the task is not serializable,
+     *   or if the function is neither serializable nor stateless with a public no-arguments constructor
+     */
+    static TaskDefinition of(int taskIndex, CalculationTask task) {
+      if (!(task.getTarget() instanceof Serializable)) {
+        throw new IllegalArgumentException(Messages.format(
+            "Target of type {} must be serializable to be calculated by a worker process",
+            task.getTarget().getClass().getName()));
+      }
+      CalculationFunction<?> function = task.getFunction();
+      Object functionDefinition = function instanceof Serializable ? function : statelessFunctionName(function);
+      List<CellDefinition> cells = task.getCells().stream()
+          .map(CellDefinition::new)
+          .collect(toImmutableList());
+      return new TaskDefinition(taskIndex, task.getTarget(), functionDefinition, task.getParameters(), cells);
+    }
+
+    /**
+     * Creates the task.
+     *
+     * @return the task
+     * @throws RuntimeException if the function cannot be created
+     */
+    CalculationTask toTask() {
+      List<CalculationTaskCell> taskCells = cells.stream()
+          .map(CellDefinition::toCell)
+          .collect(toImmutableList());
+      return CalculationTask.of(target, createFunction(), parameters, taskCells);
+    }
+
+    // the class name of a function that is not serializable, checking it can be recreated by the worker
+    private static String statelessFunctionName(CalculationFunction<?> function) {
+      Class<?> type = function.getClass();
+      if (!Modifier.isPublic(type.getModifiers())) {
+        throw new IllegalArgumentException(Messages.format(
+            "Function of type {} must be serializable, or public and stateless, to be calculated by a worker process",
+            type.getName()));
+      }
+      try {
+        type.getConstructor();
+      } catch (NoSuchMethodException ex) {
+        throw new IllegalArgumentException(Messages.format(
+            "Function of type {} must be serializable, or have a public no-arguments constructor, " +
+                "to be calculated by a worker process",
+            type.getName()));
+      }
+      for (Class<?> cls = type; cls != Object.class; cls = cls.getSuperclass()) {
+        for (Field field : cls.getDeclaredFields()) {
+          if (!Modifier.isStatic(field.getModifiers())) {
+            throw new IllegalArgumentException(Messages.format(
+                "Function of type {} must be serializable, or stateless, to be calculated by a worker process, " +
+                    "but has field '{}'",
+                type.getName(),
+                field.getName()));
+          }
+        }
+      }
+      return type.getName();
+    }
+
+    // creates the function from its definition
+    private CalculationFunction<?> createFunction() {
+      if (function instanceof CalculationFunction) {
+        return (CalculationFunction<?>) function;
+      }
+      try {
+        return (CalculationFunction<?>) Class.forName((String) function).getConstructor().newInstance();
+      } catch (ReflectiveOperationException ex) {
+        throw new IllegalStateException("Unable to create calculation function " + function, ex);
+      }
+    }
+
+    /**
+     * Creates a failure result for each cell of the task.
+     *
+     * @param failure  the failure
+     * @return the results
+     */
+    ImmutableList<CalculationResult> failures(Result<?> failure) {
+      return cells.stream()
+          .map(cell -> CalculationResult.of(cell.rowIndex, cell.columnIndex, failure))
+          .collect(toImmutableList());
+    }
+  }
+
+  /**
+   * The serializable form of a {@link CalculationTaskCell}.
+   */
+  static final class CellDefinition implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The row index. */
+    final int rowIndex;
+    /** The column index. */
+    final int columnIndex;
+    /** The measure. */
+    final Measure measure;
+    /** The reporting currency. */
+    final ReportingCurrency reportingCurrency;
+
+    private CellDefinition(CalculationTaskCell cell) {
+      this.rowIndex = cell.getRowIndex();
+      this.columnIndex = cell.getColumnIndex();
+      this.measure = cell.getMeasure();
+      this.reportingCurrency = cell.getReportingCurrency();
+    }
+
+    private CalculationTaskCell toCell() {
+      return CalculationTaskCell.of(rowIndex, columnIndex, measure, reportingCurrency);
+    }
+  }
+
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc;
+
+import static com.opengamma.strata.basics.currency.Currency.EUR;
+import static com.opengamma.strata.basics.currency.Currency.GBP;
+import static com.opengamma.strata.basics.currency.Currency.USD;
+import static com.opengamma.strata.collect.TestHelper.assertThrows;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static org.testng.Assert.assertEquals;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.result.FailureReason;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.data.scenario.CurrencyValuesArray;
+
+/**
+ * Test {@link ColumnarResults}.
+ */
+@Test
+public class ColumnarResultsTest {
+
+  private static final ColumnHeader HEADER1 = ColumnHeader.of(ColumnName.of("A"), TestingMeasures.PRESENT_VALUE);
+  private static final ColumnHeader HEADER2 = ColumnHeader.of(ColumnName.of("B"), TestingMeasures.PRESENT_VALUE);
+  private static final ColumnHeader HEADER3 = ColumnHeader.of(ColumnName.of("C"), TestingMeasures.PRESENT_VALUE);
+  private static final ImmutableList<ColumnHeader> HEADERS = ImmutableList.of(HEADER1, HEADER2, HEADER3);
+
+  private static final Result<?> AMOUNT1 = Result.success(CurrencyAmount.of(USD, 1d));
+  private static final Result<?> AMOUNT2 = Result.success(CurrencyAmount.of(GBP, 2d));
+  private static final Result<?> ARRAY1 = Result.success(CurrencyValuesArray.of(EUR, DoubleArray.of(1d, 2d, 3d)));
+  private static final Result<?> ARRAY2 = Result.success(CurrencyValuesArray.of(USD, DoubleArray.of(4d, 5d, 6d)));
+  private static final Result<?> ARRAY3 = Result.success(CurrencyValuesArray.of(USD, DoubleArray.of(7d, 8d)));
+  private static final Result<?> FAILURE = Result.failure(FailureReason.ERROR, "Failed");
+  private static final Result<?> STRING = Result.success("foo");
+
+  //-------------------------------------------------------------------------
+  public void test_builder() {
+    ColumnarResults test = ColumnarResults.builder(HEADERS, 3)
+        .set(0, 0, AMOUNT1)
+        .set(1, 0, AMOUNT2)
+        .set(2, 0, FAILURE)
+        .set(0, 1, ARRAY1)
+        .set(1, 1, ARRAY3)
+        .set(2, 1, ARRAY2)
+        .set(0, 2, STRING)
+        .set(1, 2, FAILURE)
+        .set(2, 2, AMOUNT1)
+        .build();
+    assertEquals(test.getColumns(), HEADERS);
+    assertEquals(test.getRowCount(), 3);
+    assertEquals(test.getColumnCount(), 3);
+    assertEquals(test.get(0, 0), AMOUNT1);
+    assertEquals(test.get(1, 0), AMOUNT2);
+    assertEquals(test.get(2, 0), FAILURE);
+    assertEquals(test.get(0, 1), ARRAY1);
+    assertEquals(test.get(1, 1), ARRAY3);
+    assertEquals(test.get(2, 1), ARRAY2);
+    assertEquals(test.get(0, 2), STRING);
+    assertEquals(test.get(1, 2), FAILURE);
+    assertEquals(test.get(2, 2), AMOUNT1);
+    assertThrowsIllegalArg(() -> test.get(-1, 0));
+    assertThrowsIllegalArg(() -> test.get(3, 0));
+    assertThrowsIllegalArg(() -> test.get(0, 3));
+  }
+
+  public void test_builder_invalid() {
+    ColumnarResults.Builder builder = ColumnarResults.builder(HEADERS, 1).set(0, 0, AMOUNT1);
+    assertThrowsIllegalArg(() -> builder.set(0, 0, AMOUNT2));
+    assertThrowsIllegalArg(() -> builder.set(1, 0, AMOUNT2));
+    assertThrows(() -> builder.build(), IllegalStateException.class, "Result not set for row 0 and column 1");
+  }
+
+  public void test_builder_tooManyCells() {
+    assertThrowsIllegalArg(() -> ColumnarResults.builder(HEADERS, Integer.MAX_VALUE / 2));
+  }
+
+  public void test_builder_tooManyValues() {
+    // the values of the column do not fit in an array, so are not stored as primitives
+    int rowCount = 1 << 20;
+    Result<?> array = Result.success(CurrencyValuesArray.of(USD, DoubleArray.filled(1 << 11, 1d)));
+    ColumnarResults.Builder builder = ColumnarResults.builder(ImmutableList.of(HEADER1), rowCount).set(0, 0, array);
+    for (int i = 1; i < rowCount; i++) {
+      builder.set(i, 0, FAILURE);
+    }
+    ColumnarResults test = builder.build();
+    assertEquals(test.get(0, 0), array);
+    assertEquals(test.get(rowCount - 1, 0), FAILURE);
+  }
+
+  public void test_of_toResults() {
+    Results results = Results.of(HEADERS, ImmutableList.of(AMOUNT1, ARRAY1, FAILURE, AMOUNT2, ARRAY2, STRING));
+    ColumnarResults test = ColumnarResults.of(results);
+    assertEquals(test.getRowCount(), 2);
+    assertEquals(test.get(1, 1), ARRAY2);
+    assertEquals(test.toResults(), results);
+  }
+
+  public void test_empty() {
+    ColumnarResults test = ColumnarResults.builder(ImmutableList.of(), 0).build();
+    assertEquals(test.getRowCount(), 0);
+    assertEquals(test.getColumnCount(), 0);
+    assertEquals(test.toResults(), Results.of(ImmutableList.of(), ImmutableList.of()));
+  }
+
+}
@@ -7,12 +7,17 @@ package com.opengamma.strata.calc.marketdata;
 
 import static com.opengamma.strata.collect.Guavate.toImmutableMap;
 import static com.opengamma.strata.collect.TestHelper.assertThrows;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
 import static com.opengamma.strata.collect.TestHelper.date;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.testng.annotations.Test;
 
@@ -352,6 +357,270 @@ public class DefaultMarketDataFactoryTest {
     assertThat(marketData.getValue(new TestIdC("2")).getSingleValue()).isEqualTo(expectedC2);
   }
 
+  /**
+   * Tests building the values of each level concurrently using an executor.
+   */
+  public void buildWithExecutor() {
+    MarketDataRequirements requirements = MarketDataRequirements.builder()
+        .addValues(new TestIdB("1"), new TestIdB("2"), new TestIdB("3"), new TestIdB("4"))
+        .build();
+    ImmutableMap.Builder<TestIdA, LocalDateDoubleTimeSeries> timeSeriesBuilder = ImmutableMap.builder();
+    for (int i = 1; i <= 4; i++) {
+      timeSeriesBuilder.put(new TestIdA(Integer.toString(i)), LocalDateDoubleTimeSeries.of(date(2011, 3, 8), i));
+    }
+    TimeSeriesProvider timeSeriesProvider = new TestTimeSeriesProvider(timeSeriesBuilder.build());
+    List<MarketDataFunction<?, ?>> functions =
+        ImmutableList.of(new TestMarketDataFunctionB(), new TestMarketDataFunctionC());
+    BuiltScenarioMarketData suppliedData = BuiltScenarioMarketData.builder(date(2011, 3, 8)).build();
+
+    MarketDataFactory factory = MarketDataFactory.of(new TestObservableDataProvider(), timeSeriesProvider, functions);
+    BuiltScenarioMarketData expected = factory.buildMarketData(requirements, MARKET_DATA_CONFIG, suppliedData, REF_DATA);
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      MarketDataFactory concurrentFactory =
+          MarketDataFactory.of(new TestObservableDataProvider(), timeSeriesProvider, executor, functions);
+      BuiltScenarioMarketData marketData =
+          concurrentFactory.buildMarketData(requirements, MARKET_DATA_CONFIG, suppliedData, REF_DATA);
+      // the build times are not part of the identity of the market data
+      assertThat(marketData).isEqualTo(expected);
+      assertThat(marketData.hashCode()).isEqualTo(expected.hashCode());
+      assertThat(marketData.getValueFailures()).isEmpty();
+      assertThat(marketData.getTimeSeriesFailures()).isEmpty();
+      for (int i = 1; i <= 4; i++) {
+        TestMarketDataC expectedC = new TestMarketDataC(LocalDateDoubleTimeSeries.of(date(2011, 3, 8), i));
+        assertThat(marketData.getValue(new TestIdB(Integer.toString(i))).getSingleValue())
+            .isEqualTo(new TestMarketDataB(i, expectedC));
+      }
+      // the build times of the non-observable values
+      assertThat(marketData.getBuildTimes().keySet()).containsOnly(
+          new TestIdB("1"), new TestIdB("2"), new TestIdB("3"), new TestIdB("4"),
+          new TestIdC("1"), new TestIdC("2"), new TestIdC("3"), new TestIdC("4"));
+      assertThat(marketData.getBuildTimes().keySet()).isEqualTo(expected.getBuildTimes().keySet());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  public void executorNull() {
+    assertThrowsIllegalArg(() -> MarketDataFactory.of(
+        new TestObservableDataProvider(), new TestTimeSeriesProvider(ImmutableMap.of()), null, ImmutableList.of()));
+  }
+
+  /**
+   * Tests the observable data and time-series of a level are requested in batches without waiting for one another.
+   */
+  public void buildWithProviderLatency() {
+    TestObservableId id1 = TestObservableId.of("1");
+    TestObservableId id2 = TestObservableId.of("2");
+    TestObservableId id3 = TestObservableId.of("3");
+    TestObservableId id4 = TestObservableId.of("4");
+    LocalDateDoubleTimeSeries timeSeries3 = LocalDateDoubleTimeSeries.of(date(2011, 3, 8), 3);
+    MarketDataRequirements requirements = MarketDataRequirements.builder()
+        .addValues(id1, id2)
+        .addTimeSeries(id3, id4)
+        .build();
+    BuiltScenarioMarketData suppliedData = BuiltScenarioMarketData.builder(date(2011, 3, 8)).build();
+
+    try (DelayedMarketDataProvider provider =
+        new DelayedMarketDataProvider(ImmutableMap.of(id1, 1d, id2, 2d), ImmutableMap.of(id3, timeSeries3), 100)) {
+
+      MarketDataFactory factory = MarketDataFactory.of(provider, provider);
+      BuiltScenarioMarketData marketData = factory.buildMarketData(requirements, MARKET_DATA_CONFIG, suppliedData, REF_DATA);
+      assertThat(marketData.getValue(id1)).isEqualTo(MarketDataBox.ofSingleValue(1d));
+      assertThat(marketData.getValue(id2)).isEqualTo(MarketDataBox.ofSingleValue(2d));
+      assertThat(marketData.getTimeSeries(id3)).isEqualTo(timeSeries3);
+      assertThat(marketData.getTimeSeriesFailures()).containsOnlyKeys(id4);
+      // one batch of observable data and one batch of time-series, in flight at the same time
+      assertThat(provider.getRequestCount()).isEqualTo(2);
+      assertThat(provider.getMaxInFlight()).isEqualTo(2);
+    }
+  }
+
+  /**
+   * Tests the default asynchronous methods of the providers delegate to the synchronous methods.
+   */
+  public void providersAsyncDefaults() {
+    TestObservableId id1 = TestObservableId.of("1");
+    TestObservableId id2 = TestObservableId.of("2");
+    LocalDateDoubleTimeSeries timeSeries1 = LocalDateDoubleTimeSeries.of(date(2011, 3, 8), 1);
+    TimeSeriesProvider timeSeriesProvider = new TestTimeSeriesProvider(ImmutableMap.of(id1, timeSeries1));
+    Map<ObservableId, Result<LocalDateDoubleTimeSeries>> timeSeries =
+        timeSeriesProvider.provideTimeSeriesAsync(ImmutableSet.of(id1, id2), Runnable::run).join();
+    assertThat(timeSeries).containsOnlyKeys(id1, id2);
+    assertThat(timeSeries.get(id1).getValue()).isEqualTo(timeSeries1);
+    assertThat(timeSeries.get(id2).isFailure()).isTrue();
+
+    Map<ObservableId, Result<Double>> values =
+        ObservableDataProvider.none().provideObservableDataAsync(ImmutableSet.of(id1), Runnable::run).join();
+    assertThat(values).containsOnlyKeys(id1);
+    assertThat(values.get(id1).isFailure()).isTrue();
+  }
+
+  /**
+   * Tests rebuilding market data incrementally when supplied values change.
+   */
+  public void rebuildMarketData_suppliedValues() {
+    TestIdA idA1 = new TestIdA("1");
+    TestIdA idA2 = new TestIdA("2");
+    TestIdB idB1 = new TestIdB("1");
+    TestIdB idB2 = new TestIdB("2");
+    TestIdC idC1 = new TestIdC("1");
+    TestIdC idC2 = new TestIdC("2");
+    LocalDateDoubleTimeSeries timeSeries1 = LocalDateDoubleTimeSeries.of(date(2011, 3, 8), 1);
+    LocalDateDoubleTimeSeries timeSeries2 = LocalDateDoubleTimeSeries.of(date(2011, 3, 8), 10);
+    MarketDataFactory factory = MarketDataFactory.of(
+        new TestObservableDataProvider(),
+        new TestTimeSeriesProvider(ImmutableMap.of(idA1, timeSeries1, idA2, timeSeries2)),
+        new TestMarketDataFunctionB(),
+        new TestMarketDataFunctionC());
+    MarketDataRequirements requirements = MarketDataRequirements.builder().addValues(idB1, idB2).build();
+    BuiltScenarioMarketData suppliedData = BuiltScenarioMarketData.builder(date(2011, 3, 8))
+        .addValue(idA1, 1d)
+        .addValue(idA2, 2d)
+        .build();
+
+    IncrementalMarketData built = factory.buildIncrementalMarketData(
+        requirements, MARKET_DATA_CONFIG, suppliedData, REF_DATA, ScenarioDefinition.empty());
+    BuiltScenarioMarketData expected =
+        factory.buildMarketData(requirements, MARKET_DATA_CONFIG, suppliedData, REF_DATA);
+    assertThat(built.getMarketData().getMarketData()).isEqualTo(expected.getMarketData());
+    assertThat(built.getRebuiltIds()).containsOnly(idA1, idA2, idB1, idB2, idC1, idC2);
+
+    // nothing has changed
+    BuiltScenarioMarketData sameSuppliedData = BuiltScenarioMarketData.builder(date(2011, 3, 8))
+        .addValue(idA1, 1d)
+        .addValue(idA2, 2d)
+        .build();
+    IncrementalMarketData unchanged = factory.rebuildMarketData(built, sameSuppliedData);
+    assertThat(unchanged.getRebuiltIds()).isEmpty();
+    assertThat(unchanged.getMarketData().getMarketData()).isEqualTo(expected.getMarketData());
+    assertThat(unchanged.getMarketData().getValue(idB1)).isSameAs(built.getMarketData().getValue(idB1));
+    assertThat(unchanged.getMarketData().getValue(idC1)).isSameAs(built.getMarketData().getValue(idC1));
+    assertThat(unchanged.getMarketData().getBuildTimes()).containsOnlyKeys(idB1, idB2, idC1, idC2);
+    assertThat(unchanged.getMarketData().getBuildTimes()).isEqualTo(built.getMarketData().getBuildTimes());
+
+    // one supplied value has changed
+    BuiltScenarioMarketData changedSuppliedData = BuiltScenarioMarketData.builder(date(2011, 3, 8))
+        .addValue(idA1, 3d)
+        .addValue(idA2, 2d)
+        .build();
+    IncrementalMarketData changed = factory.rebuildMarketData(unchanged, changedSuppliedData);
+    assertThat(changed.getRebuiltIds()).containsOnly(idA1, idB1);
+    assertThat(changed.getMarketData().getMarketData())
+        .isEqualTo(factory.buildMarketData(requirements, MARKET_DATA_CONFIG, changedSuppliedData, REF_DATA)
+            .getMarketData());
+    assertThat(changed.getMarketData().getValue(idB1).getSingleValue())
+        .isEqualTo(new TestMarketDataB(3, new TestMarketDataC(timeSeries1)));
+    assertThat(changed.getMarketData().getValue(idB2)).isSameAs(built.getMarketData().getValue(idB2));
+    assertThat(changed.getMarketData().getValue(idC1)).isSameAs(built.getMarketData().getValue(idC1));
+    assertThat(changed.getMarketData().getBuildTimes()).containsOnlyKeys(idB1, idB2, idC1, idC2);
+    assertThat(changed.getMarketData().getBuildTimes().get(idC1))
+        .isEqualTo(built.getMarketData().getBuildTimes().get(idC1));
+
+    // different data is supplied, so the market data is built in full
+    BuiltScenarioMarketData moreSuppliedData = BuiltScenarioMarketData.builder(date(2011, 3, 8))
+        .addValue(idA1, 3d)
+        .addValue(idA2, 2d)
+        .addValue(idC2, new TestMarketDataC(timeSeries1))
+        .build();
+    IncrementalMarketData rebuilt = factory.rebuildMarketData(changed, moreSuppliedData);
+    assertThat(rebuilt.getRebuiltIds()).containsOnly(idA1, idA2, idB1, idB2, idC1, idC2);
+    assertThat(rebuilt.getMarketData().getValue(idB2).getSingleValue())
+        .isEqualTo(new TestMarketDataB(2, new TestMarketDataC(timeSeries1)));
+  }
+
+  /**
+   * Tests rebuilding market data incrementally when observable values from the provider change.
+   */
+  public void rebuildMarketData_providedValues() {
+    TestIdA idA1 = new TestIdA("1");
+    TestIdA idA2 = new TestIdA("2");
+    TestIdB idB1 = new TestIdB("1");
+    TestIdB idB2 = new TestIdB("2");
+    LocalDateDoubleTimeSeries timeSeries = LocalDateDoubleTimeSeries.of(date(2011, 3, 8), 1);
+    Map<ObservableId, Double> quotes = new HashMap<>();
+    quotes.put(idA1, 1d);
+    quotes.put(idA2, 2d);
+    ObservableDataProvider observableDataProvider = ids -> ids.stream()
+        .collect(toImmutableMap(id -> id, id -> Result.success(quotes.get(id))));
+    MarketDataFactory factory = MarketDataFactory.of(
+        observableDataProvider,
+        new TestTimeSeriesProvider(ImmutableMap.of(idA1, timeSeries, idA2, timeSeries)),
+        new TestMarketDataFunctionB(),
+        new TestMarketDataFunctionC());
+    MarketDataRequirements requirements = MarketDataRequirements.builder().addValues(idB1, idB2).build();
+    BuiltScenarioMarketData suppliedData = BuiltScenarioMarketData.builder(date(2011, 3, 8)).build();
+
+    IncrementalMarketData built = factory.buildIncrementalMarketData(
+        requirements, MARKET_DATA_CONFIG, suppliedData, REF_DATA, ScenarioDefinition.empty());
+    assertThat(factory.rebuildMarketData(built, suppliedData).getRebuiltIds()).isEmpty();
+
+    quotes.put(idA2, 5d);
+    IncrementalMarketData changed = factory.rebuildMarketData(built, suppliedData);
+    assertThat(changed.getRebuiltIds()).containsOnly(idA2, idB2);
+    assertThat(changed.getMarketData().getValue(idA2).getSingleValue()).isEqualTo(5d);
+    assertThat(changed.getMarketData().getValue(idB2).getSingleValue())
+        .isEqualTo(new TestMarketDataB(5, new TestMarketDataC(timeSeries)));
+    assertThat(changed.getMarketData().getValue(idB1)).isSameAs(built.getMarketData().getValue(idB1));
+  }
+
+  /**
+   * Tests the default incremental building methods, which build the market data in full.
+   */
+  public void rebuildMarketData_default() {
+    TestIdA idA1 = new TestIdA("1");
+    TestIdB idB1 = new TestIdB("1");
+    TestIdC idC1 = new TestIdC("1");
+    LocalDateDoubleTimeSeries timeSeries = LocalDateDoubleTimeSeries.of(date(2011, 3, 8), 1);
+    MarketDataFactory delegate = MarketDataFactory.of(
+        new TestObservableDataProvider(),
+        new TestTimeSeriesProvider(ImmutableMap.of(idA1, timeSeries)),
+        new TestMarketDataFunctionB(),
+        new TestMarketDataFunctionC());
+    MarketDataFactory factory = new MarketDataFactory() {
+
+      @Override
+      public BuiltScenarioMarketData buildMarketData(
+          MarketDataRequirements requirements,
+          MarketDataConfig marketDataConfig,
+          ScenarioMarketData suppliedData,
+          ReferenceData refData) {
+
+        return delegate.buildMarketData(requirements, marketDataConfig, suppliedData, refData);
+      }
+
+      @Override
+      public BuiltScenarioMarketData buildMarketData(
+          MarketDataRequirements requirements,
+          MarketDataConfig marketDataConfig,
+          ScenarioMarketData suppliedData,
+          ReferenceData refData,
+          ScenarioDefinition scenarioDefinition) {
+
+        return delegate.buildMarketData(requirements, marketDataConfig, suppliedData, refData, scenarioDefinition);
+      }
+    };
+    MarketDataRequirements requirements = MarketDataRequirements.builder().addValues(idB1).build();
+    BuiltScenarioMarketData suppliedData = BuiltScenarioMarketData.builder(date(2011, 3, 8))
+        .addValue(idA1, 1d)
+        .build();
+
+    IncrementalMarketData built = factory.buildIncrementalMarketData(
+        requirements, MARKET_DATA_CONFIG, suppliedData, REF_DATA, ScenarioDefinition.empty());
+    assertThat(built.getRebuiltIds()).containsOnly(idA1, idB1, idC1);
+    assertThat(built.getMarketData().getValue(idB1).getSingleValue())
+        .isEqualTo(new TestMarketDataB(1, new TestMarketDataC(timeSeries)));
+
+    BuiltScenarioMarketData changedSuppliedData = BuiltScenarioMarketData.builder(date(2011, 3, 8))
+        .addValue(idA1, 3d)
+        .build();
+    IncrementalMarketData changed = factory.rebuildMarketData(built, changedSuppliedData);
+    assertThat(changed.getRebuiltIds()).containsOnly(idA1, idB1, idC1);
+    assertThat(changed.getMarketData().getValue(idB1).getSingleValue())
+        .isEqualTo(new TestMarketDataB(3, new TestMarketDataC(timeSeries)));
+  }
+
   /**
    * Tests building multiple observable values for scenarios where the values aren't perturbed.
    */
@@ -0,0 +1,160 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.marketdata;
+
+import static com.opengamma.strata.collect.Guavate.toImmutableMap;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.opengamma.strata.collect.result.FailureReason;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.data.ObservableId;
+
+/**
+ * An in-process provider of observable data and time-series that responds after a fixed latency.
+ * <p>
+ * This stands in for a remote market data source when testing how the latency of the providers
+ * affects the market data factory. An asynchronous request returns immediately, and its future
+ * is completed by a timer thread once the latency has elapsed. A synchronous request blocks for the latency.
+ * <p>
+ * The number of requests, and the maximum number of requests in flight at the same time, are recorded.
+ * The provider must be closed after use to stop the timer thread.
+ */
+final class DelayedMarketDataProvider implements ObservableDataProvider, TimeSeriesProvider, AutoCloseable {
+
+  /** The observable values, keyed by ID. */
+  private final ImmutableMap<ObservableId, Double> values;
+  /** The time-series, keyed by ID. */
+  private final ImmutableMap<ObservableId, LocalDateDoubleTimeSeries> timeSeries;
+  /** The latency of each request, in milliseconds. */
+  private final long latencyMillis;
+  /** The timer completing the asynchronous requests. */
+  private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+  /** The number of requests. */
+  private final AtomicInteger requestCount = new AtomicInteger();
+  /** The number of requests in flight. */
+  private final AtomicInteger inFlight = new AtomicInteger();
+  /** The maximum number of requests in flight at the same time. */
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+
+  DelayedMarketDataProvider(
+      Map<? extends ObservableId, Double> values,
+      Map<? extends ObservableId, LocalDateDoubleTimeSeries> timeSeries,
+      long latencyMillis) {
+
+    this.values = ImmutableMap.copyOf(values);
+    this.timeSeries = ImmutableMap.copyOf(timeSeries);
+    this.latencyMillis = latencyMillis;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public Map<ObservableId, Result<Double>> provideObservableData(Set<? extends ObservableId> identifiers) {
+    return delay(() -> observableData(identifiers));
+  }
+
+  @Override
+  public CompletableFuture<Map<ObservableId, Result<Double>>> provideObservableDataAsync(
+      Set<? extends ObservableId> identifiers,
+      Executor executor) {
+
+    return delayAsync(() -> observableData(identifiers));
+  }
+
+  @Override
+  public Result<LocalDateDoubleTimeSeries> provideTimeSeries(ObservableId identifier) {
+    return delay(() -> timeSeries(identifier));
+  }
+
+  @Override
+  public CompletableFuture<Map<ObservableId, Result<LocalDateDoubleTimeSeries>>> provideTimeSeriesAsync(
+      Set<? extends ObservableId> identifiers,
+      Executor executor) {
+
+    return delayAsync(() -> identifiers.stream().collect(toImmutableMap(id -> id, this::timeSeries)));
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the number of requests made to the provider.
+   * <p>
+   * A batch of identifiers requested asynchronously counts as one request.
+   *
+   * @return the number of requests
+   */
+  int getRequestCount() {
+    return requestCount.get();
+  }
+
+  /**
+   * Gets the maximum number of requests in flight at the same time.
+   *
+   * @return the maximum number of requests in flight
+   */
+  int getMaxInFlight() {
+    return maxInFlight.get();
+  }
+
+  @Override
+  public void close() {
+    timer.shutdownNow();
+  }
+
+  //-------------------------------------------------------------------------
+  private Map<ObservableId, Result<Double>> observableData(Set<? extends ObservableId> identifiers) {
+    return identifiers.stream()
+        .collect(toImmutableMap(
+            id -> id,
+            id -> Result.ofNullable(values.get(id), FailureReason.MISSING_DATA, "No value found for ID {}", id)));
+  }
+
+  private Result<LocalDateDoubleTimeSeries> timeSeries(ObservableId id) {
+    return Result.ofNullable(timeSeries.get(id), FailureReason.MISSING_DATA, "No time-series found for ID {}", id);
+  }
+
+  // blocks for the latency before returning the response
+  private <T> T delay(Supplier<T> response) {
+    started();
+    try {
+      Uninterruptibles.sleepUninterruptibly(latencyMillis, TimeUnit.MILLISECONDS);
+      return response.get();
+    } finally {
+      inFlight.decrementAndGet();
+    }
+  }
+
+  // returns a future completed with the response by the timer once the latency has elapsed
+  private <T> CompletableFuture<T> delayAsync(Supplier<T> response) {
+    started();
+    CompletableFuture<T> future = new CompletableFuture<>();
+    timer.schedule(
+        () -> {
+          inFlight.decrementAndGet();
+          future.complete(response.get());
+        },
+        latencyMillis,
+        TimeUnit.MILLISECONDS);
+    return future;
+  }
+
+  // records the start of a request
+  private void started() {
+    requestCount.incrementAndGet();
+    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+  }
+
+}
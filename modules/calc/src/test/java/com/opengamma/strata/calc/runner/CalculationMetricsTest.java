@@ -0,0 +1,163 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import static com.opengamma.strata.calc.ReportingCurrency.NATURAL;
+import static com.opengamma.strata.collect.TestHelper.date;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Set;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.calc.Column;
+import com.opengamma.strata.calc.Measure;
+import com.opengamma.strata.calc.Results;
+import com.opengamma.strata.calc.TestingMeasures;
+import com.opengamma.strata.calc.marketdata.TestObservableId;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.data.scenario.ImmutableScenarioMarketData;
+import com.opengamma.strata.data.scenario.ScenarioArray;
+import com.opengamma.strata.data.scenario.ScenarioMarketData;
+
+/**
+ * Test {@link CalculationMetrics}.
+ */
+@Test
+public class CalculationMetricsTest {
+
+  private static final ReferenceData REF_DATA = ReferenceData.standard();
+  private static final TestObservableId ID1 = TestObservableId.of("1");
+  private static final TestObservableId ID2 = TestObservableId.of("2");
+  private static final ScenarioMarketData MARKET_DATA = ImmutableScenarioMarketData.builder(date(2011, 3, 8))
+      .addValue(ID1, 1d)
+      .addValue(ID2, 2d)
+      .build();
+
+  //-------------------------------------------------------------------------
+  public void test_metrics() {
+    CalculationMetrics metrics = CalculationMetrics.create();
+    CalculationTaskRunner runner = CalculationTaskRunner.of(MoreExecutors.newDirectExecutorService(), metrics);
+    Results results = runner.calculateMultipleScenarios(tasks(), MARKET_DATA, REF_DATA);
+    assertThat(results.get(0, 0).getValue()).isEqualTo(ScenarioArray.of(1d));
+    assertThat(results.get(0, 1).getValue()).isEqualTo(ScenarioArray.of(2d));
+    assertThat(results.get(1, 1).getValue()).isEqualTo(ScenarioArray.of(4d));
+
+    CalculationStatistics total = metrics.getTotalStatistics();
+    assertThat(total.getTaskCount()).isEqualTo(3);
+    assertThat(total.getWallTime().getCount()).isEqualTo(3);
+    assertThat(total.getQueueWaitTime().getCount()).isEqualTo(3);
+    // each task looks up its quote once
+    assertThat(total.getMarketDataLookups().getSum()).isEqualTo(3);
+    assertThat(total.getMarketDataLookups().getMax()).isEqualTo(1);
+
+    assertThat(metrics.getFunctionStatistics())
+        .containsOnlyKeys(TestQuoteFunction.class, DoubleQuoteFunction.class);
+    assertThat(metrics.getFunctionStatistics().get(TestQuoteFunction.class).getTaskCount()).isEqualTo(1);
+    assertThat(metrics.getFunctionStatistics().get(DoubleQuoteFunction.class).getTaskCount()).isEqualTo(2);
+    assertThat(metrics.getTargetTypeStatistics()).containsOnlyKeys(TestQuoteTarget.class);
+    assertThat(metrics.getTargetTypeStatistics().get(TestQuoteTarget.class).getTaskCount()).isEqualTo(3);
+    // the third task calculates both measures
+    Map<Measure, CalculationStatistics> measureStatistics = metrics.getMeasureStatistics();
+    assertThat(measureStatistics).containsOnlyKeys(TestingMeasures.PRESENT_VALUE, TestingMeasures.PAR_RATE);
+    assertThat(measureStatistics.get(TestingMeasures.PRESENT_VALUE).getTaskCount()).isEqualTo(2);
+    assertThat(measureStatistics.get(TestingMeasures.PAR_RATE).getTaskCount()).isEqualTo(2);
+
+    metrics.reset();
+    assertThat(metrics.getTotalStatistics()).isEqualTo(CalculationStatistics.EMPTY);
+    assertThat(metrics.getFunctionStatistics()).isEmpty();
+    assertThat(metrics.getMeasureStatistics()).isEmpty();
+    assertThat(metrics.getTargetTypeStatistics()).isEmpty();
+  }
+
+  public void test_mbean() throws Exception {
+    CalculationMetrics metrics = CalculationMetrics.create();
+    CalculationTaskRunner runner = CalculationTaskRunner.of(MoreExecutors.newDirectExecutorService(), metrics);
+    runner.calculateMultipleScenarios(tasks(), MARKET_DATA, REF_DATA);
+
+    ObjectName name = new ObjectName("com.opengamma.strata.calc:type=CalculationMetrics,name=test");
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    metrics.registerMBean(name);
+    try {
+      CompositeData total = (CompositeData) server.getAttribute(name, "TotalStatistics");
+      assertThat(total.get("taskCount")).isEqualTo(3L);
+      TabularData functions = (TabularData) server.getAttribute(name, "FunctionStatistics");
+      assertThat(functions.size()).isEqualTo(2);
+      CompositeData row = functions.get(new Object[] {TestQuoteFunction.class.getName()});
+      CompositeData statistics = (CompositeData) row.get("value");
+      assertThat(statistics.get("taskCount")).isEqualTo(1L);
+
+      server.invoke(name, "reset", new Object[0], new String[0]);
+      assertThat(metrics.getTotalStatistics().getTaskCount()).isEqualTo(0);
+    } finally {
+      metrics.unregisterMBean(name);
+    }
+    assertThat(server.isRegistered(name)).isFalse();
+  }
+
+  public void test_noMetrics() {
+    CalculationTaskRunner runner = CalculationTaskRunner.of(MoreExecutors.newDirectExecutorService());
+    Results results = runner.calculateMultipleScenarios(tasks(), MARKET_DATA, REF_DATA);
+    assertThat(results.get(1, 1).getValue()).isEqualTo(ScenarioArray.of(4d));
+  }
+
+  //-------------------------------------------------------------------------
+  private static CalculationTasks tasks() {
+    TestQuoteTarget target1 = TestQuoteTarget.of(ID1);
+    TestQuoteTarget target2 = TestQuoteTarget.of(ID2);
+    CalculationTaskCell cell1 = CalculationTaskCell.of(0, 0, TestingMeasures.PRESENT_VALUE, NATURAL);
+    CalculationTaskCell cell2 = CalculationTaskCell.of(0, 1, TestingMeasures.PAR_RATE, NATURAL);
+    CalculationTaskCell cell3 = CalculationTaskCell.of(1, 0, TestingMeasures.PRESENT_VALUE, NATURAL);
+    CalculationTaskCell cell4 = CalculationTaskCell.of(1, 1, TestingMeasures.PAR_RATE, NATURAL);
+    CalculationTask task1 = CalculationTask.of(target1, new TestQuoteFunction(), cell1);
+    CalculationTask task2 = CalculationTask.of(target1, new DoubleQuoteFunction(), cell2);
+    CalculationTask task3 = CalculationTask.of(target2, new DoubleQuoteFunction(), cell3, cell4);
+    return CalculationTasks.of(
+        ImmutableList.of(task1, task2, task3),
+        ImmutableList.of(Column.of(TestingMeasures.PRESENT_VALUE), Column.of(TestingMeasures.PAR_RATE)));
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Function returning the value of the quote of the target, and twice the value.
+   */
+  private static final class DoubleQuoteFunction extends TestQuoteFunction {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public Set<Measure> supportedMeasures() {
+      return ImmutableSet.of(TestingMeasures.PRESENT_VALUE, TestingMeasures.PAR_RATE);
+    }
+
+    @Override
+    public Map<Measure, Result<?>> calculate(
+        TestQuoteTarget target,
+        Set<Measure> measures,
+        CalculationParameters parameters,
+        ScenarioMarketData marketData,
+        ReferenceData refData) {
+
+      double value = marketData.getValue(target.getId()).getValue(0);
+      return ImmutableMap.of(
+          TestingMeasures.PRESENT_VALUE, Result.success(ScenarioArray.of(value)),
+          TestingMeasures.PAR_RATE, Result.success(ScenarioArray.of(value * 2)));
+    }
+  }
+
+}
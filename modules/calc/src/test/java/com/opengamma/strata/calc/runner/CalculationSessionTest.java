@@ -0,0 +1,130 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import static com.opengamma.strata.calc.ReportingCurrency.NATURAL;
+import static com.opengamma.strata.collect.CollectProjectAssertions.assertThat;
+import static com.opengamma.strata.collect.TestHelper.date;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.opengamma.strata.basics.CalculationTarget;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.calc.Column;
+import com.opengamma.strata.calc.Results;
+import com.opengamma.strata.calc.TestingMeasures;
+import com.opengamma.strata.calc.marketdata.TestObservableId;
+import com.opengamma.strata.data.scenario.ImmutableScenarioMarketData;
+import com.opengamma.strata.data.scenario.ScenarioArray;
+import com.opengamma.strata.data.scenario.ScenarioMarketData;
+
+/**
+ * Test {@link CalculationSession}.
+ */
+@Test
+public class CalculationSessionTest {
+
+  private static final ReferenceData REF_DATA = ReferenceData.standard();
+  private static final LocalDate VAL_DATE = date(2011, 3, 8);
+  private static final TestObservableId ID1 = TestObservableId.of("1");
+  private static final TestObservableId ID2 = TestObservableId.of("2");
+  private static final TestObservableId ID3 = TestObservableId.of("3");
+  private static final TestQuoteFunction FUNCTION = new TestQuoteFunction();
+  private static final CalculationTask TASK1 = task(ID1, 0);
+  private static final CalculationTask TASK2 = task(ID2, 1);
+  private static final CalculationTasks TASKS =
+      CalculationTasks.of(ImmutableList.of(TASK1, TASK2), ImmutableList.of(Column.of(TestingMeasures.PRESENT_VALUE)));
+
+  // using the direct executor means there is no need to close/shutdown the runner
+  private static final CalculationTaskRunner RUNNER =
+      CalculationTaskRunner.of(MoreExecutors.newDirectExecutorService());
+
+  //-------------------------------------------------------------------------
+  public void test_affectedTasks() {
+    CalculationSession test = CalculationSession.of(RUNNER, TASKS, REF_DATA);
+    assertEquals(test.getTasks(), TASKS);
+    assertEquals(test.affectedTasks(ImmutableSet.of(ID1)), ImmutableList.of(TASK1));
+    assertEquals(test.affectedTasks(ImmutableSet.of(ID2, ID1)), ImmutableList.of(TASK1, TASK2));
+    assertEquals(test.affectedTasks(ImmutableSet.of(ID3)), ImmutableList.of());
+  }
+
+  public void test_update() {
+    CalculationSession test = CalculationSession.of(RUNNER, TASKS, REF_DATA);
+    assertFalse(test.getResults().isPresent());
+    Results results1 = test.calculate(marketData(1d, 2d));
+    assertThat(results1.get(0, 0)).hasValue(ScenarioArray.of(1d));
+    assertThat(results1.get(1, 0)).hasValue(ScenarioArray.of(2d));
+
+    // only the cell depending on the changed quote is recalculated
+    Listener listener = new Listener();
+    Results results2 = test.update(marketData(1d, 3d), ImmutableSet.of(ID2), listener);
+    assertTrue(listener.complete);
+    assertEquals(listener.results.size(), 1);
+    assertEquals(listener.results.get(0).getRowIndex(), 1);
+    assertThat(listener.results.get(0).getResult()).hasValue(ScenarioArray.of(3d));
+    assertEquals(results2.get(0, 0), results1.get(0, 0));
+    assertThat(results2.get(1, 0)).hasValue(ScenarioArray.of(3d));
+    assertEquals(test.getResults().get(), results2);
+
+    // nothing is recalculated if no quote used by the tasks has changed
+    Listener listener2 = new Listener();
+    Results results3 = test.update(marketData(1d, 3d), ImmutableSet.of(ID3), listener2);
+    assertTrue(listener2.complete);
+    assertEquals(listener2.results.size(), 0);
+    assertEquals(results3, results2);
+  }
+
+  public void test_update_noPreviousResults() {
+    CalculationSession test = CalculationSession.of(RUNNER, TASKS, REF_DATA);
+    Listener listener = new Listener();
+    Results results = test.update(marketData(1d, 2d), ImmutableSet.of(), listener);
+    assertTrue(listener.complete);
+    assertEquals(listener.results.size(), 2);
+    assertEquals(results, test.calculate(marketData(1d, 2d)));
+  }
+
+  //-------------------------------------------------------------------------
+  private static CalculationTask task(TestObservableId id, int rowIndex) {
+    CalculationTaskCell cell = CalculationTaskCell.of(rowIndex, 0, TestingMeasures.PRESENT_VALUE, NATURAL);
+    return CalculationTask.of(TestQuoteTarget.of(id), FUNCTION, cell);
+  }
+
+  private static ScenarioMarketData marketData(double value1, double value2) {
+    return ImmutableScenarioMarketData.builder(VAL_DATE)
+        .addValue(ID1, value1)
+        .addValue(ID2, value2)
+        .addValue(ID3, 0d)
+        .build();
+  }
+
+  //-------------------------------------------------------------------------
+  private static final class Listener implements CalculationListener {
+
+    private final List<CalculationResult> results = new ArrayList<>();
+    private boolean complete;
+
+    @Override
+    public void resultReceived(CalculationTarget target, CalculationResult result) {
+      results.add(result);
+    }
+
+    @Override
+    public void calculationsComplete() {
+      complete = true;
+    }
+  }
+
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import static com.opengamma.strata.basics.currency.Currency.USD;
+import static com.opengamma.strata.calc.ReportingCurrency.NATURAL;
+import static com.opengamma.strata.collect.TestHelper.date;
+import static org.testng.Assert.assertEquals;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.calc.Column;
+import com.opengamma.strata.calc.ColumnarResults;
+import com.opengamma.strata.calc.TestingMeasures;
+import com.opengamma.strata.calc.runner.CalculationTaskTest.TestTarget;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.data.scenario.ImmutableScenarioMarketData;
+import com.opengamma.strata.data.scenario.ScenarioMarketData;
+
+/**
+ * Test {@link ColumnarResultsListener}.
+ */
+@Test
+public class ColumnarResultsListenerTest {
+
+  private static final ReferenceData REF_DATA = ReferenceData.standard();
+  private static final TestTarget TARGET = new TestTarget();
+
+  public void test_listener() {
+    CalculationTaskCell cell1 = CalculationTaskCell.of(0, 0, TestingMeasures.PRESENT_VALUE, NATURAL);
+    CalculationTaskCell cell2 = CalculationTaskCell.of(1, 0, TestingMeasures.PRESENT_VALUE, NATURAL);
+    CalculationTasks tasks = CalculationTasks.of(
+        ImmutableList.of(
+            CalculationTask.of(TARGET, new CalculationTaskTest.TestFunction(), cell1),
+            CalculationTask.of(TARGET, new CalculationTaskTest.TestFunction(), cell2)),
+        ImmutableList.of(Column.of(TestingMeasures.PRESENT_VALUE)));
+
+    // using the direct executor means there is no need to close/shutdown the runner
+    CalculationTaskRunner runner = CalculationTaskRunner.of(MoreExecutors.newDirectExecutorService());
+    ScenarioMarketData marketData = ImmutableScenarioMarketData.builder(date(2011, 3, 8)).build();
+    ColumnarResultsListener test = ColumnarResultsListener.of(tasks);
+    runner.calculateMultipleScenariosAsync(tasks, marketData, REF_DATA, test);
+    ColumnarResults results = test.result();
+    assertEquals(results.toResults(), runner.calculateMultipleScenarios(tasks, marketData, REF_DATA));
+  }
+
+  public void test_currencyAmounts() {
+    CalculationTasks tasks = CalculationTasks.of(
+        ImmutableList.of(CalculationTask.of(
+            TARGET,
+            new CalculationTaskTest.TestFunction(),
+            CalculationTaskCell.of(0, 0, TestingMeasures.PRESENT_VALUE, NATURAL))),
+        ImmutableList.of(Column.of(TestingMeasures.PRESENT_VALUE)));
+    ColumnarResultsListener test = ColumnarResultsListener.of(tasks);
+    Result<?> result = Result.success(CurrencyAmount.of(USD, 1d));
+    test.resultReceived(TARGET, CalculationResult.of(0, 0, result));
+    test.calculationsComplete();
+    assertEquals(test.result().get(0, 0), result);
+  }
+
+}
@@ -12,6 +12,8 @@ import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
 import static com.opengamma.strata.collect.TestHelper.date;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -121,6 +123,58 @@ public class DefaultCalculationTaskRunnerTest {
     assertThat(result2).hasValue(scenarioResult);
   }
 
+  /**
+   * Test that results calculated concurrently are returned in the cell of their task.
+   */
+  public void calculateMultipleScenariosConcurrently() {
+    int taskCount = 100;
+    ImmutableList.Builder<CalculationTask> taskBuilder = ImmutableList.builder();
+    for (int i = 0; i < taskCount; i++) {
+      ScenarioResultFunction fn = new ScenarioResultFunction(TestingMeasures.PRESENT_VALUE, ScenarioArray.of("r" + i));
+      CalculationTaskCell cell = CalculationTaskCell.of(i, 0, TestingMeasures.PRESENT_VALUE, NATURAL);
+      taskBuilder.add(CalculationTask.of(TARGET, fn, cell));
+    }
+    Column column = Column.of(TestingMeasures.PRESENT_VALUE);
+    CalculationTasks tasks = CalculationTasks.of(taskBuilder.build(), ImmutableList.of(column));
+
+    ScenarioMarketData marketData = ImmutableScenarioMarketData.builder(VAL_DATE).build();
+    try (CalculationTaskRunner test = CalculationTaskRunner.ofMultiThreaded()) {
+      Results results = test.calculateMultipleScenarios(tasks, marketData, REF_DATA);
+      assertThat(results.getRowCount()).isEqualTo(taskCount);
+      for (int i = 0; i < taskCount; i++) {
+        assertThat(results.get(i, 0)).hasValue(ScenarioArray.of("r" + i));
+      }
+    }
+  }
+
+  /**
+   * Test that the default implementation of calculateTasksAsync() calculates the tasks.
+   */
+  public void calculateTasksAsyncDefault() {
+    ImmutableList.Builder<CalculationTask> taskBuilder = ImmutableList.builder();
+    for (int i = 0; i < 2; i++) {
+      ScenarioResultFunction fn = new ScenarioResultFunction(TestingMeasures.PRESENT_VALUE, ScenarioArray.of("r" + i));
+      CalculationTaskCell cell = CalculationTaskCell.of(i, 0, TestingMeasures.PRESENT_VALUE, NATURAL);
+      taskBuilder.add(CalculationTask.of(TARGET, fn, cell));
+    }
+    ScenarioMarketData marketData = ImmutableScenarioMarketData.builder(VAL_DATE).build();
+    CalculationTaskRunner test = new MinimalRunner();
+
+    Listener listener = new Listener();
+    test.calculateTasksAsync(taskBuilder.build(), marketData, REF_DATA, listener);
+    assertThat(listener.results).hasSize(2);
+    assertThat(listener.results.get(0).getRowIndex()).isEqualTo(0);
+    assertThat(listener.results.get(0).getResult()).hasValue(ScenarioArray.of("r0"));
+    assertThat(listener.results.get(1).getRowIndex()).isEqualTo(1);
+    assertThat(listener.results.get(1).getResult()).hasValue(ScenarioArray.of("r1"));
+    assertThat(listener.complete).isTrue();
+
+    Listener emptyListener = new Listener();
+    test.calculateTasksAsync(ImmutableList.of(), marketData, REF_DATA, emptyListener);
+    assertThat(emptyListener.results).isEmpty();
+    assertThat(emptyListener.complete).isTrue();
+  }
+
   //-------------------------------------------------------------------------
   public static final class TestFunction implements CalculationFunction<TestTarget> {
 
@@ -220,15 +274,67 @@ public class DefaultCalculationTaskRunnerTest {
   private static final class Listener implements CalculationListener {
 
     private CalculationResult result;
+    private final List<CalculationResult> results = new ArrayList<>();
+    private boolean complete;
 
     @Override
     public void resultReceived(CalculationTarget target, CalculationResult result) {
       this.result = result;
+      results.add(result);
     }
 
     @Override
     public void calculationsComplete() {
-      // Do nothing
+      complete = true;
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Runner only implementing the abstract methods, which are not used by the test.
+   */
+  private static final class MinimalRunner implements CalculationTaskRunner {
+
+    @Override
+    public Results calculateSingleScenario(
+        CalculationTasks tasks,
+        ScenarioMarketData marketData,
+        ReferenceData refData) {
+
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Results calculateMultipleScenarios(
+        CalculationTasks tasks,
+        ScenarioMarketData marketData,
+        ReferenceData refData) {
+
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void calculateSingleScenarioAsync(
+        CalculationTasks tasks,
+        ScenarioMarketData marketData,
+        ReferenceData refData,
+        CalculationListener listener) {
+
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void calculateMultipleScenariosAsync(
+        CalculationTasks tasks,
+        ScenarioMarketData marketData,
+        ReferenceData refData,
+        CalculationListener listener) {
+
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() {
     }
   }
 }
@@ -0,0 +1,78 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.testng.annotations.Test;
+
+/**
+ * Test {@link MetricHistogram}.
+ */
+@Test
+public class MetricHistogramTest {
+
+  public void test_empty() {
+    MetricHistogram test = new MetricHistogram.Recorder().snapshot();
+    assertThat(test).isEqualTo(MetricHistogram.EMPTY);
+    assertThat(test.getCount()).isEqualTo(0);
+    assertThat(test.getMean()).isEqualTo(0d);
+    assertThat(test.getMin()).isEqualTo(0);
+    assertThat(test.getMax()).isEqualTo(0);
+    assertThat(test.percentile(0.5)).isEqualTo(0);
+  }
+
+  public void test_record() {
+    MetricHistogram.Recorder recorder = new MetricHistogram.Recorder();
+    recorder.record(0);
+    recorder.record(1);
+    recorder.record(5);
+    recorder.record(6);
+    recorder.record(100);
+    recorder.record(-3);
+    MetricHistogram test = recorder.snapshot();
+    assertThat(test.getCount()).isEqualTo(6);
+    assertThat(test.getSum()).isEqualTo(112);
+    assertThat(test.getMin()).isEqualTo(0);
+    assertThat(test.getMax()).isEqualTo(100);
+    assertThat(test.getMean()).isEqualTo(112d / 6);
+    long[] buckets = test.getBucketCounts();
+    assertThat(buckets).hasSize(65);
+    assertThat(buckets[0]).isEqualTo(2);
+    assertThat(buckets[1]).isEqualTo(1);
+    assertThat(buckets[3]).isEqualTo(2);
+    assertThat(buckets[7]).isEqualTo(1);
+    // the upper bound of the bucket containing the percentile, capped by the maximum
+    assertThat(test.percentile(0)).isEqualTo(0);
+    assertThat(test.percentile(0.5)).isEqualTo(1);
+    assertThat(test.percentile(0.6)).isEqualTo(7);
+    assertThat(test.percentile(1)).isEqualTo(100);
+    assertThrowsIllegalArg(() -> test.percentile(1.5));
+  }
+
+  public void test_getBucketCounts_defensiveCopy() {
+    MetricHistogram.Recorder recorder = new MetricHistogram.Recorder();
+    recorder.record(1);
+    MetricHistogram test = recorder.snapshot();
+    test.getBucketCounts()[1] = 10;
+    assertThat(test.getBucketCounts()[1]).isEqualTo(1);
+  }
+
+  public void test_equalsHashCode() {
+    MetricHistogram.Recorder recorder1 = new MetricHistogram.Recorder();
+    recorder1.record(10);
+    MetricHistogram.Recorder recorder2 = new MetricHistogram.Recorder();
+    recorder2.record(10);
+    MetricHistogram.Recorder recorder3 = new MetricHistogram.Recorder();
+    recorder3.record(11);
+    assertThat(recorder1.snapshot()).isEqualTo(recorder2.snapshot());
+    assertThat(recorder1.snapshot().hashCode()).isEqualTo(recorder2.snapshot().hashCode());
+    assertThat(recorder1.snapshot()).isNotEqualTo(recorder3.snapshot());
+    assertThat(recorder1.snapshot().toString()).contains("count=1");
+  }
+
+}
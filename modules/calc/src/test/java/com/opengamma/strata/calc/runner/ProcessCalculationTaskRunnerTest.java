@@ -0,0 +1,452 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import static com.opengamma.strata.calc.ReportingCurrency.NATURAL;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static com.opengamma.strata.collect.TestHelper.date;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.DataOutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.opengamma.strata.basics.CalculationTarget;
+import com.opengamma.strata.basics.ImmutableReferenceData;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.ReferenceDataId;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.calc.Column;
+import com.opengamma.strata.calc.Measure;
+import com.opengamma.strata.calc.Results;
+import com.opengamma.strata.calc.TestingMeasures;
+import com.opengamma.strata.calc.marketdata.TestObservableId;
+import com.opengamma.strata.calc.runner.CalculationTaskTest.TestTarget;
+import com.opengamma.strata.calc.runner.WorkerProtocol.TaskDefinition;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.data.ObservableId;
+import com.opengamma.strata.data.scenario.ImmutableScenarioMarketData;
+import com.opengamma.strata.data.scenario.ImmutableScenarioMarketDataBuilder;
+import com.opengamma.strata.data.scenario.ScenarioArray;
+import com.opengamma.strata.data.scenario.ScenarioMarketData;
+
+/**
+ * Test {@link ProcessCalculationTaskRunner}.
+ * <p>
+ * The worker processes are forked JVMs connected over loopback sockets.
+ */
+@Test
+public class ProcessCalculationTaskRunnerTest {
+
+  private static final ReferenceData REF_DATA = ReferenceData.standard();
+  private static final int TARGET_COUNT = 5;
+  private static final TestObservableId ID1 = TestObservableId.of("1");
+  private static final TestObservableId ID2 = TestObservableId.of("2");
+  private static final ScenarioMarketData MARKET_DATA = marketData();
+  private static final long SLOW_TASK_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+  private ProcessCalculationTaskRunner runner;
+
+  @BeforeClass
+  public void startWorkers() {
+    runner = ProcessCalculationTaskRunner.of(2, ImmutableList.of("-Xmx64m"));
+  }
+
+  @AfterClass
+  public void stopWorkers() {
+    runner.close();
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_calculateMultipleScenarios() {
+    CalculationTasks tasks = tasks(new StatelessFunction());
+    CalculationTaskRunner localRunner = CalculationTaskRunner.of(MoreExecutors.newDirectExecutorService());
+    ReferenceData refData = ImmutableReferenceData.of(ImmutableMap.of());
+    Results expected = localRunner.calculateMultipleScenarios(tasks, MARKET_DATA, refData);
+
+    int sentCount = runner.getReferenceDataSentCount();
+    Results results = runner.calculateMultipleScenarios(tasks, MARKET_DATA, refData);
+    assertThat(results).isEqualTo(expected);
+    assertThat(results.get(3, 0).getValue()).isEqualTo(ScenarioArray.of(3d, 6d));
+    // the reference data is sent once to each worker
+    assertThat(runner.getReferenceDataSentCount()).isEqualTo(sentCount + 2);
+    // the reference data is not sent again, and the results are the same
+    assertThat(runner.calculateMultipleScenarios(tasks, MARKET_DATA, refData)).isEqualTo(expected);
+    assertThat(runner.getReferenceDataSentCount()).isEqualTo(sentCount + 2);
+  }
+
+  public void test_resultsStreamed() {
+    // the first partition contains tasks 0, 1 and 2, and task 2 is slow to calculate
+    List<CalculationTask> tasks = new ArrayList<>(tasks(new StatelessFunction()).getTasks());
+    CalculationTaskCell cell = CalculationTaskCell.of(2, 0, TestingMeasures.PRESENT_VALUE, NATURAL);
+    tasks.set(2, CalculationTask.of(TestQuoteTarget.of(TestObservableId.of("2")), new SlowFunction(), cell));
+    Listener listener = new Listener();
+    runner.calculateTasksAsync(tasks, MARKET_DATA, REF_DATA, listener);
+    assertThat(listener.result()).hasSize(TARGET_COUNT);
+
+    // the results of the other tasks of the partition are received before the slow task has been calculated
+    long slowTaskTime = listener.receivedTimes.get(2);
+    assertThat(slowTaskTime - listener.receivedTimes.get(0)).isGreaterThan(SLOW_TASK_NANOS / 2);
+    assertThat(slowTaskTime - listener.receivedTimes.get(1)).isGreaterThan(SLOW_TASK_NANOS / 2);
+    assertThat(listener.receivedTimes.values()).allMatch(time -> time <= listener.completeTime);
+  }
+
+  public void test_calculateSingleScenario() {
+    CalculationTasks tasks = tasks(new StatelessFunction());
+    ScenarioMarketData marketData = ImmutableScenarioMarketData.builder(date(2011, 3, 8))
+        .addValue(ID2, 2d)
+        .build();
+    Results results = runner.calculateSingleScenario(tasks, marketData, REF_DATA);
+    assertThat(results.get(2, 0).getValue()).isEqualTo(2d);
+    // the market data for the other targets is missing
+    assertThat(results.get(1, 0).isFailure()).isTrue();
+  }
+
+  public void test_calculateTasksAsync() {
+    CalculationTasks tasks = tasks(new StatelessFunction());
+    Listener listener = new Listener();
+    runner.calculateTasksAsync(tasks.getTasks().subList(1, 3), MARKET_DATA, REF_DATA, listener);
+    List<CalculationResult> results = listener.result();
+    assertThat(results).hasSize(2);
+    assertThat(results.stream().map(r -> r.getRowIndex())).containsOnly(1, 2);
+
+    Listener emptyListener = new Listener();
+    runner.calculateTasksAsync(ImmutableList.of(), MARKET_DATA, REF_DATA, emptyListener);
+    assertThat(emptyListener.result()).isEmpty();
+  }
+
+  public void test_functionWithoutConstructor() {
+    CalculationTasks tasks = tasks(new NoConstructorFunction(1));
+    assertThrowsIllegalArg(() -> runner.calculateMultipleScenarios(tasks, MARKET_DATA, REF_DATA));
+  }
+
+  public void test_functionWithState() {
+    CalculationTasks tasks = tasks(new StatefulFunction());
+    assertThrowsIllegalArg(() -> runner.calculateMultipleScenarios(tasks, MARKET_DATA, REF_DATA));
+  }
+
+  public void test_targetNotSerializable() {
+    CalculationTaskCell cell = CalculationTaskCell.of(0, 0, TestingMeasures.PRESENT_VALUE, NATURAL);
+    CalculationTask task = CalculationTask.of(new TestTarget(), new CalculationTaskTest.TestFunction(), cell);
+    CalculationTasks tasks =
+        CalculationTasks.of(ImmutableList.of(task), ImmutableList.of(Column.of(TestingMeasures.PRESENT_VALUE)));
+    assertThrowsIllegalArg(() -> runner.calculateMultipleScenarios(tasks, MARKET_DATA, REF_DATA));
+  }
+
+  public void test_resultNotSerializable() {
+    CalculationTasks tasks = tasks(new NotSerializableResultFunction());
+    Results results = runner.calculateMultipleScenarios(tasks, MARKET_DATA, REF_DATA);
+    assertFailures(results, "Unable to serialize results in worker process");
+    // the workers can still calculate
+    assertCalculates(runner);
+  }
+
+  public void test_resultNotPermitted() {
+    CalculationTasks tasks = tasks(new NotPermittedResultFunction());
+    Results results = runner.calculateMultipleScenarios(tasks, MARKET_DATA, REF_DATA);
+    assertFailures(results, "Unable to read results from worker process");
+    // the workers can still calculate
+    assertCalculates(runner);
+  }
+
+  public void test_calculationNotSerializable() {
+    CalculationTasks tasks = tasks(new StatelessFunction());
+    ReferenceData refData = new NotSerializableReferenceData();
+    int sentCount = runner.getReferenceDataSentCount();
+    Results results = runner.calculateMultipleScenarios(tasks, MARKET_DATA, refData);
+    assertFailures(results, "Unable to serialize calculation for worker process");
+    // the reference data is not recorded as sent, so the second attempt fails in the same way
+    assertFailures(runner.calculateMultipleScenarios(tasks, MARKET_DATA, refData), "Unable to serialize calculation");
+    assertThat(runner.getReferenceDataSentCount()).isEqualTo(sentCount);
+    // the connections are still usable, and the workers have not been restarted
+    assertThat(runner.getLiveWorkerCount()).isEqualTo(2);
+    assertCalculates(runner);
+  }
+
+  public void test_workerFailure() throws Exception {
+    try (ProcessCalculationTaskRunner failingRunner = ProcessCalculationTaskRunner.of(2, ImmutableList.of("-Xmx64m"))) {
+      // the process of the worker calculating the first partition exits while calculating task 0
+      List<CalculationTask> tasks = new ArrayList<>(tasks(new StatelessFunction()).getTasks());
+      CalculationTaskCell cell = CalculationTaskCell.of(0, 0, TestingMeasures.PRESENT_VALUE, NATURAL);
+      tasks.set(0, CalculationTask.of(TestQuoteTarget.of(TestObservableId.of("0")), new ExitFunction(), cell));
+      Listener listener = new Listener();
+      failingRunner.calculateTasksAsync(tasks, MARKET_DATA, REF_DATA, listener);
+      Map<Integer, CalculationResult> results = Maps.uniqueIndex(listener.result(), CalculationResult::getRowIndex);
+      assertThat(results).hasSize(TARGET_COUNT);
+      assertThat(results.get(0).getResult().getFailure().getMessage()).contains("Worker process 0 failed");
+      assertThat(results.get(3).getResult().isSuccess()).isTrue();
+      assertThat(results.get(4).getResult().isSuccess()).isTrue();
+
+      // the tasks are calculated by the remaining worker, and by the new process once it has connected
+      assertCalculates(failingRunner);
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+      while (failingRunner.getLiveWorkerCount() < 2 && System.nanoTime() < deadline) {
+        Thread.sleep(100);
+      }
+      assertThat(failingRunner.getLiveWorkerCount()).isEqualTo(2);
+      assertCalculates(failingRunner);
+    }
+  }
+
+  public void test_accept_invalidToken() throws Exception {
+    InetAddress address = InetAddress.getLoopbackAddress();
+    try (ServerSocket server = new ServerSocket(0, 2, address);
+        Socket rogue = new Socket(address, server.getLocalPort());
+        Socket worker = new Socket(address, server.getLocalPort())) {
+      new DataOutputStream(rogue.getOutputStream()).writeUTF("invalid");
+      new DataOutputStream(worker.getOutputStream()).writeUTF("token");
+      Map<String, Socket> sockets = ProcessCalculationTaskRunner.accept(server, ImmutableSet.of("token"));
+      assertThat(sockets).containsOnlyKeys("token");
+      sockets.get("token").close();
+      // the connection without a valid token is closed
+      rogue.setSoTimeout(10_000);
+      assertThat(rogue.getInputStream().read()).isEqualTo(-1);
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_marketDataSubset() {
+    List<CalculationTask> tasks = tasks(new StatelessFunction()).getTasks();
+    List<TaskDefinition> partition =
+        ImmutableList.of(TaskDefinition.of(1, tasks.get(1)), TaskDefinition.of(2, tasks.get(2)));
+    ImmutableScenarioMarketData subset =
+        ProcessCalculationTaskRunner.marketDataSubset(partition, tasks, MARKET_DATA, REF_DATA);
+    assertThat(subset.getScenarioCount()).isEqualTo(2);
+    assertThat(subset.getValuationDate()).isEqualTo(MARKET_DATA.getValuationDate());
+    assertThat(subset.getValues()).containsOnlyKeys(ID1, ID2);
+    assertThat(subset.getValues().get(ID1)).isEqualTo(MARKET_DATA.getValue(ID1));
+    // only the time-series required by the tasks are included
+    assertThat(subset.getTimeSeries()).containsOnlyKeys(ID1);
+  }
+
+  //-------------------------------------------------------------------------
+  private static CalculationTasks tasks(CalculationFunction<TestQuoteTarget> function) {
+    List<CalculationTask> tasks = new ArrayList<>();
+    for (int i = 0; i < TARGET_COUNT; i++) {
+      CalculationTaskCell cell = CalculationTaskCell.of(i, 0, TestingMeasures.PRESENT_VALUE, NATURAL);
+      tasks.add(CalculationTask.of(TestQuoteTarget.of(TestObservableId.of(Integer.toString(i))), function, cell));
+    }
+    return CalculationTasks.of(tasks, ImmutableList.of(Column.of(TestingMeasures.PRESENT_VALUE)));
+  }
+
+  private static void assertFailures(Results results, String message) {
+    for (int i = 0; i < TARGET_COUNT; i++) {
+      Result<?> result = results.get(i, 0);
+      assertThat(result.isFailure()).isTrue();
+      assertThat(result.getFailure().getMessage()).contains(message);
+    }
+  }
+
+  private static void assertCalculates(CalculationTaskRunner runner) {
+    Results results = runner.calculateMultipleScenarios(tasks(new StatelessFunction()), MARKET_DATA, REF_DATA);
+    for (int i = 0; i < TARGET_COUNT; i++) {
+      assertThat(results.get(i, 0).getValue()).isEqualTo(ScenarioArray.of((double) i, 2d * i));
+    }
+  }
+
+  private static ScenarioMarketData marketData() {
+    ImmutableScenarioMarketDataBuilder builder = ImmutableScenarioMarketData.builder(date(2011, 3, 8));
+    for (int i = 0; i < TARGET_COUNT; i++) {
+      TestObservableId id = TestObservableId.of(Integer.toString(i));
+      builder.addScenarioValue(id, ImmutableList.of((double) i, 2d * i));
+      builder.addTimeSeries(id, LocalDateDoubleTimeSeries.of(date(2011, 3, 7), i));
+    }
+    return builder.build();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Function returning the value of the quote of the target in each scenario.
+   * <p>
+   * The function is stateless and not serializable, so is created by the worker using its no-arguments constructor.
+   * The time-series of the quote is only required by the target with ID 1.
+   */
+  public static class StatelessFunction implements CalculationFunction<TestQuoteTarget> {
+
+    private static final TestQuoteFunction DELEGATE = new TestQuoteFunction();
+
+    @Override
+    public Class<TestQuoteTarget> targetType() {
+      return TestQuoteTarget.class;
+    }
+
+    @Override
+    public Set<Measure> supportedMeasures() {
+      return DELEGATE.supportedMeasures();
+    }
+
+    @Override
+    public Currency naturalCurrency(TestQuoteTarget target, ReferenceData refData) {
+      return DELEGATE.naturalCurrency(target, refData);
+    }
+
+    @Override
+    public FunctionRequirements requirements(
+        TestQuoteTarget target,
+        Set<Measure> measures,
+        CalculationParameters parameters,
+        ReferenceData refData) {
+
+      Set<ObservableId> timeSeriesIds = target.getId().equals(ID1) ? ImmutableSet.of(ID1) : ImmutableSet.of();
+      return DELEGATE.requirements(target, measures, parameters, refData).toBuilder()
+          .timeSeriesRequirements(timeSeriesIds)
+          .build();
+    }
+
+    @Override
+    public Map<Measure, Result<?>> calculate(
+        TestQuoteTarget target,
+        Set<Measure> measures,
+        CalculationParameters parameters,
+        ScenarioMarketData marketData,
+        ReferenceData refData) {
+
+      return DELEGATE.calculate(target, measures, parameters, marketData, refData);
+    }
+  }
+
+  /**
+   * Function that waits before calculating the results.
+   */
+  public static final class SlowFunction extends StatelessFunction {
+
+    @Override
+    public Map<Measure, Result<?>> calculate(
+        TestQuoteTarget target,
+        Set<Measure> measures,
+        CalculationParameters parameters,
+        ScenarioMarketData marketData,
+        ReferenceData refData) {
+
+      try {
+        TimeUnit.NANOSECONDS.sleep(SLOW_TASK_NANOS);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      return super.calculate(target, measures, parameters, marketData, refData);
+    }
+  }
+
+  /**
+   * Function returning a result that cannot be serialized.
+   */
+  public static final class NotSerializableResultFunction extends StatelessFunction {
+
+    @Override
+    public Map<Measure, Result<?>> calculate(
+        TestQuoteTarget target,
+        Set<Measure> measures,
+        CalculationParameters parameters,
+        ScenarioMarketData marketData,
+        ReferenceData refData) {
+
+      return ImmutableMap.of(TestingMeasures.PRESENT_VALUE, Result.success(new Object()));
+    }
+  }
+
+  /**
+   * Function returning a serializable result of a class not permitted in the results of a worker.
+   */
+  public static final class NotPermittedResultFunction extends StatelessFunction {
+
+    @Override
+    public Map<Measure, Result<?>> calculate(
+        TestQuoteTarget target,
+        Set<Measure> measures,
+        CalculationParameters parameters,
+        ScenarioMarketData marketData,
+        ReferenceData refData) {
+
+      return ImmutableMap.of(TestingMeasures.PRESENT_VALUE, Result.success(URI.create("http://example.com")));
+    }
+  }
+
+  /**
+   * Function that causes the worker process to exit.
+   */
+  public static final class ExitFunction extends StatelessFunction {
+
+    @Override
+    public Map<Measure, Result<?>> calculate(
+        TestQuoteTarget target,
+        Set<Measure> measures,
+        CalculationParameters parameters,
+        ScenarioMarketData marketData,
+        ReferenceData refData) {
+
+      System.exit(1);
+      return ImmutableMap.of();
+    }
+  }
+
+  /**
+   * Function that is neither serializable nor has a no-arguments constructor.
+   */
+  public static final class NoConstructorFunction extends StatelessFunction {
+
+    public NoConstructorFunction(int unused) {
+    }
+  }
+
+  /**
+   * Function that is not serializable, and has state that could not be recreated by the worker.
+   */
+  public static final class StatefulFunction extends StatelessFunction {
+
+    private final double scale = 2d;
+  }
+
+  /**
+   * Reference data that is not serializable.
+   */
+  private static final class NotSerializableReferenceData implements ReferenceData {
+
+    @Override
+    public <T> Optional<T> findValue(ReferenceDataId<T> id) {
+      return Optional.empty();
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  private static final class Listener extends AggregatingCalculationListener<List<CalculationResult>> {
+
+    private final List<CalculationResult> results = new ArrayList<>();
+    private final Map<Integer, Long> receivedTimes = new HashMap<>();
+    private long completeTime;
+
+    @Override
+    public void resultReceived(CalculationTarget target, CalculationResult result) {
+      results.add(result);
+      receivedTimes.put(result.getRowIndex(), System.nanoTime());
+    }
+
+    @Override
+    protected List<CalculationResult> createAggregateResult() {
+      completeTime = System.nanoTime();
+      return results;
+    }
+  }
+
+}
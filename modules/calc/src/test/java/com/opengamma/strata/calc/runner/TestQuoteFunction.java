@@ -0,0 +1,72 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import static com.opengamma.strata.basics.currency.Currency.USD;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.calc.Measure;
+import com.opengamma.strata.calc.TestingMeasures;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.data.scenario.MarketDataBox;
+import com.opengamma.strata.data.scenario.ScenarioArray;
+import com.opengamma.strata.data.scenario.ScenarioMarketData;
+
+/**
+ * Test function returning the value of the quote of a {@link TestQuoteTarget} in each scenario.
+ */
+public class TestQuoteFunction implements CalculationFunction<TestQuoteTarget>, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  @Override
+  public Class<TestQuoteTarget> targetType() {
+    return TestQuoteTarget.class;
+  }
+
+  @Override
+  public Set<Measure> supportedMeasures() {
+    return ImmutableSet.of(TestingMeasures.PRESENT_VALUE);
+  }
+
+  @Override
+  public Currency naturalCurrency(TestQuoteTarget target, ReferenceData refData) {
+    return USD;
+  }
+
+  @Override
+  public FunctionRequirements requirements(
+      TestQuoteTarget target,
+      Set<Measure> measures,
+      CalculationParameters parameters,
+      ReferenceData refData) {
+
+    return FunctionRequirements.builder()
+        .valueRequirements(target.getId())
+        .build();
+  }
+
+  @Override
+  public Map<Measure, Result<?>> calculate(
+      TestQuoteTarget target,
+      Set<Measure> measures,
+      CalculationParameters parameters,
+      ScenarioMarketData marketData,
+      ReferenceData refData) {
+
+    MarketDataBox<Double> quote = marketData.getValue(target.getId());
+    ScenarioArray<Double> values = ScenarioArray.of(marketData.getScenarioCount(), quote::getValue);
+    return ImmutableMap.of(TestingMeasures.PRESENT_VALUE, Result.success(values));
+  }
+
+}
@@ -0,0 +1,45 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import java.io.Serializable;
+
+import com.opengamma.strata.basics.CalculationTarget;
+import com.opengamma.strata.calc.marketdata.TestObservableId;
+
+/**
+ * Test target referring to a quote, used with {@link TestQuoteFunction}.
+ */
+public final class TestQuoteTarget implements CalculationTarget, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final TestObservableId id;
+
+  /**
+   * Obtains an instance referring to a quote.
+   *
+   * @param id  the ID of the quote
+   * @return the target
+   */
+  public static TestQuoteTarget of(TestObservableId id) {
+    return new TestQuoteTarget(id);
+  }
+
+  private TestQuoteTarget(TestObservableId id) {
+    this.id = id;
+  }
+
+  /**
+   * Gets the ID of the quote.
+   *
+   * @return the ID of the quote
+   */
+  public TestObservableId getId() {
+    return id;
+  }
+
+}
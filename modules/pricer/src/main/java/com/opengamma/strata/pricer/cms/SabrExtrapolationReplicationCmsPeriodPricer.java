@@ -27,6 +27,8 @@ import com.opengamma.strata.market.explain.ExplainKey;
 import com.opengamma.strata.market.explain.ExplainMapBuilder;
 import com.opengamma.strata.market.sensitivity.PointSensitivityBuilder;
 import com.opengamma.strata.math.impl.MathException;
+import com.opengamma.strata.math.impl.integration.GaussLegendreWeightAndAbscissaFunction;
+import com.opengamma.strata.math.impl.integration.GaussianQuadratureData;
 import com.opengamma.strata.math.impl.integration.RungeKuttaIntegrator1D;
 import com.opengamma.strata.pricer.impl.option.SabrExtrapolationRightFunction;
 import com.opengamma.strata.pricer.impl.option.SabrInterestRateParameters;
@@ -52,7 +54,12 @@ import com.opengamma.strata.product.swap.type.FixedIborSwapConvention;
  *  The extrapolation is done on call prices above a certain strike. See {@link SabrExtrapolationRightFunction} for
  *  more details on the extrapolation method.
  *  <p>
- *  The replication requires numerical integration. This is completed by {@link RungeKuttaIntegrator1D}.
+ *  The replication requires numerical integration. This is completed by {@link RungeKuttaIntegrator1D} by default.
+ *  Alternatively, a composite fixed-node Gauss-Legendre quadrature can be selected using
+ *  {@link #ofGaussLegendre(DiscountingSwapProductPricer, double, double, int)}.
+ *  The nodes and weights are computed once, and the integrants of the price and of the sensitivities are
+ *  evaluated for all the nodes of a panel together, using the SABR volatilities of all the strikes at once.
+ *  This is faster than the adaptive integration, with a precision controlled by the number of panels.
  *  <p>
  *  The consistency between {@code RatesProvider} and {@code SabrParametersSwaptionVolatilities} is not checked in this 
  *  class, but validated only once in {@link SabrExtrapolationReplicationCmsLegPricer}.
@@ -101,6 +108,10 @@ public class SabrExtrapolationReplicationCmsPeriodPricer {
    * For expiry below that value, the forward rate is used for present value.
    */
   private static final double MIN_TIME = 1e-4;
+  /**
+   * The Gauss-Legendre quadrature nodes and weights on [-1, 1], used in each panel of the fixed-node integration.
+   */
+  private static final GaussianQuadratureData GAUSS_LEGENDRE = new GaussLegendreWeightAndAbscissaFunction().generate(10);
 
   /**
    * Pricer for the underlying swap. 
@@ -118,6 +129,10 @@ public class SabrExtrapolationReplicationCmsPeriodPricer {
    * This must be greater than 0 in order to ensure that the call price converges to 0 for infinite strike.
    */
   private final double mu;
+  /**
+   * The number of panels of the fixed-node integration, zero for adaptive integration.
+   */
+  private final int nbPanels;
 
   //-------------------------------------------------------------------------
   /**
@@ -133,7 +148,7 @@ public class SabrExtrapolationReplicationCmsPeriodPricer {
       double cutOffStrike,
       double mu) {
 
-    return new SabrExtrapolationReplicationCmsPeriodPricer(swapPricer, cutOffStrike, mu);
+    return new SabrExtrapolationReplicationCmsPeriodPricer(swapPricer, cutOffStrike, mu, 0);
   }
 
   /**
@@ -147,14 +162,39 @@ public class SabrExtrapolationReplicationCmsPeriodPricer {
     return of(DiscountingSwapProductPricer.DEFAULT, cutOffStrike, mu);
   }
 
+  /**
+   * Obtains the pricer using composite Gauss-Legendre quadrature for the numerical integration.
+   * <p>
+   * Each integration interval is split at the cut-off strike, and at the shifted zero strike for a call struck
+   * below it, then each part is divided in the specified number of panels of equal width, integrated with
+   * a 10 nodes Gauss-Legendre quadrature.
+   * 
+   * @param swapPricer  the pricer for underlying swap
+   * @param cutOffStrike  the cut-off strike value
+   * @param mu  the tail thickness
+   * @param nbPanels  the number of panels in each part of the integration interval
+   * @return the pricer
+   */
+  public static SabrExtrapolationReplicationCmsPeriodPricer ofGaussLegendre(
+      DiscountingSwapProductPricer swapPricer,
+      double cutOffStrike,
+      double mu,
+      int nbPanels) {
+
+    ArgChecker.notNegativeOrZero(nbPanels, "nbPanels");
+    return new SabrExtrapolationReplicationCmsPeriodPricer(swapPricer, cutOffStrike, mu, nbPanels);
+  }
+
   private SabrExtrapolationReplicationCmsPeriodPricer(
       DiscountingSwapProductPricer swapPricer,
       double cutOffStrike,
-      double mu) {
+      double mu,
+      int nbPanels) {
 
     this.swapPricer = ArgChecker.notNull(swapPricer, "swapPricer");
     this.cutOffStrike = cutOffStrike;
     this.mu = ArgChecker.notNegativeOrZero(mu, "mu");
+    this.nbPanels = nbPanels;
   }
 
   //-------------------------------------------------------------------------
@@ -208,13 +248,13 @@ public class SabrExtrapolationReplicationCmsPeriodPricer {
     double strikePart = factor * intProv.k(strikeCpn) * intProv.bs(strikeCpn);
     RungeKuttaIntegrator1D integrator = new RungeKuttaIntegrator1D(ABS_TOL, REL_TOL, NUM_ITER);
     double integralPart = 0d;
-    Function<Double, Double> integrant = intProv.integrant();
+    CmsIntegrant integrant = intProv.integrant();
     try {
       if (intProv.getPutCall().isCall()) {
         integralPart = dfPayment *
             integrateCall(integrator, integrant, swaptionVolatilities, forward, strikeCpn, expiryTime, tenor);
       } else {
-        integralPart = -dfPayment * integrator.integrate(integrant, -shift + ZERO_SHIFT, strikeCpn);
+        integralPart = -dfPayment * integrate(integrator, integrant, -shift + ZERO_SHIFT, strikeCpn, shift);
       }
     } catch (Exception e) {
       throw new MathException(e);
@@ -332,8 +372,8 @@ public class SabrExtrapolationReplicationCmsPeriodPricer {
     double strikePartPrice = intProv.k(strikeCpn) * n[0] * bs[0];
     double integralPartPrice = 0d;
     double integralPart = 0d;
-    Function<Double, Double> integrant = intProv.integrant();
-    Function<Double, Double> integrantDelta = intProv.integrantDelta();
+    CmsIntegrant integrant = intProv.integrant();
+    CmsIntegrant integrantDelta = intProv.integrantDelta();
     try {
       if (intProv.getPutCall().isCall()) {
         integralPartPrice =
@@ -341,8 +381,8 @@ public class SabrExtrapolationReplicationCmsPeriodPricer {
         integralPart = dfPayment *
             integrateCall(integrator, integrantDelta, swaptionVolatilities, forward, strikeCpn, expiryTime, tenor);
       } else {
-        integralPartPrice = -integrator.integrate(integrant, -shift + ZERO_SHIFT, strikeCpn);
-        integralPart = -dfPayment * integrator.integrate(integrantDelta, -shift, strikeCpn);
+        integralPartPrice = -integrate(integrator, integrant, -shift + ZERO_SHIFT, strikeCpn, shift);
+        integralPart = -dfPayment * integrate(integrator, integrantDelta, -shift, strikeCpn, shift);
       }
     } catch (Exception e) {
       throw new MathException(e);
@@ -410,13 +450,13 @@ public class SabrExtrapolationReplicationCmsPeriodPricer {
     double[] totalSensi = new double[4];
     for (int loopparameter = 0; loopparameter < 4; loopparameter++) {
       double integralPart = 0d;
-      Function<Double, Double> integrant = intProv.integrantVega(loopparameter);
+      CmsIntegrant integrant = intProv.integrantVega(loopparameter);
       try {
         if (intProv.getPutCall().isCall()) {
           integralPart = dfPayment *
               integrateCall(integrator, integrant, swaptionVolatilities, forward, strikeCpn, expiryTime, tenor);
         } else {
-          integralPart = -dfPayment * integrator.integrate(integrant, -shift + ZERO_SHIFT, strikeCpn);
+          integralPart = -dfPayment * integrate(integrator, integrant, -shift + ZERO_SHIFT, strikeCpn, shift);
         }
       } catch (Exception e) {
         throw new RuntimeException(e);
@@ -492,13 +532,13 @@ public class SabrExtrapolationReplicationCmsPeriodPricer {
     double[] kpkpp = intProv.kpkpp(strike);
     double firstPart;
     double thirdPart;
-    Function<Double, Double> integrant = intProv.integrantDualDelta();
+    CmsIntegrant integrant = intProv.integrantDualDelta();
     if (intProv.getPutCall().isCall()) {
       firstPart = -kpkpp[0] * intProv.bs(strike);
       thirdPart = integrateCall(integrator, integrant, swaptionVolatilities, forward, strike, expiryTime, tenor);
     } else {
       firstPart = -kpkpp[0] * intProv.bs(strike);
-      thirdPart = -integrator.integrate(integrant, -shift + ZERO_SHIFT, strike);
+      thirdPart = -integrate(integrator, integrant, -shift + ZERO_SHIFT, strike, shift);
     }
     double secondPart =
         intProv.k(strike) * intProv.getSabrExtrapolation().priceDerivativeStrike(strike + shift, intProv.getPutCall());
@@ -525,7 +565,7 @@ public class SabrExtrapolationReplicationCmsPeriodPricer {
 
   private double integrateCall(
       RungeKuttaIntegrator1D integrator,
-      Function<Double, Double> integrant,
+      CmsIntegrant integrant,
       SabrSwaptionVolatilities swaptionVolatilities,
       double forward,
       double strike,
@@ -533,17 +573,18 @@ public class SabrExtrapolationReplicationCmsPeriodPricer {
       double tenor) {
 
     double res;
+    double shift = swaptionVolatilities.shift(expiryTime, tenor);
     double vol = swaptionVolatilities.volatility(expiryTime, tenor, forward, forward);
     double upper0 = Math.max(
         forward * Math.exp(6d * vol * Math.sqrt(expiryTime)),
         Math.max(cutOffStrike, 2d * strike));  // To ensure that the integral covers a good part of the smile
     double upper = Math.min(upper0, 1d); // To ensure that we don't miss the meaningful part
-    res = integrator.integrate(integrant, strike, upper);
+    res = integrate(integrator, integrant, strike, upper, shift);
     double reminder = integrant.apply(upper) * upper;
     double error = reminder / res;
     int count = 0;
     while (Math.abs(error) > integrator.getRelativeTolerance() && count < MAX_COUNT) {
-      res += integrator.integrate(integrant, upper, 2d * upper);
+      res += integrate(integrator, integrant, upper, 2d * upper, shift);
       upper *= 2d;
       reminder = integrant.apply(upper) * upper;
       error = reminder / res;
@@ -556,6 +597,52 @@ public class SabrExtrapolationReplicationCmsPeriodPricer {
     return res;
   }
 
+  // integrates between the bounds, using quadrature if selected
+  private double integrate(
+      RungeKuttaIntegrator1D integrator,
+      CmsIntegrant integrant,
+      double lower,
+      double upper,
+      double shift) {
+
+    if (nbPanels == 0) {
+      return integrator.integrate(integrant, lower, upper);
+    }
+    // the integrant is not smooth at the shifted zero strike and at the cut-off strike
+    // the shifted zero strike is only inside the interval for a call struck below it, such as a negative strike
+    if (lower < -shift && -shift < upper) {
+      return integrateQuadrature(integrant, lower, -shift) + integrate(integrator, integrant, -shift, upper, shift);
+    }
+    if (lower < cutOffStrike && cutOffStrike < upper) {
+      return integrateQuadrature(integrant, lower, cutOffStrike) + integrateQuadrature(integrant, cutOffStrike, upper);
+    }
+    return integrateQuadrature(integrant, lower, upper);
+  }
+
+  // integrates between the bounds using the composite Gauss-Legendre quadrature
+  private double integrateQuadrature(CmsIntegrant integrant, double lower, double upper) {
+    double[] abscissas = GAUSS_LEGENDRE.getAbscissas();
+    double[] weights = GAUSS_LEGENDRE.getWeights();
+    int nbNodes = abscissas.length;
+    double halfRange = 0.5 * (upper - lower) / nbPanels;
+    double[] x = new double[nbNodes * nbPanels];
+    for (int j = 0; j < nbPanels; j++) {
+      double middle = lower + (2 * j + 1) * halfRange;
+      for (int i = 0; i < nbNodes; i++) {
+        x[j * nbNodes + i] = halfRange * abscissas[i] + middle;
+      }
+    }
+    double[] values = new double[x.length];
+    integrant.apply(x, values);
+    double sum = 0d;
+    for (int j = 0; j < nbPanels; j++) {
+      for (int i = 0; i < nbNodes; i++) {
+        sum += weights[i] * values[j * nbNodes + i];
+      }
+    }
+    return halfRange * sum;
+  }
+
   //explain PV for an Cms period
   public void explainPresentValue(
       CmsPeriod period, 
@@ -581,6 +668,24 @@ public class SabrExtrapolationReplicationCmsPeriodPricer {
   }
 
   //-------------------------------------------------------------------------
+  /**
+   * The integrant of the replication, which can be evaluated for a set of points.
+   */
+  private interface CmsIntegrant extends Function<Double, Double> {
+
+    /**
+     * Evaluates the integrant for a set of points.
+     * 
+     * @param x  the points
+     * @param values  the array used to return the values
+     */
+    default void apply(double[] x, double[] values) {
+      for (int i = 0; i < x.length; i++) {
+        values[i] = apply(x[i]);
+      }
+    }
+  }
+
   /**
    * Inner class to implement the integration used in price replication.
    */
@@ -690,14 +795,23 @@ public class SabrExtrapolationReplicationCmsPeriodPricer {
      * 
      * @return the integrant
      */
-    Function<Double, Double> integrant() {
-      return new Function<Double, Double>() {
+    CmsIntegrant integrant() {
+      return new CmsIntegrant() {
         @Override
         public Double apply(Double x) {
           double[] kD = kpkpp(x);
           // Implementation note: kD[0] contains the first derivative of k; kD[1] the second derivative of k.
           return factor * (kD[1] * (x - strike) + 2d * kD[0]) * bs(x);
         }
+
+        @Override
+        public void apply(double[] x, double[] values) {
+          bs(x, values);
+          for (int i = 0; i < x.length; i++) {
+            double[] kD = kpkpp(x[i]);
+            values[i] *= factor * (kD[1] * (x[i] - strike) + 2d * kD[0]);
+          }
+        }
       };
     }
 
@@ -707,8 +821,8 @@ public class SabrExtrapolationReplicationCmsPeriodPricer {
      * @param i  the index of SABR parameters
      * @return the vega integrant
      */
-    Function<Double, Double> integrantVega(int i) {
-      return new Function<Double, Double>() {
+    CmsIntegrant integrantVega(int i) {
+      return new CmsIntegrant() {
         @Override
         public Double apply(Double x) {
           double[] kD = kpkpp(x);
@@ -717,6 +831,17 @@ public class SabrExtrapolationReplicationCmsPeriodPricer {
           DoubleArray priceDerivativeSABR = getSabrExtrapolation().priceAdjointSabr(xShifted, putCall).getDerivatives();
           return priceDerivativeSABR.get(i) * (factor * (kD[1] * (x - strike) + 2d * kD[0]));
         }
+
+        @Override
+        public void apply(double[] x, double[] values) {
+          double[] prices = new double[x.length];
+          double[][] priceDerivativesSabr = new double[x.length][4];
+          sabrExtrapolation.priceAdjointSabr(strikesShifted(x), putCall, prices, priceDerivativesSabr);
+          for (int j = 0; j < x.length; j++) {
+            double[] kD = kpkpp(x[j]);
+            values[j] = priceDerivativesSabr[j][i] * (factor * (kD[1] * (x[j] - strike) + 2d * kD[0]));
+          }
+        }
       };
     }
 
@@ -725,14 +850,22 @@ public class SabrExtrapolationReplicationCmsPeriodPricer {
      * 
      * @return the dual delta integrant
      */
-    Function<Double, Double> integrantDualDelta() {
-      return new Function<Double, Double>() {
+    CmsIntegrant integrantDualDelta() {
+      return new CmsIntegrant() {
         @Override
         public Double apply(Double x) {
           double[] kD = kpkpp(x);
           // Implementation note: kD[0] contains the first derivative of k; kD[1] the second derivative of k.
           return -kD[1] * bs(x);
         }
+
+        @Override
+        public void apply(double[] x, double[] values) {
+          bs(x, values);
+          for (int i = 0; i < x.length; i++) {
+            values[i] *= -kpkpp(x[i])[1];
+          }
+        }
       };
     }
 
@@ -830,6 +963,30 @@ public class SabrExtrapolationReplicationCmsPeriodPricer {
       double strikeShifted = Math.max(strike + getShift(), 0d); // handle tiny but negative number
       return sabrExtrapolation.price(strikeShifted, putCall);
     }
+
+    /**
+     * The Black prices with numeraire 1 for a set of strikes.
+     * 
+     * @param strikes  the strikes.
+     * @param prices  the array used to return the Black prices.
+     */
+    void bs(double[] strikes, double[] prices) {
+      sabrExtrapolation.price(strikesShifted(strikes), putCall, prices);
+    }
+
+    /**
+     * The shifted strikes, as used by the SABR extrapolation.
+     * 
+     * @param strikes  the strikes.
+     * @return the shifted strikes.
+     */
+    double[] strikesShifted(double[] strikes) {
+      double[] strikesShifted = new double[strikes.length];
+      for (int i = 0; i < strikes.length; i++) {
+        strikesShifted[i] = Math.max(strikes[i] + getShift(), 0d); // handle tiny but negative number
+      }
+      return strikesShifted;
+    }
   }
 
   /**
@@ -867,8 +1024,8 @@ public class SabrExtrapolationReplicationCmsPeriodPricer {
      * 
      * @return the delta integrant
      */
-    Function<Double, Double> integrantDelta() {
-      return new Function<Double, Double>() {
+    CmsIntegrant integrantDelta() {
+      return new CmsIntegrant() {
         @Override
         public Double apply(Double x) {
           double[] kD = kpkpp(x);
@@ -876,6 +1033,17 @@ public class SabrExtrapolationReplicationCmsPeriodPricer {
           double[] bs = bsbsp(x);
           return (kD[1] * (x - getStrike()) + 2d * kD[0]) * (nnp[1] * bs[0] + nnp[0] * bs[1]);
         }
+
+        @Override
+        public void apply(double[] x, double[] values) {
+          double[] prices = new double[x.length];
+          double[] pricesDF = new double[x.length];
+          getSabrExtrapolation().priceDerivativeForward(strikesShifted(x), getPutCall(), prices, pricesDF);
+          for (int i = 0; i < x.length; i++) {
+            double[] kD = kpkpp(x[i]);
+            values[i] = (kD[1] * (x[i] - getStrike()) + 2d * kD[0]) * (nnp[1] * prices[i] + nnp[0] * pricesDF[i]);
+          }
+        }
       };
     }
 
@@ -0,0 +1,304 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ * 
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.exposure;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.pricer.impl.montecarlo.HullWhiteCashFlowPathPricer;
+import com.opengamma.strata.pricer.impl.montecarlo.HullWhitePathSimulator;
+import com.opengamma.strata.pricer.impl.montecarlo.MonteCarloEngine;
+import com.opengamma.strata.pricer.impl.montecarlo.PathAccumulator;
+import com.opengamma.strata.pricer.impl.rate.swap.CashFlowEquivalentCalculator;
+import com.opengamma.strata.pricer.index.HullWhiteOneFactorPiecewiseConstantParametersProvider;
+import com.opengamma.strata.pricer.rate.RatesProvider;
+import com.opengamma.strata.pricer.swap.PaymentEventPricer;
+import com.opengamma.strata.product.swap.PaymentEvent;
+import com.opengamma.strata.product.swap.ResolvedSwap;
+import com.opengamma.strata.product.swap.ResolvedSwapLeg;
+import com.opengamma.strata.product.swap.ResolvedSwapTrade;
+
+/**
+ * Calculator of the exposure profiles of netting sets of swaps in the Hull-White one factor model.
+ * <p>
+ * The short rate is simulated by Monte Carlo at the exposure dates and the netting sets are valued on each path.
+ * Each swap is represented by its cash flow equivalent, computed once from the rates provider.
+ * The cash flows of a netting set are merged by payment date, then valued together at all the exposure dates,
+ * the value at a date being that of the cash flows paid after that date.
+ * <p>
+ * The paths are processed chunk by chunk in parallel, and the statistics of the chunks are combined as they
+ * are calculated. Besides the sums, only the largest values of the exposure are retained across the chunks,
+ * those needed to compute the potential future exposure exactly.
+ * All the netting sets are valued on the same paths.
+ * <p>
+ * The cash flow equivalent of an Ibor coupon is exact when its fixing date is after the exposure date.
+ * A coupon which has fixed before the exposure date but is paid after it is valued with its forward rate
+ * as seen from the valuation date, thus the cash flow equivalent is an approximation between fixing and payment.
+ */
+public class HullWhiteSwapExposureCalculator {
+
+  /**
+   * Default implementation.
+   * <p>
+   * This uses 10,000 paths with antithetic variates and a confidence level of 0.95.
+   */
+  public static final HullWhiteSwapExposureCalculator DEFAULT = new HullWhiteSwapExposureCalculator(
+      MonteCarloEngine.of(10_000, 0L, true), 0.95, PaymentEventPricer.standard());
+
+  /**
+   * The Monte Carlo engine.
+   */
+  private final MonteCarloEngine engine;
+  /**
+   * The confidence level of the potential future exposure.
+   */
+  private final double confidenceLevel;
+  /**
+   * Pricer for {@link PaymentEvent}.
+   */
+  private final PaymentEventPricer<PaymentEvent> paymentEventPricer;
+
+  /**
+   * Creates an instance.
+   * 
+   * @param engine  the Monte Carlo engine
+   * @param confidenceLevel  the confidence level of the potential future exposure
+   * @param paymentEventPricer  the pricer for {@link PaymentEvent}
+   */
+  public HullWhiteSwapExposureCalculator(
+      MonteCarloEngine engine,
+      double confidenceLevel,
+      PaymentEventPricer<PaymentEvent> paymentEventPricer) {
+
+    this.engine = ArgChecker.notNull(engine, "engine");
+    this.confidenceLevel = ArgChecker.inRangeExclusive(confidenceLevel, 0d, 1d, "confidenceLevel");
+    this.paymentEventPricer = ArgChecker.notNull(paymentEventPricer, "paymentEventPricer");
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Calculates the exposure profile of a netting set.
+   * <p>
+   * The exposure dates must be after the valuation date and in increasing order.
+   * The swaps of the netting set must all be in the same single currency.
+   * 
+   * @param nettingSet  the trades of the netting set
+   * @param dates  the exposure dates
+   * @param ratesProvider  the rates provider
+   * @param hwProvider  the Hull-White model parameter provider
+   * @return the exposure profile
+   */
+  public ExposureProfile exposure(
+      List<ResolvedSwapTrade> nettingSet,
+      List<LocalDate> dates,
+      RatesProvider ratesProvider,
+      HullWhiteOneFactorPiecewiseConstantParametersProvider hwProvider) {
+
+    return exposures(ImmutableMap.of(0, nettingSet), dates, ratesProvider, hwProvider).get(0);
+  }
+
+  /**
+   * Calculates the exposure profiles of several netting sets.
+   * <p>
+   * The netting sets are valued on the same simulated paths.
+   * The exposure dates must be after the valuation date and in increasing order.
+   * The swaps of each netting set must all be in the same single currency.
+   * 
+   * @param <K>  the type of the netting set key
+   * @param nettingSets  the trades of each netting set, keyed by netting set
+   * @param dates  the exposure dates
+   * @param ratesProvider  the rates provider
+   * @param hwProvider  the Hull-White model parameter provider
+   * @return the exposure profiles, keyed by netting set
+   */
+  public <K> ImmutableMap<K, ExposureProfile> exposures(
+      Map<K, ? extends List<ResolvedSwapTrade>> nettingSets,
+      List<LocalDate> dates,
+      RatesProvider ratesProvider,
+      HullWhiteOneFactorPiecewiseConstantParametersProvider hwProvider) {
+
+    validate(nettingSets, dates, ratesProvider, hwProvider);
+    DoubleArray times = DoubleArray.of(dates.size(), i -> hwProvider.relativeTime(dates.get(i)));
+    HullWhitePathSimulator simulator = HullWhitePathSimulator.of(hwProvider.getParameters(), times);
+    List<K> keys = ImmutableList.copyOf(nettingSets.keySet());
+    Currency[] currencies = new Currency[keys.size()];
+    HullWhiteCashFlowPathPricer[] pathPricers = new HullWhiteCashFlowPathPricer[keys.size()];
+    for (int i = 0; i < keys.size(); i++) {
+      List<ResolvedSwapTrade> trades = nettingSets.get(keys.get(i));
+      currencies[i] = trades.get(0).getProduct().getLegs().get(0).getCurrency();
+      pathPricers[i] = pathPricer(trades, currencies[i], dates, simulator, ratesProvider, hwProvider);
+    }
+    int pathCount = engine.getPathCount();
+    int quantileCount = pathCount - (int) Math.ceil(confidenceLevel * pathCount) + 1;
+    ExposureAccumulator accumulator =
+        engine.simulate(simulator, () -> new ExposureAccumulator(pathPricers, dates.size(), quantileCount));
+    ImmutableMap.Builder<K, ExposureProfile> builder = ImmutableMap.builder();
+    for (int i = 0; i < keys.size(); i++) {
+      builder.put(keys.get(i), accumulator.profile(i, currencies[i], dates, times, pathCount, confidenceLevel));
+    }
+    return builder.build();
+  }
+
+  //-------------------------------------------------------------------------
+  // the pricer of the netting set on the paths, from the cash flow equivalents of the swaps
+  private HullWhiteCashFlowPathPricer pathPricer(
+      List<ResolvedSwapTrade> trades,
+      Currency currency,
+      List<LocalDate> dates,
+      HullWhitePathSimulator simulator,
+      RatesProvider ratesProvider,
+      HullWhiteOneFactorPiecewiseConstantParametersProvider hwProvider) {
+
+    // the cash flows of the netting set are merged by payment date
+    SortedMap<LocalDate, Double> discountedCashFlows = new TreeMap<>();
+    for (ResolvedSwapTrade trade : trades) {
+      ResolvedSwap swap = trade.getProduct();
+      ArgChecker.isFalse(swap.isCrossCurrency(), "swaps should be single currency");
+      ResolvedSwapLeg cashFlowEquiv = CashFlowEquivalentCalculator.cashFlowEquivalentSwap(swap, ratesProvider);
+      ArgChecker.isTrue(
+          cashFlowEquiv.getCurrency().equals(currency), "swaps of a netting set should have the same currency");
+      for (PaymentEvent payment : cashFlowEquiv.getPaymentEvents()) {
+        if (payment.getPaymentDate().isAfter(ratesProvider.getValuationDate())) {
+          discountedCashFlows.merge(
+              payment.getPaymentDate(), paymentEventPricer.presentValue(payment, ratesProvider), Double::sum);
+        }
+      }
+    }
+    DoubleArray paymentTimes = DoubleArray.copyOf(
+        discountedCashFlows.keySet().stream().mapToDouble(hwProvider::relativeTime).toArray());
+    DoubleArray discountFactors =
+        DoubleArray.of(dates.size(), i -> ratesProvider.discountFactor(currency, dates.get(i)));
+    return HullWhiteCashFlowPathPricer.of(
+        simulator, paymentTimes, DoubleArray.copyOf(discountedCashFlows.values()), discountFactors);
+  }
+
+  // validate that the inputs are coherent
+  private void validate(
+      Map<?, ? extends List<ResolvedSwapTrade>> nettingSets,
+      List<LocalDate> dates,
+      RatesProvider ratesProvider,
+      HullWhiteOneFactorPiecewiseConstantParametersProvider hwProvider) {
+
+    ArgChecker.isTrue(hwProvider.getValuationDateTime().toLocalDate().equals(ratesProvider.getValuationDate()),
+        "Hull-White model data and rate data should be for the same date");
+    ArgChecker.notEmpty(nettingSets, "nettingSets");
+    for (List<ResolvedSwapTrade> trades : nettingSets.values()) {
+      ArgChecker.notEmpty(trades, "nettingSet");
+    }
+    ArgChecker.notEmpty(dates, "dates");
+    ArgChecker.isTrue(dates.get(0).isAfter(ratesProvider.getValuationDate()),
+        "exposure dates should be after the valuation date");
+    for (int i = 1; i < dates.size(); i++) {
+      ArgChecker.isTrue(dates.get(i).isAfter(dates.get(i - 1)), "exposure dates should be increasing");
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Accumulator of the exposure statistics of the netting sets.
+   * <p>
+   * The sums of the exposures are accumulated, together with the largest exposures, sorted in increasing order,
+   * which are enough to obtain the quantile.
+   */
+  private static final class ExposureAccumulator
+      implements PathAccumulator<ExposureAccumulator> {
+
+    private final HullWhiteCashFlowPathPricer[] pathPricers;
+    private final int quantileCount;
+    private final double[][] sumExposure;
+    private final double[][] sumDiscountedExposure;
+    private final double[][] sumNegativeExposure;
+    private final double[][][] largestExposures;
+
+    private ExposureAccumulator(HullWhiteCashFlowPathPricer[] pathPricers, int dateCount, int quantileCount) {
+      this.pathPricers = pathPricers;
+      this.quantileCount = quantileCount;
+      this.sumExposure = new double[pathPricers.length][dateCount];
+      this.sumDiscountedExposure = new double[pathPricers.length][dateCount];
+      this.sumNegativeExposure = new double[pathPricers.length][dateCount];
+      this.largestExposures = new double[pathPricers.length][dateCount][0];
+    }
+
+    @Override
+    public void accumulate(double[] paths, int pathCount) {
+      double[] exposures = new double[pathCount];
+      for (int i = 0; i < pathPricers.length; i++) {
+        HullWhiteCashFlowPathPricer pathPricer = pathPricers[i];
+        for (int k = 0; k < sumExposure[i].length; k++) {
+          for (int path = 0; path < pathCount; path++) {
+            double value = pathPricer.value(paths, path, k);
+            if (value > 0d) {
+              exposures[path] = value;
+              sumExposure[i][k] += value;
+              sumDiscountedExposure[i][k] += value * pathPricer.deflator(paths, path, k);
+            } else {
+              exposures[path] = 0d;
+              sumNegativeExposure[i][k] += value;
+            }
+          }
+          Arrays.sort(exposures);
+          double[] chunkLargest = Arrays.copyOfRange(exposures, Math.max(pathCount - quantileCount, 0), pathCount);
+          largestExposures[i][k] = largest(largestExposures[i][k], chunkLargest);
+        }
+      }
+    }
+
+    @Override
+    public ExposureAccumulator combinedWith(ExposureAccumulator other) {
+      for (int i = 0; i < pathPricers.length; i++) {
+        for (int k = 0; k < sumExposure[i].length; k++) {
+          sumExposure[i][k] += other.sumExposure[i][k];
+          sumDiscountedExposure[i][k] += other.sumDiscountedExposure[i][k];
+          sumNegativeExposure[i][k] += other.sumNegativeExposure[i][k];
+          largestExposures[i][k] = largest(largestExposures[i][k], other.largestExposures[i][k]);
+        }
+      }
+      return this;
+    }
+
+    // merges two sorted arrays, keeping the largest values
+    private double[] largest(double[] first, double[] second) {
+      int size = Math.min(first.length + second.length, quantileCount);
+      double[] merged = new double[size];
+      int i = first.length - 1;
+      int j = second.length - 1;
+      for (int n = size - 1; n >= 0; n--) {
+        merged[n] = (j < 0 || (i >= 0 && first[i] >= second[j])) ? first[i--] : second[j--];
+      }
+      return merged;
+    }
+
+    // the exposure profile of a netting set
+    private ExposureProfile profile(
+        int index,
+        Currency currency,
+        List<LocalDate> dates,
+        DoubleArray times,
+        int pathCount,
+        double confidenceLevel) {
+
+      return ExposureProfile.of(
+          currency,
+          dates,
+          times,
+          DoubleArray.of(dates.size(), k -> sumExposure[index][k] / pathCount),
+          DoubleArray.of(dates.size(), k -> sumDiscountedExposure[index][k] / pathCount),
+          DoubleArray.of(dates.size(), k -> sumNegativeExposure[index][k] / pathCount),
+          DoubleArray.of(dates.size(), k -> largestExposures[index][k][0]),
+          confidenceLevel);
+    }
+  }
+
+}
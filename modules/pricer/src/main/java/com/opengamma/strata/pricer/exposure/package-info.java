@@ -0,0 +1,10 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ * 
+ * Please see distribution for license.
+ */
+
+/**
+ * Calculators for counterparty exposure, such as expected and potential future exposure profiles.
+ */
+package com.opengamma.strata.pricer.exposure;
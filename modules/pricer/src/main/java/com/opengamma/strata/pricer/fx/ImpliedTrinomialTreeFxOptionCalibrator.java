@@ -5,8 +5,13 @@
  */
 package com.opengamma.strata.pricer.fx;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Function;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.basics.currency.CurrencyPair;
 import com.opengamma.strata.collect.ArgChecker;
@@ -18,6 +23,11 @@ import com.opengamma.strata.product.fx.ResolvedFxVanillaOption;
 
 /**
  * Utilities to calibrate implied trinomial tree to Black volatilities of FX options.
+ * <p>
+ * The calibrated trees are cached, such that the options sharing the same market data and expiry,
+ * such as the barrier options of a portfolio, share the same tree.
+ * The cache is keyed by rates provider and volatility provider, both held weakly and matched by identity,
+ * then by currency pair and time to expiry.
  */
 public class ImpliedTrinomialTreeFxOptionCalibrator {
 
@@ -25,6 +35,12 @@ public class ImpliedTrinomialTreeFxOptionCalibrator {
    * Number of time steps.
    */
   private final int nSteps;
+  /**
+   * The calibrated trees, keyed by rates provider, then by volatility provider, then by currency pair and expiry.
+   */
+  private final Cache<RatesProvider,
+      Cache<BlackVolatilityFxProvider, ConcurrentMap<TreeKey, RecombiningTrinomialTreeData>>> treeCache =
+          CacheBuilder.newBuilder().weakKeys().build();
 
   /**
    * Calibrator with the specified number of time steps. 
@@ -90,6 +106,23 @@ public class ImpliedTrinomialTreeFxOptionCalibrator {
     if (timeToExpiry <= 0d) {
       throw new IllegalArgumentException("option expired");
     }
+    TreeKey key = new TreeKey(currencyPair, timeToExpiry);
+    try {
+      return treeCache.get(ratesProvider, () -> CacheBuilder.newBuilder().weakKeys().build())
+          .get(volatilityProvider, ConcurrentHashMap::new)
+          .computeIfAbsent(key, k -> calibrate(timeToExpiry, currencyPair, ratesProvider, volatilityProvider));
+    } catch (ExecutionException ex) {
+      throw new IllegalStateException(ex.getCause());
+    }
+  }
+
+  // calibrates the tree
+  private RecombiningTrinomialTreeData calibrate(
+      double timeToExpiry,
+      CurrencyPair currencyPair,
+      RatesProvider ratesProvider,
+      BlackVolatilityFxProvider volatilityProvider) {
+
     Currency ccyBase = currencyPair.getBase();
     Currency ccyCounter = currencyPair.getCounter();
     double todayFx = ratesProvider.fxRate(currencyPair);
@@ -131,4 +164,33 @@ public class ImpliedTrinomialTreeFxOptionCalibrator {
         "Volatility and rate data must be for the same date");
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * The key of a calibrated tree for given market data.
+   */
+  private static final class TreeKey {
+    private final CurrencyPair currencyPair;
+    private final double timeToExpiry;
+
+    private TreeKey(CurrencyPair currencyPair, double timeToExpiry) {
+      this.currencyPair = currencyPair;
+      this.timeToExpiry = timeToExpiry;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj instanceof TreeKey) {
+        TreeKey other = (TreeKey) obj;
+        return Double.doubleToLongBits(timeToExpiry) == Double.doubleToLongBits(other.timeToExpiry) &&
+            currencyPair.equals(other.currencyPair);
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return currencyPair.hashCode() ^ Double.hashCode(timeToExpiry);
+    }
+  }
+
 }
@@ -30,10 +30,13 @@ import org.joda.beans.impl.direct.DirectMetaBean;
 import org.joda.beans.impl.direct.DirectMetaProperty;
 import org.joda.beans.impl.direct.DirectMetaPropertyMap;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.array.DoubleArray;
 import com.opengamma.strata.collect.array.DoubleMatrix;
+import com.opengamma.strata.collect.tuple.DoublesPair;
 import com.opengamma.strata.market.interpolator.BoundCurveInterpolator;
 import com.opengamma.strata.market.interpolator.CurveExtrapolator;
 import com.opengamma.strata.market.interpolator.CurveInterpolator;
@@ -51,11 +54,19 @@ import com.opengamma.strata.market.interpolator.CurveInterpolator;
  * <p>
  * The default for the time direction is time squire interpolation with flat extrapolation.
  * The default for the strike direction is linear interpolation with flat extrapolation.
+ * <p>
+ * The smile in strike at a given time and forward is cached by this instance once built,
+ * thus is shared by all the options of the same expiry.
  */
 @BeanDefinition(builderScope = "private")
 public final class InterpolatedSmileDeltaTermStructureStrikeInterpolation
     implements InterpolatedSmileDeltaTermStructure, ImmutableBean, Serializable {
 
+  /**
+   * The maximum number of smiles in strike cached by each instance.
+   */
+  private static final int MAX_CACHED_SMILES = 1_000;
+
   /**
    * The name of the smile term structure.
    */
@@ -104,6 +115,10 @@ public final class InterpolatedSmileDeltaTermStructureStrikeInterpolation
    */
   @PropertyDefinition(validate = "notNull", overrideGet = true)
   private final DoubleArray timeToExpiry;
+  /**
+   * The smiles in strike, keyed by time and forward, created lazily when first needed.
+   */
+  private transient volatile Cache<DoublesPair, StrikeSmile> strikeSmiles;  // derived and cached, not a property
 
   //-------------------------------------------------------------------------
   /**
@@ -501,24 +516,66 @@ public final class InterpolatedSmileDeltaTermStructureStrikeInterpolation
   @Override
   public double volatility(double time, double strike, double forward) {
     ArgChecker.isTrue(time >= 0, "Positive time");
-    SmileDeltaParameters smile = smileForTime(time);
-    DoubleArray strikes = smile.getStrike(forward);
-    BoundCurveInterpolator bound = strikeInterpolator.bind(
-        strikes, smile.getVolatility(), strikeLeftExtrapolator, strikeRightExtrapolator);
-    return bound.interpolate(strike);
+    return strikeSmile(time, forward).bound.interpolate(strike);
   }
 
   @Override
   public VolatilityAndBucketedSensitivities volatilityAndSensitivities(double time, double strike, double forward) {
     ArgChecker.isTrue(time >= 0, "Positive time");
-    SmileDeltaParameters smile = smileForTime(time);
-    DoubleArray strikes = smile.getStrike(forward);
-    BoundCurveInterpolator bound = strikeInterpolator.bind(
-        strikes, smile.getVolatility(), strikeLeftExtrapolator, strikeRightExtrapolator);
-    double volatility = bound.interpolate(strike);
-    DoubleArray smileVolatilityBar = bound.parameterSensitivity(strike);
-    SmileAndBucketedSensitivities smileAndSensitivities = smileAndSensitivitiesForTime(time, smileVolatilityBar);
-    return VolatilityAndBucketedSensitivities.of(volatility, smileAndSensitivities.getSensitivities());
+    StrikeSmile strikeSmile = strikeSmile(time, forward);
+    double volatility = strikeSmile.bound.interpolate(strike);
+    DoubleArray smileVolatilityBar = strikeSmile.bound.parameterSensitivity(strike);
+    return VolatilityAndBucketedSensitivities.of(volatility, strikeSmile.sensitivities(smileVolatilityBar));
+  }
+
+  // obtains the smile in strike, building it if necessary
+  // racing threads may build the smile more than once, which is harmless as it is immutable
+  private StrikeSmile strikeSmile(double time, double forward) {
+    Cache<DoublesPair, StrikeSmile> cache = strikeSmiles;
+    if (cache == null) {
+      cache = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_SMILES).build();
+      strikeSmiles = cache;
+    }
+    DoublesPair key = DoublesPair.of(time, forward);
+    StrikeSmile strikeSmile = cache.getIfPresent(key);
+    if (strikeSmile == null) {
+      SmileAndBucketedSensitivities smileAndWeights =
+          smileAndSensitivitiesForTime(time, DoubleArray.filled(getStrikeCount(), 1d));
+      SmileDeltaParameters smile = smileAndWeights.getSmile();
+      BoundCurveInterpolator bound = strikeInterpolator.bind(
+          smile.getStrike(forward), smile.getVolatility(), strikeLeftExtrapolator, strikeRightExtrapolator);
+      strikeSmile = new StrikeSmile(bound, smileAndWeights.getSensitivities());
+      cache.put(key, strikeSmile);
+    }
+    return strikeSmile;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The smile in strike at a given time and forward.
+   */
+  private static final class StrikeSmile {
+    /**
+     * The interpolator bound to the strikes and volatilities of the smile.
+     */
+    private final BoundCurveInterpolator bound;
+    /**
+     * The weights of the volatility data points in the time interpolation of each volatility of the smile.
+     */
+    private final DoubleMatrix timeWeights;
+
+    private StrikeSmile(BoundCurveInterpolator bound, DoubleMatrix timeWeights) {
+      this.bound = bound;
+      this.timeWeights = timeWeights;
+    }
+
+    // the sensitivities to the volatility data points, from the sensitivity to the volatilities of the smile
+    private DoubleMatrix sensitivities(DoubleArray smileVolatilityBar) {
+      return DoubleMatrix.of(
+          timeWeights.rowCount(),
+          timeWeights.columnCount(),
+          (i, j) -> timeWeights.get(i, j) * smileVolatilityBar.get(j));
+    }
   }
 
   //------------------------- AUTOGENERATED START -------------------------
@@ -1,5 +1,12 @@
 package com.opengamma.strata.pricer.fx;
 
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.basics.currency.CurrencyAmount;
 import com.opengamma.strata.basics.currency.CurrencyPair;
@@ -18,6 +25,9 @@ import com.opengamma.strata.product.fx.ResolvedFxVanillaOption;
  * The volatility provider must be an instance of {@code BlackVolatilitySmileFxProvider}. 
  * Each smile of the simle term structure consists of 3 data points, where the middle point corresponds to ATM volatility. 
  * <p>
+ * The strikes, prices and greeks of the pillar options are cached for each smile, currency pair,
+ * expiry and forward, thus are computed once for all the options of the same expiry.
+ * <p>
  * Reference: The vanna-volga method for implied volatilities (2007), A. Castagna and F. Mercurio, Risk, 106-111, January 2007.
  * OG implementation: Vanna-volga method for Forex options, version 1.0, June 2012.
  */
@@ -29,10 +39,21 @@ public class VannaVolgaFxVanillaOptionProductPricer {
   public static final VannaVolgaFxVanillaOptionProductPricer DEFAULT = new VannaVolgaFxVanillaOptionProductPricer(
       DiscountingFxSingleProductPricer.DEFAULT);
 
+  /**
+   * The maximum number of pillar data cached for each smile.
+   */
+  private static final int MAX_CACHED_PILLARS = 1_000;
+
   /**
    * Underlying FX pricer.
    */
   private final DiscountingFxSingleProductPricer fxPricer;
+  /**
+   * The pillar data, keyed by smile, then by currency pair, time to expiry and forward.
+   * The smile is held weakly and matched by identity.
+   */
+  private final Cache<SmileDeltaTermStructure, Cache<PillarKey, VannaVolgaPillars>> pillarCache =
+      CacheBuilder.newBuilder().weakKeys().build();
 
   /**
    * Creates an instance.
@@ -73,16 +94,14 @@ public class VannaVolgaFxVanillaOptionProductPricer {
     double forwardRate = forward.fxRate(currencyPair);
     double strikeRate = option.getStrike();
     boolean isCall = option.getPutCall().isCall();
-    SmileDeltaParameters smileAtTime = volatilityProvider.getSmile().smileForTime(timeToExpiry);
-    double[] strikes = smileAtTime.getStrike(forwardRate).toArray();
-    double[] vols = smileAtTime.getVolatility().toArray();
-    double volAtm = vols[1];
-    double[] x = vannaVolgaWeights(forwardRate, strikeRate, timeToExpiry, volAtm, strikes);
+    VannaVolgaPillars pillars = pillars(volatilityProvider, currencyPair, timeToExpiry, forwardRate);
+    double volAtm = pillars.volAtm;
+    double[] x = pillars.weights(forwardRate, strikeRate, timeToExpiry);
+    double[] priceAtm = pillars.priceAtm(isCall);
+    double[] priceSmile = pillars.priceSmile(isCall);
     double priceFwd = BlackFormulaRepository.price(forwardRate, strikeRate, timeToExpiry, volAtm, isCall);
     for (int i = 0; i < 3; i += 2) {
-      double priceFwdAtm = BlackFormulaRepository.price(forwardRate, strikes[i], timeToExpiry, volAtm, isCall);
-      double priceFwdSmile = BlackFormulaRepository.price(forwardRate, strikes[i], timeToExpiry, vols[i], isCall);
-      priceFwd += x[i] * (priceFwdSmile - priceFwdAtm);
+      priceFwd += x[i] * (priceSmile[i] - priceAtm[i]);
     }
     return df * priceFwd;
   }
@@ -107,6 +126,29 @@ public class VannaVolgaFxVanillaOptionProductPricer {
     return CurrencyAmount.of(option.getCounterCurrency(), signedNotional(option) * price);
   }
 
+  /**
+   * Calculates the present values of a portfolio of foreign exchange vanilla option products.
+   * <p>
+   * The result is the same as calling {@link #presentValue} for each option.
+   * The options are priced in parallel, the pillar options of each expiry being shared by all
+   * the options of the same currency pair and expiry.
+   * 
+   * @param options  the option products
+   * @param ratesProvider  the rates provider
+   * @param volatilityProvider  the Black volatility provider
+   * @return the present values of the products, in the order of the options
+   */
+  public List<CurrencyAmount> presentValues(
+      List<ResolvedFxVanillaOption> options,
+      RatesProvider ratesProvider,
+      BlackVolatilitySmileFxProvider volatilityProvider) {
+
+    ArgChecker.noNulls(options, "options");
+    return options.parallelStream()
+        .map(option -> presentValue(option, ratesProvider, volatilityProvider))
+        .collect(toImmutableList());
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Calculates the present value sensitivity of the foreign exchange vanilla option product.
@@ -139,20 +181,18 @@ public class VannaVolgaFxVanillaOptionProductPricer {
     double forwardRate = forward.fxRate(currencyPair);
     double strikeRate = option.getStrike();
     boolean isCall = option.getPutCall().isCall();
-    SmileDeltaParameters smileAtTime = volatilityProvider.getSmile().smileForTime(timeToExpiry);
-    double[] strikes = smileAtTime.getStrike(forwardRate).toArray();
-    double[] vols = smileAtTime.getVolatility().toArray();
-    double volAtm = vols[1];
-    double[] x = vannaVolgaWeights(forwardRate, strikeRate, timeToExpiry, volAtm, strikes);
+    VannaVolgaPillars pillars = pillars(volatilityProvider, currencyPair, timeToExpiry, forwardRate);
+    double volAtm = pillars.volAtm;
+    double[] x = pillars.weights(forwardRate, strikeRate, timeToExpiry);
+    double[] priceAtm = pillars.priceAtm(isCall);
+    double[] priceSmile = pillars.priceSmile(isCall);
+    double[] deltaAtm = pillars.deltaAtm(isCall);
+    double[] deltaSmile = pillars.deltaSmile(isCall);
     double priceFwd = BlackFormulaRepository.price(forwardRate, strikeRate, timeToExpiry, volAtm, isCall);
     double deltaFwd = BlackFormulaRepository.delta(forwardRate, strikeRate, timeToExpiry, volAtm, isCall);
     for (int i = 0; i < 3; i += 2) {
-      double priceFwdAtm = BlackFormulaRepository.price(forwardRate, strikes[i], timeToExpiry, volAtm, isCall);
-      double priceFwdSmile = BlackFormulaRepository.price(forwardRate, strikes[i], timeToExpiry, vols[i], isCall);
-      priceFwd += x[i] * (priceFwdSmile - priceFwdAtm);
-      double deltaFwdAtm = BlackFormulaRepository.delta(forwardRate, strikes[i], timeToExpiry, volAtm, isCall);
-      double deltaFwdSmile = BlackFormulaRepository.delta(forwardRate, strikes[i], timeToExpiry, vols[i], isCall);
-      deltaFwd += x[i] * (deltaFwdSmile - deltaFwdAtm);
+      priceFwd += x[i] * (priceSmile[i] - priceAtm[i]);
+      deltaFwd += x[i] * (deltaSmile[i] - deltaAtm[i]);
     }
     double signedNotional = signedNotional(option);
     PointSensitivityBuilder dfSensi = ratesProvider.discountFactors(ccyCounter)
@@ -190,18 +230,15 @@ public class VannaVolgaFxVanillaOptionProductPricer {
     CurrencyPair currencyPair = underlyingFx.getCurrencyPair();
     double forwardRate = forward.fxRate(currencyPair);
     double strikeRate = option.getStrike();
-    SmileDeltaParameters smileAtTime = volatilityProvider.getSmile().smileForTime(timeToExpiry);
-    double[] strikes = smileAtTime.getStrike(forwardRate).toArray();
-    double[] vols = smileAtTime.getVolatility().toArray();
-    double volAtm = vols[1];
-    double[] x = vannaVolgaWeights(forwardRate, strikeRate, timeToExpiry, volAtm, strikes);
-    double vegaAtm = BlackFormulaRepository.vega(forwardRate, strikeRate, timeToExpiry, volAtm);
+    VannaVolgaPillars pillars = pillars(volatilityProvider, currencyPair, timeToExpiry, forwardRate);
+    double[] strikes = pillars.strikes;
+    double[] x = pillars.weights(forwardRate, strikeRate, timeToExpiry);
+    double vegaAtm = BlackFormulaRepository.vega(forwardRate, strikeRate, timeToExpiry, pillars.volAtm);
     double signedNotional = signedNotional(option);
     PointSensitivityBuilder sensiSmile = PointSensitivityBuilder.none();
     for (int i = 0; i < 3; i += 2) {
-      double vegaFwdAtm = BlackFormulaRepository.vega(forwardRate, strikes[i], timeToExpiry, volAtm);
-      vegaAtm -= x[i] * vegaFwdAtm;
-      double vegaFwdSmile = BlackFormulaRepository.vega(forwardRate, strikes[i], timeToExpiry, vols[i]);
+      vegaAtm -= x[i] * pillars.vegaAtm[i];
+      double vegaFwdSmile = pillars.vegaSmile[i];
       sensiSmile = sensiSmile.combinedWith(
           FxOptionSensitivity.of(
               currencyPair,
@@ -245,20 +282,18 @@ public class VannaVolgaFxVanillaOptionProductPricer {
         option.getPutCall().isCall() ? underlyingFx : underlyingFx.inverse(), ratesProvider);
     double strikeRate = option.getStrike();
     boolean isCall = option.getPutCall().isCall();
-    SmileDeltaParameters smileAtTime = volatilityProvider.getSmile().smileForTime(timeToExpiry);
-    double[] strikes = smileAtTime.getStrike(forwardRate).toArray();
-    double[] vols = smileAtTime.getVolatility().toArray();
-    double volAtm = vols[1];
-    double[] x = vannaVolgaWeights(forwardRate, strikeRate, timeToExpiry, volAtm, strikes);
+    VannaVolgaPillars pillars = pillars(volatilityProvider, currencyPair, timeToExpiry, forwardRate);
+    double volAtm = pillars.volAtm;
+    double[] x = pillars.weights(forwardRate, strikeRate, timeToExpiry);
+    double[] priceAtm = pillars.priceAtm(isCall);
+    double[] priceSmile = pillars.priceSmile(isCall);
+    double[] deltaAtm = pillars.deltaAtm(isCall);
+    double[] deltaSmile = pillars.deltaSmile(isCall);
     double priceFwd = BlackFormulaRepository.price(forwardRate, strikeRate, timeToExpiry, volAtm, isCall);
     double deltaFwd = BlackFormulaRepository.delta(forwardRate, strikeRate, timeToExpiry, volAtm, isCall);
     for (int i = 0; i < 3; i += 2) {
-      double priceFwdAtm = BlackFormulaRepository.price(forwardRate, strikes[i], timeToExpiry, volAtm, isCall);
-      double priceFwdSmile = BlackFormulaRepository.price(forwardRate, strikes[i], timeToExpiry, vols[i], isCall);
-      priceFwd += x[i] * (priceFwdSmile - priceFwdAtm);
-      double deltaFwdAtm = BlackFormulaRepository.delta(forwardRate, strikes[i], timeToExpiry, volAtm, isCall);
-      double deltaFwdSmile = BlackFormulaRepository.delta(forwardRate, strikes[i], timeToExpiry, vols[i], isCall);
-      deltaFwd += x[i] * (deltaFwdSmile - deltaFwdAtm);
+      priceFwd += x[i] * (priceSmile[i] - priceAtm[i]);
+      deltaFwd += x[i] * (deltaSmile[i] - deltaAtm[i]);
     }
     double price = df * priceFwd;
     double delta = df * deltaFwd * fwdRateSpotSensitivity;
@@ -269,39 +304,148 @@ public class VannaVolgaFxVanillaOptionProductPricer {
   }
 
   //-------------------------------------------------------------------------
+  // obtains the pillar data, cached by smile, currency pair, time and forward
+  private VannaVolgaPillars pillars(
+      BlackVolatilitySmileFxProvider volatilityProvider,
+      CurrencyPair currencyPair,
+      double timeToExpiry,
+      double forwardRate) {
+
+    SmileDeltaTermStructure smile = volatilityProvider.getSmile();
+    Cache<PillarKey, VannaVolgaPillars> smileCache;
+    try {
+      smileCache = pillarCache.get(smile, () -> CacheBuilder.newBuilder().maximumSize(MAX_CACHED_PILLARS).build());
+    } catch (ExecutionException ex) {
+      throw new IllegalStateException(ex.getCause());
+    }
+    PillarKey key = new PillarKey(currencyPair, timeToExpiry, forwardRate);
+    VannaVolgaPillars pillars = smileCache.getIfPresent(key);
+    if (pillars == null) {
+      // racing threads may both create the pillars, which is harmless as the result is the same
+      pillars = new VannaVolgaPillars(smile.smileForTime(timeToExpiry), timeToExpiry, forwardRate);
+      smileCache.put(key, pillars);
+    }
+    return pillars;
+  }
+
+  // the number of smiles with cached pillar data, for testing
+  long cachedSmileCount() {
+    pillarCache.cleanUp();
+    return pillarCache.size();
+  }
+
   // signed notional amount to computed present value and value Greeks
   private double signedNotional(ResolvedFxVanillaOption option) {
     return (option.getLongShort().isLong() ? 1d : -1d) *
         Math.abs(option.getUnderlying().getBaseCurrencyPayment().getAmount());
   }
 
-  private double[] vannaVolgaWeights(
-      double forward,
-      double strike,
-      double timeToExpiry,
-      double volATM,
-      double[] strikesReference
-      ) {
-
-    double lnk21 = Math.log(strikesReference[1] / strikesReference[0]);
-    double lnk31 = Math.log(strikesReference[2] / strikesReference[0]);
-    double lnk32 = Math.log(strikesReference[2] / strikesReference[1]);
-    double[] lnk = new double[3];
-    for (int loopvv = 0; loopvv < 3; loopvv++) {
-      lnk[loopvv] = Math.log(strikesReference[loopvv] / strike);
-    }
-    double[] x = new double[3];
-    double vega0 = BlackFormulaRepository.vega(forward, strikesReference[0], timeToExpiry, volATM);
-    double vegaFlat = BlackFormulaRepository.vega(forward, strike, timeToExpiry, volATM);
-    double vega2 = BlackFormulaRepository.vega(forward, strikesReference[2], timeToExpiry, volATM);
-    x[0] = vegaFlat * lnk[1] * lnk[2] / (vega0 * lnk21 * lnk31);
-    x[2] = vegaFlat * lnk[0] * lnk[1] / (vega2 * lnk31 * lnk32);
-    return x;
-  }
-
   private void validate(RatesProvider ratesProvider, BlackVolatilitySmileFxProvider volatilityProvider) {
     ArgChecker.isTrue(volatilityProvider.getValuationDateTime().toLocalDate().equals(ratesProvider.getValuationDate()),
         "volatility and rate data must be for the same date");
     ArgChecker.isTrue(volatilityProvider.getSmile().getStrikeCount() == 3, "the number of data points must be 3");
   }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The key of the pillar data for a smile.
+   */
+  private static final class PillarKey {
+    private final CurrencyPair currencyPair;
+    private final double timeToExpiry;
+    private final double forward;
+
+    private PillarKey(CurrencyPair currencyPair, double timeToExpiry, double forward) {
+      this.currencyPair = currencyPair;
+      this.timeToExpiry = timeToExpiry;
+      this.forward = forward;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj instanceof PillarKey) {
+        PillarKey other = (PillarKey) obj;
+        return Double.doubleToLongBits(timeToExpiry) == Double.doubleToLongBits(other.timeToExpiry) &&
+            Double.doubleToLongBits(forward) == Double.doubleToLongBits(other.forward) &&
+            currencyPair.equals(other.currencyPair);
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return currencyPair.hashCode() ^ Double.hashCode(timeToExpiry) * 31 ^ Double.hashCode(forward);
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The pillar data of the Vanna-Volga method at a given time and forward.
+   * <p>
+   * This holds the strikes and volatilities of the three points of the smile,
+   * and the Black prices, deltas and vegas of the pillar options, which are common to all options of the expiry.
+   */
+  private static final class VannaVolgaPillars {
+    private final double[] strikes;
+    private final double volAtm;
+    private final double[][] priceAtm = new double[2][3];
+    private final double[][] priceSmile = new double[2][3];
+    private final double[][] deltaAtm = new double[2][3];
+    private final double[][] deltaSmile = new double[2][3];
+    private final double[] vegaAtm = new double[3];
+    private final double[] vegaSmile = new double[3];
+    private final double lnk21;
+    private final double lnk31;
+    private final double lnk32;
+
+    private VannaVolgaPillars(SmileDeltaParameters smileAtTime, double timeToExpiry, double forward) {
+      this.strikes = smileAtTime.getStrike(forward).toArray();
+      double[] vols = smileAtTime.getVolatility().toArray();
+      this.volAtm = vols[1];
+      for (int i = 0; i < 3; i += 2) {
+        for (int putCall = 0; putCall < 2; putCall++) {
+          boolean isCall = putCall == 1;
+          priceAtm[putCall][i] = BlackFormulaRepository.price(forward, strikes[i], timeToExpiry, volAtm, isCall);
+          priceSmile[putCall][i] = BlackFormulaRepository.price(forward, strikes[i], timeToExpiry, vols[i], isCall);
+          deltaAtm[putCall][i] = BlackFormulaRepository.delta(forward, strikes[i], timeToExpiry, volAtm, isCall);
+          deltaSmile[putCall][i] = BlackFormulaRepository.delta(forward, strikes[i], timeToExpiry, vols[i], isCall);
+        }
+        vegaAtm[i] = BlackFormulaRepository.vega(forward, strikes[i], timeToExpiry, volAtm);
+        vegaSmile[i] = BlackFormulaRepository.vega(forward, strikes[i], timeToExpiry, vols[i]);
+      }
+      this.lnk21 = Math.log(strikes[1] / strikes[0]);
+      this.lnk31 = Math.log(strikes[2] / strikes[0]);
+      this.lnk32 = Math.log(strikes[2] / strikes[1]);
+    }
+
+    private double[] priceAtm(boolean isCall) {
+      return priceAtm[isCall ? 1 : 0];
+    }
+
+    private double[] priceSmile(boolean isCall) {
+      return priceSmile[isCall ? 1 : 0];
+    }
+
+    private double[] deltaAtm(boolean isCall) {
+      return deltaAtm[isCall ? 1 : 0];
+    }
+
+    private double[] deltaSmile(boolean isCall) {
+      return deltaSmile[isCall ? 1 : 0];
+    }
+
+    // the weights of the pillar options for the option of the specified strike
+    private double[] weights(double forward, double strike, double timeToExpiry) {
+      double[] lnk = new double[3];
+      for (int loopvv = 0; loopvv < 3; loopvv++) {
+        lnk[loopvv] = Math.log(strikes[loopvv] / strike);
+      }
+      double[] x = new double[3];
+      double vegaFlat = BlackFormulaRepository.vega(forward, strike, timeToExpiry, volAtm);
+      x[0] = vegaFlat * lnk[1] * lnk[2] / (vegaAtm[0] * lnk21 * lnk31);
+      x[2] = vegaFlat * lnk[0] * lnk[1] / (vegaAtm[2] * lnk31 * lnk32);
+      return x;
+    }
+  }
+
 }
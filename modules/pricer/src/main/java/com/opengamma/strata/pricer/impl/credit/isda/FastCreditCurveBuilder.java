@@ -82,11 +82,7 @@ public class FastCreditCurveBuilder extends IsdaCompliantCreditCurveBuilder {
     int n = cds.length;
     ArgChecker.isTrue(n == premiums.length, "Number of CDSs does not match number of spreads");
     ArgChecker.isTrue(n == pointsUpfront.length, "Number of CDSs does not match number of pointsUpfront");
-    double proStart = cds[0].getEffectiveProtectionStart();
-    for (int i = 1; i < n; i++) {
-      ArgChecker.isTrue(proStart == cds[i].getEffectiveProtectionStart(), "all CDSs must has same protection start");
-      ArgChecker.isTrue(cds[i].getProtectionEnd() > cds[i - 1].getProtectionEnd(), "protection end must be ascending");
-    }
+    checkProtection(cds);
 
     // use continuous premiums as initial guess
     double[] guess = new double[n];
@@ -97,7 +93,84 @@ public class FastCreditCurveBuilder extends IsdaCompliantCreditCurveBuilder {
     }
 
     IsdaCompliantCreditCurve creditCurve = new IsdaCompliantCreditCurve(t, guess);
+    return bootstrap(cds, premiums, yieldCurve, pointsUpfront, t, guess, creditCurve, 0);
+  }
+
+  /**
+   * Bootstraps the credit curve, warm-starting from a previously calibrated curve.
+   * <p>
+   * The calibration CDSs must be the same as those used to build the base curve.
+   * The hazard rates of the base curve below {@code startIndex} are reused as is, which is exact when
+   * only the quotes at or after {@code startIndex} differ from those of the base curve, as the pillar at
+   * index i is only sensitive to the hazard rates up to and including i.
+   * The remaining pillars are solved using the zero rates of the base curve as the initial guess.
+   * <p>
+   * This is intended for bump and recalibrate style sensitivities, where each bumped curve
+   * is close to the base curve.
+   * 
+   * @param cds  the market CDSs - these are the reference instruments used to build the credit curve
+   * @param premiums  the premiums (coupons) as fractions
+   * @param yieldCurve  the yield (or discount) curve
+   * @param pointsUpfront  the points up-front as fractions of notional
+   * @param baseCurve  the previously calibrated curve, with knots at the protection end of the CDSs
+   * @param startIndex  the index of the first pillar to recalibrate
+   * @return the credit curve
+   */
+  public IsdaCompliantCreditCurve calibrateCreditCurve(
+      CdsAnalytic[] cds,
+      double[] premiums,
+      IsdaCompliantYieldCurve yieldCurve,
+      double[] pointsUpfront,
+      IsdaCompliantCreditCurve baseCurve,
+      int startIndex) {
+
+    ArgChecker.noNulls(cds, "null CDSs");
+    ArgChecker.notEmpty(premiums, "empty fractionalSpreads");
+    ArgChecker.notEmpty(pointsUpfront, "empty pointsUpfront");
+    ArgChecker.notNull(yieldCurve, "null yieldCurve");
+    ArgChecker.notNull(baseCurve, "null baseCurve");
+    int n = cds.length;
+    ArgChecker.isTrue(n == premiums.length, "Number of CDSs does not match number of spreads");
+    ArgChecker.isTrue(n == pointsUpfront.length, "Number of CDSs does not match number of pointsUpfront");
+    ArgChecker.isTrue(n == baseCurve.getNumberOfKnots(), "Number of CDSs does not match number of knots of baseCurve");
+    ArgChecker.inRange(startIndex, 0, n, "startIndex");
+    checkProtection(cds);
+
+    double[] guess = new double[n];
+    double[] t = new double[n];
     for (int i = 0; i < n; i++) {
+      t[i] = cds[i].getProtectionEnd();
+      ArgChecker.isTrue(t[i] == baseCurve.getTimeAtIndex(i), "protection end does not match knot of baseCurve");
+      double zeroRate = baseCurve.getZeroRateAtIndex(i);
+      // a zero guess cannot be bracketed, so fall back to continuous premiums
+      guess[i] = zeroRate != 0d ? zeroRate : (premiums[i] + pointsUpfront[i] / t[i]) / cds[i].getLGD();
+    }
+    return bootstrap(cds, premiums, yieldCurve, pointsUpfront, t, guess, baseCurve, startIndex);
+  }
+
+  // checks the CDSs share a protection start and are in ascending order of protection end
+  private static void checkProtection(CdsAnalytic[] cds) {
+    double proStart = cds[0].getEffectiveProtectionStart();
+    for (int i = 1; i < cds.length; i++) {
+      ArgChecker.isTrue(proStart == cds[i].getEffectiveProtectionStart(), "all CDSs must has same protection start");
+      ArgChecker.isTrue(cds[i].getProtectionEnd() > cds[i - 1].getProtectionEnd(), "protection end must be ascending");
+    }
+  }
+
+  // bootstraps pillars from startIndex onwards, earlier pillars are taken from the supplied curve
+  private IsdaCompliantCreditCurve bootstrap(
+      CdsAnalytic[] cds,
+      double[] premiums,
+      IsdaCompliantYieldCurve yieldCurve,
+      double[] pointsUpfront,
+      double[] t,
+      double[] guess,
+      IsdaCompliantCreditCurve curve,
+      int startIndex) {
+
+    int n = cds.length;
+    IsdaCompliantCreditCurve creditCurve = curve;
+    for (int i = startIndex; i < n; i++) {
       Pricer pricer = new Pricer(cds[i], yieldCurve, t, premiums[i], pointsUpfront[i]);
       Function<Double, Double> func = pricer.getPointFunction(i, creditCurve);
 
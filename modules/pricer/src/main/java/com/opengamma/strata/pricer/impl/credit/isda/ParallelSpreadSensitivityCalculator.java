@@ -0,0 +1,213 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.credit.isda;
+
+import java.util.stream.IntStream;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.market.ShiftType;
+
+/**
+ * This calculates the bucketed CS01 of CDSs by bumping each market spread in turn and recalibrating the credit curve.
+ * <p>
+ * The results are the same as those of {@link FiniteDifferenceSpreadSensitivityCalculator}, up to the
+ * tolerance of the root finder, but the work is organised for large numbers of bumps:
+ * <ul>
+ * <li>the bumped calibrations are independent, so are distributed across cores using parallel streams
+ * <li>the yield curve is not bumped, so the same instance is shared by all calibrations
+ * <li>each bumped calibration is warm-started from the base credit curve; the hazard rates of the pillars
+ *  before the bumped one are reused as is and the remaining pillars use the base rates as the initial guess
+ * </ul>
+ * For an index CDS, the sensitivities to all the names can be computed in a single call, in which case
+ * all the name and pillar bumps are distributed together.
+ */
+public class ParallelSpreadSensitivityCalculator {
+
+  private final FastCreditCurveBuilder _curveBuilder;
+  private final AnalyticCdsPricer _pricer;
+
+  /**
+   * Creates an instance using the default formula.
+   */
+  public ParallelSpreadSensitivityCalculator() {
+    _curveBuilder = new FastCreditCurveBuilder();
+    _pricer = new AnalyticCdsPricer();
+  }
+
+  /**
+   * Creates an instance specifying the formula.
+   *
+   * @param formula  the formula to use
+   */
+  public ParallelSpreadSensitivityCalculator(AccrualOnDefaultFormulae formula) {
+    _curveBuilder = new FastCreditCurveBuilder(formula);
+    _pricer = new AnalyticCdsPricer(formula);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The bucked CS01 (or credit DV01) by shifting each market par-spread in turn.
+   * <p>
+   * This is equivalent to
+   * {@link FiniteDifferenceSpreadSensitivityCalculator#bucketedCS01FromParSpreads(CdsAnalytic, double,
+   * IsdaCompliantYieldCurve, CdsAnalytic[], double[], double, ShiftType)}.
+   *
+   * @param cds  the analytic description of a CDS traded at a certain time
+   * @param cdsCoupon  the <b>fraction</b> spread of the CDS
+   * @param yieldCurve  the yield (or discount) curve
+   * @param marketCDSs  the market CDSs - these are the reference instruments used to build the credit curve
+   * @param marketParSpreads  the <b>fractional</b> par-spreads of the market CDSs
+   * @param fracBumpAmount  the fraction bump amount, so a 1pb bump is 1e-4
+   * @param shiftType  ABSOLUTE or RELATIVE
+   * @return the credit CS01
+   */
+  public double[] bucketedCS01FromParSpreads(
+      CdsAnalytic cds,
+      double cdsCoupon,
+      IsdaCompliantYieldCurve yieldCurve,
+      CdsAnalytic[] marketCDSs,
+      double[] marketParSpreads,
+      double fracBumpAmount,
+      ShiftType shiftType) {
+
+    ArgChecker.notNull(cds, "cds");
+    return bucketedCS01FromParSpreads(
+        new CdsAnalytic[] {cds}, new double[] {cdsCoupon}, yieldCurve, marketCDSs, marketParSpreads, fracBumpAmount,
+        shiftType)[0];
+  }
+
+  /**
+   * The bucked CS01 (or credit DV01) of a set of CDSs by shifting each market par-spread in turn.
+   * <p>
+   * All the CDSs are priced off the same credit curve, so each bumped curve is calibrated once.
+   *
+   * @param cds  the analytic descriptions of the CDSs traded at certain times
+   * @param cdsCoupons  the <b>fraction</b> spreads of the CDSs
+   * @param yieldCurve  the yield (or discount) curve
+   * @param marketCDSs  the market CDSs - these are the reference instruments used to build the credit curve
+   * @param marketParSpreads  the <b>fractional</b> par-spreads of the market CDSs
+   * @param fracBumpAmount  the fraction bump amount, so a 1pb bump is 1e-4
+   * @param shiftType  ABSOLUTE or RELATIVE
+   * @return the credit CS01, indexed by CDS then market CDS
+   */
+  public double[][] bucketedCS01FromParSpreads(
+      CdsAnalytic[] cds,
+      double[] cdsCoupons,
+      IsdaCompliantYieldCurve yieldCurve,
+      CdsAnalytic[] marketCDSs,
+      double[] marketParSpreads,
+      double fracBumpAmount,
+      ShiftType shiftType) {
+
+    ArgChecker.noNulls(cds, "cds");
+    ArgChecker.notEmpty(cdsCoupons, "cdsCoupons");
+    ArgChecker.noNulls(marketCDSs, "curvePoints");
+    ArgChecker.notEmpty(marketParSpreads, "spreads");
+    ArgChecker.notNull(yieldCurve, "yieldCurve");
+    ArgChecker.notNull(shiftType, "shiftType");
+    ArgChecker.isTrue(Math.abs(fracBumpAmount) > 1e-10, "bump amount too small");
+    int nTradeCDSs = cds.length;
+    int nMarketCDSs = marketCDSs.length;
+    ArgChecker.isTrue(nTradeCDSs == cdsCoupons.length, nTradeCDSs + " CDSs but " + cdsCoupons.length + " coupons");
+    ArgChecker.isTrue(nMarketCDSs == marketParSpreads.length, "speads length does not match curvePoints");
+    CdsPriceType priceType = CdsPriceType.DIRTY;
+
+    IsdaCompliantCreditCurve baseCurve = _curveBuilder.calibrateCreditCurve(marketCDSs, marketParSpreads, yieldCurve);
+    double[] basePrices = new double[nTradeCDSs];
+    for (int j = 0; j < nTradeCDSs; j++) {
+      basePrices[j] = _pricer.pv(cds[j], yieldCurve, baseCurve, cdsCoupons[j], priceType);
+    }
+
+    double[][] res = new double[nTradeCDSs][nMarketCDSs];
+    IntStream.range(0, nMarketCDSs).parallel().forEach(i -> {
+      IsdaCompliantCreditCurve bumpedCurve =
+          bumpedCurve(marketCDSs, marketParSpreads, yieldCurve, baseCurve, fracBumpAmount, shiftType, i);
+      for (int j = 0; j < nTradeCDSs; j++) {
+        double price = _pricer.pv(cds[j], yieldCurve, bumpedCurve, cdsCoupons[j], priceType);
+        res[j][i] = (price - basePrices[j]) / fracBumpAmount;
+      }
+    });
+    return res;
+  }
+
+  /**
+   * The bucked CS01 (or credit DV01) of a CDS with respect to the market par-spreads of a number of names.
+   * <p>
+   * This is typically used for the constituents of an index CDS, where the same CDS is priced off
+   * the credit curve of each name. The credit curves share the market CDSs, but have their own par-spreads.
+   * Each name's market par-spreads are shifted in turn and the name's credit curve recalibrated.
+   *
+   * @param cds  the analytic description of a CDS traded at a certain time
+   * @param cdsCoupon  the <b>fraction</b> spread of the CDS
+   * @param yieldCurve  the yield (or discount) curve
+   * @param marketCDSs  the market CDSs - these are the reference instruments used to build the credit curves
+   * @param marketParSpreads  the <b>fractional</b> par-spreads of the market CDSs, indexed by name then market CDS
+   * @param fracBumpAmount  the fraction bump amount, so a 1pb bump is 1e-4
+   * @param shiftType  ABSOLUTE or RELATIVE
+   * @return the credit CS01, indexed by name then market CDS
+   */
+  public double[][] bucketedCS01FromParSpreads(
+      CdsAnalytic cds,
+      double cdsCoupon,
+      IsdaCompliantYieldCurve yieldCurve,
+      CdsAnalytic[] marketCDSs,
+      double[][] marketParSpreads,
+      double fracBumpAmount,
+      ShiftType shiftType) {
+
+    ArgChecker.notNull(cds, "cds");
+    ArgChecker.noNulls(marketCDSs, "curvePoints");
+    ArgChecker.noNulls(marketParSpreads, "spreads");
+    ArgChecker.notNull(yieldCurve, "yieldCurve");
+    ArgChecker.notNull(shiftType, "shiftType");
+    ArgChecker.isTrue(Math.abs(fracBumpAmount) > 1e-10, "bump amount too small");
+    int nNames = marketParSpreads.length;
+    int nMarketCDSs = marketCDSs.length;
+    for (int k = 0; k < nNames; k++) {
+      ArgChecker.isTrue(nMarketCDSs == marketParSpreads[k].length, "speads length does not match curvePoints");
+    }
+    CdsPriceType priceType = CdsPriceType.DIRTY;
+
+    IsdaCompliantCreditCurve[] baseCurves = IntStream.range(0, nNames).parallel()
+        .mapToObj(k -> _curveBuilder.calibrateCreditCurve(marketCDSs, marketParSpreads[k], yieldCurve))
+        .toArray(IsdaCompliantCreditCurve[]::new);
+    double[] basePrices = new double[nNames];
+    for (int k = 0; k < nNames; k++) {
+      basePrices[k] = _pricer.pv(cds, yieldCurve, baseCurves[k], cdsCoupon, priceType);
+    }
+
+    // a single stream over all the bumps balances the load better than nesting by name
+    double[][] res = new double[nNames][nMarketCDSs];
+    IntStream.range(0, nNames * nMarketCDSs).parallel().forEach(index -> {
+      int k = index / nMarketCDSs;
+      int i = index % nMarketCDSs;
+      IsdaCompliantCreditCurve bumpedCurve =
+          bumpedCurve(marketCDSs, marketParSpreads[k], yieldCurve, baseCurves[k], fracBumpAmount, shiftType, i);
+      double price = _pricer.pv(cds, yieldCurve, bumpedCurve, cdsCoupon, priceType);
+      res[k][i] = (price - basePrices[k]) / fracBumpAmount;
+    });
+    return res;
+  }
+
+  //-------------------------------------------------------------------------
+  // recalibrates the curve with the spread at the index bumped, starting from the base curve
+  private IsdaCompliantCreditCurve bumpedCurve(
+      CdsAnalytic[] marketCDSs,
+      double[] marketParSpreads,
+      IsdaCompliantYieldCurve yieldCurve,
+      IsdaCompliantCreditCurve baseCurve,
+      double fracBumpAmount,
+      ShiftType shiftType,
+      int index) {
+
+    int n = marketParSpreads.length;
+    double[] bumpedSpreads = new double[n];
+    System.arraycopy(marketParSpreads, 0, bumpedSpreads, 0, n);
+    bumpedSpreads[index] = shiftType.applyShift(bumpedSpreads[index], fracBumpAmount);
+    return _curveBuilder.calibrateCreditCurve(marketCDSs, bumpedSpreads, yieldCurve, new double[n], baseCurve, index);
+  }
+
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ * 
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+
+/**
+ * Pricer of deterministic cash flows on Hull-White paths.
+ * <p>
+ * The cash flows are typically the cash flow equivalent of a swap, see {@code CashFlowEquivalentCalculator}.
+ * The value at a simulation time is the value of the cash flows paid strictly after that time.
+ * <p>
+ * The coefficients of the bond prices are computed once for each pair of simulation time and cash flow,
+ * so that valuing a path only requires one exponential for each remaining cash flow.
+ */
+public final class HullWhiteCashFlowPathPricer {
+
+  /**
+   * The path simulator.
+   */
+  private final HullWhitePathSimulator simulator;
+  /**
+   * The discount factors at the simulation times.
+   */
+  private final double[] discountFactors;
+  /**
+   * The start of the coefficients of each simulation time, with one extra element.
+   */
+  private final int[] start;
+  /**
+   * The bond factors, for each simulation time and remaining cash flow.
+   */
+  private final double[] bondFactors;
+  /**
+   * The forward values of the cash flows including convexity, for each simulation time and remaining cash flow.
+   */
+  private final double[] weights;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance.
+   * <p>
+   * The discounted amounts are the present values of the cash flows, the amounts multiplied by
+   * the discount factors {@code P(0,u)} to the payment times.
+   * 
+   * @param simulator  the path simulator
+   * @param paymentTimes  the payment times of the cash flows
+   * @param discountedAmounts  the discounted amounts of the cash flows
+   * @param discountFactors  the discount factors {@code P(0,t)} at the simulation times
+   * @return the instance
+   */
+  public static HullWhiteCashFlowPathPricer of(
+      HullWhitePathSimulator simulator,
+      DoubleArray paymentTimes,
+      DoubleArray discountedAmounts,
+      DoubleArray discountFactors) {
+
+    ArgChecker.notNull(simulator, "simulator");
+    ArgChecker.isTrue(paymentTimes.size() == discountedAmounts.size(),
+        "paymentTimes and discountedAmounts must have the same size");
+    ArgChecker.isTrue(discountFactors.size() == simulator.getTimes().size(),
+        "discountFactors must have the same size as the simulation times");
+    return new HullWhiteCashFlowPathPricer(simulator, paymentTimes, discountedAmounts, discountFactors);
+  }
+
+  // restricted constructor
+  private HullWhiteCashFlowPathPricer(
+      HullWhitePathSimulator simulator,
+      DoubleArray paymentTimes,
+      DoubleArray discountedAmounts,
+      DoubleArray discountFactors) {
+
+    DoubleArray times = simulator.getTimes();
+    int nTimes = times.size();
+    int nPayments = paymentTimes.size();
+    this.simulator = simulator;
+    this.discountFactors = discountFactors.toArray();
+    this.start = new int[nTimes + 1];
+    int count = 0;
+    for (int k = 0; k < nTimes; k++) {
+      start[k] = count;
+      for (int i = 0; i < nPayments; i++) {
+        if (paymentTimes.get(i) > times.get(k)) {
+          count++;
+        }
+      }
+    }
+    start[nTimes] = count;
+    this.bondFactors = new double[count];
+    this.weights = new double[count];
+    for (int k = 0; k < nTimes; k++) {
+      int index = start[k];
+      for (int i = 0; i < nPayments; i++) {
+        if (paymentTimes.get(i) > times.get(k)) {
+          double b = simulator.bondFactor(k, paymentTimes.get(i));
+          bondFactors[index] = b;
+          weights[index] = discountedAmounts.get(i) / this.discountFactors[k] * simulator.bondConvexity(k, b);
+          index++;
+        }
+      }
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Calculates the value of the cash flows of a path at a simulation time.
+   * <p>
+   * This is the value at the simulation time, expressed in the currency of the cash flows at that time.
+   * 
+   * @param paths  the simulated paths
+   * @param pathIndex  the index of the path
+   * @param timeIndex  the index of the simulation time
+   * @return the value
+   */
+  public double value(double[] paths, int pathIndex, int timeIndex) {
+    double x = simulator.state(paths, pathIndex, timeIndex);
+    double value = 0d;
+    for (int i = start[timeIndex]; i < start[timeIndex + 1]; i++) {
+      value += weights[i] * Math.exp(-bondFactors[i] * x);
+    }
+    return value;
+  }
+
+  /**
+   * Calculates the deflated value of the cash flows of a path at a simulation time.
+   * <p>
+   * This is the value at the simulation time multiplied by the bank account deflator.
+   * Its expectation is the present value of the cash flows paid after the simulation time.
+   * 
+   * @param paths  the simulated paths
+   * @param pathIndex  the index of the path
+   * @param timeIndex  the index of the simulation time
+   * @return the deflated value
+   */
+  public double deflatedValue(double[] paths, int pathIndex, int timeIndex) {
+    return value(paths, pathIndex, timeIndex) * deflator(paths, pathIndex, timeIndex);
+  }
+
+  /**
+   * Calculates the bank account deflator of a path at a simulation time.
+   * 
+   * @param paths  the simulated paths
+   * @param pathIndex  the index of the path
+   * @param timeIndex  the index of the simulation time
+   * @return the deflator
+   */
+  public double deflator(double[] paths, int pathIndex, int timeIndex) {
+    return discountFactors[timeIndex] * simulator.numeraireAdjustment(paths, pathIndex, timeIndex);
+  }
+
+}
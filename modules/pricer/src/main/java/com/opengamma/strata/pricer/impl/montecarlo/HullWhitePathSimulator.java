@@ -0,0 +1,255 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ * 
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.pricer.index.HullWhiteOneFactorPiecewiseConstantParameters;
+
+/**
+ * Path simulator for the Hull-White one factor model with piecewise constant volatility.
+ * <p>
+ * The short rate is {@code r(t) = x(t) + phi(t)} where {@code dx = -a x dt + sigma(t) dW} under the
+ * risk-neutral measure, {@code x(0) = 0} and {@code phi} is such that the model fits the initial curve.
+ * The path stores {@code x(t)} and {@code I(t) = int_0^t x(s) ds} at each simulation time,
+ * the pair for the time of index {@code k} being at offsets {@code 2k} and {@code 2k+1}.
+ * <p>
+ * The simulation is exact: the transition of the Gaussian pair {@code (x, I)} between simulation times is computed
+ * in closed form, across the volatility breakpoints. The time grid only needs to contain the dates of interest.
+ * <p>
+ * The deflated zero-coupon bond prices are expressed in terms of the initial discount factors {@code P(0,t)}.
+ * The bank account deflator at time {@code t} is {@code P(0,t) * numeraireAdjustment}
+ * and the bond price is {@code P(t,u) = P(0,u) / P(0,t) * bondAdjustment}, see
+ * {@link #numeraireAdjustment(double[], int, int)} and {@link #bondAdjustment(double[], int, int, double)}.
+ */
+public final class HullWhitePathSimulator
+    implements PathSimulator {
+
+  /**
+   * The mean reversion.
+   */
+  private final double meanReversion;
+  /**
+   * The simulation times.
+   */
+  private final DoubleArray times;
+  /**
+   * The decay of the state over each step, {@code exp(-a h)}.
+   */
+  private final double[] decay;
+  /**
+   * The integrated decay of the state over each step, {@code (1 - exp(-a h)) / a}.
+   */
+  private final double[] integratedDecay;
+  /**
+   * The Cholesky decomposition of the covariance of the step increments, first diagonal element.
+   */
+  private final double[] choleskyXX;
+  /**
+   * The Cholesky decomposition of the covariance of the step increments, off-diagonal element.
+   */
+  private final double[] choleskyIX;
+  /**
+   * The Cholesky decomposition of the covariance of the step increments, second diagonal element.
+   */
+  private final double[] choleskyII;
+  /**
+   * The variance of the state at each time.
+   */
+  private final double[] varianceX;
+  /**
+   * The covariance between the state and the integrated state at each time.
+   */
+  private final double[] covarianceXI;
+  /**
+   * The variance of the integrated state at each time.
+   */
+  private final double[] varianceI;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance.
+   * <p>
+   * The simulation times must be non-negative and increasing.
+   * 
+   * @param parameters  the Hull-White model parameters
+   * @param times  the simulation times
+   * @return the instance
+   */
+  public static HullWhitePathSimulator of(HullWhiteOneFactorPiecewiseConstantParameters parameters, DoubleArray times) {
+    ArgChecker.notNull(parameters, "parameters");
+    ArgChecker.notNull(times, "times");
+    ArgChecker.isFalse(times.isEmpty(), "times must not be empty");
+    ArgChecker.notNegative(times.get(0), "times");
+    for (int i = 1; i < times.size(); i++) {
+      ArgChecker.isTrue(times.get(i - 1) < times.get(i), "times should be increasing");
+    }
+    ArgChecker.notNegativeOrZero(parameters.getMeanReversion(), "meanReversion");
+    return new HullWhitePathSimulator(parameters, times);
+  }
+
+  // restricted constructor
+  private HullWhitePathSimulator(HullWhiteOneFactorPiecewiseConstantParameters parameters, DoubleArray times) {
+    int nTimes = times.size();
+    double a = parameters.getMeanReversion();
+    this.meanReversion = a;
+    this.times = times;
+    this.decay = new double[nTimes];
+    this.integratedDecay = new double[nTimes];
+    this.choleskyXX = new double[nTimes];
+    this.choleskyIX = new double[nTimes];
+    this.choleskyII = new double[nTimes];
+    this.varianceX = new double[nTimes];
+    this.covarianceXI = new double[nTimes];
+    this.varianceI = new double[nTimes];
+    double[] volatility = parameters.getVolatility().toArrayUnsafe();
+    double[] volatilityTime = parameters.getVolatilityTime().toArrayUnsafe();
+    double previousTime = 0d;
+    double previousVarianceX = 0d;
+    double previousCovarianceXI = 0d;
+    double previousVarianceI = 0d;
+    for (int k = 0; k < nTimes; k++) {
+      double time = times.get(k);
+      decay[k] = Math.exp(-a * (time - previousTime));
+      integratedDecay[k] = integratedDecay(a, time - previousTime);
+      // covariance of the increments, summing the contributions of each constant volatility period
+      double c11 = 0d;
+      double c12 = 0d;
+      double c22 = 0d;
+      for (int j = 0; j < volatility.length; j++) {
+        double start = Math.max(previousTime, volatilityTime[j]);
+        double end = Math.min(time, volatilityTime[j + 1]);
+        if (start >= end) {
+          continue;
+        }
+        double h = end - start;
+        double sigma2 = volatility[j] * volatility[j];
+        double b = integratedDecay(a, h);
+        double b2 = integratedDecay(2d * a, h);
+        double v11 = sigma2 * b2;
+        double v12 = sigma2 * (b - b2) / a;
+        double v22 = sigma2 * (h - 2d * b + b2) / (a * a);
+        // propagation from the end of the period to the simulation time
+        double decayRemaining = Math.exp(-a * (time - end));
+        double bRemaining = integratedDecay(a, time - end);
+        c11 += decayRemaining * decayRemaining * v11;
+        c12 += decayRemaining * (v12 + bRemaining * v11);
+        c22 += v22 + 2d * bRemaining * v12 + bRemaining * bRemaining * v11;
+      }
+      choleskyXX[k] = Math.sqrt(c11);
+      choleskyIX[k] = c11 > 0d ? c12 / choleskyXX[k] : 0d;
+      choleskyII[k] = Math.sqrt(Math.max(c22 - choleskyIX[k] * choleskyIX[k], 0d));
+      double b = integratedDecay[k];
+      varianceX[k] = decay[k] * decay[k] * previousVarianceX + c11;
+      covarianceXI[k] = decay[k] * (previousCovarianceXI + b * previousVarianceX) + c12;
+      varianceI[k] = previousVarianceI + 2d * b * previousCovarianceXI + b * b * previousVarianceX + c22;
+      previousTime = time;
+      previousVarianceX = varianceX[k];
+      previousCovarianceXI = covarianceXI[k];
+      previousVarianceI = varianceI[k];
+    }
+  }
+
+  // the integral of exp(-a s) between 0 and h
+  private static double integratedDecay(double a, double h) {
+    return -Math.expm1(-a * h) / a;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the simulation times.
+   * 
+   * @return the times
+   */
+  public DoubleArray getTimes() {
+    return times;
+  }
+
+  @Override
+  public int getDimension() {
+    return 2 * times.size();
+  }
+
+  @Override
+  public int getStateSize() {
+    return 2 * times.size();
+  }
+
+  @Override
+  public void simulate(double[] normals, int normalsOffset, double[] states, int statesOffset) {
+    double x = 0d;
+    double integral = 0d;
+    for (int k = 0; k < decay.length; k++) {
+      double z1 = normals[normalsOffset + 2 * k];
+      double z2 = normals[normalsOffset + 2 * k + 1];
+      integral += integratedDecay[k] * x + choleskyIX[k] * z1 + choleskyII[k] * z2;
+      x = decay[k] * x + choleskyXX[k] * z1;
+      states[statesOffset + 2 * k] = x;
+      states[statesOffset + 2 * k + 1] = integral;
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the state {@code x} of a path at a simulation time.
+   * 
+   * @param paths  the simulated paths
+   * @param pathIndex  the index of the path
+   * @param timeIndex  the index of the simulation time
+   * @return the state
+   */
+  public double state(double[] paths, int pathIndex, int timeIndex) {
+    return paths[pathIndex * getStateSize() + 2 * timeIndex];
+  }
+
+  /**
+   * Calculates the adjustment of the bank account deflator of a path at a simulation time.
+   * <p>
+   * The deflator {@code exp(-int_0^t r(s) ds)} is the discount factor {@code P(0,t)} multiplied by this adjustment.
+   * The expectation of the adjustment is one.
+   * 
+   * @param paths  the simulated paths
+   * @param pathIndex  the index of the path
+   * @param timeIndex  the index of the simulation time
+   * @return the adjustment
+   */
+  public double numeraireAdjustment(double[] paths, int pathIndex, int timeIndex) {
+    double integral = paths[pathIndex * getStateSize() + 2 * timeIndex + 1];
+    return Math.exp(-integral - 0.5 * varianceI[timeIndex]);
+  }
+
+  /**
+   * Calculates the adjustment of the zero-coupon bond price of a path at a simulation time.
+   * <p>
+   * The bond price {@code P(t,u)} is the forward discount factor {@code P(0,u) / P(0,t)} multiplied by this adjustment.
+   * 
+   * @param paths  the simulated paths
+   * @param pathIndex  the index of the path
+   * @param timeIndex  the index of the simulation time
+   * @param maturity  the bond maturity time
+   * @return the adjustment
+   */
+  public double bondAdjustment(double[] paths, int pathIndex, int timeIndex, double maturity) {
+    double b = bondFactor(timeIndex, maturity);
+    return bondConvexity(timeIndex, b) * Math.exp(-b * state(paths, pathIndex, timeIndex));
+  }
+
+  // the factor applied to the state in the bond price, B(t,u) = (1 - exp(-a (u - t))) / a
+  double bondFactor(int timeIndex, double maturity) {
+    return integratedDecay(meanReversion, maturity - times.get(timeIndex));
+  }
+
+  // the deterministic part of the bond adjustment, such that the deflated bond price is a martingale
+  double bondConvexity(int timeIndex, double bondFactor) {
+    return Math.exp(-0.5 * bondFactor * bondFactor * varianceX[timeIndex] - bondFactor * covarianceXI[timeIndex]);
+  }
+
+  // the variance of the state at a simulation time
+  double varianceX(int timeIndex) {
+    return varianceX[timeIndex];
+  }
+
+}
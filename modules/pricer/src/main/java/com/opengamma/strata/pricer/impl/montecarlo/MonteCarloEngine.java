@@ -0,0 +1,248 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ * 
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import static java.util.stream.Collectors.toList;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.math.impl.random.NormalRandomNumberGenerator;
+import com.opengamma.strata.math.impl.random.RandomNumberGenerator;
+
+import cern.jet.random.engine.MersenneTwister64;
+
+/**
+ * Monte Carlo engine simulating paths in parallel.
+ * <p>
+ * The paths are split into chunks of {@code chunkSize} paths, simulated concurrently.
+ * Each chunk has its own random number generator, seeded from the engine seed and the chunk index.
+ * The simulated paths thus depend only on the seed and the chunk size, not on the number of threads
+ * or the order in which the chunks are simulated.
+ * <p>
+ * With antithetic variates, the paths are simulated in pairs, the second path of each pair
+ * using the opposite of the random numbers of the first.
+ * <p>
+ * The paths are stored in flat arrays, the values of path {@code p} being
+ * the {@code stateSize} values starting at index {@code p * stateSize}.
+ * The paths can either be all returned, or processed chunk by chunk by a {@link PathAccumulator},
+ * in which case only the paths and accumulators of the chunks being processed are held in memory.
+ */
+public final class MonteCarloEngine {
+
+  /**
+   * The default number of paths in a chunk.
+   */
+  private static final int DEFAULT_CHUNK_SIZE = 1024;
+  /**
+   * The number of chunks simulated concurrently before their accumulators are combined.
+   */
+  private static final int BATCH_SIZE = 2 * Math.max(ForkJoinPool.getCommonPoolParallelism(), 1);
+
+  /**
+   * The number of paths.
+   */
+  private final int pathCount;
+  /**
+   * The number of paths in a chunk.
+   */
+  private final int chunkSize;
+  /**
+   * The seed.
+   */
+  private final long seed;
+  /**
+   * Whether antithetic variates are used.
+   */
+  private final boolean antithetic;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance with the default chunk size.
+   * 
+   * @param pathCount  the number of paths
+   * @param seed  the seed
+   * @param antithetic  whether antithetic variates are used
+   * @return the instance
+   */
+  public static MonteCarloEngine of(int pathCount, long seed, boolean antithetic) {
+    return of(pathCount, DEFAULT_CHUNK_SIZE, seed, antithetic);
+  }
+
+  /**
+   * Obtains an instance.
+   * <p>
+   * With antithetic variates, the chunk size must be even.
+   * 
+   * @param pathCount  the number of paths
+   * @param chunkSize  the number of paths in a chunk
+   * @param seed  the seed
+   * @param antithetic  whether antithetic variates are used
+   * @return the instance
+   */
+  public static MonteCarloEngine of(int pathCount, int chunkSize, long seed, boolean antithetic) {
+    ArgChecker.notNegativeOrZero(pathCount, "pathCount");
+    ArgChecker.notNegativeOrZero(chunkSize, "chunkSize");
+    ArgChecker.isTrue(!antithetic || chunkSize % 2 == 0, "chunkSize must be even when using antithetic variates");
+    return new MonteCarloEngine(pathCount, chunkSize, seed, antithetic);
+  }
+
+  // restricted constructor
+  private MonteCarloEngine(int pathCount, int chunkSize, long seed, boolean antithetic) {
+    this.pathCount = pathCount;
+    this.chunkSize = chunkSize;
+    this.seed = seed;
+    this.antithetic = antithetic;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the number of paths.
+   * 
+   * @return the number of paths
+   */
+  public int getPathCount() {
+    return pathCount;
+  }
+
+  /**
+   * Gets the number of paths in a chunk.
+   * 
+   * @return the chunk size
+   */
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  /**
+   * Gets the seed.
+   * 
+   * @return the seed
+   */
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * Checks whether antithetic variates are used.
+   * 
+   * @return true if antithetic variates are used
+   */
+  public boolean isAntithetic() {
+    return antithetic;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Simulates the paths.
+   * <p>
+   * The result contains {@code pathCount * stateSize} values.
+   * 
+   * @param simulator  the path simulator
+   * @return the paths
+   */
+  public double[] simulate(PathSimulator simulator) {
+    ArgChecker.notNull(simulator, "simulator");
+    long size = (long) pathCount * simulator.getStateSize();
+    ArgChecker.isTrue(size <= Integer.MAX_VALUE, "Too many values to simulate: {}", size);
+    double[] paths = new double[(int) size];
+    IntStream.range(0, chunkCount()).parallel().forEach(chunk -> simulateChunk(simulator, chunk, paths, 0));
+    return paths;
+  }
+
+  /**
+   * Simulates the paths, processing them chunk by chunk.
+   * <p>
+   * Each chunk is simulated into a buffer and passed to a new accumulator obtained from the factory.
+   * The chunks are simulated in parallel in batches of a few chunks per thread, and the accumulators of
+   * each batch are combined into the result in the order of the chunks, so that the result is reproducible.
+   * Only the accumulators of one batch are thus held in memory, whatever the number of paths.
+   * 
+   * @param <A>  the type of the accumulator
+   * @param simulator  the path simulator
+   * @param accumulatorFactory  the factory of accumulators
+   * @return the combined accumulator
+   */
+  public <A extends PathAccumulator<A>> A simulate(PathSimulator simulator, Supplier<A> accumulatorFactory) {
+    ArgChecker.notNull(simulator, "simulator");
+    ArgChecker.notNull(accumulatorFactory, "accumulatorFactory");
+    int stateSize = simulator.getStateSize();
+    int chunkCount = chunkCount();
+    A result = null;
+    for (int batchStart = 0; batchStart < chunkCount; batchStart += BATCH_SIZE) {
+      List<A> accumulators = IntStream.range(batchStart, Math.min(batchStart + BATCH_SIZE, chunkCount))
+          .parallel()
+          .mapToObj(chunk -> {
+            int start = chunk * chunkSize;
+            int chunkPathCount = Math.min(chunkSize, pathCount - start);
+            double[] paths = new double[chunkPathCount * stateSize];
+            simulateChunk(simulator, chunk, paths, start);
+            A accumulator = accumulatorFactory.get();
+            accumulator.accumulate(paths, chunkPathCount);
+            return accumulator;
+          })
+          .collect(toList());
+      for (A accumulator : accumulators) {
+        result = result == null ? accumulator : result.combinedWith(accumulator);
+      }
+    }
+    return result;
+  }
+
+  // the number of chunks
+  private int chunkCount() {
+    return (pathCount + chunkSize - 1) / chunkSize;
+  }
+
+  // simulates the paths of one chunk, each chunk writing to a distinct part of the array
+  // the path of index p is written at (p - firstPath) * stateSize
+  private void simulateChunk(PathSimulator simulator, int chunk, double[] paths, int firstPath) {
+    int dimension = simulator.getDimension();
+    int stateSize = simulator.getStateSize();
+    int start = chunk * chunkSize;
+    int end = Math.min(start + chunkSize, pathCount);
+    int drawCount = antithetic ? (end - start + 1) / 2 : end - start;
+    RandomNumberGenerator generator = new NormalRandomNumberGenerator(0d, 1d, new MersenneTwister64(chunkSeed(chunk)));
+    double[] normals = generator.getVector(drawCount * dimension);
+    if (!antithetic) {
+      for (int path = start; path < end; path++) {
+        simulator.simulate(normals, (path - start) * dimension, paths, (path - firstPath) * stateSize);
+      }
+      return;
+    }
+    double[] opposite = new double[dimension];
+    for (int path = start; path < end; path++) {
+      int normalsOffset = (path - start) / 2 * dimension;
+      if ((path - start) % 2 == 0) {
+        simulator.simulate(normals, normalsOffset, paths, (path - firstPath) * stateSize);
+      } else {
+        for (int i = 0; i < dimension; i++) {
+          opposite[i] = -normals[normalsOffset + i];
+        }
+        simulator.simulate(opposite, 0, paths, (path - firstPath) * stateSize);
+      }
+    }
+  }
+
+  // the seed of the chunk, mixing the bits so that consecutive chunks have unrelated seeds
+  private int chunkSeed(int chunk) {
+    long z = seed + (chunk + 1) * 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    z = z ^ (z >>> 31);
+    return (int) (z ^ (z >>> 32));
+  }
+
+  @Override
+  public String toString() {
+    return "MonteCarloEngine[pathCount=" + pathCount + ", chunkSize=" + chunkSize + ", seed=" + seed +
+        ", antithetic=" + antithetic + "]";
+  }
+
+}
@@ -0,0 +1,42 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ * 
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+/**
+ * Accumulator of statistics over simulated paths.
+ * <p>
+ * An accumulator processes the paths of one chunk, see {@code MonteCarloEngine}.
+ * The accumulators of the chunks are then combined into the final result.
+ * This allows statistics to be computed without holding all the paths in memory.
+ * 
+ * @param <A>  the type of the accumulator
+ */
+public interface PathAccumulator<A extends PathAccumulator<A>> {
+
+  /**
+   * Accumulates the paths of a chunk.
+   * <p>
+   * The paths are stored in a flat array, as described in {@link MonteCarloEngine}.
+   * The array is only valid during the call.
+   * The statistics of the paths are added to those already accumulated.
+   * 
+   * @param paths  the paths
+   * @param pathCount  the number of paths
+   */
+  public abstract void accumulate(double[] paths, int pathCount);
+
+  /**
+   * Combines this accumulator with another.
+   * <p>
+   * The other accumulator holds the statistics of the paths following those of this accumulator.
+   * This accumulator may be modified and returned.
+   * 
+   * @param other  the other accumulator
+   * @return the combined accumulator
+   */
+  public abstract A combinedWith(A other);
+
+}
@@ -0,0 +1,45 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ * 
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+/**
+ * Simulator of the paths of a model from independent standard normal random numbers.
+ * <p>
+ * Each path is driven by {@link #getDimension()} random numbers and is stored as
+ * {@link #getStateSize()} consecutive values in a flat array, see {@link MonteCarloEngine}.
+ * <p>
+ * Implementations must be thread-safe, as paths are simulated concurrently.
+ */
+public interface PathSimulator {
+
+  /**
+   * Gets the number of random numbers required to simulate one path.
+   * 
+   * @return the dimension
+   */
+  public abstract int getDimension();
+
+  /**
+   * Gets the number of values stored for one path.
+   * 
+   * @return the state size
+   */
+  public abstract int getStateSize();
+
+  /**
+   * Simulates one path.
+   * <p>
+   * The random numbers are read from {@code normals}, starting at {@code normalsOffset}.
+   * The path is written to {@code states}, starting at {@code statesOffset}.
+   * 
+   * @param normals  the independent standard normal random numbers
+   * @param normalsOffset  the offset of the first random number of the path
+   * @param states  the array to which the path is written
+   * @param statesOffset  the offset of the first value of the path
+   */
+  public abstract void simulate(double[] normals, int normalsOffset, double[] states, int statesOffset);
+
+}
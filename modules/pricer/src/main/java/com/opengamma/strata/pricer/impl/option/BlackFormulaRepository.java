@@ -18,6 +18,8 @@ import com.opengamma.strata.math.impl.rootfinding.NewtonRaphsonSingleRootFinder;
 import com.opengamma.strata.math.impl.statistics.distribution.NormalDistribution;
 import com.opengamma.strata.math.impl.statistics.distribution.ProbabilityDistribution;
 
+import cern.jet.stat.Probability;
+
 /**
  * The primary repository for Black formulas, including the price, common greeks and implied volatility.
  * <p>
@@ -39,6 +41,13 @@ public final class BlackFormulaRepository {
   private static final double ATM_LIMIT = 1.0E-3;
   private static final double ROOT_ACCURACY = 1.0E-7;
   private static final NewtonRaphsonSingleRootFinder ROOT_FINDER = new NewtonRaphsonSingleRootFinder(ROOT_ACCURACY);
+  private static final double INV_SQRT_2PI = 1d / Math.sqrt(2d * Math.PI);
+  /** The maximum number of Householder iterations of the batch implied volatility. */
+  private static final int HOUSEHOLDER_MAX_ITERATIONS = 50;
+  /** The relative tolerance on the total volatility of the batch implied volatility. */
+  private static final double HOUSEHOLDER_TOLERANCE = 1e-13;
+  /** The upper bound of the total volatility of the batch implied volatility. */
+  private static final double HOUSEHOLDER_MAX_TOTAL_VOL = 100d;
 
   // restricted constructor
   private BlackFormulaRepository() {
@@ -1314,6 +1323,174 @@ public final class BlackFormulaRepository {
     return ValueDerivatives.of(impliedVolatility, DoubleArray.of(dvoldprice));
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Computes the log-normal implied volatilities of a batch of European options.
+   * <p>
+   * The result is the same as calling {@link #impliedVolatility(double, double, double, double, boolean)}
+   * for each option, within the tolerance of the solvers. The arrays must all be of the same size.
+   * <p>
+   * Each volatility is found from a closed-form initial guess by Householder iteration
+   * on the logarithm of the normalized out-the-money price, working on primitive values only.
+   * The rare options for which the iteration does not converge are solved by {@link GenericImpliedVolatiltySolver}.
+   * 
+   * @param prices  the forward prices, which are the market prices divided by the numeraire
+   * @param forwards  the forward values of the underlying
+   * @param strikes  the strikes
+   * @param timesToExpiry  the times to expiry
+   * @param isCall  true for calls, false for puts
+   * @return log-normal (Black) implied volatilities
+   */
+  public static double[] impliedVolatilities(
+      double[] prices,
+      double[] forwards,
+      double[] strikes,
+      double[] timesToExpiry,
+      boolean isCall) {
+
+    return impliedVolatilitiesAdjoint(prices, forwards, strikes, timesToExpiry, isCall, null);
+  }
+
+  /**
+   * Computes the log-normal implied volatilities of a batch of European options
+   * and their derivatives with respect to the prices.
+   * <p>
+   * The result is the same as calling {@link #impliedVolatilityAdjoint(double, double, double, double, boolean)}
+   * for each option, within the tolerance of the solvers. The arrays must all be of the same size.
+   * See {@link #impliedVolatilities(double[], double[], double[], double[], boolean)} for the algorithm.
+   * 
+   * @param prices  the forward prices, which are the market prices divided by the numeraire
+   * @param forwards  the forward values of the underlying
+   * @param strikes  the strikes
+   * @param timesToExpiry  the times to expiry
+   * @param isCall  true for calls, false for puts
+   * @param derivatives  the array populated with the derivatives of the volatilities w.r.t. the prices,
+   *  null if not required
+   * @return log-normal (Black) implied volatilities
+   */
+  public static double[] impliedVolatilitiesAdjoint(
+      double[] prices,
+      double[] forwards,
+      double[] strikes,
+      double[] timesToExpiry,
+      boolean isCall,
+      double[] derivatives) {
+
+    int size = prices.length;
+    ArgChecker.isTrue(forwards.length == size, "forwards must have the same size as prices");
+    ArgChecker.isTrue(strikes.length == size, "strikes must have the same size as prices");
+    ArgChecker.isTrue(timesToExpiry.length == size, "timesToExpiry must have the same size as prices");
+    ArgChecker.isTrue(
+        derivatives == null || derivatives.length == size, "derivatives must have the same size as prices");
+    double[] volatilities = new double[size];
+    for (int i = 0; i < size; i++) {
+      double price = prices[i];
+      double forward = forwards[i];
+      double strike = strikes[i];
+      double timeToExpiry = timesToExpiry[i];
+      ArgChecker.isTrue(price >= 0d, "negative/NaN price; have {}", price);
+      ArgChecker.isTrue(forward > 0d, "negative/NaN forward; have {}", forward);
+      ArgChecker.isTrue(strike >= 0d, "negative/NaN strike; have {}", strike);
+      ArgChecker.isTrue(timeToExpiry >= 0d, "negative/NaN timeToExpiry; have {}", timeToExpiry);
+      ArgChecker.isFalse(Double.isInfinite(forward), "forward is Infinity");
+      ArgChecker.isFalse(Double.isInfinite(strike), "strike is Infinity");
+      ArgChecker.isFalse(Double.isInfinite(timeToExpiry), "timeToExpiry is Infinity");
+      double intrinsicPrice = Math.max(0d, (isCall ? 1 : -1) * (forward - strike));
+      double volatility = impliedVolatilityOtm(price - intrinsicPrice, forward, strike, timeToExpiry);
+      volatilities[i] = volatility;
+      if (derivatives != null) {
+        derivatives[i] = 1d / vega(forward, strike, timeToExpiry, volatility);
+      }
+    }
+    return volatilities;
+  }
+
+  // implied volatility of an out-the-money option, see impliedVolatility(double, double, double, double, double)
+  private static double impliedVolatilityOtm(double otmPrice, double forward, double strike, double timeToExpiry) {
+    ArgChecker.isTrue(otmPrice >= 0d, "negative/NaN otmPrice; have {}", otmPrice);
+    if (otmPrice == 0) {
+      return 0;
+    }
+    ArgChecker.isTrue(
+        otmPrice < Math.min(forward, strike), "otmPrice exceeded upper bound of min(forward, strike); have {}", otmPrice);
+    if (forward == strike) {
+      return Probability.normalInverse(0.5 * (otmPrice / forward + 1)) * 2 / Math.sqrt(timeToExpiry);
+    }
+    double rootT = Math.sqrt(timeToExpiry);
+    if (rootT > 0d) {
+      // normalized out-the-money call, with price b(s) = exp(x/2)N(x/s+s/2) - exp(-x/2)N(x/s-s/2), x < 0
+      double x = -Math.abs(Math.log(forward / strike));
+      double lnTarget = Math.log(otmPrice / Math.sqrt(forward * strike));
+      double totalVol = householderTotalVolatility(x, lnTarget, impliedTotalVolatilityGuess(x, Math.exp(lnTarget)));
+      if (totalVol > 0d) {
+        return totalVol / rootT;
+      }
+    }
+    return impliedVolatility(otmPrice, forward, strike, timeToExpiry, 0.3);
+  }
+
+  // closed-form approximation of Corrado and Miller for the normalized call price, or the inflection point otherwise
+  private static double impliedTotalVolatilityGuess(double x, double normalizedPrice) {
+    double halfForward = Math.exp(0.5 * x);
+    double halfStrike = 1d / halfForward;
+    double moneyness = halfForward - halfStrike;
+    double adjustedPrice = normalizedPrice - 0.5 * moneyness;
+    double discriminant = adjustedPrice * adjustedPrice - moneyness * moneyness / Math.PI;
+    double guess = Math.sqrt(2d * Math.PI) / (halfForward + halfStrike) *
+        (adjustedPrice + Math.sqrt(Math.max(discriminant, 0d)));
+    return guess > 0d && guess < HOUSEHOLDER_MAX_TOTAL_VOL ? guess : Math.sqrt(-2d * x);
+  }
+
+  // solves ln(b(s)) = lnTarget by third order Householder iterations, keeping the root bracketed
+  // returns zero if the iterations fail to converge
+  private static double householderTotalVolatility(double x, double lnTarget, double guess) {
+    double halfForward = Math.exp(0.5 * x);
+    double halfStrike = 1d / halfForward;
+    double lower = 0d;
+    double upper = HOUSEHOLDER_MAX_TOTAL_VOL;
+    double s = guess;
+    for (int i = 0; i < HOUSEHOLDER_MAX_ITERATIONS; i++) {
+      double xOverS = x / s;
+      double price = halfForward * Probability.normal(xOverS + 0.5 * s) -
+          halfStrike * Probability.normal(xOverS - 0.5 * s);
+      double vega = INV_SQRT_2PI * Math.exp(-0.5 * (xOverS * xOverS + 0.25 * s * s));
+      if (!(price > 0d && vega > 0d)) {
+        // underflow, the price vanishing for low volatility and the vega for high volatility
+        if (price > 0d) {
+          upper = s;
+        } else {
+          lower = s;
+        }
+        s = 0.5 * (lower + upper);
+        continue;
+      }
+      double value = Math.log(price) - lnTarget;
+      if (value > 0d) {
+        upper = s;
+      } else {
+        lower = s;
+      }
+      // ratios of derivatives of b, then of ln(b)
+      double xSq = x * x;
+      double h2b = xSq / (s * s * s) - 0.25 * s;
+      double h3b = h2b * h2b - 3d * xSq / (s * s * s * s) - 0.25;
+      double g1 = vega / price;
+      double h2 = h2b - g1;
+      double h3 = h3b - 3d * h2b * g1 + 2d * g1 * g1;
+      double newton = -value / g1;
+      double step = newton * (1d + 0.5 * h2 * newton) / (1d + newton * (h2 + h3 * newton / 6d));
+      double next = s + step;
+      if (!(next > lower && next < upper)) {
+        next = 0.5 * (lower + upper);
+      }
+      if (Math.abs(next - s) <= HOUSEHOLDER_TOLERANCE * next) {
+        return next;
+      }
+      s = next;
+    }
+    return 0d;
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Computes the implied volatility.
@@ -17,6 +17,8 @@ import com.opengamma.strata.math.impl.statistics.distribution.NormalDistribution
 import com.opengamma.strata.math.impl.statistics.distribution.ProbabilityDistribution;
 import com.opengamma.strata.product.common.PutCall;
 
+import cern.jet.stat.Probability;
+
 /**
  * The primary location for normal model formulas.
  */
@@ -41,6 +43,18 @@ public final class NormalFormulaRepository {
 
   /** Limit defining "close to ATM forward" to avoid the formula singularity in the impliedVolatilityFromBlackVolatility. **/
   private static final double ATM_LIMIT = 1.0E-3;
+  /**
+   * The square root of two pi.
+   */
+  private static final double SQRT_2PI = Math.sqrt(2d * Math.PI);
+  /**
+   * The maximal number of Householder iterations in the batch implied volatility.
+   */
+  private static final int HOUSEHOLDER_MAX_ITERATIONS = 50;
+  /**
+   * The relative tolerance on the total volatility in the batch implied volatility.
+   */
+  private static final double HOUSEHOLDER_TOLERANCE = 1e-13;
 
   // restricted constructor
   private NormalFormulaRepository() {
@@ -316,6 +330,108 @@ public final class NormalFormulaRepository {
     return sigma;
   }
 
+  /**
+   * Computes the implied volatilities of a batch of options.
+   * <p>
+   * The result is the same as calling
+   * {@link #impliedVolatility(double, double, double, double, double, double, PutCall)}
+   * for each option with a numeraire of one, within the tolerance of the solvers.
+   * The arrays must all be of the same size.
+   * <p>
+   * Each volatility is found from a closed-form initial guess by Householder iteration
+   * on the logarithm of the out-the-money price, working on primitive values only.
+   * The rare options for which the iteration does not converge are solved one by one.
+   * 
+   * @param prices  the forward prices of the options, which are the prices divided by the numeraire
+   * @param forwards  the forward values of the underlying
+   * @param strikes  the strikes
+   * @param timesToExpiry  the times to expiry
+   * @param putCall  whether the options are puts or calls
+   * @return the implied volatilities
+   */
+  public static double[] impliedVolatilities(
+      double[] prices,
+      double[] forwards,
+      double[] strikes,
+      double[] timesToExpiry,
+      PutCall putCall) {
+
+    int size = prices.length;
+    ArgChecker.isTrue(forwards.length == size, "forwards must have the same size as prices");
+    ArgChecker.isTrue(strikes.length == size, "strikes must have the same size as prices");
+    ArgChecker.isTrue(timesToExpiry.length == size, "timesToExpiry must have the same size as prices");
+    ArgChecker.notNull(putCall, "putCall");
+    double sign = putCall.isCall() ? 1d : -1d;
+    double[] volatilities = new double[size];
+    for (int i = 0; i < size; i++) {
+      double optionPrice = prices[i];
+      double forward = forwards[i];
+      double strike = strikes[i];
+      double timeToExpiry = timesToExpiry[i];
+      double intrinsicPrice = Math.max(0, sign * (forward - strike));
+      double otmPrice = optionPrice - intrinsicPrice;
+      ArgChecker.isTrue(otmPrice >= 0d || DoubleMath.fuzzyEquals(optionPrice, intrinsicPrice, 1e-6),
+          "Option price less than intrinsic value; have {}", optionPrice);
+      double totalVol = otmPrice > 0d ? impliedTotalVolatility(otmPrice, forward - strike) : 0d;
+      double rootT = Math.sqrt(timeToExpiry);
+      volatilities[i] = totalVol > 0d && rootT > 0d ?
+          totalVol / rootT :
+          impliedVolatility(optionPrice, forward, strike, timeToExpiry, 0d, 1d, putCall);
+    }
+    return volatilities;
+  }
+
+  // the total volatility of an out-the-money option, returning zero if the iterations fail to converge
+  // the price is b(s) = u N(u/s) + s n(u/s), with u = -|forward - strike|
+  private static double impliedTotalVolatility(double otmPrice, double moneyness) {
+    double u = -Math.abs(moneyness);
+    double atmGuess = SQRT_2PI * otmPrice;
+    if (u == 0d) {
+      return atmGuess;
+    }
+    // both guesses are below the root, where the iterations converge monotonically
+    double guess = otmPrice < -0.5 * u ? Math.max(atmGuess, u / -Math.sqrt(-2d * Math.log(otmPrice / -u))) : atmGuess;
+    double lnTarget = Math.log(otmPrice);
+    double uSq = u * u;
+    double lower = 0d;
+    double upper = Double.POSITIVE_INFINITY;
+    double s = guess;
+    for (int i = 0; i < HOUSEHOLDER_MAX_ITERATIONS; i++) {
+      double d = u / s;
+      double vega = Math.exp(-0.5 * d * d) / SQRT_2PI;
+      double price = u * Probability.normal(d) + s * vega;
+      if (!(price > 0d)) {
+        // underflow for low volatility
+        lower = s;
+        s = upper == Double.POSITIVE_INFINITY ? 2d * s : 0.5 * (lower + upper);
+        continue;
+      }
+      double value = Math.log(price) - lnTarget;
+      if (value > 0d) {
+        upper = s;
+      } else {
+        lower = s;
+      }
+      // ratios of derivatives of b, then of ln(b)
+      double h2b = uSq / (s * s * s);
+      double h3b = h2b * h2b - 3d * uSq / (s * s * s * s);
+      double g1 = vega / price;
+      double h2 = h2b - g1;
+      double h3 = h3b - 3d * h2b * g1 + 2d * g1 * g1;
+      double newton = -value / g1;
+      double step = newton * (1d + 0.5 * h2 * newton) / (1d + newton * (h2 + h3 * newton / 6d));
+      double next = s + step;
+      if (!(next > lower && next < upper)) {
+        next = upper == Double.POSITIVE_INFINITY ? 2d * s : 0.5 * (lower + upper);
+      }
+      if (Math.abs(next - s) <= HOUSEHOLDER_TOLERANCE * next) {
+        return next;
+      }
+      s = next;
+    }
+    return 0d;
+  }
+
   /**
    * Compute the implied volatility using an approximate explicit transformation formula.
    * <p>
@@ -194,6 +194,149 @@ public class SabrExtrapolationRightFunction {
     return price;
   }
 
+  /**
+   * Computes the option prices with numeraire=1 for a set of strikes.
+   * <p>
+   * The prices are SABR below the cut-off strike and extrapolated beyond.
+   * The SABR volatilities of the strikes below the cut-off are computed together.
+   * The prices are stored in the input array {@code prices}, which must be at least as long as the strikes.
+   * 
+   * @param strikes  the strikes of the options
+   * @param putCall  whether the options are put or call
+   * @param prices  the array used to return the option prices
+   */
+  public void price(double[] strikes, PutCall putCall, double[] prices) {
+    ArgChecker.isTrue(prices.length >= strikes.length, "prices array must be at least as long as strikes");
+    int nbStrikes = strikes.length;
+    int nbSabr = 0;
+    for (int i = 0; i < nbStrikes; i++) {
+      if (strikes[i] <= cutOffStrike) {
+        nbSabr++;
+      }
+    }
+    double[] sabrStrikes = new double[nbSabr];
+    int loopSabr = 0;
+    for (int i = 0; i < nbStrikes; i++) {
+      if (strikes[i] <= cutOffStrike) {
+        sabrStrikes[loopSabr++] = strikes[i];
+      }
+    }
+    double[] volatilities = new double[nbSabr];
+    sabrFunction.volatility(forward, sabrStrikes, timeToExpiry, sabrData, volatilities);
+    loopSabr = 0;
+    for (int i = 0; i < nbStrikes; i++) {
+      double strike = strikes[i];
+      if (strike <= cutOffStrike) {
+        prices[i] = BlackFormulaRepository.price(forward, strike, timeToExpiry, volatilities[loopSabr++], putCall.isCall());
+      } else {
+        double price = extrapolation(strike);
+        if (putCall.isPut()) { // Put by call/put parity
+          price -= (forward - strike);
+        }
+        prices[i] = price;
+      }
+    }
+  }
+
+  /**
+   * Computes the option prices and their derivatives with respect to the forward for a set of strikes.
+   * <p>
+   * The prices are SABR below the cut-off strike and extrapolated beyond.
+   * The SABR volatilities and their derivatives of the strikes below the cut-off are computed together.
+   * The results are stored in the input arrays, which must be at least as long as the strikes.
+   * 
+   * @param strikes  the strikes of the options
+   * @param putCall  whether the options are put or call
+   * @param prices  the array used to return the option prices
+   * @param derivatives  the array used to return the option price derivatives with respect to the forward
+   */
+  public void priceDerivativeForward(double[] strikes, PutCall putCall, double[] prices, double[] derivatives) {
+    ArgChecker.isTrue(prices.length >= strikes.length, "prices array must be at least as long as strikes");
+    ArgChecker.isTrue(derivatives.length >= strikes.length, "derivatives array must be at least as long as strikes");
+    double[] volatilities = new double[strikes.length];
+    double[][] volatilitiesD = new double[strikes.length][];
+    volatilityAdjoint(strikes, volatilities, volatilitiesD);
+    for (int i = 0; i < strikes.length; i++) {
+      double strike = strikes[i];
+      if (strike <= cutOffStrike) {
+        ValueDerivatives pA = BlackFormulaRepository.priceAdjoint(
+            forward, strike, timeToExpiry, volatilities[i], putCall == PutCall.CALL);
+        prices[i] = pA.getValue();
+        derivatives[i] = pA.getDerivative(0) + pA.getDerivative(3) * volatilitiesD[i][0];
+      } else {
+        prices[i] = price(strike, putCall);
+        derivatives[i] = priceDerivativeForward(strike, putCall);
+      }
+    }
+  }
+
+  /**
+   * Computes the option prices and their derivatives with respect to the SABR parameters for a set of strikes.
+   * <p>
+   * The prices are SABR below the cut-off strike and extrapolated beyond.
+   * The SABR volatilities and their derivatives of the strikes below the cut-off are computed together.
+   * The results are stored in the input arrays, which must be at least as long as the strikes.
+   * The derivatives are stored by strike, in the order of {@link #priceAdjointSabr(double, PutCall)},
+   * thus the size of the derivative array should be (number of strikes) x 4.
+   * 
+   * @param strikes  the strikes of the options
+   * @param putCall  whether the options are put or call
+   * @param prices  the array used to return the option prices
+   * @param derivatives  the array of array used to return the option price derivatives
+   */
+  public void priceAdjointSabr(double[] strikes, PutCall putCall, double[] prices, double[][] derivatives) {
+    ArgChecker.isTrue(prices.length >= strikes.length, "prices array must be at least as long as strikes");
+    ArgChecker.isTrue(derivatives.length >= strikes.length, "derivatives array must be at least as long as strikes");
+    double[] volatilities = new double[strikes.length];
+    double[][] volatilitiesD = new double[strikes.length][];
+    volatilityAdjoint(strikes, volatilities, volatilitiesD);
+    for (int i = 0; i < strikes.length; i++) {
+      double strike = strikes[i];
+      if (strike <= cutOffStrike) {
+        ValueDerivatives pA = BlackFormulaRepository.priceAdjoint(
+            forward, strike, timeToExpiry, volatilities[i], putCall == PutCall.CALL);
+        prices[i] = pA.getValue();
+        for (int loopparam = 0; loopparam < 4; loopparam++) {
+          derivatives[i][loopparam] = pA.getDerivative(3) * volatilitiesD[i][loopparam + 2];
+        }
+      } else {
+        ValueDerivatives pA = priceAdjointSabr(strike, putCall);
+        prices[i] = pA.getValue();
+        for (int loopparam = 0; loopparam < 4; loopparam++) {
+          derivatives[i][loopparam] = pA.getDerivative(loopparam);
+        }
+      }
+    }
+  }
+
+  // computes the SABR volatilities and derivatives of the strikes below the cut-off together
+  // the results are stored at the index of the strike, other indices are left unset
+  private void volatilityAdjoint(double[] strikes, double[] volatilities, double[][] volatilitiesD) {
+    int nbSabr = 0;
+    for (double strike : strikes) {
+      if (strike <= cutOffStrike) {
+        nbSabr++;
+      }
+    }
+    double[] sabrStrikes = new double[nbSabr];
+    int loopSabr = 0;
+    for (double strike : strikes) {
+      if (strike <= cutOffStrike) {
+        sabrStrikes[loopSabr++] = strike;
+      }
+    }
+    double[] sabrVolatilities = new double[nbSabr];
+    double[][] sabrVolatilitiesD = new double[nbSabr][6];
+    sabrFunction.volatilityAdjoint(forward, sabrStrikes, timeToExpiry, sabrData, sabrVolatilities, sabrVolatilitiesD);
+    loopSabr = 0;
+    for (int i = 0; i < strikes.length; i++) {
+      if (strikes[i] <= cutOffStrike) {
+        volatilities[i] = sabrVolatilities[loopSabr];
+        volatilitiesD[i] = sabrVolatilitiesD[loopSabr++];
+      }
+    }
+  }
+
   /**
    * Computes the option price derivative with respect to the strike. 
    * <p>
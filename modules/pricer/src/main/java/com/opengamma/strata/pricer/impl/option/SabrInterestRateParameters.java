@@ -398,6 +398,67 @@ public final class SabrInterestRateParameters
     return sabrFunctionProvider.volatilityAdjoint(forward + shift, strike + shift, expiry, data);
   }
 
+  /**
+   * Calculates the volatilities for given expiry, tenor, forward rate and a set of strikes.
+   * <p>
+   * The SABR parameters are interpolated once and shared by all the strikes.
+   * The volatilities are stored in the input array {@code volatilities}, which must be at least as long as the strikes.
+   * 
+   * @param expiry  the time to expiry as a year fraction
+   * @param tenor  the tenor as a year fraction
+   * @param strikes  the strikes
+   * @param forward  the forward
+   * @param volatilities  the array used to return the volatilities
+   */
+  public void volatility(double expiry, double tenor, double[] strikes, double forward, double[] volatilities) {
+    SabrFormulaData data = SabrFormulaData.of(
+        alpha(expiry, tenor), beta(expiry, tenor), rho(expiry, tenor), nu(expiry, tenor));
+    double shift = shift(expiry, tenor);
+    sabrFunctionProvider.volatility(forward + shift, shiftStrikes(strikes, shift), expiry, data, volatilities);
+  }
+
+  /**
+   * Calculates the volatilities and associated sensitivities for a set of strikes.
+   * <p>
+   * The SABR parameters are interpolated once and shared by all the strikes.
+   * The volatilities are stored in the input array {@code volatilities}.
+   * The derivatives are stored in the input array {@code volatilitiesD}, indexed by strike, then
+   * in the order of {@link #volatilityAdjoint(double, double, double, double)}.
+   * 
+   * @param expiry  the time to expiry as a year fraction
+   * @param tenor  the tenor of the instrument as a year fraction
+   * @param strikes  the strikes
+   * @param forward  the forward
+   * @param volatilities  the array used to return the volatilities
+   * @param volatilitiesD  the array of array used to return the derivatives
+   */
+  public void volatilityAdjoint(
+      double expiry,
+      double tenor,
+      double[] strikes,
+      double forward,
+      double[] volatilities,
+      double[][] volatilitiesD) {
+
+    SabrFormulaData data = SabrFormulaData.of(
+        alpha(expiry, tenor), beta(expiry, tenor), rho(expiry, tenor), nu(expiry, tenor));
+    double shift = shift(expiry, tenor);
+    sabrFunctionProvider.volatilityAdjoint(
+        forward + shift, shiftStrikes(strikes, shift), expiry, data, volatilities, volatilitiesD);
+  }
+
+  // shifts the strikes, avoiding the copy when there is no shift
+  private static double[] shiftStrikes(double[] strikes, double shift) {
+    if (shift == 0d) {
+      return strikes;
+    }
+    double[] shifted = new double[strikes.length];
+    for (int i = 0; i < strikes.length; i++) {
+      shifted[i] = strikes[i] + shift;
+    }
+    return shifted;
+  }
+
   //------------------------- AUTOGENERATED START -------------------------
   ///CLOVER:OFF
   /**
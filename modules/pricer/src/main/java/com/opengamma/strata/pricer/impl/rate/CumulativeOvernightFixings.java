@@ -0,0 +1,217 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.rate;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.opengamma.strata.basics.date.DayCount;
+import com.opengamma.strata.basics.date.HolidayCalendar;
+import com.opengamma.strata.basics.index.OvernightIndex;
+import com.opengamma.strata.collect.timeseries.LocalDateDoublePoint;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.product.rate.OvernightCompoundedRateComputation;
+
+/**
+ * Cumulative compounded products of the fixings of an overnight index.
+ * <p>
+ * The product of the daily compounding factors {@code 1 + accrualFactor * fixing} is stored cumulatively
+ * for each point of the time-series. The composition factor of any run of consecutive fixings
+ * is then obtained as the ratio of two cumulative products, without accessing the holiday calendar,
+ * the time-series or the day count for each day.
+ * <p>
+ * A run of fixings can only be compounded in this way if it has no missing fixing.
+ * Each point records whether it is the next business day after the previous point,
+ * allowing the end of the run starting from a given fixing to be found by binary search.
+ * <p>
+ * Instances are cached by time-series, index and fixing calendar.
+ * The time-series is held weakly and matched by identity.
+ */
+final class CumulativeOvernightFixings {
+
+  /**
+   * The cache, keyed by time-series, then by index and calendar.
+   */
+  private static final Cache<LocalDateDoubleTimeSeries, ConcurrentMap<Key, CumulativeOvernightFixings>> CACHE =
+      CacheBuilder.newBuilder().weakKeys().build();
+
+  /**
+   * The fixing dates, as epoch days.
+   */
+  private final long[] fixingDays;
+  /**
+   * The publication dates, as epoch days.
+   */
+  private final long[] publicationDays;
+  /**
+   * The cumulative composition factors, one longer than the fixings, starting at one.
+   */
+  private final double[] cumulativeFactors;
+  /**
+   * The number of missing fixings before each fixing, relative to the first fixing.
+   */
+  private final int[] cumulativeGaps;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains the cumulative products of the fixings for the computation.
+   *
+   * @param computation  the computation defining the index and fixing calendar
+   * @param fixings  the time-series of fixings
+   * @return the cumulative products
+   */
+  static CumulativeOvernightFixings of(
+      OvernightCompoundedRateComputation computation,
+      LocalDateDoubleTimeSeries fixings) {
+
+    Key key = new Key(computation.getIndex(), computation.getFixingCalendar());
+    try {
+      return CACHE.get(fixings, ConcurrentHashMap::new)
+          .computeIfAbsent(key, k -> new CumulativeOvernightFixings(computation, fixings));
+    } catch (ExecutionException ex) {
+      throw new IllegalStateException(ex.getCause());
+    }
+  }
+
+  // restricted constructor
+  private CumulativeOvernightFixings(
+      OvernightCompoundedRateComputation computation,
+      LocalDateDoubleTimeSeries fixings) {
+
+    HolidayCalendar calendar = computation.getFixingCalendar();
+    DayCount dayCount = computation.getIndex().getDayCount();
+    int size = fixings.size();
+    this.fixingDays = new long[size];
+    this.publicationDays = new long[size];
+    this.cumulativeFactors = new double[size + 1];
+    this.cumulativeGaps = new int[size];
+    cumulativeFactors[0] = 1d;
+    LocalDate expectedNext = null;
+    Iterator<LocalDateDoublePoint> it = fixings.stream().iterator();
+    for (int index = 0; index < size; index++) {
+      LocalDateDoublePoint point = it.next();
+      LocalDate fixingDate = point.getDate();
+      LocalDate effectiveDate = computation.calculateEffectiveFromFixing(fixingDate);
+      LocalDate maturityDate = computation.calculateMaturityFromEffective(effectiveDate);
+      double accrualFactor = dayCount.yearFraction(effectiveDate, maturityDate);
+      fixingDays[index] = fixingDate.toEpochDay();
+      publicationDays[index] = computation.calculatePublicationFromFixing(fixingDate).toEpochDay();
+      cumulativeFactors[index + 1] = cumulativeFactors[index] * (1d + accrualFactor * point.getValue());
+      int previousGaps = index == 0 ? 0 : cumulativeGaps[index - 1];
+      cumulativeGaps[index] = index == 0 || fixingDate.equals(expectedNext) ? previousGaps : previousGaps + 1;
+      expectedNext = calendar.next(fixingDate);
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Finds the index of the specified fixing date.
+   *
+   * @param fixingDate  the fixing date
+   * @return the index, negative if there is no fixing for the date
+   */
+  int indexOf(LocalDate fixingDate) {
+    int index = Arrays.binarySearch(fixingDays, fixingDate.toEpochDay());
+    return index < 0 ? -1 : index;
+  }
+
+  /**
+   * Finds the end of the run of fixings starting at the specified index.
+   * <p>
+   * The run contains the consecutive fixings with a fixing date before {@code fixingLimit}
+   * and a publication date before {@code valuationDate}.
+   *
+   * @param startIndex  the index of the first fixing of the run
+   * @param fixingLimit  the fixing date limit, exclusive
+   * @param valuationDate  the valuation date, publication must be strictly before this date
+   * @return the index after the last fixing of the run, equal to the start index if the run is empty
+   */
+  int endOfRun(int startIndex, LocalDate fixingLimit, LocalDate valuationDate) {
+    int end = lowerBound(fixingDays, fixingLimit.toEpochDay());
+    end = Math.min(end, lowerBound(publicationDays, valuationDate.toEpochDay()));
+    // first index after the start with a missing fixing before it
+    int gaps = cumulativeGaps[startIndex];
+    int low = startIndex + 1;
+    int high = end;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (cumulativeGaps[mid] > gaps) {
+        high = mid;
+      } else {
+        low = mid + 1;
+      }
+    }
+    return Math.max(startIndex, Math.min(end, low));
+  }
+
+  /**
+   * Gets the fixing date at the specified index.
+   *
+   * @param index  the index
+   * @return the fixing date
+   */
+  LocalDate getFixingDate(int index) {
+    return LocalDate.ofEpochDay(fixingDays[index]);
+  }
+
+  /**
+   * Calculates the composition factor of the fixings between the specified indices.
+   *
+   * @param startIndex  the start index, inclusive
+   * @param endIndex  the end index, exclusive
+   * @return the composition factor
+   */
+  double compositionFactor(int startIndex, int endIndex) {
+    return cumulativeFactors[endIndex] / cumulativeFactors[startIndex];
+  }
+
+  // the first index with a value not less than the target
+  private static int lowerBound(long[] values, long target) {
+    int index = Arrays.binarySearch(values, target);
+    if (index < 0) {
+      return -index - 1;
+    }
+    while (index > 0 && values[index - 1] == target) {
+      index--;
+    }
+    return index;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The cache key, matching the index by equality and the calendar by identity.
+   */
+  private static final class Key {
+    private final OvernightIndex index;
+    private final HolidayCalendar calendar;
+
+    private Key(OvernightIndex index, HolidayCalendar calendar) {
+      this.index = index;
+      this.calendar = calendar;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj instanceof Key) {
+        Key other = (Key) obj;
+        return calendar == other.calendar && index.equals(other.index);
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return index.hashCode() ^ System.identityHashCode(calendar);
+    }
+  }
+
+}
@@ -28,6 +28,10 @@ import com.opengamma.strata.product.rate.OvernightCompoundedRateComputation;
 * Rates that are already fixed are retrieved from the time series of the {@link RatesProvider}.
 * Rates that are in the future and not in the cut-off period are computed as unique forward rate in the full future period.
 * Rates that are in the cut-off period (already fixed or forward) are compounded.
+* <p>
+* The fixed rates are compounded using cumulative products of the time-series, so that a long run
+* of past fixings is compounded in a single step. The fixings that cannot be compounded in this way,
+* such as those of the cut-off period or those with a publication on the valuation date, are handled day by day.
 */
 public class ForwardOvernightCompoundedRateComputationFn
     implements RateComputationFn<OvernightCompoundedRateComputation> {
@@ -128,6 +132,19 @@ public class ForwardOvernightCompoundedRateComputationFn
       double compositionFactor = 1.0d;
       LocalDate currentFixing = firstFixing;
       LocalDate currentPublication = computation.calculatePublicationFromFixing(currentFixing);
+      // skip the run of consecutive past fixings using the cumulative products, then finish day by day
+      if (rates.getValuationDate().isAfter(currentPublication)) {
+        CumulativeOvernightFixings cumulativeFixings = CumulativeOvernightFixings.of(computation, indexFixingDateSeries);
+        int startIndex = cumulativeFixings.indexOf(firstFixing);
+        if (startIndex >= 0) {
+          int endIndex = cumulativeFixings.endOfRun(startIndex, lastFixingNonCutoff, rates.getValuationDate());
+          if (endIndex > startIndex) {
+            compositionFactor = cumulativeFixings.compositionFactor(startIndex, endIndex);
+            currentFixing = computation.getFixingCalendar().next(cumulativeFixings.getFixingDate(endIndex - 1));
+            currentPublication = computation.calculatePublicationFromFixing(currentFixing);
+          }
+        }
+      }
       while ((currentFixing.isBefore(lastFixingNonCutoff)) && // fixing in the non-cutoff period
           rates.getValuationDate().isAfter(currentPublication)) { // publication before valuation
         LocalDate effectiveDate = computation.calculateEffectiveFromFixing(currentFixing);
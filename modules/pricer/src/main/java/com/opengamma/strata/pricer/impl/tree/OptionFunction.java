@@ -131,4 +131,76 @@ public interface OptionFunction {
             transitionProbability.get(j, 1) * value.get(j + 1) + transitionProbability.get(j, 0) * value.get(j)));
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Computes the option values in the intermediate nodes in place.
+   * <p>
+   * This is equivalent to {@link #getNextOptionValues(double, double, double, double, DoubleArray, double, double, double, int)},
+   * except that the option values are read from and written to {@code values}, avoiding allocation at each step.
+   * On input, the first (2*i+3) elements of {@code values} are the option values in the (i+1)-th layer.
+   * On output, the first (2*i+1) elements are the option values in the i-th layer.
+   * <p>
+   * The array {@code stateValue} is scratch space that may be used to hold the state values of the i-th layer,
+   * its content on input is ignored. The size of both arrays must be at least (2*i+3).
+   * <p>
+   * By default, the option values are computed by {@code getNextOptionValues} and copied.
+   * Implementations should override this method to avoid the allocation.
+   * 
+   * @param discountFactor  the discount factor between the two layers
+   * @param upProbability  the up probability
+   * @param middleProbability  the middle probability
+   * @param downProbability  the down probability
+   * @param values  the option values in the (i+1)-th layer, replaced by the option values in the i-th layer
+   * @param stateValue  the scratch space for the state values
+   * @param spot  the spot
+   * @param downFactor  the down factor
+   * @param middleFactor  the middle factor
+   * @param i  the step number for which the next option values are computed
+   */
+  public default void computeNextOptionValues(
+      double discountFactor,
+      double upProbability,
+      double middleProbability,
+      double downProbability,
+      double[] values,
+      double[] stateValue,
+      double spot,
+      double downFactor,
+      double middleFactor,
+      int i) {
+
+    DoubleArray next = getNextOptionValues(discountFactor, upProbability, middleProbability, downProbability,
+        DoubleArray.copyOf(values, 0, 2 * i + 3), spot, downFactor, middleFactor, i);
+    next.copyInto(values, 0);
+  }
+
+  /**
+   * Computes the option values in the intermediate nodes in place.
+   * <p>
+   * This is equivalent to {@link #getNextOptionValues(double, DoubleMatrix, DoubleArray, DoubleArray, int)},
+   * except that the option values are read from and written to {@code values}, avoiding allocation at each step.
+   * On input, the first (2*i+3) elements of {@code values} are the option values in the (i+1)-th layer.
+   * On output, the first (2*i+1) elements are the option values in the i-th layer.
+   * <p>
+   * By default, the option values are computed by {@code getNextOptionValues} and copied.
+   * Implementations should override this method to avoid the allocation.
+   * 
+   * @param discountFactor  the discount factor between the two layers
+   * @param transitionProbability  the transition probability
+   * @param stateValue  the state value
+   * @param values  the option values in the (i+1)-th layer, replaced by the option values in the i-th layer
+   * @param i  the step number for which the next option values are computed
+   */
+  public default void computeNextOptionValues(
+      double discountFactor,
+      DoubleMatrix transitionProbability,
+      DoubleArray stateValue,
+      double[] values,
+      int i) {
+
+    DoubleArray next = getNextOptionValues(
+        discountFactor, transitionProbability, stateValue, DoubleArray.copyOf(values, 0, 2 * i + 3), i);
+    next.copyInto(values, 0);
+  }
+
 }
@@ -68,7 +68,7 @@ abstract class SingleBarrierKnockoutFunction implements OptionFunction {
     double barrierLevel = getBarrierLevel(getNumberOfSteps());
     boolean isDown = getBarrierType().isDown();
     Arrays.fill(values, rebate);
-    int index = getLowerBoundIndex(stateValue, barrierLevel);
+    int index = getLowerBoundIndex(stateValue.toArrayUnsafe(), nNodes, barrierLevel);
     ArgChecker.isTrue(index > -1 && index < nNodes - 1, "barrier is covered by tree");
     int iMin = isDown ? index + 1 : 0;
     int iMmax = !isDown ? index + 1 : nNodes;
@@ -98,46 +98,93 @@ abstract class SingleBarrierKnockoutFunction implements OptionFunction {
 
     int nNodes = 2 * i + 1;
     double[] res = new double[nNodes];
+    for (int j = 0; j < nNodes; ++j) {
+      double upProb = transitionProbability.get(j, 2);
+      double middleProb = transitionProbability.get(j, 1);
+      double downProb = transitionProbability.get(j, 0);
+      res[j] = discountFactor * (upProb * values.get(j + 2) + middleProb * values.get(j + 1) + downProb * values.get(j));
+    }
+    applyBarrier(stateValue.toArrayUnsafe(), res, i);
+    return DoubleArray.ofUnsafe(res);
+  }
+
+  @Override
+  public void computeNextOptionValues(
+      double discountFactor,
+      double upProbability,
+      double middleProbability,
+      double downProbability,
+      double[] values,
+      double[] stateValue,
+      double spot,
+      double downFactor,
+      double middleFactor,
+      int i) {
+
+    // ascending order, so that the values of the (i+1)-th layer are read before being replaced
+    int nNodes = 2 * i + 1;
+    for (int j = 0; j < nNodes; ++j) {
+      stateValue[j] = spot * Math.pow(downFactor, i - j) * Math.pow(middleFactor, j);
+      values[j] = discountFactor *
+          (upProbability * values[j + 2] + middleProbability * values[j + 1] + downProbability * values[j]);
+    }
+    applyBarrier(stateValue, values, i);
+  }
+
+  @Override
+  public void computeNextOptionValues(
+      double discountFactor,
+      DoubleMatrix transitionProbability,
+      DoubleArray stateValue,
+      double[] values,
+      int i) {
+
+    // ascending order, so that the values of the (i+1)-th layer are read before being replaced
+    int nNodes = 2 * i + 1;
+    for (int j = 0; j < nNodes; ++j) {
+      double upProb = transitionProbability.get(j, 2);
+      double middleProb = transitionProbability.get(j, 1);
+      double downProb = transitionProbability.get(j, 0);
+      values[j] = discountFactor * (upProb * values[j + 2] + middleProb * values[j + 1] + downProb * values[j]);
+    }
+    applyBarrier(stateValue.toArrayUnsafe(), values, i);
+  }
+
+  // replaces the values of the nodes beyond the barrier by the rebate, with modification around the barrier
+  private void applyBarrier(double[] stateValue, double[] values, int i) {
+    int nNodes = 2 * i + 1;
     double barrierLevel = getBarrierLevel(i);
     double rebate = getRebate(i);
     boolean isDown = getBarrierType().isDown();
     for (int j = 0; j < nNodes; ++j) {
-      if ((isDown && stateValue.get(j) <= barrierLevel) ||
-          (!isDown && stateValue.get(j) >= barrierLevel)) {
-        res[j] = rebate;
-      } else {
-        double upProb = transitionProbability.get(j, 2);
-        double middleProb = transitionProbability.get(j, 1);
-        double downProb = transitionProbability.get(j, 0);
-        res[j] = discountFactor *
-            (upProb * values.get(j + 2) + middleProb * values.get(j + 1) + downProb * values.get(j));
+      if ((isDown && stateValue[j] <= barrierLevel) ||
+          (!isDown && stateValue[j] >= barrierLevel)) {
+        values[j] = rebate;
       }
     }
     // modification if barrier lies between two consecutive nodes 
-    int index = getLowerBoundIndex(stateValue, barrierLevel);
+    int index = getLowerBoundIndex(stateValue, nNodes, barrierLevel);
     if (index > -1 && index < nNodes - 1) {
-      double bd = barrierLevel - stateValue.get(index);
-      double ub = stateValue.get(index + 1) - barrierLevel;
-      double ud = stateValue.get(index + 1) - stateValue.get(index);
+      double bd = barrierLevel - stateValue[index];
+      double ub = stateValue[index + 1] - barrierLevel;
+      double ud = stateValue[index + 1] - stateValue[index];
       if (isDown) {
-        res[index + 1] = 0.5 * res[index + 1] + 0.5 * (bd * rebate + ub * res[index + 1]) / ud;
+        values[index + 1] = 0.5 * values[index + 1] + 0.5 * (bd * rebate + ub * values[index + 1]) / ud;
       } else {
-        res[index] = 0.5 * res[index] + 0.5 * (ub * rebate + bd * res[index]) / ud;
+        values[index] = 0.5 * values[index] + 0.5 * (ub * rebate + bd * values[index]) / ud;
       }
     }
-    return DoubleArray.ofUnsafe(res);
   }
 
   //-------------------------------------------------------------------------
-  private int getLowerBoundIndex(DoubleArray set, double value) {
-    int n = set.size();
-    if (value < set.get(0)) {
+  private int getLowerBoundIndex(double[] set, int n, double value) {
+    if (value < set[0]) {
       return -1;
     }
-    if (value > set.get(n - 1)) {
+    if (value > set[n - 1]) {
       return n - 1;
     }
-    int index = Arrays.binarySearch(set.toArrayUnsafe(), value);
+    int index = Arrays.binarySearch(set, 0, n, value);
     if (index >= 0) {
       // Fast break out if it's an exact match.
       return index;
@@ -146,7 +193,7 @@ abstract class SingleBarrierKnockoutFunction implements OptionFunction {
       index = -(index + 1);
       index--;
     }
-    if (value == -0. && index < n - 1 && set.get(index + 1) == 0.) {
+    if (value == -0. && index < n - 1 && set[index + 1] == 0.) {
       ++index;
     }
     return index;
@@ -8,6 +8,7 @@ package com.opengamma.strata.pricer.impl.tree;
 import com.opengamma.strata.basics.value.ValueDerivatives;
 import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.array.DoubleMatrix;
 import com.opengamma.strata.pricer.fx.RecombiningTrinomialTreeData;
 
 /**
@@ -17,9 +18,18 @@ import com.opengamma.strata.pricer.fx.RecombiningTrinomialTreeData;
  * and the option to price is specified by {@code OptionFunction}. 
  * <p>
  * Option pricing with non-uniform tree is realised by specifying {@code RecombiningTrinomialTreeData}.
+ * <p>
+ * The backward induction is performed in place, using buffers that are reused for each step, see
+ * {@link OptionFunction#computeNextOptionValues(double, DoubleMatrix, DoubleArray, double[], int)}.
+ * The buffers are held per thread and reused between pricings.
  */
 public class TrinomialTree {
 
+  /**
+   * The scratch space of each thread, holding the option values and the state values.
+   */
+  private static final ThreadLocal<double[][]> SCRATCH = ThreadLocal.withInitial(() -> new double[2][0]);
+
   /**
    * Price an option under the specified trinomial lattice.
    * <p>
@@ -57,12 +67,14 @@ public class TrinomialTree {
     ArgChecker.isTrue(midProbability > 0d, "midProbability should be greater than 0");
     ArgChecker.isTrue(midProbability < 1d, "midProbability should be smaller than 1");
     ArgChecker.isTrue(downProbability > 0d, "downProbability should be greater than 0");
-    DoubleArray values = function.getPayoffAtExpiryTrinomial(spot, downFactor, middleFactor);
+    double[][] scratch = scratch(2 * nSteps + 1);
+    double[] values = scratch[0];
+    function.getPayoffAtExpiryTrinomial(spot, downFactor, middleFactor).copyInto(values, 0);
     for (int i = nSteps - 1; i > -1; --i) {
-      values = function.getNextOptionValues(discount, upProbability, midProbability, downProbability, values, spot,
-          downFactor, middleFactor, i);
+      function.computeNextOptionValues(discount, upProbability, midProbability, downProbability, values, scratch[1],
+          spot, downFactor, middleFactor, i);
     }
-    return values.get(0);
+    return values[0];
   }
 
   /**
@@ -78,12 +90,13 @@ public class TrinomialTree {
 
     int nSteps = data.getNumberOfSteps();
     ArgChecker.isTrue(nSteps == function.getNumberOfSteps(), "mismatch in number of steps");
-    DoubleArray values = function.getPayoffAtExpiryTrinomial(data.getStateValueAtLayer(nSteps));
+    double[] values = scratch(2 * nSteps + 1)[0];
+    function.getPayoffAtExpiryTrinomial(data.getStateValueAtLayer(nSteps)).copyInto(values, 0);
     for (int i = nSteps - 1; i > -1; --i) {
-      values = function.getNextOptionValues(
+      function.computeNextOptionValues(
           data.getDiscountFactorAtLayer(i), data.getProbabilityAtLayer(i), data.getStateValueAtLayer(i), values, i);
     }
-    return values.get(0);
+    return values[0];
   }
 
   /**
@@ -102,19 +115,30 @@ public class TrinomialTree {
 
     int nSteps = data.getNumberOfSteps();
     ArgChecker.isTrue(nSteps == function.getNumberOfSteps(), "mismatch in number of steps");
-    DoubleArray values = function.getPayoffAtExpiryTrinomial(data.getStateValueAtLayer(nSteps));
+    double[] values = scratch(2 * nSteps + 1)[0];
+    function.getPayoffAtExpiryTrinomial(data.getStateValueAtLayer(nSteps)).copyInto(values, 0);
     double delta = 0d;
     for (int i = nSteps - 1; i > -1; --i) {
-      values = function.getNextOptionValues(
+      function.computeNextOptionValues(
           data.getDiscountFactorAtLayer(i), data.getProbabilityAtLayer(i), data.getStateValueAtLayer(i), values, i);
       if (i == 1) {
         DoubleArray stateValue = data.getStateValueAtLayer(1);
-        double d1 = (values.get(2) - values.get(1)) / (stateValue.get(2) - stateValue.get(1));
-        double d2 = (values.get(1) - values.get(0)) / (stateValue.get(1) - stateValue.get(0));
+        double d1 = (values[2] - values[1]) / (stateValue.get(2) - stateValue.get(1));
+        double d2 = (values[1] - values[0]) / (stateValue.get(1) - stateValue.get(0));
         delta = 0.5 * (d1 + d2);
       }
     }
-    return ValueDerivatives.of(values.get(0), DoubleArray.of(delta));
+    return ValueDerivatives.of(values[0], DoubleArray.of(delta));
+  }
+
+  // obtains the scratch space of the current thread, with buffers of at least the specified size
+  private static double[][] scratch(int size) {
+    double[][] scratch = SCRATCH.get();
+    if (scratch[0].length < size) {
+      scratch[0] = new double[size];
+      scratch[1] = new double[size];
+    }
+    return scratch;
   }
 
 }
@@ -25,6 +25,12 @@ import com.opengamma.strata.math.impl.differentiation.VectorFieldSecondOrderDiff
  * Local volatility computation based on the exact formula. 
  * <p>
  * Bruno Dupire, "Pricing with a Smile", Risk (1994).
+ * <p>
+ * By default the local volatility is computed from the formula each time the resulting surface is evaluated.
+ * If a grid of times and strikes is specified, the formula is instead evaluated lazily at the nodes of the grid,
+ * the first time each node is required, and the results are interpolated bilinearly between the nodes.
+ * This avoids repeating the numerical differentiation when the surface is evaluated many times,
+ * for example when pricing a large number of options.
  */
 public class DupireLocalVolatilityCalculator implements LocalVolatilityCalculator {
 
@@ -34,6 +40,39 @@ public class DupireLocalVolatilityCalculator implements LocalVolatilityCalculato
   private static final VectorFieldFirstOrderDifferentiator FIRST_DERIV_SENSI = new VectorFieldFirstOrderDifferentiator();
   private static final VectorFieldSecondOrderDifferentiator SECOND_DERIV_SENSI = new VectorFieldSecondOrderDifferentiator();
 
+  /**
+   * The times of the grid, null if the local volatility is not memoised.
+   */
+  private final DoubleArray timeGrid;
+  /**
+   * The strikes of the grid, null if the local volatility is not memoised.
+   */
+  private final DoubleArray strikeGrid;
+
+  /**
+   * Creates an instance computing the local volatility from the formula for each evaluation.
+   */
+  public DupireLocalVolatilityCalculator() {
+    this.timeGrid = null;
+    this.strikeGrid = null;
+  }
+
+  /**
+   * Creates an instance memoising the local volatility on a grid.
+   * <p>
+   * The local volatility and its sensitivities are computed at the nodes of the grid when first required,
+   * then interpolated bilinearly. The extrapolation outside the grid is flat.
+   * 
+   * @param timeGrid  the times of the grid, strictly increasing
+   * @param strikeGrid  the strikes of the grid, strictly increasing
+   */
+  public DupireLocalVolatilityCalculator(DoubleArray timeGrid, DoubleArray strikeGrid) {
+    LocalVolatilityGrid.validate(timeGrid, "timeGrid");
+    LocalVolatilityGrid.validate(strikeGrid, "strikeGrid");
+    this.timeGrid = timeGrid;
+    this.strikeGrid = strikeGrid;
+  }
+
   @Override
   public DeformedSurface localVolatilityFromImpliedVolatility(
       Surface impliedVolatilitySurface,  
@@ -94,7 +133,7 @@ public class DupireLocalVolatilityCalculator implements LocalVolatilityCalculato
         .zValueType(ValueType.LOCAL_VOLATILITY)
         .surfaceName(SurfaceName.of("localVol_" + impliedVolatilitySurface.getName()))
         .build();
-    return DeformedSurface.of(metadata, impliedVolatilitySurface, func);
+    return DeformedSurface.of(metadata, impliedVolatilitySurface, memoise(func));
   }
 
   @Override
@@ -144,7 +183,12 @@ public class DupireLocalVolatilityCalculator implements LocalVolatilityCalculato
         .zValueType(ValueType.LOCAL_VOLATILITY)
         .surfaceName(SurfaceName.of("localVol_" + callPrcieSurface.getName()))
         .build();
-    return DeformedSurface.of(metadata, callPrcieSurface, func);
+    return DeformedSurface.of(metadata, callPrcieSurface, memoise(func));
+  }
+
+  // memoises the function on the grid if specified
+  private Function<DoublesPair, ValueDerivatives> memoise(Function<DoublesPair, ValueDerivatives> func) {
+    return timeGrid == null ? func : new LocalVolatilityGrid(func, timeGrid, strikeGrid);
   }
 
-}
\ No newline at end of file
+}
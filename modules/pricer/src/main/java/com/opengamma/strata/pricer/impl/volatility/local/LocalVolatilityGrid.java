@@ -0,0 +1,126 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.volatility.local;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+import com.opengamma.strata.basics.value.ValueDerivatives;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.tuple.DoublesPair;
+
+/**
+ * Local volatility function memoised on a grid of times and strikes.
+ * <p>
+ * The underlying function is evaluated lazily, the first time a node of the grid is required,
+ * and the result is retained for subsequent evaluations.
+ * The local volatility and its sensitivities are then bilinearly interpolated between the nodes.
+ * Outside the grid the extrapolation is flat.
+ * <p>
+ * This class is thread-safe. Racing threads may evaluate the same node, which is harmless as the result is the same.
+ */
+final class LocalVolatilityGrid implements Function<DoublesPair, ValueDerivatives> {
+
+  /**
+   * The underlying function.
+   */
+  private final Function<DoublesPair, ValueDerivatives> function;
+  /**
+   * The times of the grid, strictly increasing.
+   */
+  private final double[] times;
+  /**
+   * The strikes of the grid, strictly increasing.
+   */
+  private final double[] strikes;
+  /**
+   * The values at the nodes, indexed by time then strike, null until computed.
+   */
+  private final AtomicReferenceArray<ValueDerivatives> nodes;
+
+  /**
+   * Creates an instance.
+   *
+   * @param function  the underlying function
+   * @param times  the times of the grid
+   * @param strikes  the strikes of the grid
+   */
+  LocalVolatilityGrid(Function<DoublesPair, ValueDerivatives> function, DoubleArray times, DoubleArray strikes) {
+    this.function = ArgChecker.notNull(function, "function");
+    this.times = validate(times, "times");
+    this.strikes = validate(strikes, "strikes");
+    this.nodes = new AtomicReferenceArray<>(times.size() * strikes.size());
+  }
+
+  // checks the grid values are strictly increasing
+  static double[] validate(DoubleArray values, String name) {
+    ArgChecker.notNull(values, name);
+    ArgChecker.isTrue(values.size() > 1, "The grid must contain at least two {}", name);
+    for (int i = 1; i < values.size(); ++i) {
+      ArgChecker.isTrue(values.get(i) > values.get(i - 1), "The grid {} must be strictly increasing", name);
+    }
+    return values.toArrayUnsafe();
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public ValueDerivatives apply(DoublesPair x) {
+    double time = clamp(x.getFirst(), times);
+    double strike = clamp(x.getSecond(), strikes);
+    int i = lowerIndex(time, times);
+    int j = lowerIndex(strike, strikes);
+    double weightTime = (time - times[i]) / (times[i + 1] - times[i]);
+    double weightStrike = (strike - strikes[j]) / (strikes[j + 1] - strikes[j]);
+    double[] weights = new double[] {
+        (1d - weightTime) * (1d - weightStrike),
+        (1d - weightTime) * weightStrike,
+        weightTime * (1d - weightStrike),
+        weightTime * weightStrike};
+    double value = 0d;
+    double[] derivatives = null;
+    for (int n = 0; n < 4; ++n) {
+      // nodes with zero weight are not evaluated
+      if (weights[n] != 0d) {
+        ValueDerivatives node = node(i + n / 2, j + n % 2);
+        value += weights[n] * node.getValue();
+        DoubleArray nodeDerivatives = node.getDerivatives();
+        if (derivatives == null) {
+          derivatives = new double[nodeDerivatives.size()];
+        }
+        for (int k = 0; k < derivatives.length; ++k) {
+          derivatives[k] += weights[n] * nodeDerivatives.get(k);
+        }
+      }
+    }
+    return ValueDerivatives.of(value, DoubleArray.ofUnsafe(derivatives));
+  }
+
+  // obtains the value at the node, computing it if necessary
+  private ValueDerivatives node(int timeIndex, int strikeIndex) {
+    int index = timeIndex * strikes.length + strikeIndex;
+    ValueDerivatives node = nodes.get(index);
+    if (node == null) {
+      node = function.apply(DoublesPair.of(times[timeIndex], strikes[strikeIndex]));
+      nodes.set(index, node);
+    }
+    return node;
+  }
+
+  // restricts the value to the range of the grid
+  private static double clamp(double value, double[] grid) {
+    return Math.min(Math.max(value, grid[0]), grid[grid.length - 1]);
+  }
+
+  // the index of the lower end of the grid interval containing the value
+  private static int lowerIndex(double value, double[] grid) {
+    int index = Arrays.binarySearch(grid, value);
+    index = index < 0 ? -index - 2 : index;
+    return Math.min(Math.max(index, 0), grid.length - 2);
+  }
+
+}
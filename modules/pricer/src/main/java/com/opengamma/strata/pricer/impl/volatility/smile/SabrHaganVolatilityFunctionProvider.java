@@ -60,11 +60,40 @@ public final class SabrHaganVolatilityFunctionProvider
     ArgChecker.isTrue(strike >= 0.0, "strike must be greater than zero");
     ArgChecker.isTrue(timeToExpiry >= 0.0, "timeToExpiry must be greater than zero");
     ArgChecker.notNull(data, "data");
+    return volatility(forward, strike, timeToExpiry, new VolatilityTerms(data));
+  }
 
-    double alpha = data.getAlpha();
-    double beta = data.getBeta();
-    double rho = data.getRho();
-    double nu = data.getNu();
+  /**
+   * Computes the implied volatilities in the SABR model for a set of strikes.
+   * <p>
+   * The terms of the formula that do not depend on the strike are computed once for all the strikes.
+   * The volatilities are the same as those computed one strike at a time.
+   * 
+   * @param forward  the forward value of the underlying
+   * @param strikes  the strike values of the options
+   * @param timeToExpiry  the time to expiry of the options
+   * @param data  the SABR data
+   * @param volatilities  the array used to return the volatilities
+   */
+  @Override
+  public void volatility(double forward, double[] strikes, double timeToExpiry, SabrFormulaData data, double[] volatilities) {
+    ArgChecker.isTrue(forward > 0.0, "forward must be greater than zero");
+    ArgChecker.isTrue(timeToExpiry >= 0.0, "timeToExpiry must be greater than zero");
+    ArgChecker.notNull(data, "data");
+    ArgChecker.isTrue(volatilities.length >= strikes.length, "volatilities array must be at least as long as strikes");
+    VolatilityTerms terms = new VolatilityTerms(data);
+    for (int i = 0; i < strikes.length; i++) {
+      ArgChecker.isTrue(strikes[i] >= 0.0, "strike must be greater than zero");
+      volatilities[i] = volatility(forward, strikes[i], timeToExpiry, terms);
+    }
+  }
+
+  // computes the volatility using the strike independent terms
+  private double volatility(double forward, double strike, double timeToExpiry, VolatilityTerms terms) {
+    double alpha = terms.alpha;
+    double beta = terms.beta;
+    double rho = terms.rho;
+    double nu = terms.nu;
     if (alpha == 0.0) {
       return 0.0;
     }
@@ -79,25 +108,22 @@ public final class SabrHaganVolatilityFunctionProvider
       k = strike;
     }
     double vol, z, zOverChi;
-    double beta1 = 1 - beta;
+    double beta1 = terms.beta1;
     if (DoubleMath.fuzzyEquals(forward, k, ATM_EPS)) {
       double f1 = Math.pow(forward, beta1);
-      vol = alpha *
-          (1 + timeToExpiry *
-              (beta1 * beta1 * alpha * alpha / 24 / f1 / f1 + rho * alpha * beta * nu / 4 / f1 + nu * nu *
-                  (2 - 3 * rho * rho) / 24)) / f1;
+      vol = alpha * (1 + timeToExpiry * (terms.alphaTerm / f1 / f1 + terms.rhoTermAtm / f1 + terms.nuTerm)) / f1;
     } else {
-      if (DoubleMath.fuzzyEquals(beta, 0, BETA_EPS)) {
+      if (terms.betaZero) {
         double ln = Math.log(forward / k);
         z = nu * Math.sqrt(forward * k) * ln / alpha;
         zOverChi = getZOverChi(rho, z);
         vol = alpha * ln * zOverChi *
             (1 + timeToExpiry * (alpha * alpha / forward / k + nu * nu * (2 - 3 * rho * rho)) / 24) / (forward - k);
-      } else if (DoubleMath.fuzzyEquals(beta, 1, BETA_EPS)) {
+      } else if (terms.betaOne) {
         double ln = Math.log(forward / k);
         z = nu * ln / alpha;
         zOverChi = getZOverChi(rho, z);
-        vol = alpha * zOverChi * (1 + timeToExpiry * (rho * alpha * nu / 4 + nu * nu * (2 - 3 * rho * rho) / 24));
+        vol = alpha * zOverChi * (1 + timeToExpiry * (terms.rhoTermBetaOne + terms.nuTerm));
       } else {
         double ln = Math.log(forward / k);
         double f1 = Math.pow(forward * k, beta1);
@@ -107,13 +133,12 @@ public final class SabrHaganVolatilityFunctionProvider
         zOverChi = getZOverChi(rho, z);
         double first = alpha / (f1Sqrt * (1 + lnBetaSq / 24 + lnBetaSq * lnBetaSq / 1920));
         double second = zOverChi;
-        double third = 1 + timeToExpiry * (beta1 * beta1 * alpha * alpha / 24 / f1 +
-            rho * nu * beta * alpha / 4 / f1Sqrt + nu * nu * (2 - 3 * rho * rho) / 24);
+        double third = 1 + timeToExpiry * (terms.alphaTerm / f1 + terms.rhoTerm / f1Sqrt + terms.nuTerm);
         vol = first * second * third;
       }
     }
     //There is nothing to prevent the nu * nu * (2 - 3 * rho * rho) / 24 to be large negative, and hence the volatility negative
-     return Math.max(MIN_VOL, vol);
+    return Math.max(MIN_VOL, vol);
   }
 
   /**
@@ -140,7 +165,56 @@ public final class SabrHaganVolatilityFunctionProvider
     ArgChecker.isTrue(forward > 0.0, "forward must be greater than zero");
     ArgChecker.isTrue(strike >= 0.0, "strike must be greater than zero");
     ArgChecker.isTrue(timeToExpiry >= 0.0, "timeToExpiry must be greater than zero");
-    double alpha = data.getAlpha();
+    double[] derivatives = new double[6];
+    double volatility = volatilityAdjoint(forward, strike, timeToExpiry, new AdjointTerms(data), derivatives);
+    return ValueDerivatives.of(volatility, DoubleArray.ofUnsafe(derivatives));
+  }
+
+  /**
+   * Computes the implied volatilities in the SABR model and their derivatives for a set of strikes.
+   * <p>
+   * The terms of the formula that do not depend on the strike are computed once for all the strikes.
+   * The volatilities and derivatives are the same as those computed one strike at a time.
+   * The derivatives are stored by strike, each in the order of
+   * {@link #volatilityAdjoint(double, double, double, SabrFormulaData)}.
+   * Thus the size of the derivative array should be (number of strikes) x 6.
+   * 
+   * @param forward  the forward value of the underlying
+   * @param strikes  the strike values of the options
+   * @param timeToExpiry  the time to expiry of the options
+   * @param data  the SABR data
+   * @param volatilities  the array used to return the volatilities
+   * @param volatilitiesD  the array of array used to return the derivatives
+   */
+  @Override
+  public void volatilityAdjoint(
+      double forward,
+      double[] strikes,
+      double timeToExpiry,
+      SabrFormulaData data,
+      double[] volatilities,
+      double[][] volatilitiesD) {
+
+    ArgChecker.isTrue(forward > 0.0, "forward must be greater than zero");
+    ArgChecker.isTrue(timeToExpiry >= 0.0, "timeToExpiry must be greater than zero");
+    ArgChecker.isTrue(volatilities.length >= strikes.length, "volatilities array must be at least as long as strikes");
+    ArgChecker.isTrue(volatilitiesD.length >= strikes.length, "derivatives array must be at least as long as strikes");
+    AdjointTerms terms = new AdjointTerms(data);
+    for (int i = 0; i < strikes.length; i++) {
+      ArgChecker.isTrue(strikes[i] >= 0.0, "strike must be greater than zero");
+      volatilities[i] = volatilityAdjoint(forward, strikes[i], timeToExpiry, terms, volatilitiesD[i]);
+    }
+  }
+
+  // computes the volatility and its derivatives using the strike independent terms
+  private double volatilityAdjoint(
+      double forward,
+      double strike,
+      double timeToExpiry,
+      AdjointTerms terms,
+      double[] derivatives) {
+
+    double alpha = terms.alpha;
     double cutoff = forward * CUTOFF_MONEYNESS;
     double k = strike;
     if (k < cutoff) {
@@ -151,11 +225,11 @@ public final class SabrHaganVolatilityFunctionProvider
       k = cutoff;
     }
 
-    double beta = data.getBeta();
-    double betaStar = 1 - beta;
-    double rho = data.getRho();
-    double nu = data.getNu();
-    double rhoStar = 1.0 - rho;
+    double beta = terms.beta;
+    double betaStar = terms.betaStar;
+    double rho = terms.rho;
+    double nu = terms.nu;
+    double rhoStar = terms.rhoStar;
 
     if (alpha == 0.0) {
       double alphaBar;
@@ -166,19 +240,25 @@ public final class SabrHaganVolatilityFunctionProvider
         // so we return an arbitrary large number
         alphaBar = 1e7;
       }
-      return ValueDerivatives.of(0d, DoubleArray.of(0, 0, alphaBar, 0, 0, 0));
+      derivatives[0] = 0d;
+      derivatives[1] = 0d;
+      derivatives[2] = alphaBar;
+      derivatives[3] = 0d;
+      derivatives[4] = 0d;
+      derivatives[5] = 0d;
+      return 0d;
     }
 
     // Implementation note: Forward sweep.
     double sfK = Math.pow(forward * k, betaStar / 2);
     double lnrfK = Math.log(forward / k);
-    double z = nu / alpha * sfK * lnrfK;
+    double z = terms.nuOverAlpha * sfK * lnrfK;
     double rzxz;
     double xz = 0;
     if (DoubleMath.fuzzyEquals(z, 0.0, SMALL_Z)) {
       rzxz = 1.0 - 0.5 * z * rho; //small z expansion to z^2 terms
     } else {
-      if (DoubleMath.fuzzyEquals(rhoStar, 0.0, RHO_EPS)) {
+      if (terms.rhoStarZero) {
         if (z < 1.0) {
           xz = -Math.log(1.0d - z);
           rzxz = z / xz;
@@ -202,9 +282,9 @@ public final class SabrHaganVolatilityFunctionProvider
         }
       }
     }
-    double sf1 = sfK * (1 + betaStar * betaStar / 24 * (lnrfK * lnrfK) + Math.pow(betaStar, 4) / 1920 * Math.pow(lnrfK, 4));
-    double sf2 = (1 + (Math.pow(betaStar * alpha / sfK, 2) / 24 + (rho * beta * nu * alpha) /
-        (4 * sfK) + (2 - 3 * rho * rho) * nu * nu / 24) * timeToExpiry);
+    double sf1 = sfK * (1 + terms.betaStar2Over24 * (lnrfK * lnrfK) + terms.betaStar4Over1920 * Math.pow(lnrfK, 4));
+    double sf2 = (1 + (Math.pow(terms.betaStarAlpha / sfK, 2) / 24 + terms.rhoBetaNuAlpha /
+        (4 * sfK) + terms.nuTerm) * timeToExpiry);
     double volatility = Math.max(MIN_VOL, alpha / sf1 * rzxz * sf2);
 
     // Implementation note: Backward sweep.
@@ -217,7 +297,7 @@ public final class SabrHaganVolatilityFunctionProvider
     if (DoubleMath.fuzzyEquals(z, 0.0, SMALL_Z)) {
       zBar = -rho / 2 * rzxzBar;
     } else {
-      if (DoubleMath.fuzzyEquals(rhoStar, 0.0, RHO_EPS)) {
+      if (terms.rhoStarZero) {
         if (z < 1.0) {
           xzBar = -z / (xz * xz) * rzxzBar;
           zBar = 1.0d / xz * rzxzBar + 1.0d / (1.0d - z) * xzBar;
@@ -237,20 +317,20 @@ public final class SabrHaganVolatilityFunctionProvider
       }
     }
 
-    double lnrfKBar = sfK * (betaStar * betaStar / 12 * lnrfK + Math.pow(betaStar, 4) / 1920 * 4 * Math.pow(lnrfK, 3))
-        * sf1Bar + nu / alpha * sfK * zBar;
-    double sfKBar = nu / alpha * lnrfK * zBar + sf1 / sfK * sf1Bar - (Math.pow(betaStar * alpha, 2) / Math.pow(sfK, 3)
-        / 12 + (rho * beta * nu * alpha) / 4 / (sfK * sfK)) * timeToExpiry * sf2Bar;
+    double lnrfKBar = sfK * (terms.betaStar2Over12 * lnrfK + terms.betaStar4Over1920 * 4 * Math.pow(lnrfK, 3))
+        * sf1Bar + terms.nuOverAlpha * sfK * zBar;
+    double sfKBar = terms.nuOverAlpha * lnrfK * zBar + sf1 / sfK * sf1Bar - (terms.betaStarAlpha2 / Math.pow(sfK, 3)
+        / 12 + terms.rhoBetaNuAlpha / 4 / (sfK * sfK)) * timeToExpiry * sf2Bar;
     double strikeBar = -1 / k * lnrfKBar + betaStar * sfK / (2 * k) * sfKBar;
     double forwardBar = 1 / forward * lnrfKBar + betaStar * sfK / (2 * forward) * sfKBar;
-    double nuBar = 1 / alpha * sfK * lnrfK * zBar + ((rho * beta * alpha) / (4 * sfK)
-        + (2 - 3 * rho * rho) * nu / 12) * timeToExpiry * sf2Bar;
+    double nuBar = terms.oneOverAlpha * sfK * lnrfK * zBar + (terms.rhoBetaAlpha / (4 * sfK)
+        + terms.nuTermBar) * timeToExpiry * sf2Bar;
 
     double rhoBar;
     if (Math.abs(forward - k) < ATM_EPS) {
       rhoBar = -z / 2 * rzxzBar;
     } else {
-      if (DoubleMath.fuzzyEquals(rhoStar, 0.0, RHO_EPS)) {
+      if (terms.rhoStarZero) {
         if (z >= 1) {
           if (rhoStar == 0.0) {
             rhoBar = Double.NEGATIVE_INFINITY; //the derivative at rho = 1 is infinite  - this sets it to some arbitrary large number
@@ -266,15 +346,21 @@ public final class SabrHaganVolatilityFunctionProvider
             (-Math.pow(1 - 2 * rho * z + z * z, -0.5) * z - 1) + 1 / rhoStar) * xzBar;
       }
     }
-    rhoBar += ((beta * nu * alpha) / (4 * sfK) - rho * nu * nu / 4) * timeToExpiry * sf2Bar;
+    rhoBar += (terms.betaNuAlpha / (4 * sfK) - terms.rhoNuNuOver4) * timeToExpiry * sf2Bar;
 
-    double alphaBar = -nu / (alpha * alpha) * sfK * lnrfK * zBar + ((betaStar * alpha / sfK) * (betaStar / sfK) / 12
-        + (rho * beta * nu) / (4 * sfK)) * timeToExpiry * sf2Bar + 1 / sf1 * rzxz * sf2 * vBar;
+    double alphaBar = terms.minusNuOverAlpha2 * sfK * lnrfK * zBar + ((terms.betaStarAlpha / sfK) * (betaStar / sfK) / 12
+        + terms.rhoBetaNu / (4 * sfK)) * timeToExpiry * sf2Bar + 1 / sf1 * rzxz * sf2 * vBar;
     double betaBar = -0.5 * Math.log(forward * k) * sfK * sfKBar - sfK *
-        (betaStar / 12 * (lnrfK * lnrfK) + Math.pow(betaStar, 3) / 480 * Math.pow(lnrfK, 4)) * sf1Bar
-        + (-betaStar * alpha * alpha / sfK / sfK / 12 + rho * nu * alpha / 4 / sfK) * timeToExpiry * sf2Bar;
-
-    return ValueDerivatives.of(volatility, DoubleArray.of(forwardBar, strikeBar, alphaBar, betaBar, rhoBar, nuBar));
+        (terms.betaStarOver12 * (lnrfK * lnrfK) + terms.betaStar3Over480 * Math.pow(lnrfK, 4)) * sf1Bar
+        + (terms.minusBetaStarAlpha2 / sfK / sfK / 12 + terms.rhoNuAlphaOver4 / sfK) * timeToExpiry * sf2Bar;
+
+    derivatives[0] = forwardBar;
+    derivatives[1] = strikeBar;
+    derivatives[2] = alphaBar;
+    derivatives[3] = betaBar;
+    derivatives[4] = rhoBar;
+    derivatives[5] = nuBar;
+    return volatility;
   }
 
   /**
@@ -551,6 +637,101 @@ public final class SabrHaganVolatilityFunctionProvider
     return "SABR (Hagan)";
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * The strike independent terms of the volatility formula.
+   */
+  private static final class VolatilityTerms {
+    private final double alpha;
+    private final double beta;
+    private final double rho;
+    private final double nu;
+    private final double beta1;
+    private final double alphaTerm;
+    private final double rhoTermAtm;
+    private final double rhoTerm;
+    private final double rhoTermBetaOne;
+    private final double nuTerm;
+    private final boolean betaZero;
+    private final boolean betaOne;
+
+    private VolatilityTerms(SabrFormulaData data) {
+      alpha = data.getAlpha();
+      beta = data.getBeta();
+      rho = data.getRho();
+      nu = data.getNu();
+      beta1 = 1 - beta;
+      alphaTerm = beta1 * beta1 * alpha * alpha / 24;
+      rhoTermAtm = rho * alpha * beta * nu / 4;
+      rhoTerm = rho * nu * beta * alpha / 4;
+      rhoTermBetaOne = rho * alpha * nu / 4;
+      nuTerm = nu * nu * (2 - 3 * rho * rho) / 24;
+      betaZero = DoubleMath.fuzzyEquals(beta, 0, BETA_EPS);
+      betaOne = DoubleMath.fuzzyEquals(beta, 1, BETA_EPS);
+    }
+  }
+
+  /**
+   * The strike independent terms of the volatility adjoint formula.
+   */
+  private static final class AdjointTerms {
+    private final double alpha;
+    private final double beta;
+    private final double betaStar;
+    private final double rho;
+    private final double nu;
+    private final double rhoStar;
+    private final boolean rhoStarZero;
+    private final double betaStar2Over24;
+    private final double betaStar4Over1920;
+    private final double betaStar2Over12;
+    private final double betaStar3Over480;
+    private final double betaStarOver12;
+    private final double betaStarAlpha;
+    private final double betaStarAlpha2;
+    private final double minusBetaStarAlpha2;
+    private final double nuTerm;
+    private final double nuTermBar;
+    private final double rhoBetaNuAlpha;
+    private final double rhoBetaAlpha;
+    private final double rhoBetaNu;
+    private final double betaNuAlpha;
+    private final double rhoNuNuOver4;
+    private final double rhoNuAlphaOver4;
+    private final double nuOverAlpha;
+    private final double oneOverAlpha;
+    private final double minusNuOverAlpha2;
+
+    private AdjointTerms(SabrFormulaData data) {
+      alpha = data.getAlpha();
+      beta = data.getBeta();
+      betaStar = 1 - beta;
+      rho = data.getRho();
+      nu = data.getNu();
+      rhoStar = 1.0 - rho;
+      rhoStarZero = DoubleMath.fuzzyEquals(rhoStar, 0.0, RHO_EPS);
+      betaStar2Over24 = betaStar * betaStar / 24;
+      betaStar4Over1920 = Math.pow(betaStar, 4) / 1920;
+      betaStar2Over12 = betaStar * betaStar / 12;
+      betaStar3Over480 = Math.pow(betaStar, 3) / 480;
+      betaStarOver12 = betaStar / 12;
+      betaStarAlpha = betaStar * alpha;
+      betaStarAlpha2 = Math.pow(betaStar * alpha, 2);
+      minusBetaStarAlpha2 = -betaStar * alpha * alpha;
+      nuTerm = (2 - 3 * rho * rho) * nu * nu / 24;
+      nuTermBar = (2 - 3 * rho * rho) * nu / 12;
+      rhoBetaNuAlpha = rho * beta * nu * alpha;
+      rhoBetaAlpha = rho * beta * alpha;
+      rhoBetaNu = rho * beta * nu;
+      betaNuAlpha = beta * nu * alpha;
+      rhoNuNuOver4 = rho * nu * nu / 4;
+      rhoNuAlphaOver4 = rho * nu * alpha / 4;
+      nuOverAlpha = nu / alpha;
+      oneOverAlpha = 1 / alpha;
+      minusNuOverAlpha2 = -nu / (alpha * alpha);
+    }
+  }
+
   //------------------------- AUTOGENERATED START -------------------------
   ///CLOVER:OFF
   /**
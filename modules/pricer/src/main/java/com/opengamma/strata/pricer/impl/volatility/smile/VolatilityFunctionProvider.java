@@ -56,6 +56,64 @@ public abstract class VolatilityFunctionProvider<T extends SmileModelData> {
     return ValueDerivatives.of(volatility, DoubleArray.ofUnsafe(res));
   }
 
+  /**
+   * Calculates the volatilities for a set of strikes.
+   * <p>
+   * The forward, time to expiry and model data are shared by all the strikes.
+   * The volatilities are stored in the input array {@code volatilities}, which must be at least as long as the strikes.
+   * <p>
+   * By default each strike is computed in turn.
+   * This should be overridden in subclasses that can share the strike independent part of the computation.
+   * 
+   * @param forward  the forward value of the underlying
+   * @param strikes  the strike values of the options
+   * @param timeToExpiry  the time to expiry of the options
+   * @param data  the model data
+   * @param volatilities  the array used to return the volatilities
+   */
+  public void volatility(double forward, double[] strikes, double timeToExpiry, T data, double[] volatilities) {
+    ArgChecker.isTrue(volatilities.length >= strikes.length, "volatilities array must be at least as long as strikes");
+    for (int i = 0; i < strikes.length; i++) {
+      volatilities[i] = volatility(forward, strikes[i], timeToExpiry, data);
+    }
+  }
+
+  /**
+   * Calculates the volatilities and the adjoints for a set of strikes.
+   * <p>
+   * The forward, time to expiry and model data are shared by all the strikes.
+   * The volatilities are stored in the input array {@code volatilities}, which must be at least as long as the strikes.
+   * The derivatives are stored in the input array {@code volatilitiesD}, indexed by strike then
+   * in the order of {@link #volatilityAdjoint(double, double, double, SmileModelData)}.
+   * Thus the size should be (number of strikes) x (2 + number of model parameters).
+   * <p>
+   * By default each strike is computed in turn.
+   * This should be overridden in subclasses that can share the strike independent part of the computation.
+   * 
+   * @param forward  the forward value of the underlying
+   * @param strikes  the strike values of the options
+   * @param timeToExpiry  the time to expiry of the options
+   * @param data  the model data
+   * @param volatilities  the array used to return the volatilities
+   * @param volatilitiesD  the array of array used to return the derivatives
+   */
+  public void volatilityAdjoint(
+      double forward,
+      double[] strikes,
+      double timeToExpiry,
+      T data,
+      double[] volatilities,
+      double[][] volatilitiesD) {
+
+    ArgChecker.isTrue(volatilities.length >= strikes.length, "volatilities array must be at least as long as strikes");
+    ArgChecker.isTrue(volatilitiesD.length >= strikes.length, "derivatives array must be at least as long as strikes");
+    for (int i = 0; i < strikes.length; i++) {
+      ValueDerivatives volatilityAdjoint = volatilityAdjoint(forward, strikes[i], timeToExpiry, data);
+      volatilities[i] = volatilityAdjoint.getValue();
+      volatilityAdjoint.getDerivatives().copyInto(volatilitiesD[i], 0);
+    }
+  }
+
   /**
    * Computes the first and second order derivatives of the volatility. 
    * <p>
@@ -0,0 +1,148 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ * 
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.swaption;
+
+import java.time.LocalDate;
+
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.pricer.impl.montecarlo.HullWhiteCashFlowPathPricer;
+import com.opengamma.strata.pricer.impl.montecarlo.HullWhitePathSimulator;
+import com.opengamma.strata.pricer.impl.montecarlo.MonteCarloEngine;
+import com.opengamma.strata.pricer.impl.rate.swap.CashFlowEquivalentCalculator;
+import com.opengamma.strata.pricer.index.HullWhiteOneFactorPiecewiseConstantParametersProvider;
+import com.opengamma.strata.pricer.rate.RatesProvider;
+import com.opengamma.strata.pricer.swap.PaymentEventPricer;
+import com.opengamma.strata.product.swap.PaymentEvent;
+import com.opengamma.strata.product.swap.ResolvedSwap;
+import com.opengamma.strata.product.swap.ResolvedSwapLeg;
+import com.opengamma.strata.product.swaption.ResolvedSwaption;
+import com.opengamma.strata.product.swaption.SettlementType;
+
+/**
+ * Pricer for swaption with physical settlement in Hull-White one factor model with piecewise constant volatility
+ * by Monte Carlo simulation.
+ * <p>
+ * The short rate paths are simulated up to the expiry and the underlying swap is valued at expiry
+ * on each path from its cash flow equivalent.
+ * The analytic price is provided by {@link HullWhiteSwaptionPhysicalProductPricer}.
+ * This pricer is a benchmark of the simulation engine and the base of path-dependent extensions.
+ */
+public class HullWhiteMonteCarloSwaptionPhysicalProductPricer {
+
+  /**
+   * Default implementation.
+   * <p>
+   * This uses 100,000 paths with antithetic variates.
+   */
+  public static final HullWhiteMonteCarloSwaptionPhysicalProductPricer DEFAULT =
+      new HullWhiteMonteCarloSwaptionPhysicalProductPricer(
+          MonteCarloEngine.of(100_000, 0L, true), PaymentEventPricer.standard());
+
+  /**
+   * The Monte Carlo engine.
+   */
+  private final MonteCarloEngine engine;
+  /**
+   * Pricer for {@link PaymentEvent}.
+   */
+  private final PaymentEventPricer<PaymentEvent> paymentEventPricer;
+
+  /**
+   * Creates an instance.
+   * 
+   * @param engine  the Monte Carlo engine
+   * @param paymentEventPricer  the pricer for {@link PaymentEvent}
+   */
+  public HullWhiteMonteCarloSwaptionPhysicalProductPricer(
+      MonteCarloEngine engine,
+      PaymentEventPricer<PaymentEvent> paymentEventPricer) {
+
+    this.engine = ArgChecker.notNull(engine, "engine");
+    this.paymentEventPricer = ArgChecker.notNull(paymentEventPricer, "paymentEventPricer");
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Calculates the present value of the swaption product.
+   * <p>
+   * The result is expressed using the currency of the swapion.
+   * 
+   * @param swaption  the product
+   * @param ratesProvider  the rates provider
+   * @param hwProvider  the Hull-White model parameter provider
+   * @return the present value
+   */
+  public CurrencyAmount presentValue(
+      ResolvedSwaption swaption,
+      RatesProvider ratesProvider,
+      HullWhiteOneFactorPiecewiseConstantParametersProvider hwProvider) {
+
+    validate(swaption, ratesProvider, hwProvider);
+    ResolvedSwap swap = swaption.getUnderlying();
+    LocalDate expiryDate = swaption.getExpiryDate();
+    if (expiryDate.isBefore(ratesProvider.getValuationDate())) { // Option has expired already
+      return CurrencyAmount.of(swap.getLegs().get(0).getCurrency(), 0d);
+    }
+    ResolvedSwapLeg cashFlowEquiv = CashFlowEquivalentCalculator.cashFlowEquivalentSwap(swap, ratesProvider);
+    int nPayments = cashFlowEquiv.getPaymentEvents().size();
+    double[] paymentTimes = new double[nPayments];
+    double[] discountedCashFlow = new double[nPayments];
+    for (int loopcf = 0; loopcf < nPayments; loopcf++) {
+      PaymentEvent payment = cashFlowEquiv.getPaymentEvents().get(loopcf);
+      paymentTimes[loopcf] = hwProvider.relativeTime(payment.getPaymentDate());
+      discountedCashFlow[loopcf] = paymentEventPricer.presentValue(payment, ratesProvider);
+    }
+    double expiryTime = hwProvider.relativeTime(expiryDate);
+    HullWhitePathSimulator simulator = HullWhitePathSimulator.of(hwProvider.getParameters(), DoubleArray.of(expiryTime));
+    double discountFactor = ratesProvider.discountFactor(cashFlowEquiv.getCurrency(), expiryDate);
+    HullWhiteCashFlowPathPricer pathPricer = HullWhiteCashFlowPathPricer.of(
+        simulator, DoubleArray.ofUnsafe(paymentTimes), DoubleArray.ofUnsafe(discountedCashFlow),
+        DoubleArray.of(discountFactor));
+    double[] paths = engine.simulate(simulator);
+    int nPaths = engine.getPathCount();
+    double pv = 0d;
+    for (int path = 0; path < nPaths; path++) {
+      double value = pathPricer.value(paths, path, 0);
+      if (value > 0d) {
+        pv += value * pathPricer.deflator(paths, path, 0);
+      }
+    }
+    pv /= nPaths;
+    return CurrencyAmount.of(cashFlowEquiv.getCurrency(), pv * (swaption.getLongShort().isLong() ? 1d : -1d));
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Calculates the currency exposure of the swaption product.
+   * 
+   * @param swaption  the product
+   * @param ratesProvider  the rates provider
+   * @param hwProvider  the Hull-White model parameter provider
+   * @return the currency exposure
+   */
+  public MultiCurrencyAmount currencyExposure(
+      ResolvedSwaption swaption,
+      RatesProvider ratesProvider,
+      HullWhiteOneFactorPiecewiseConstantParametersProvider hwProvider) {
+
+    return MultiCurrencyAmount.of(presentValue(swaption, ratesProvider, hwProvider));
+  }
+
+  //-------------------------------------------------------------------------
+  // validate that the rates and volatilities providers are coherent
+  private void validate(ResolvedSwaption swaption, RatesProvider ratesProvider,
+      HullWhiteOneFactorPiecewiseConstantParametersProvider hwProvider) {
+    ArgChecker.isTrue(hwProvider.getValuationDateTime().toLocalDate().equals(ratesProvider.getValuationDate()),
+        "Hull-White model data and rate data should be for the same date");
+    ArgChecker.isFalse(swaption.getUnderlying().isCrossCurrency(), "underlying swap should be single currency");
+    ArgChecker.isTrue(swaption.getSwaptionSettlement().getSettlementType().equals(SettlementType.PHYSICAL),
+        "swaption should be physical settlement");
+  }
+
+}
@@ -213,6 +213,23 @@ public final class SabrParametersSwaptionVolatilities
     return parameters.volatilityAdjoint(expiry, tenor, strike, forward);
   }
 
+  @Override
+  public void volatility(double expiry, double tenor, double[] strikes, double forward, double[] volatilities) {
+    parameters.volatility(expiry, tenor, strikes, forward, volatilities);
+  }
+
+  @Override
+  public void volatilityAdjoint(
+      double expiry,
+      double tenor,
+      double[] strikes,
+      double forward,
+      double[] volatilities,
+      double[][] volatilitiesD) {
+
+    parameters.volatilityAdjoint(expiry, tenor, strikes, forward, volatilities, volatilitiesD);
+  }
+
   @Override
   public double shift(double expiry, double tenor) {
     return parameters.shift(expiry, tenor);
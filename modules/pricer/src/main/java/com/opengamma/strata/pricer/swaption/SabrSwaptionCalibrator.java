@@ -11,6 +11,7 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import com.opengamma.strata.basics.ReferenceData;
 import com.opengamma.strata.basics.date.BusinessDayAdjustment;
@@ -199,68 +200,218 @@ public class SabrSwaptionCalibrator {
       GridInterpolator2D interpolator,
       boolean stopOnMathException) {
 
-    BitSet fixed = new BitSet();
-    fixed.set(1); // Beta fixed
+    return calibrateCube(
+        name,
+        convention,
+        calibrationDateTime,
+        dayCount,
+        tenors,
+        data,
+        ratesProvider,
+        betaSurface,
+        shiftSurface,
+        interpolator,
+        stopOnMathException,
+        false,
+        null);
+  }
+
+  /**
+   * Calibrate SABR parameters to a set of raw swaption data, calibrating the nodes in parallel.
+   * <p>
+   * The SABR parameters are calibrated with fixed beta and fixed shift surfaces.
+   * The raw data can be (shifted) log-normal volatilities, normal volatilities or option prices
+   * <p>
+   * The tenors are calibrated concurrently. Within a tenor, each expiry is warm-started from the
+   * parameters calibrated for the previous expiry, falling back to the standard starting points
+   * if the warm-started fit is not within the data error.
+   * A warm-started fit within the data error is kept without trying the standard starting points.
+   * The fit is therefore within the data error, but the parameters may differ from those of the
+   * sequential calibration, which keeps the best fit of the standard starting points.
+   * 
+   * @param name  the name
+   * @param convention  the swaption underlying convention
+   * @param calibrationDateTime  the data and time of the calibration
+   * @param dayCount  the day-count used for expiry time computation
+   * @param tenors  the tenors associated to the different raw option data
+   * @param data  the list of raw option data
+   * @param ratesProvider  the rate provider used to compute the swap forward rates
+   * @param betaSurface  the beta surface
+   * @param shiftSurface  the shift surface
+   * @param interpolator  the interpolator for the alpha, rho and nu surfaces
+   * @param stopOnMathException  flag indicating if the calibration should stop on math exceptions or skip the 
+   *   expiries/tenors which throw MathException
+   * @return the SABR volatility object
+   */
+  public SabrParametersSwaptionVolatilities calibrateWithFixedBetaAndShiftParallel(
+      SwaptionVolatilitiesName name,
+      FixedIborSwapConvention convention,
+      ZonedDateTime calibrationDateTime,
+      DayCount dayCount,
+      List<Tenor> tenors,
+      List<RawOptionData> data,
+      RatesProvider ratesProvider,
+      Surface betaSurface,
+      Surface shiftSurface,
+      GridInterpolator2D interpolator,
+      boolean stopOnMathException) {
+
+    return calibrateCube(
+        name,
+        convention,
+        calibrationDateTime,
+        dayCount,
+        tenors,
+        data,
+        ratesProvider,
+        betaSurface,
+        shiftSurface,
+        interpolator,
+        stopOnMathException,
+        true,
+        null);
+  }
+
+  /**
+   * Calibrate SABR parameters to a set of raw swaption data, calibrating the nodes in parallel
+   * and starting from previously calibrated parameters.
+   * <p>
+   * The SABR parameters are calibrated with fixed beta and fixed shift surfaces.
+   * The raw data can be (shifted) log-normal volatilities, normal volatilities or option prices
+   * <p>
+   * Each node is warm-started from the parameters of the starting volatilities at the same expiry and tenor,
+   * typically the result of the previous day's calibration. As the nodes are then independent,
+   * all of them are calibrated concurrently. If the warm-started fit is not within the data error,
+   * the standard starting points are used.
+   * A warm-started fit within the data error is kept without trying the standard starting points.
+   * The fit is therefore within the data error, but the parameters may differ from those of the
+   * sequential calibration, which keeps the best fit of the standard starting points.
+   * 
+   * @param name  the name
+   * @param convention  the swaption underlying convention
+   * @param calibrationDateTime  the data and time of the calibration
+   * @param dayCount  the day-count used for expiry time computation
+   * @param tenors  the tenors associated to the different raw option data
+   * @param data  the list of raw option data
+   * @param ratesProvider  the rate provider used to compute the swap forward rates
+   * @param betaSurface  the beta surface
+   * @param shiftSurface  the shift surface
+   * @param interpolator  the interpolator for the alpha, rho and nu surfaces
+   * @param stopOnMathException  flag indicating if the calibration should stop on math exceptions or skip the 
+   *   expiries/tenors which throw MathException
+   * @param startingVolatilities  the volatilities providing the starting parameters
+   * @return the SABR volatility object
+   */
+  public SabrParametersSwaptionVolatilities calibrateWithFixedBetaAndShiftParallel(
+      SwaptionVolatilitiesName name,
+      FixedIborSwapConvention convention,
+      ZonedDateTime calibrationDateTime,
+      DayCount dayCount,
+      List<Tenor> tenors,
+      List<RawOptionData> data,
+      RatesProvider ratesProvider,
+      Surface betaSurface,
+      Surface shiftSurface,
+      GridInterpolator2D interpolator,
+      boolean stopOnMathException,
+      SabrParametersSwaptionVolatilities startingVolatilities) {
+
+    ArgChecker.notNull(startingVolatilities, "startingVolatilities");
+    return calibrateCube(
+        name,
+        convention,
+        calibrationDateTime,
+        dayCount,
+        tenors,
+        data,
+        ratesProvider,
+        betaSurface,
+        shiftSurface,
+        interpolator,
+        stopOnMathException,
+        true,
+        startingVolatilities.getParameters());
+  }
+
+  // calibrates all the nodes and assembles the surfaces once at the end
+  // in parallel mode, the nodes are warm-started from the starting parameters if present,
+  // otherwise from the previous expiry of the same tenor
+  private SabrParametersSwaptionVolatilities calibrateCube(
+      SwaptionVolatilitiesName name,
+      FixedIborSwapConvention convention,
+      ZonedDateTime calibrationDateTime,
+      DayCount dayCount,
+      List<Tenor> tenors,
+      List<RawOptionData> data,
+      RatesProvider ratesProvider,
+      Surface betaSurface,
+      Surface shiftSurface,
+      GridInterpolator2D interpolator,
+      boolean stopOnMathException,
+      boolean parallel,
+      SabrInterestRateParameters startingParameters) {
+
     int nbTenors = tenors.size();
-    BusinessDayAdjustment bda = convention.getFloatingLeg().getStartDateBusinessDayAdjustment();
-    LocalDate calibrationDate = calibrationDateTime.toLocalDate();
-    DoubleArray timeToExpiryArray = DoubleArray.EMPTY;
-    DoubleArray timeTenorArray = DoubleArray.EMPTY;
-    DoubleArray alphaArray = DoubleArray.EMPTY;
-    DoubleArray rhoArray = DoubleArray.EMPTY;
-    DoubleArray nuArray = DoubleArray.EMPTY;
-    List<ParameterMetadata> parameterMetadata = new ArrayList<>();
-    List<DoubleArray> dataSensitivityAlpha = new ArrayList<>(); // Sensitivity to the calibrating data
-    List<DoubleArray> dataSensitivityRho = new ArrayList<>();
-    List<DoubleArray> dataSensitivityNu = new ArrayList<>();
+    SabrNode[][] nodes = new SabrNode[nbTenors][];
     for (int looptenor = 0; looptenor < nbTenors; looptenor++) {
-      double timeTenor = tenors.get(looptenor).getPeriod().getYears() + tenors.get(looptenor).getPeriod().getMonths() / 12;
-      List<Period> expiries = data.get(looptenor).getExpiries();
-      int nbExpiries = expiries.size();
-      for (int loopexpiry = 0; loopexpiry < nbExpiries; loopexpiry++) {
-        Pair<DoubleArray, DoubleArray> availableSmile = data.get(looptenor).availableSmileAtExpiry(expiries.get(loopexpiry));
-        if (availableSmile.getFirst().size() == 0) { // If not data is available, no calibration possible
-          continue;
+      nodes[looptenor] = new SabrNode[data.get(looptenor).getExpiries().size()];
+    }
+    if (parallel && startingParameters != null) {
+      // all the nodes are independent
+      List<int[]> indices = new ArrayList<>();
+      for (int looptenor = 0; looptenor < nbTenors; looptenor++) {
+        for (int loopexpiry = 0; loopexpiry < nodes[looptenor].length; loopexpiry++) {
+          indices.add(new int[] {looptenor, loopexpiry});
         }
-        LocalDate exerciseDate = expirationDate(bda, calibrationDate, expiries.get(loopexpiry));
-        LocalDate effectiveDate = convention.calculateSpotDateFromTradeDate(exerciseDate, refData);
-        double timeToExpiry = dayCount.relativeYearFraction(calibrationDate, exerciseDate);
-        double beta = betaSurface.zValue(timeToExpiry, timeTenor);
-        double shift = shiftSurface.zValue(timeToExpiry, timeTenor);
-        LocalDate endDate = effectiveDate.plus(tenors.get(looptenor));
-        SwapTrade swap0 = convention.toTrade(calibrationDate, effectiveDate, endDate, BuySell.BUY, 1.0, 0.0);
-        double forward = swapPricer.parRate(swap0.getProduct().resolve(refData), ratesProvider);
-        SabrFormulaData sabrPoint = null;
-        DoubleMatrix inverseJacobian = null;
-        boolean error = false;
-        try {
-          Pair<SabrFormulaData, DoubleMatrix> calibrationResult =
-              calibration(forward, shift, beta, fixed, bda, calibrationDateTime, dayCount,
-                  availableSmile.getFirst(), availableSmile.getSecond(), expiries.get(loopexpiry), data.get(looptenor));
-          sabrPoint = calibrationResult.getFirst();
-          inverseJacobian = calibrationResult.getSecond();
-        } catch (MathException e) {
-          error = true;
-          if (stopOnMathException) {
-            String message = Messages.format("{} at expiry {} and tenor {}", e.getMessage(),
-                expiries.get(loopexpiry), tenors.get(looptenor));
-            throw new MathException(message, e);
+      }
+      indices.parallelStream().forEach(index -> nodes[index[0]][index[1]] = calibrateNode(
+          convention, calibrationDateTime, dayCount, tenors.get(index[0]), data.get(index[0]), index[1],
+          ratesProvider, betaSurface, shiftSurface, stopOnMathException, startingParameters, null));
+    } else {
+      IntStream tenorIndices = IntStream.range(0, nbTenors);
+      (parallel ? tenorIndices.parallel() : tenorIndices).forEach(looptenor -> {
+        SabrFormulaData previous = null;
+        for (int loopexpiry = 0; loopexpiry < nodes[looptenor].length; loopexpiry++) {
+          SabrNode node = calibrateNode(
+              convention, calibrationDateTime, dayCount, tenors.get(looptenor), data.get(looptenor), loopexpiry,
+              ratesProvider, betaSurface, shiftSurface, stopOnMathException, null, previous);
+          nodes[looptenor][loopexpiry] = node;
+          if (parallel && node != null) {
+            previous = node.parameters;
           }
         }
-        if (!error) {
-          timeToExpiryArray = timeToExpiryArray.concat(timeToExpiry);
-          timeTenorArray = timeTenorArray.concat(timeTenor);
-          alphaArray = alphaArray.concat(sabrPoint.getAlpha());
-          rhoArray = rhoArray.concat(sabrPoint.getRho());
-          nuArray = nuArray.concat(sabrPoint.getNu());
-          parameterMetadata.add(
-              SwaptionSurfaceExpiryTenorParameterMetadata.of(
-                  timeToExpiry,
-                  timeTenor,
-                  expiries.get(loopexpiry).toString() + "x" + tenors.get(looptenor).toString()));
-          dataSensitivityAlpha.add(inverseJacobian.row(0));
-          dataSensitivityRho.add(inverseJacobian.row(2));
-          dataSensitivityNu.add(inverseJacobian.row(3));
+      });
+    }
+    // assemble the results in tenor then expiry order
+    int nbNodes = 0;
+    for (SabrNode[] tenorNodes : nodes) {
+      for (SabrNode node : tenorNodes) {
+        nbNodes += node == null ? 0 : 1;
+      }
+    }
+    double[] timeToExpiryArray = new double[nbNodes];
+    double[] timeTenorArray = new double[nbNodes];
+    double[] alphaArray = new double[nbNodes];
+    double[] rhoArray = new double[nbNodes];
+    double[] nuArray = new double[nbNodes];
+    List<ParameterMetadata> parameterMetadata = new ArrayList<>(nbNodes);
+    List<DoubleArray> dataSensitivityAlpha = new ArrayList<>(nbNodes); // Sensitivity to the calibrating data
+    List<DoubleArray> dataSensitivityRho = new ArrayList<>(nbNodes);
+    List<DoubleArray> dataSensitivityNu = new ArrayList<>(nbNodes);
+    int loopnode = 0;
+    for (SabrNode[] tenorNodes : nodes) {
+      for (SabrNode node : tenorNodes) {
+        if (node != null) {
+          timeToExpiryArray[loopnode] = node.timeToExpiry;
+          timeTenorArray[loopnode] = node.timeTenor;
+          alphaArray[loopnode] = node.parameters.getAlpha();
+          rhoArray[loopnode] = node.parameters.getRho();
+          nuArray[loopnode] = node.parameters.getNu();
+          parameterMetadata.add(node.metadata);
+          dataSensitivityAlpha.add(node.inverseJacobian.row(0));
+          dataSensitivityRho.add(node.inverseJacobian.row(2));
+          dataSensitivityNu.add(node.inverseJacobian.row(3));
+          loopnode++;
         }
       }
     }
@@ -273,12 +424,14 @@ public class SabrSwaptionCalibrator {
     SurfaceMetadata metadataNu = Surfaces.swaptionSabrExpiryTenor(
         name.getName() + "-Nu", dayCount, convention, ValueType.SABR_NU)
         .withParameterMetadata(parameterMetadata);
+    DoubleArray timeToExpiries = DoubleArray.ofUnsafe(timeToExpiryArray);
+    DoubleArray timeTenors = DoubleArray.ofUnsafe(timeTenorArray);
     InterpolatedNodalSurface alphaSurface = InterpolatedNodalSurface
-        .of(metadataAlpha, timeToExpiryArray, timeTenorArray, alphaArray, interpolator);
+        .of(metadataAlpha, timeToExpiries, timeTenors, DoubleArray.ofUnsafe(alphaArray), interpolator);
     InterpolatedNodalSurface rhoSurface = InterpolatedNodalSurface
-        .of(metadataRho, timeToExpiryArray, timeTenorArray, rhoArray, interpolator);
+        .of(metadataRho, timeToExpiries, timeTenors, DoubleArray.ofUnsafe(rhoArray), interpolator);
     InterpolatedNodalSurface nuSurface = InterpolatedNodalSurface
-        .of(metadataNu, timeToExpiryArray, timeTenorArray, nuArray, interpolator);
+        .of(metadataNu, timeToExpiries, timeTenors, DoubleArray.ofUnsafe(nuArray), interpolator);
     SabrInterestRateParameters params = SabrInterestRateParameters.of(
         alphaSurface, betaSurface, rhoSurface, nuSurface, shiftSurface, sabrFunctionProvider);
     return SabrParametersSwaptionVolatilities.builder()
@@ -290,8 +443,69 @@ public class SabrSwaptionCalibrator {
         .dataSensitivityNu(dataSensitivityNu).build();
   }
 
+  // Calibrates a single expiry/tenor node. Returns null if there is no data or if the calibration failed and is skipped.
+  // The warm start is taken from the starting parameters if present, otherwise from the previous node if present.
+  private SabrNode calibrateNode(
+      FixedIborSwapConvention convention,
+      ZonedDateTime calibrationDateTime,
+      DayCount dayCount,
+      Tenor tenor,
+      RawOptionData rawData,
+      int loopexpiry,
+      RatesProvider ratesProvider,
+      Surface betaSurface,
+      Surface shiftSurface,
+      boolean stopOnMathException,
+      SabrInterestRateParameters startingParameters,
+      SabrFormulaData previous) {
+
+    BitSet fixed = new BitSet();
+    fixed.set(1); // Beta fixed
+    BusinessDayAdjustment bda = convention.getFloatingLeg().getStartDateBusinessDayAdjustment();
+    LocalDate calibrationDate = calibrationDateTime.toLocalDate();
+    double timeTenor = tenor.getPeriod().getYears() + tenor.getPeriod().getMonths() / 12;
+    Period expiry = rawData.getExpiries().get(loopexpiry);
+    Pair<DoubleArray, DoubleArray> availableSmile = rawData.availableSmileAtExpiry(expiry);
+    if (availableSmile.getFirst().size() == 0) { // If not data is available, no calibration possible
+      return null;
+    }
+    LocalDate exerciseDate = expirationDate(bda, calibrationDate, expiry);
+    LocalDate effectiveDate = convention.calculateSpotDateFromTradeDate(exerciseDate, refData);
+    double timeToExpiry = dayCount.relativeYearFraction(calibrationDate, exerciseDate);
+    double beta = betaSurface.zValue(timeToExpiry, timeTenor);
+    double shift = shiftSurface.zValue(timeToExpiry, timeTenor);
+    LocalDate endDate = effectiveDate.plus(tenor);
+    SwapTrade swap0 = convention.toTrade(calibrationDate, effectiveDate, endDate, BuySell.BUY, 1.0, 0.0);
+    double forward = swapPricer.parRate(swap0.getProduct().resolve(refData), ratesProvider);
+    DoubleArray warmStart = null;
+    if (startingParameters != null) {
+      warmStart = DoubleArray.of(
+          startingParameters.alpha(timeToExpiry, timeTenor),
+          beta,
+          startingParameters.rho(timeToExpiry, timeTenor),
+          startingParameters.nu(timeToExpiry, timeTenor));
+    } else if (previous != null) {
+      warmStart = DoubleArray.of(previous.getAlpha(), beta, previous.getRho(), previous.getNu());
+    }
+    try {
+      Pair<SabrFormulaData, DoubleMatrix> calibrationResult =
+          calibration(forward, shift, beta, fixed, bda, calibrationDateTime, dayCount,
+              availableSmile.getFirst(), availableSmile.getSecond(), expiry, rawData, warmStart);
+      ParameterMetadata metadata = SwaptionSurfaceExpiryTenorParameterMetadata.of(
+          timeToExpiry, timeTenor, expiry.toString() + "x" + tenor.toString());
+      return new SabrNode(timeToExpiry, timeTenor, calibrationResult.getFirst(), calibrationResult.getSecond(), metadata);
+    } catch (MathException e) {
+      if (stopOnMathException) {
+        String message = Messages.format("{} at expiry {} and tenor {}", e.getMessage(), expiry, tenor);
+        throw new MathException(message, e);
+      }
+      return null;
+    }
+  }
+
   // The main part of the calibration. The calibration is done 4 times with different starting points: low and high
   // volatilities and high and low vol of vol. The best result (in term of chi^2) is returned.
+  // If a warm start is provided, it is tried first and used directly if the fit is within the data error.
   private Pair<SabrFormulaData, DoubleMatrix> calibration(
       double forward,
       double shift,
@@ -303,47 +517,42 @@ public class SabrSwaptionCalibrator {
       DoubleArray strike,
       DoubleArray data,
       Period expiry,
-      RawOptionData rawData) {
-
-    double rhoStart = -0.50 * beta + 0.50 * (1 - beta);
-    // Correlation is usually positive for normal and negative for log-normal;.
-    double[] alphaStart = new double[4];
-    alphaStart[0] = 0.0025 / Math.pow(forward + shift, beta); // Low vol
-    alphaStart[1] = alphaStart[0];
-    alphaStart[2] = 4 * alphaStart[0]; // High vol
-    alphaStart[3] = alphaStart[2];
-    double[] nuStart = new double[4];
-    nuStart[0] = 0.10; // Low vol of vol
-    nuStart[1] = 0.50; // High vol of vol
-    nuStart[2] = 0.10;
-    nuStart[3] = 0.50;
+      RawOptionData rawData,
+      DoubleArray warmStart) {
+
     double chi2 = 1.0E+12; // Large number 
     Pair<LeastSquareResultsWithTransform, DoubleArray> sabrCalibrationResult = null;
-    for (int i = 0; i < 4; i++) { // Try different starting points and take the best
-      DoubleArray startParameters = DoubleArray.of(alphaStart[i], beta, rhoStart, nuStart[i]);
-      Pair<LeastSquareResultsWithTransform, DoubleArray> r = null;
-      if (rawData.getDataType().equals(ValueType.NORMAL_VOLATILITY)) {
-        r = calibrateShiftedFromNormalVolatilities(bda, calibrationDateTime, dayCount,
-            expiry, forward, strike, rawData.getStrikeType(),
-            data, startParameters, fixed, shift);
-      } else {
-        if (rawData.getDataType().equals(ValueType.PRICE)) {
-          r = calibrateShiftedFromPrices(bda, calibrationDateTime, dayCount,
-              expiry, forward, strike, rawData.getStrikeType(),
-              data, startParameters, fixed, shift);
-        } else {
-          if (rawData.getDataType().equals(ValueType.BLACK_VOLATILITY)) {
-            r = calibrateShiftedFromBlackVolatilities(bda, calibrationDateTime, dayCount,
-                expiry, forward, strike, rawData.getStrikeType(),
-                data, rawData.getShift().orElse(0d), startParameters, fixed, shift);
-          } else {
-            throw new IllegalArgumentException("Data type not supported");
-          }
-        }
+    if (warmStart != null) {
+      try {
+        sabrCalibrationResult = calibrationFromStart(
+            forward, shift, fixed, bda, calibrationDateTime, dayCount, strike, data, expiry, rawData, warmStart);
+        chi2 = sabrCalibrationResult.getFirst().getChiSq();
+      } catch (MathException e) {
+        // fall back to the standard starting points
       }
-      if (r.getFirst().getChiSq() < chi2) { // Keep best calibration
-        sabrCalibrationResult = r;
-        chi2 = r.getFirst().getChiSq();
+    }
+    // the errors are 1bp of volatility, thus a chi^2 below the number of data points is within the data error
+    if (sabrCalibrationResult == null || chi2 > strike.size()) {
+      double rhoStart = -0.50 * beta + 0.50 * (1 - beta);
+      // Correlation is usually positive for normal and negative for log-normal;.
+      double[] alphaStart = new double[4];
+      alphaStart[0] = 0.0025 / Math.pow(forward + shift, beta); // Low vol
+      alphaStart[1] = alphaStart[0];
+      alphaStart[2] = 4 * alphaStart[0]; // High vol
+      alphaStart[3] = alphaStart[2];
+      double[] nuStart = new double[4];
+      nuStart[0] = 0.10; // Low vol of vol
+      nuStart[1] = 0.50; // High vol of vol
+      nuStart[2] = 0.10;
+      nuStart[3] = 0.50;
+      for (int i = 0; i < 4; i++) { // Try different starting points and take the best
+        DoubleArray startParameters = DoubleArray.of(alphaStart[i], beta, rhoStart, nuStart[i]);
+        Pair<LeastSquareResultsWithTransform, DoubleArray> r = calibrationFromStart(
+            forward, shift, fixed, bda, calibrationDateTime, dayCount, strike, data, expiry, rawData, startParameters);
+        if (r.getFirst().getChiSq() < chi2) { // Keep best calibration
+          sabrCalibrationResult = r;
+          chi2 = r.getFirst().getChiSq();
+        }
       }
     }
     @SuppressWarnings("null")
@@ -364,6 +573,38 @@ public class SabrSwaptionCalibrator {
     return Pair.of(sabrParameters, parameterSensitivityToData);
   }
 
+  // Calibration from a single starting point, depending on the data type
+  private Pair<LeastSquareResultsWithTransform, DoubleArray> calibrationFromStart(
+      double forward,
+      double shift,
+      BitSet fixed,
+      BusinessDayAdjustment bda,
+      ZonedDateTime calibrationDateTime,
+      DayCount dayCount,
+      DoubleArray strike,
+      DoubleArray data,
+      Period expiry,
+      RawOptionData rawData,
+      DoubleArray startParameters) {
+
+    if (rawData.getDataType().equals(ValueType.NORMAL_VOLATILITY)) {
+      return calibrateShiftedFromNormalVolatilities(bda, calibrationDateTime, dayCount,
+          expiry, forward, strike, rawData.getStrikeType(),
+          data, startParameters, fixed, shift);
+    }
+    if (rawData.getDataType().equals(ValueType.PRICE)) {
+      return calibrateShiftedFromPrices(bda, calibrationDateTime, dayCount,
+          expiry, forward, strike, rawData.getStrikeType(),
+          data, startParameters, fixed, shift);
+    }
+    if (rawData.getDataType().equals(ValueType.BLACK_VOLATILITY)) {
+      return calibrateShiftedFromBlackVolatilities(bda, calibrationDateTime, dayCount,
+          expiry, forward, strike, rawData.getStrikeType(),
+          data, rawData.getShift().orElse(0d), startParameters, fixed, shift);
+    }
+    throw new IllegalArgumentException("Data type not supported");
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Calibrate the SABR parameters to a set of Black volatilities at given moneyness.
@@ -443,15 +684,19 @@ public class SabrSwaptionCalibrator {
       // No change required if shifts are the same
     }
     int nbStrikes = strikes.size();
-    double[] impliedVolatility = new double[nbStrikes];
-    double[] impliedVolatilityDerivatives = new double[nbStrikes];
+    double[] prices = new double[nbStrikes];
+    double[] vegas = new double[nbStrikes];
     for (int i = 0; i < nbStrikes; i++) {
       ValueDerivatives price = BlackFormulaRepository.priceAdjoint(
           forward + shiftInput, strikes.get(i) + shiftInput, timeToExpiry, blackVolatilities.get(i), true); // vega-[3]
-      ValueDerivatives iv = BlackFormulaRepository.impliedVolatilityAdjoint(
-          price.getValue(), forward + shiftOutput, strikes.get(i) + shiftOutput, timeToExpiry, true);
-      impliedVolatility[i] = iv.getValue();
-      impliedVolatilityDerivatives[i] = iv.getDerivative(0) * price.getDerivative(3);
+      prices[i] = price.getValue();
+      vegas[i] = price.getDerivative(3);
+    }
+    double[] impliedVolatilityDerivatives = new double[nbStrikes];
+    double[] impliedVolatility = impliedVolatilitiesShifted(
+        prices, forward, shiftOutput, timeToExpiry, strikes, impliedVolatilityDerivatives);
+    for (int i = 0; i < nbStrikes; i++) {
+      impliedVolatilityDerivatives[i] *= vegas[i];
     }
     return Pair.of(DoubleArray.ofUnsafe(impliedVolatility), DoubleArray.ofUnsafe(impliedVolatilityDerivatives));
   }
@@ -525,16 +770,32 @@ public class SabrSwaptionCalibrator {
       DoubleArray strikes,
       DoubleArray prices) {
 
+    double[] impliedVolatilityDerivatives = new double[strikes.size()];
+    double[] impliedVolatility = impliedVolatilitiesShifted(
+        prices.toArrayUnsafe(), forward, shiftOutput, timeToExpiry, strikes, impliedVolatilityDerivatives);
+    return Pair.of(DoubleArray.ofUnsafe(impliedVolatility), DoubleArray.ofUnsafe(impliedVolatilityDerivatives));
+  }
+
+  // shifted Black implied volatilities of payer swaptions, solved as a batch
+  private static double[] impliedVolatilitiesShifted(
+      double[] prices,
+      double forward,
+      double shift,
+      double timeToExpiry,
+      DoubleArray strikes,
+      double[] derivatives) {
+
     int nbStrikes = strikes.size();
-    double[] impliedVolatility = new double[nbStrikes];
-    double[] impliedVolatilityDerivatives = new double[nbStrikes];
+    double[] forwards = new double[nbStrikes];
+    double[] strikesShifted = new double[nbStrikes];
+    double[] timesToExpiry = new double[nbStrikes];
     for (int i = 0; i < nbStrikes; i++) {
-      ValueDerivatives iv = BlackFormulaRepository.impliedVolatilityAdjoint(
-          prices.get(i), forward + shiftOutput, strikes.get(i) + shiftOutput, timeToExpiry, true);
-      impliedVolatility[i] = iv.getValue();
-      impliedVolatilityDerivatives[i] = iv.getDerivative(0);
+      forwards[i] = forward + shift;
+      strikesShifted[i] = strikes.get(i) + shift;
+      timesToExpiry[i] = timeToExpiry;
     }
-    return Pair.of(DoubleArray.ofUnsafe(impliedVolatility), DoubleArray.ofUnsafe(impliedVolatilityDerivatives));
+    return BlackFormulaRepository.impliedVolatilitiesAdjoint(
+        prices, forwards, strikesShifted, timesToExpiry, true, derivatives);
   }
 
   //-------------------------------------------------------------------------
@@ -658,4 +919,28 @@ public class SabrSwaptionCalibrator {
     return bda.adjust(calibrationDate.plus(expiry), refData);
   }
 
+  //-------------------------------------------------------------------------
+  // The calibrated parameters of an expiry/tenor node.
+  private static final class SabrNode {
+    private final double timeToExpiry;
+    private final double timeTenor;
+    private final SabrFormulaData parameters;
+    private final DoubleMatrix inverseJacobian;
+    private final ParameterMetadata metadata;
+
+    private SabrNode(
+        double timeToExpiry,
+        double timeTenor,
+        SabrFormulaData parameters,
+        DoubleMatrix inverseJacobian,
+        ParameterMetadata metadata) {
+
+      this.timeToExpiry = timeToExpiry;
+      this.timeTenor = timeTenor;
+      this.parameters = parameters;
+      this.inverseJacobian = inverseJacobian;
+      this.metadata = metadata;
+    }
+  }
+
 }
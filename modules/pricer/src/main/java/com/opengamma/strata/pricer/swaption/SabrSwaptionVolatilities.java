@@ -6,6 +6,7 @@
 package com.opengamma.strata.pricer.swaption;
 
 import com.opengamma.strata.basics.value.ValueDerivatives;
+import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.market.param.ParameterPerturbation;
 
 /**
@@ -53,4 +54,55 @@ public interface SabrSwaptionVolatilities
    */
   public abstract ValueDerivatives volatilityAdjoint(double expiry, double tenor, double strike, double forward);
 
+  /**
+   * Calculates the volatilities for a set of strikes.
+   * <p>
+   * The volatilities are stored in the input array {@code volatilities}, which must be at least as long as the strikes.
+   * By default each strike is computed in turn, implementations may share the strike independent computations.
+   * 
+   * @param expiry  the time to expiry as a year fraction
+   * @param tenor  the tenor of the instrument as a year fraction
+   * @param strikes  the strikes
+   * @param forward  the forward
+   * @param volatilities  the array used to return the volatilities
+   */
+  public default void volatility(double expiry, double tenor, double[] strikes, double forward, double[] volatilities) {
+    ArgChecker.isTrue(volatilities.length >= strikes.length, "volatilities array must be at least as long as strikes");
+    for (int i = 0; i < strikes.length; i++) {
+      volatilities[i] = volatility(expiry, tenor, strikes[i], forward);
+    }
+  }
+
+  /**
+   * Calculates the volatilities and associated sensitivities for a set of strikes.
+   * <p>
+   * The volatilities are stored in the input array {@code volatilities}.
+   * The derivatives are stored in the input array {@code volatilitiesD}, indexed by strike, then
+   * in the order of {@link #volatilityAdjoint(double, double, double, double)}.
+   * By default each strike is computed in turn, implementations may share the strike independent computations.
+   * 
+   * @param expiry  the time to expiry as a year fraction
+   * @param tenor  the tenor of the instrument as a year fraction
+   * @param strikes  the strikes
+   * @param forward  the forward
+   * @param volatilities  the array used to return the volatilities
+   * @param volatilitiesD  the array of array used to return the derivatives
+   */
+  public default void volatilityAdjoint(
+      double expiry,
+      double tenor,
+      double[] strikes,
+      double forward,
+      double[] volatilities,
+      double[][] volatilitiesD) {
+
+    ArgChecker.isTrue(volatilities.length >= strikes.length, "volatilities array must be at least as long as strikes");
+    ArgChecker.isTrue(volatilitiesD.length >= strikes.length, "derivatives array must be at least as long as strikes");
+    for (int i = 0; i < strikes.length; i++) {
+      ValueDerivatives volatilityAdjoint = volatilityAdjoint(expiry, tenor, strikes[i], forward);
+      volatilities[i] = volatilityAdjoint.getValue();
+      volatilityAdjoint.getDerivatives().copyInto(volatilitiesD[i], 0);
+    }
+  }
+
 }
@@ -544,6 +544,75 @@ public class SabrExtrapolationReplicationCmsPeriodPricerTest {
     assertThrowsIllegalArg(() -> PRICER.presentValueSensitivityStrike(COUPON, RATES_PROVIDER, VOLATILITIES));
   }
 
+  //-------------------------------------------------------------------------
+  private static final SabrExtrapolationReplicationCmsPeriodPricer PRICER_QUADRATURE =
+      SabrExtrapolationReplicationCmsPeriodPricer.ofGaussLegendre(PRICER_SWAP, CUT_OFF_STRIKE, MU, 2);
+  private static final double TOL_QUADRATURE = 1.0e-7;
+
+  public void test_quadrature_presentValue() {
+    CmsPeriod[] periods = new CmsPeriod[] {
+        COUPON, CAPLET, FLOORLET, COUPON_SELL, CAPLET_NEGATIVE, FLOORLET_NEGATIVE, CAPLET_ZERO, CAPLET_SHIFT};
+    for (CmsPeriod period : periods) {
+      for (SabrParametersSwaptionVolatilities vols : new SabrParametersSwaptionVolatilities[] {VOLATILITIES, VOLATILITIES_SHIFT}) {
+        CurrencyAmount expected = PRICER.presentValue(period, RATES_PROVIDER, vols);
+        CurrencyAmount computed = PRICER_QUADRATURE.presentValue(period, RATES_PROVIDER, vols);
+        assertEquals(computed.getCurrency(), expected.getCurrency());
+        assertEquals(computed.getAmount(), expected.getAmount(), NOTIONAL * TOL_QUADRATURE);
+      }
+    }
+    assertEquals(
+        PRICER_QUADRATURE.presentValue(COUPON, RATES_PROVIDER_AFTER_FIX, VOLATILITIES_AFTER_FIX),
+        PRICER.presentValue(COUPON, RATES_PROVIDER_AFTER_FIX, VOLATILITIES_AFTER_FIX));
+    assertThrowsIllegalArg(() -> SabrExtrapolationReplicationCmsPeriodPricer.ofGaussLegendre(
+        PRICER_SWAP, CUT_OFF_STRIKE, MU, 0));
+  }
+
+  public void test_quadrature_sensitivities() {
+    for (CmsPeriod period : new CmsPeriod[] {COUPON_SELL, CAPLET_SELL, FLOORLET_SELL}) {
+      CurrencyParameterSensitivities expected = RATES_PROVIDER.parameterSensitivity(
+          PRICER.presentValueSensitivity(period, RATES_PROVIDER, VOLATILITIES).build());
+      CurrencyParameterSensitivities computed = RATES_PROVIDER.parameterSensitivity(
+          PRICER_QUADRATURE.presentValueSensitivity(period, RATES_PROVIDER, VOLATILITIES).build());
+      assertTrue(computed.equalWithTolerance(expected, NOTIONAL * TOL_QUADRATURE * 10d));
+      PointSensitivities expectedSabr =
+          PRICER.presentValueSensitivitySabrParameter(period, RATES_PROVIDER, VOLATILITIES).build();
+      PointSensitivities computedSabr =
+          PRICER_QUADRATURE.presentValueSensitivitySabrParameter(period, RATES_PROVIDER, VOLATILITIES).build();
+      // the adaptive integration of the SABR sensitivity uses a larger relative tolerance
+      assertTrue(computedSabr.equalWithTolerance(expectedSabr, NOTIONAL * 1.0e-4));
+    }
+    for (CmsPeriod period : new CmsPeriod[] {CAPLET_SELL, FLOORLET_SELL, CAPLET_NEGATIVE}) {
+      double expected = PRICER.presentValueSensitivityStrike(period, RATES_PROVIDER, VOLATILITIES_SHIFT);
+      double computed = PRICER_QUADRATURE.presentValueSensitivityStrike(period, RATES_PROVIDER, VOLATILITIES_SHIFT);
+      assertEquals(computed, expected, Math.abs(expected) * 1.0e-5);
+    }
+  }
+
+  @Test(enabled = false)
+  void performance_quadrature() {
+    long startTime, endTime;
+    int nbTests = 1000;
+    int nbRep = 5;
+    double total = 0d;
+    for (int i = 0; i < nbRep; i++) {
+      startTime = System.currentTimeMillis();
+      for (int looprep = 0; looprep < nbTests; looprep++) {
+        total += PRICER.presentValue(CAPLET, RATES_PROVIDER, VOLATILITIES_SHIFT).getAmount();
+      }
+      endTime = System.currentTimeMillis();
+      System.out.println("Performance: " + nbTests + " CMS caplets with adaptive integration in " +
+          (endTime - startTime) + " ms.");
+      startTime = System.currentTimeMillis();
+      for (int looprep = 0; looprep < nbTests; looprep++) {
+        total += PRICER_QUADRATURE.presentValue(CAPLET, RATES_PROVIDER, VOLATILITIES_SHIFT).getAmount();
+      }
+      endTime = System.currentTimeMillis();
+      System.out.println("Performance: " + nbTests + " CMS caplets with Gauss-Legendre quadrature in " +
+          (endTime - startTime) + " ms.");
+    }
+    System.out.println("Avoiding hotspot: " + total);
+  }
+
   //-------------------------------------------------------------------------
   private void testPresentValueSensitivitySabrParameter(CmsPeriod coupon, CmsPeriod caplet, CmsPeriod foorlet,
       RatesProvider ratesProvider, SabrParametersSwaptionVolatilities volatilities) {
@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ * 
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.exposure;
+
+import static com.opengamma.strata.basics.currency.Currency.EUR;
+import static com.opengamma.strata.basics.currency.Currency.USD;
+import static com.opengamma.strata.collect.TestHelper.assertSerialization;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static com.opengamma.strata.collect.TestHelper.coverBeanEquals;
+import static com.opengamma.strata.collect.TestHelper.coverImmutableBean;
+import static com.opengamma.strata.collect.TestHelper.date;
+import static org.testng.Assert.assertEquals;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.collect.array.DoubleArray;
+
+/**
+ * Test {@link ExposureProfile}.
+ */
+@Test
+public class ExposureProfileTest {
+
+  private static final List<LocalDate> DATES = ImmutableList.of(date(2017, 1, 9), date(2017, 7, 7), date(2018, 7, 9));
+  private static final DoubleArray TIMES = DoubleArray.of(0.5, 1d, 2d);
+  private static final DoubleArray EE = DoubleArray.of(10d, 12d, 8d);
+  private static final DoubleArray DISCOUNTED_EE = DoubleArray.of(9.9, 11.7, 7.6);
+  private static final DoubleArray ENE = DoubleArray.of(-9d, -11d, -7d);
+  private static final DoubleArray PFE = DoubleArray.of(30d, 35d, 25d);
+
+  //-------------------------------------------------------------------------
+  public void test_of() {
+    ExposureProfile test = ExposureProfile.of(EUR, DATES, TIMES, EE, DISCOUNTED_EE, ENE, PFE, 0.95);
+    assertEquals(test.getCurrency(), EUR);
+    assertEquals(test.getDates(), DATES);
+    assertEquals(test.getTimes(), TIMES);
+    assertEquals(test.getExpectedExposure(), EE);
+    assertEquals(test.getDiscountedExpectedExposure(), DISCOUNTED_EE);
+    assertEquals(test.getExpectedNegativeExposure(), ENE);
+    assertEquals(test.getPotentialFutureExposure(), PFE);
+    assertEquals(test.getConfidenceLevel(), 0.95);
+  }
+
+  public void test_of_invalid() {
+    DoubleArray wrongSize = DoubleArray.of(1d, 2d);
+    assertThrowsIllegalArg(() -> ExposureProfile.of(EUR, DATES, wrongSize, EE, DISCOUNTED_EE, ENE, PFE, 0.95));
+    assertThrowsIllegalArg(() -> ExposureProfile.of(EUR, DATES, TIMES, wrongSize, DISCOUNTED_EE, ENE, PFE, 0.95));
+    assertThrowsIllegalArg(() -> ExposureProfile.of(EUR, DATES, TIMES, EE, wrongSize, ENE, PFE, 0.95));
+    assertThrowsIllegalArg(() -> ExposureProfile.of(EUR, DATES, TIMES, EE, DISCOUNTED_EE, wrongSize, PFE, 0.95));
+    assertThrowsIllegalArg(() -> ExposureProfile.of(EUR, DATES, TIMES, EE, DISCOUNTED_EE, ENE, wrongSize, 0.95));
+    assertThrowsIllegalArg(() -> ExposureProfile.of(EUR, DATES, TIMES, EE, DISCOUNTED_EE, ENE, PFE, 1d));
+  }
+
+  public void test_expectedPositiveExposure() {
+    ExposureProfile test = ExposureProfile.of(EUR, DATES, TIMES, EE, DISCOUNTED_EE, ENE, PFE, 0.95);
+    assertEquals(test.getExpectedPositiveExposure(), (10d * 0.5 + 12d * 0.5 + 8d * 1d) / 2d, 1e-12);
+    assertEquals(test.getMaximumPotentialFutureExposure(), 35d);
+  }
+
+  //-------------------------------------------------------------------------
+  public void coverage() {
+    ExposureProfile test1 = ExposureProfile.of(EUR, DATES, TIMES, EE, DISCOUNTED_EE, ENE, PFE, 0.95);
+    coverImmutableBean(test1);
+    ExposureProfile test2 = ExposureProfile.of(USD, DATES.subList(0, 1), DoubleArray.of(0.5), DoubleArray.of(1d),
+        DoubleArray.of(0.9), DoubleArray.of(-1d), DoubleArray.of(3d), 0.99);
+    coverBeanEquals(test1, test2);
+  }
+
+  public void test_serialization() {
+    ExposureProfile test = ExposureProfile.of(EUR, DATES, TIMES, EE, DISCOUNTED_EE, ENE, PFE, 0.95);
+    assertSerialization(test);
+  }
+
+}
@@ -0,0 +1,221 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ * 
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.exposure;
+
+import static com.opengamma.strata.basics.currency.Currency.EUR;
+import static com.opengamma.strata.basics.date.BusinessDayConventions.MODIFIED_FOLLOWING;
+import static com.opengamma.strata.basics.date.DayCounts.THIRTY_U_360;
+import static com.opengamma.strata.basics.index.IborIndices.EUR_EURIBOR_6M;
+import static com.opengamma.strata.basics.schedule.Frequency.P12M;
+import static com.opengamma.strata.basics.schedule.Frequency.P6M;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static com.opengamma.strata.collect.TestHelper.date;
+import static com.opengamma.strata.product.common.PayReceive.PAY;
+import static com.opengamma.strata.product.common.PayReceive.RECEIVE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.date.BusinessDayAdjustment;
+import com.opengamma.strata.basics.date.DaysAdjustment;
+import com.opengamma.strata.basics.date.HolidayCalendarId;
+import com.opengamma.strata.basics.date.HolidayCalendarIds;
+import com.opengamma.strata.basics.schedule.PeriodicSchedule;
+import com.opengamma.strata.basics.schedule.StubConvention;
+import com.opengamma.strata.basics.value.ValueSchedule;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.pricer.impl.montecarlo.HullWhiteCashFlowPathPricer;
+import com.opengamma.strata.pricer.impl.montecarlo.HullWhitePathSimulator;
+import com.opengamma.strata.pricer.impl.montecarlo.MonteCarloEngine;
+import com.opengamma.strata.pricer.impl.rate.swap.CashFlowEquivalentCalculator;
+import com.opengamma.strata.pricer.index.HullWhiteIborFutureDataSet;
+import com.opengamma.strata.pricer.index.HullWhiteOneFactorPiecewiseConstantParametersProvider;
+import com.opengamma.strata.pricer.rate.ImmutableRatesProvider;
+import com.opengamma.strata.pricer.swap.PaymentEventPricer;
+import com.opengamma.strata.pricer.swaption.HullWhiteSwaptionPhysicalProductPricer;
+import com.opengamma.strata.product.TradeInfo;
+import com.opengamma.strata.product.common.LongShort;
+import com.opengamma.strata.product.common.PayReceive;
+import com.opengamma.strata.product.swap.FixedRateCalculation;
+import com.opengamma.strata.product.swap.IborRateCalculation;
+import com.opengamma.strata.product.swap.NotionalSchedule;
+import com.opengamma.strata.product.swap.PaymentEvent;
+import com.opengamma.strata.product.swap.PaymentSchedule;
+import com.opengamma.strata.product.swap.RateCalculationSwapLeg;
+import com.opengamma.strata.product.swap.ResolvedSwapLeg;
+import com.opengamma.strata.product.swap.ResolvedSwapTrade;
+import com.opengamma.strata.product.swap.Swap;
+import com.opengamma.strata.product.swap.SwapLeg;
+import com.opengamma.strata.product.swaption.PhysicalSettlement;
+import com.opengamma.strata.product.swaption.ResolvedSwaption;
+
+/**
+ * Test {@link HullWhiteSwapExposureCalculator}.
+ */
+@Test
+public class HullWhiteSwapExposureCalculatorTest {
+
+  private static final ReferenceData REF_DATA = ReferenceData.standard();
+  private static final LocalDate VALUATION = date(2011, 7, 7);
+  private static final HolidayCalendarId CALENDAR = HolidayCalendarIds.SAT_SUN;
+  private static final BusinessDayAdjustment BDA_MF = BusinessDayAdjustment.of(MODIFIED_FOLLOWING, CALENDAR);
+  private static final LocalDate START = date(2016, 7, 11);
+  private static final double NOTIONAL = 100_000_000d;
+  private static final HullWhiteOneFactorPiecewiseConstantParametersProvider HW_PROVIDER =
+      HullWhiteIborFutureDataSet.createHullWhiteProvider(VALUATION);
+  private static final ImmutableRatesProvider RATE_PROVIDER = HullWhiteIborFutureDataSet.createRatesProvider(VALUATION);
+  private static final ResolvedSwapTrade PAYER = swapTrade(PAY, 0.0175);
+  private static final ResolvedSwapTrade RECEIVER = swapTrade(RECEIVE, 0.0150);
+  private static final ResolvedSwapTrade RECEIVER_OFFSET = swapTrade(RECEIVE, 0.0175);
+  private static final List<LocalDate> DATES =
+      ImmutableList.of(date(2012, 7, 9), date(2013, 7, 8), date(2014, 7, 7), date(2015, 7, 7), date(2016, 7, 6));
+
+  private static final MonteCarloEngine ENGINE = MonteCarloEngine.of(20_000, 500, 5L, true);
+  private static final HullWhiteSwapExposureCalculator CALCULATOR =
+      new HullWhiteSwapExposureCalculator(ENGINE, 0.95, PaymentEventPricer.standard());
+  private static final HullWhiteSwaptionPhysicalProductPricer SWAPTION_PRICER =
+      HullWhiteSwaptionPhysicalProductPricer.DEFAULT;
+
+  //-------------------------------------------------------------------------
+  public void test_discountedExpectedExposure() {
+    // before the start of the swap, the discounted expected exposure is the price of the swaption
+    ExposureProfile profile = CALCULATOR.exposure(ImmutableList.of(PAYER), DATES, RATE_PROVIDER, HW_PROVIDER);
+    assertEquals(profile.getCurrency(), EUR);
+    assertEquals(profile.getDates(), DATES);
+    assertEquals(profile.getConfidenceLevel(), 0.95);
+    for (int k = 0; k < DATES.size(); k++) {
+      ResolvedSwaption swaption = ResolvedSwaption.builder()
+          .expiry(DATES.get(k).atTime(LocalTime.NOON).atZone(ZoneOffset.UTC))
+          .swaptionSettlement(PhysicalSettlement.DEFAULT)
+          .longShort(LongShort.LONG)
+          .underlying(PAYER.getProduct())
+          .build();
+      double expected = SWAPTION_PRICER.presentValue(swaption, RATE_PROVIDER, HW_PROVIDER).getAmount();
+      assertEquals(profile.getTimes().get(k), HW_PROVIDER.relativeTime(DATES.get(k)));
+      assertEquals(profile.getDiscountedExpectedExposure().get(k), expected, expected * 0.02);
+    }
+  }
+
+  public void test_statistics() {
+    // compare with the statistics computed from all the simulated paths
+    ExposureProfile profile = CALCULATOR.exposure(ImmutableList.of(PAYER), DATES, RATE_PROVIDER, HW_PROVIDER);
+    DoubleArray times = DoubleArray.of(DATES.size(), i -> HW_PROVIDER.relativeTime(DATES.get(i)));
+    HullWhitePathSimulator simulator = HullWhitePathSimulator.of(HW_PROVIDER.getParameters(), times);
+    ResolvedSwapLeg cashFlowEquiv = CashFlowEquivalentCalculator.cashFlowEquivalentSwap(PAYER.getProduct(), RATE_PROVIDER);
+    List<PaymentEvent> payments = cashFlowEquiv.getPaymentEvents();
+    PaymentEventPricer<PaymentEvent> paymentPricer = PaymentEventPricer.standard();
+    HullWhiteCashFlowPathPricer pathPricer = HullWhiteCashFlowPathPricer.of(
+        simulator,
+        DoubleArray.of(payments.size(), i -> HW_PROVIDER.relativeTime(payments.get(i).getPaymentDate())),
+        DoubleArray.of(payments.size(), i -> paymentPricer.presentValue(payments.get(i), RATE_PROVIDER)),
+        DoubleArray.of(DATES.size(), k -> RATE_PROVIDER.discountFactor(EUR, DATES.get(k))));
+    double[] paths = ENGINE.simulate(simulator);
+    int nPaths = ENGINE.getPathCount();
+    for (int k = 0; k < DATES.size(); k++) {
+      double[] exposures = new double[nPaths];
+      double sumExposure = 0d;
+      double sumNegative = 0d;
+      for (int path = 0; path < nPaths; path++) {
+        double value = pathPricer.value(paths, path, k);
+        exposures[path] = Math.max(value, 0d);
+        sumExposure += exposures[path];
+        sumNegative += Math.min(value, 0d);
+      }
+      Arrays.sort(exposures);
+      double tol = NOTIONAL * 1e-10;
+      assertEquals(profile.getExpectedExposure().get(k), sumExposure / nPaths, tol);
+      assertEquals(profile.getExpectedNegativeExposure().get(k), sumNegative / nPaths, tol);
+      assertEquals(profile.getPotentialFutureExposure().get(k), exposures[(int) Math.ceil(0.95 * nPaths) - 1], tol);
+    }
+  }
+
+  public void test_nettingSets() {
+    ImmutableMap<String, ExposureProfile> profiles = CALCULATOR.exposures(
+        ImmutableMap.of(
+            "A", ImmutableList.of(PAYER),
+            "B", ImmutableList.of(PAYER, RECEIVER),
+            "C", ImmutableList.of(PAYER, RECEIVER_OFFSET)),
+        DATES, RATE_PROVIDER, HW_PROVIDER);
+    assertEquals(profiles.get("A"), CALCULATOR.exposure(ImmutableList.of(PAYER), DATES, RATE_PROVIDER, HW_PROVIDER));
+    ExposureProfile netted = profiles.get("B");
+    for (int k = 0; k < DATES.size(); k++) {
+      // netting reduces the exposure
+      assertTrue(netted.getExpectedExposure().get(k) < profiles.get("A").getExpectedExposure().get(k));
+      assertTrue(netted.getPotentialFutureExposure().get(k) < profiles.get("A").getPotentialFutureExposure().get(k));
+      // offsetting trades have no exposure
+      assertEquals(profiles.get("C").getExpectedExposure().get(k), 0d, NOTIONAL * 1e-8);
+      assertEquals(profiles.get("C").getPotentialFutureExposure().get(k), 0d, NOTIONAL * 1e-8);
+    }
+  }
+
+  public void test_validation() {
+    List<ResolvedSwapTrade> trades = ImmutableList.of(PAYER);
+    assertThrowsIllegalArg(() -> CALCULATOR.exposure(ImmutableList.of(), DATES, RATE_PROVIDER, HW_PROVIDER));
+    assertThrowsIllegalArg(() -> CALCULATOR.exposure(trades, ImmutableList.of(), RATE_PROVIDER, HW_PROVIDER));
+    assertThrowsIllegalArg(() -> CALCULATOR.exposure(
+        trades, ImmutableList.of(VALUATION, date(2012, 7, 9)), RATE_PROVIDER, HW_PROVIDER));
+    assertThrowsIllegalArg(() -> CALCULATOR.exposure(
+        trades, ImmutableList.of(date(2013, 7, 8), date(2012, 7, 9)), RATE_PROVIDER, HW_PROVIDER));
+    assertThrowsIllegalArg(() -> CALCULATOR.exposure(
+        trades, DATES, RATE_PROVIDER, HullWhiteIborFutureDataSet.createHullWhiteProvider(VALUATION.plusDays(1))));
+    assertThrowsIllegalArg(() -> new HullWhiteSwapExposureCalculator(ENGINE, 1d, PaymentEventPricer.standard()));
+  }
+
+  //-------------------------------------------------------------------------
+  @Test(enabled = false)
+  public void performance() {
+    List<LocalDate> dates = ImmutableList.copyOf(
+        IntStream.range(1, 121).mapToObj(i -> VALUATION.plusMonths(i)).iterator());
+    List<ResolvedSwapTrade> trades = ImmutableList.copyOf(
+        IntStream.range(0, 100).mapToObj(i -> swapTrade(i % 2 == 0 ? PAY : RECEIVE, 0.01 + 0.0002 * i))
+            .iterator());
+    for (int nbPaths : new int[] {1_000, 10_000, 50_000}) {
+      HullWhiteSwapExposureCalculator calculator = new HullWhiteSwapExposureCalculator(
+          MonteCarloEngine.of(nbPaths, 1L, true), 0.95, PaymentEventPricer.standard());
+      calculator.exposure(trades, dates, RATE_PROVIDER, HW_PROVIDER);
+      long start = System.nanoTime();
+      ExposureProfile profile = calculator.exposure(trades, dates, RATE_PROVIDER, HW_PROVIDER);
+      long end = System.nanoTime();
+      System.out.println("Paths: " + nbPaths + ", EPE: " + profile.getExpectedPositiveExposure() +
+          ", max PFE: " + profile.getMaximumPotentialFutureExposure() + ", time: " + (end - start) / 1_000_000 + "ms");
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  private static ResolvedSwapTrade swapTrade(PayReceive fixedPayReceive, double rate) {
+    LocalDate end = START.plusYears(5);
+    SwapLeg fixedLeg = RateCalculationSwapLeg.builder()
+        .payReceive(fixedPayReceive)
+        .accrualSchedule(PeriodicSchedule.of(START, end, P12M, BDA_MF, StubConvention.SHORT_FINAL, false))
+        .paymentSchedule(PaymentSchedule.builder().paymentFrequency(P12M).paymentDateOffset(DaysAdjustment.NONE).build())
+        .notionalSchedule(NotionalSchedule.of(EUR, NOTIONAL))
+        .calculation(FixedRateCalculation.builder().dayCount(THIRTY_U_360).rate(ValueSchedule.of(rate)).build())
+        .build();
+    SwapLeg iborLeg = RateCalculationSwapLeg.builder()
+        .payReceive(fixedPayReceive.isPay() ? RECEIVE : PAY)
+        .accrualSchedule(PeriodicSchedule.of(START, end, P6M, BDA_MF, StubConvention.SHORT_FINAL, false))
+        .paymentSchedule(PaymentSchedule.builder().paymentFrequency(P6M).paymentDateOffset(DaysAdjustment.NONE).build())
+        .notionalSchedule(NotionalSchedule.of(EUR, NOTIONAL))
+        .calculation(IborRateCalculation.builder()
+            .index(EUR_EURIBOR_6M)
+            .fixingDateOffset(DaysAdjustment.ofBusinessDays(-2, CALENDAR, BDA_MF))
+            .build())
+        .build();
+    return ResolvedSwapTrade.of(TradeInfo.empty(), Swap.of(fixedLeg, iborLeg).resolve(REF_DATA));
+  }
+
+}
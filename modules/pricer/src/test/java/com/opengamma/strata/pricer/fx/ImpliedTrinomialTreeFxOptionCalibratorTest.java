@@ -8,6 +8,8 @@ package com.opengamma.strata.pricer.fx;
 import static com.opengamma.strata.basics.currency.Currency.EUR;
 import static com.opengamma.strata.basics.currency.Currency.USD;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
 
 import java.time.LocalDate;
 import java.time.ZoneId;
@@ -87,4 +89,21 @@ public class ImpliedTrinomialTreeFxOptionCalibratorTest {
     }
   }
 
+  public void test_cache() {
+    assertSame(CALIB.calibrateTrinomialTree(CALL, RATE_PROVIDER, VOL_PROVIDER), TREE_DATA);
+    assertSame(CALIB.calibrateTrinomialTree(CALL, RATE_PROVIDER, VOL_PROVIDER_MRKT), TREE_DATA_MRKT);
+    // different instances of market data
+    ImmutableRatesProvider ratesProvider = RATE_PROVIDER.toBuilder().build();
+    RecombiningTrinomialTreeData computed = CALIB.calibrateTrinomialTree(CALL, ratesProvider, VOL_PROVIDER);
+    assertNotSame(computed, TREE_DATA);
+    assertEquals(computed, TREE_DATA);
+    ImpliedTrinomialTreeFxOptionCalibrator calibrator = new ImpliedTrinomialTreeFxOptionCalibrator(39);
+    assertEquals(calibrator.calibrateTrinomialTree(CALL, RATE_PROVIDER, VOL_PROVIDER), TREE_DATA);
+    // different expiry
+    double timeToExpiry = VOL_PROVIDER.relativeTime(EXPIRY_DATETIME);
+    RecombiningTrinomialTreeData shorter =
+        CALIB.calibrateTrinomialTree(0.5 * timeToExpiry, FX_PRODUCT.getCurrencyPair(), RATE_PROVIDER, VOL_PROVIDER);
+    assertEquals(shorter.getTime(shorter.getNumberOfSteps()), 0.5 * timeToExpiry, 1.0e-14);
+  }
+
 }
@@ -19,6 +19,7 @@ import org.testng.annotations.Test;
 import com.google.common.collect.ImmutableList;
 import com.opengamma.strata.collect.array.DoubleArray;
 import com.opengamma.strata.collect.array.DoubleMatrix;
+import com.opengamma.strata.market.interpolator.BoundCurveInterpolator;
 import com.opengamma.strata.market.interpolator.CurveExtrapolator;
 import com.opengamma.strata.market.interpolator.CurveExtrapolators;
 import com.opengamma.strata.market.interpolator.CurveInterpolator;
@@ -272,6 +273,35 @@ public class InterpolatedSmileDeltaTermStructureStrikeInterpolationTest {
     }
   }
 
+  /**
+   * Tests the cached smiles in strike against the smile interpolated in time for each call.
+   */
+  public void volatilityCached() {
+    InterpolatedSmileDeltaTermStructureStrikeInterpolation test = InterpolatedSmileDeltaTermStructureStrikeInterpolation
+        .of(NAME, TIME_TO_EXPIRY, DELTA, ATM, RISK_REVERSAL, STRANGLE);
+    double[] timeToExpiry = new double[] {0.05, 0.75, 1.00, 2.50, 5.00};
+    double[] forward = new double[] {1.40, 1.41};
+    double[] strike = new double[] {1.10, 1.35, 1.40, 1.50, 1.70, 2.20};
+    for (int repeat = 0; repeat < 2; repeat++) {
+      for (double time : timeToExpiry) {
+        for (double fwd : forward) {
+          SmileDeltaParameters smile = test.smileForTime(time);
+          BoundCurveInterpolator bound =
+              INTERPOLATOR_STRIKE.bind(smile.getStrike(fwd), smile.getVolatility(), FLAT, FLAT);
+          for (double k : strike) {
+            double expected = bound.interpolate(k);
+            DoubleMatrix expectedSensi =
+                test.smileAndSensitivitiesForTime(time, bound.parameterSensitivity(k)).getSensitivities();
+            VolatilityAndBucketedSensitivities computed = test.volatilityAndSensitivities(time, k, fwd);
+            assertEquals(expected, test.volatility(time, k, fwd), 0d);
+            assertEquals(expected, computed.getVolatility(), 0d);
+            assertEquals(expectedSensi, computed.getSensitivities());
+          }
+        }
+      }
+    }
+  }
+
   //-------------------------------------------------------------------------
   public void coverage() {
     coverImmutableBean(SMILE_TERM);
@@ -11,10 +11,12 @@ import static org.testng.Assert.assertTrue;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.List;
 import java.util.function.Function;
 
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableList;
 import com.opengamma.strata.basics.currency.CurrencyAmount;
 import com.opengamma.strata.basics.currency.CurrencyPair;
 import com.opengamma.strata.basics.currency.FxRate;
@@ -114,22 +116,7 @@ public class VannaVolgaFxVanillaOptionProductPricerTest {
     for (int i = 0; i < NB_STRIKES; ++i) {
       double computedPriceCall = PRICER.price(CALLS[i], RATES_PROVIDER, VOL_PROVIDER);
       CurrencyAmount computedCall = PRICER.presentValue(CALLS[i], RATES_PROVIDER, VOL_PROVIDER);
-      double timeToExpiry = VOL_PROVIDER.relativeTime(EXPIRY);
-      FxRate forward = FX_PRICER.forwardFxRate(UNDERLYING[i], RATES_PROVIDER);
-      double forwardRate = forward.fxRate(CURRENCY_PAIR);
-      double strikeRate = CALLS[i].getStrike();
-      SmileDeltaParameters smileAtTime = VOL_PROVIDER.getSmile().smileForTime(timeToExpiry);
-      double[] strikes = smileAtTime.getStrike(forwardRate).toArray();
-      double[] vols = smileAtTime.getVolatility().toArray();
-      double df = RATES_PROVIDER.discountFactor(USD, PAY);
-      double[] weights = weights(forwardRate, strikeRate, strikes, timeToExpiry, vols[1]);
-      double expectedPriceCall = BlackFormulaRepository.price(forwardRate, strikeRate, timeToExpiry, vols[1], true);
-      for (int j = 0; j < 3; ++j) {
-        expectedPriceCall += weights[j] * (
-            BlackFormulaRepository.price(forwardRate, strikes[j], timeToExpiry, vols[j], true)
-            - BlackFormulaRepository.price(forwardRate, strikes[j], timeToExpiry, vols[1], true));
-      }
-      expectedPriceCall *= df;
+      double expectedPriceCall = expectedPriceCall(i, VOL_PROVIDER);
       assertEquals(computedPriceCall, expectedPriceCall, TOL);
       assertEquals(computedCall.getAmount(), expectedPriceCall * NOTIONAL, TOL * NOTIONAL);
     }
@@ -297,6 +284,73 @@ public class VannaVolgaFxVanillaOptionProductPricerTest {
     }
   }
 
+  //-------------------------------------------------------------------------
+  public void test_presentValues() {
+    List<ResolvedFxVanillaOption> options = ImmutableList.<ResolvedFxVanillaOption>builder()
+        .add(CALLS)
+        .add(PUTS)
+        .build();
+    List<CurrencyAmount> computed = PRICER.presentValues(options, RATES_PROVIDER, VOL_PROVIDER);
+    assertEquals(computed.size(), 2 * NB_STRIKES);
+    for (int i = 0; i < NB_STRIKES; ++i) {
+      assertEquals(computed.get(i), PRICER.presentValue(CALLS[i], RATES_PROVIDER, VOL_PROVIDER));
+      assertEquals(computed.get(NB_STRIKES + i), PRICER.presentValue(PUTS[i], RATES_PROVIDER, VOL_PROVIDER));
+    }
+  }
+
+  public void test_cachedPillars() {
+    InterpolatedSmileDeltaTermStructureStrikeInterpolation smileBumped =
+        InterpolatedSmileDeltaTermStructureStrikeInterpolation.of(NAME, TIME_TO_EXPIRY, DELTA, ATM.plus(0.01),
+            RISK_REVERSAL, STRANGLE, EXTRAP_STRIKE, INTERP_STRIKE, EXTRAP_STRIKE);
+    BlackVolatilitySmileFxProvider volProviderBumped =
+        BlackVolatilitySmileFxProvider.of(smileBumped, CURRENCY_PAIR, ACT_ACT_ISDA, VAL_DATETIME);
+    VannaVolgaFxVanillaOptionProductPricer pricer = new VannaVolgaFxVanillaOptionProductPricer(FX_PRICER);
+    for (int i = 0; i < NB_STRIKES; ++i) {
+      // the pillar data is cached by the first call, then shared by the following ones
+      double expected = expectedPriceCall(i, VOL_PROVIDER);
+      assertEquals(pricer.price(CALLS[i], RATES_PROVIDER, VOL_PROVIDER), expected, TOL);
+      assertEquals(pricer.price(CALLS[i], RATES_PROVIDER, VOL_PROVIDER), expected, TOL);
+      VannaVolgaFxVanillaOptionProductPricer freshPricer = new VannaVolgaFxVanillaOptionProductPricer(FX_PRICER);
+      assertEquals(
+          pricer.currencyExposure(PUTS[i], RATES_PROVIDER, VOL_PROVIDER),
+          freshPricer.currencyExposure(PUTS[i], RATES_PROVIDER, VOL_PROVIDER));
+      // a different smile is not affected by the cache
+      double priceBumped = pricer.price(CALLS[i], RATES_PROVIDER, volProviderBumped);
+      assertEquals(priceBumped, expectedPriceCall(i, volProviderBumped), TOL);
+      assertTrue(priceBumped > expected);
+    }
+    assertEquals(pricer.cachedSmileCount(), 2L);
+    // an equal smile is a different cache entry, as the smiles are matched by identity
+    InterpolatedSmileDeltaTermStructureStrikeInterpolation smileCopy =
+        InterpolatedSmileDeltaTermStructureStrikeInterpolation.of(NAME, TIME_TO_EXPIRY, DELTA, ATM,
+            RISK_REVERSAL, STRANGLE, EXTRAP_STRIKE, INTERP_STRIKE, EXTRAP_STRIKE);
+    assertEquals(smileCopy, SMILE_TERM);
+    BlackVolatilitySmileFxProvider volProviderCopy =
+        BlackVolatilitySmileFxProvider.of(smileCopy, CURRENCY_PAIR, ACT_ACT_ISDA, VAL_DATETIME);
+    assertEquals(pricer.price(CALLS[0], RATES_PROVIDER, volProviderCopy), expectedPriceCall(0, VOL_PROVIDER), TOL);
+    assertEquals(pricer.cachedSmileCount(), 3L);
+  }
+
+  // the price of the call computed from the Vanna-Volga formula
+  private double expectedPriceCall(int i, BlackVolatilitySmileFxProvider volProvider) {
+    double timeToExpiry = volProvider.relativeTime(EXPIRY);
+    FxRate forward = FX_PRICER.forwardFxRate(UNDERLYING[i], RATES_PROVIDER);
+    double forwardRate = forward.fxRate(CURRENCY_PAIR);
+    double strikeRate = CALLS[i].getStrike();
+    SmileDeltaParameters smileAtTime = volProvider.getSmile().smileForTime(timeToExpiry);
+    double[] strikes = smileAtTime.getStrike(forwardRate).toArray();
+    double[] vols = smileAtTime.getVolatility().toArray();
+    double df = RATES_PROVIDER.discountFactor(USD, PAY);
+    double[] weights = weights(forwardRate, strikeRate, strikes, timeToExpiry, vols[1]);
+    double expectedPriceCall = BlackFormulaRepository.price(forwardRate, strikeRate, timeToExpiry, vols[1], true);
+    for (int j = 0; j < 3; ++j) {
+      expectedPriceCall += weights[j] * (
+          BlackFormulaRepository.price(forwardRate, strikes[j], timeToExpiry, vols[j], true)
+          - BlackFormulaRepository.price(forwardRate, strikes[j], timeToExpiry, vols[1], true));
+    }
+    return expectedPriceCall * df;
+  }
+
   //-------------------------------------------------------------------------
   public void regression_test() {
     double[] expected = new double[] {
@@ -0,0 +1,158 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.credit.isda;
+
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static org.testng.Assert.assertEquals;
+
+import java.time.LocalDate;
+import java.time.Period;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.strata.basics.date.HolidayCalendar;
+import com.opengamma.strata.basics.date.HolidayCalendars;
+import com.opengamma.strata.basics.schedule.StubConvention;
+import com.opengamma.strata.market.ShiftType;
+
+/**
+ * Test {@link ParallelSpreadSensitivityCalculator}.
+ */
+@Test
+public class ParallelSpreadSensitivityCalculatorTest {
+
+  private static final FiniteDifferenceSpreadSensitivityCalculator FD_CAL = new FiniteDifferenceSpreadSensitivityCalculator();
+  private static final ParallelSpreadSensitivityCalculator PARALLEL_CAL = new ParallelSpreadSensitivityCalculator();
+  private static final HolidayCalendar DEFAULT_CALENDAR = HolidayCalendars.SAT_SUN;
+  private static final double TOL = 1e-8;
+
+  private static final LocalDate TODAY = LocalDate.of(2013, 4, 21);
+  private static final LocalDate EFFECTIVE_DATE = TODAY.plusDays(1);
+  private static final LocalDate CASH_SETTLE_DATE = DEFAULT_CALENDAR.shift(TODAY, 3);
+  private static final double RECOVERY_RATE = 0.4;
+  private static final double DEAL_SPREAD = 0.01;
+  private static final LocalDate[] PAR_SPD_DATES = new LocalDate[] {
+      LocalDate.of(2013, 6, 20), LocalDate.of(2013, 9, 20), LocalDate.of(2014, 3, 20), LocalDate.of(2015, 3, 20),
+      LocalDate.of(2016, 3, 20), LocalDate.of(2018, 3, 20), LocalDate.of(2023, 3, 20)};
+  private static final double[] PAR_SPREADS = new double[] {0.0050, 0.0070, 0.0080, 0.0095, 0.0100, 0.0095, 0.0080};
+  private static final int NUM_MARKET_CDS = PAR_SPD_DATES.length;
+  private static final CdsAnalytic[] MARKET_CDS = new CdsAnalytic[NUM_MARKET_CDS];
+  private static final CdsAnalytic[] TRADE_CDS = new CdsAnalytic[3];
+  private static final IsdaCompliantYieldCurve YIELD_CURVE =
+      new IsdaCompliantYieldCurve(new double[] {1d, 5d, 20d}, new double[] {0.01, 0.03, 0.05});
+
+  static {
+    Period tenor = Period.ofMonths(3);
+    StubConvention stubType = StubConvention.SHORT_INITIAL;
+    for (int i = 0; i < NUM_MARKET_CDS; i++) {
+      MARKET_CDS[i] = new CdsAnalytic(
+          TODAY, EFFECTIVE_DATE, CASH_SETTLE_DATE, TODAY, PAR_SPD_DATES[i], true, tenor, stubType, true, RECOVERY_RATE);
+    }
+    LocalDate[] tradeEnds = new LocalDate[] {LocalDate.of(2014, 6, 20), LocalDate.of(2018, 3, 20), LocalDate.of(2021, 12, 20)};
+    for (int i = 0; i < TRADE_CDS.length; i++) {
+      TRADE_CDS[i] = new CdsAnalytic(TODAY, EFFECTIVE_DATE, CASH_SETTLE_DATE, LocalDate.of(2013, 2, 3), tradeEnds[i],
+          true, tenor, stubType, true, RECOVERY_RATE);
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_singleCds() {
+    for (ShiftType shiftType : ShiftType.values()) {
+      double bump = shiftType == ShiftType.ABSOLUTE ? 1e-4 : 1e-2;
+      for (CdsAnalytic cds : TRADE_CDS) {
+        double[] expected =
+            FD_CAL.bucketedCS01FromParSpreads(cds, DEAL_SPREAD, YIELD_CURVE, MARKET_CDS, PAR_SPREADS, bump, shiftType);
+        double[] computed =
+            PARALLEL_CAL.bucketedCS01FromParSpreads(cds, DEAL_SPREAD, YIELD_CURVE, MARKET_CDS, PAR_SPREADS, bump, shiftType);
+        assertArray(computed, expected);
+      }
+    }
+  }
+
+  public void test_multipleCds() {
+    double[] coupons = new double[] {0.01, 0.05, 0.01};
+    double[][] computed = PARALLEL_CAL.bucketedCS01FromParSpreads(
+        TRADE_CDS, coupons, YIELD_CURVE, MARKET_CDS, PAR_SPREADS, 1e-4, ShiftType.ABSOLUTE);
+    assertEquals(computed.length, TRADE_CDS.length);
+    for (int i = 0; i < TRADE_CDS.length; i++) {
+      double[] expected = FD_CAL.bucketedCS01FromParSpreads(
+          TRADE_CDS[i], coupons[i], YIELD_CURVE, MARKET_CDS, PAR_SPREADS, 1e-4, ShiftType.ABSOLUTE);
+      assertArray(computed[i], expected);
+    }
+  }
+
+  public void test_multipleNames() {
+    int nNames = 25;
+    double[][] spreads = new double[nNames][NUM_MARKET_CDS];
+    for (int k = 0; k < nNames; k++) {
+      for (int i = 0; i < NUM_MARKET_CDS; i++) {
+        spreads[k][i] = PAR_SPREADS[i] * (0.5 + 0.1 * k);
+      }
+    }
+    double[][] computed = PARALLEL_CAL.bucketedCS01FromParSpreads(
+        TRADE_CDS[1], DEAL_SPREAD, YIELD_CURVE, MARKET_CDS, spreads, 1e-4, ShiftType.ABSOLUTE);
+    assertEquals(computed.length, nNames);
+    for (int k = 0; k < nNames; k++) {
+      double[] expected = FD_CAL.bucketedCS01FromParSpreads(
+          TRADE_CDS[1], DEAL_SPREAD, YIELD_CURVE, MARKET_CDS, spreads[k], 1e-4, ShiftType.ABSOLUTE);
+      assertArray(computed[k], expected);
+    }
+  }
+
+  public void test_formula() {
+    AccrualOnDefaultFormulae formula = AccrualOnDefaultFormulae.MARKIT_FIX;
+    double[] expected = new FiniteDifferenceSpreadSensitivityCalculator(formula).bucketedCS01FromParSpreads(
+        TRADE_CDS[2], DEAL_SPREAD, YIELD_CURVE, MARKET_CDS, PAR_SPREADS, 1e-4, ShiftType.ABSOLUTE);
+    double[] computed = new ParallelSpreadSensitivityCalculator(formula).bucketedCS01FromParSpreads(
+        TRADE_CDS[2], DEAL_SPREAD, YIELD_CURVE, MARKET_CDS, PAR_SPREADS, 1e-4, ShiftType.ABSOLUTE);
+    assertArray(computed, expected);
+  }
+
+  public void test_warmStartCalibration() {
+    FastCreditCurveBuilder builder = new FastCreditCurveBuilder();
+    double[] premiums = new double[NUM_MARKET_CDS];
+    double[] puf = new double[NUM_MARKET_CDS];
+    IsdaCompliantCreditCurve base = builder.calibrateCreditCurve(MARKET_CDS, PAR_SPREADS, YIELD_CURVE);
+    for (int i = 0; i < NUM_MARKET_CDS; i++) {
+      System.arraycopy(PAR_SPREADS, 0, premiums, 0, NUM_MARKET_CDS);
+      premiums[i] += 1e-4;
+      IsdaCompliantCreditCurve expected = builder.calibrateCreditCurve(MARKET_CDS, premiums, YIELD_CURVE, puf);
+      IsdaCompliantCreditCurve computed = builder.calibrateCreditCurve(MARKET_CDS, premiums, YIELD_CURVE, puf, base, i);
+      for (int j = 0; j < NUM_MARKET_CDS; j++) {
+        assertEquals(computed.getZeroRateAtIndex(j), expected.getZeroRateAtIndex(j), 1e-12);
+      }
+    }
+  }
+
+  public void test_badInputs() {
+    assertThrowsIllegalArg(() -> PARALLEL_CAL.bucketedCS01FromParSpreads(
+        TRADE_CDS[0], DEAL_SPREAD, YIELD_CURVE, MARKET_CDS, PAR_SPREADS, 1e-12, ShiftType.ABSOLUTE));
+    assertThrowsIllegalArg(() -> PARALLEL_CAL.bucketedCS01FromParSpreads(
+        TRADE_CDS[0], DEAL_SPREAD, YIELD_CURVE, MARKET_CDS, new double[] {0.01}, 1e-4, ShiftType.ABSOLUTE));
+    assertThrowsIllegalArg(() -> PARALLEL_CAL.bucketedCS01FromParSpreads(
+        TRADE_CDS, new double[] {0.01}, YIELD_CURVE, MARKET_CDS, PAR_SPREADS, 1e-4, ShiftType.ABSOLUTE));
+    IsdaCompliantCreditCurve base = new FastCreditCurveBuilder().calibrateCreditCurve(MARKET_CDS, PAR_SPREADS, YIELD_CURVE);
+    assertThrowsIllegalArg(() -> new FastCreditCurveBuilder().calibrateCreditCurve(
+        MARKET_CDS, PAR_SPREADS, YIELD_CURVE, new double[NUM_MARKET_CDS], base, NUM_MARKET_CDS));
+    // the warm start validates the CDSs in the same way as the full calibration
+    CdsAnalytic[] otherStart = MARKET_CDS.clone();
+    otherStart[3] = new CdsAnalytic(TODAY, EFFECTIVE_DATE.plusDays(5), CASH_SETTLE_DATE, TODAY, PAR_SPD_DATES[3],
+        true, Period.ofMonths(3), StubConvention.SHORT_INITIAL, true, RECOVERY_RATE);
+    assertThrowsIllegalArg(() -> new FastCreditCurveBuilder().calibrateCreditCurve(
+        otherStart, PAR_SPREADS, YIELD_CURVE, new double[NUM_MARKET_CDS], base, 0));
+    assertThrowsIllegalArg(() -> new FastCreditCurveBuilder().calibrateCreditCurve(
+        otherStart, PAR_SPREADS, YIELD_CURVE, new double[NUM_MARKET_CDS]));
+  }
+
+  //-------------------------------------------------------------------------
+  private void assertArray(double[] computed, double[] expected) {
+    assertEquals(computed.length, expected.length);
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(computed[i], expected[i], TOL);
+    }
+  }
+
+}
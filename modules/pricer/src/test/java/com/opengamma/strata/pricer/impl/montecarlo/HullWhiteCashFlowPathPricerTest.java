@@ -0,0 +1,82 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ * 
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static org.testng.Assert.assertEquals;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.pricer.index.HullWhiteOneFactorPiecewiseConstantParameters;
+
+/**
+ * Test {@link HullWhiteCashFlowPathPricer}.
+ */
+@Test
+public class HullWhiteCashFlowPathPricerTest {
+
+  private static final HullWhiteOneFactorPiecewiseConstantParameters PARAMETERS = HullWhiteOneFactorPiecewiseConstantParameters
+      .of(0.05, DoubleArray.of(0.01, 0.011, 0.012, 0.013, 0.014), DoubleArray.of(0.5, 1.0, 2.0, 5.0));
+  private static final DoubleArray TIMES = DoubleArray.of(0.5, 1d, 2d, 3d);
+  private static final HullWhitePathSimulator SIMULATOR = HullWhitePathSimulator.of(PARAMETERS, TIMES);
+  private static final double RATE = 0.02;
+  private static final DoubleArray DISCOUNT_FACTORS = DoubleArray.of(TIMES.size(), k -> Math.exp(-RATE * TIMES.get(k)));
+  private static final DoubleArray PAYMENT_TIMES = DoubleArray.of(1d, 2d, 3d, 4d, 1.5);
+  private static final DoubleArray AMOUNTS = DoubleArray.of(100d, 100d, 100d, 10_100d, -5_000d);
+  private static final DoubleArray DISCOUNTED_AMOUNTS =
+      DoubleArray.of(AMOUNTS.size(), i -> AMOUNTS.get(i) * Math.exp(-RATE * PAYMENT_TIMES.get(i)));
+  private static final int NB_PATHS = 20_000;
+
+  //-------------------------------------------------------------------------
+  public void test_of() {
+    assertThrowsIllegalArg(() -> HullWhiteCashFlowPathPricer.of(
+        SIMULATOR, PAYMENT_TIMES, DoubleArray.of(1d), DISCOUNT_FACTORS));
+    assertThrowsIllegalArg(() -> HullWhiteCashFlowPathPricer.of(
+        SIMULATOR, PAYMENT_TIMES, DISCOUNTED_AMOUNTS, DoubleArray.of(1d)));
+  }
+
+  public void test_value() {
+    HullWhiteCashFlowPathPricer test =
+        HullWhiteCashFlowPathPricer.of(SIMULATOR, PAYMENT_TIMES, DISCOUNTED_AMOUNTS, DISCOUNT_FACTORS);
+    double[] paths = MonteCarloEngine.of(3, 7L, false).simulate(SIMULATOR);
+    for (int path = 0; path < 3; path++) {
+      for (int k = 0; k < TIMES.size(); k++) {
+        double expected = 0d;
+        for (int i = 0; i < PAYMENT_TIMES.size(); i++) {
+          if (PAYMENT_TIMES.get(i) > TIMES.get(k)) {
+            expected += AMOUNTS.get(i) * Math.exp(-RATE * (PAYMENT_TIMES.get(i) - TIMES.get(k))) *
+                SIMULATOR.bondAdjustment(paths, path, k, PAYMENT_TIMES.get(i));
+          }
+        }
+        assertEquals(test.value(paths, path, k), expected, 1e-10);
+        double deflator = DISCOUNT_FACTORS.get(k) * SIMULATOR.numeraireAdjustment(paths, path, k);
+        assertEquals(test.deflator(paths, path, k), deflator, 1e-15);
+        assertEquals(test.deflatedValue(paths, path, k), expected * deflator, 1e-10);
+      }
+    }
+  }
+
+  public void test_deflatedValue_expectation() {
+    HullWhiteCashFlowPathPricer test =
+        HullWhiteCashFlowPathPricer.of(SIMULATOR, PAYMENT_TIMES, DISCOUNTED_AMOUNTS, DISCOUNT_FACTORS);
+    double[] paths = MonteCarloEngine.of(NB_PATHS, 3L, true).simulate(SIMULATOR);
+    for (int k = 0; k < TIMES.size(); k++) {
+      double expected = 0d;
+      for (int i = 0; i < PAYMENT_TIMES.size(); i++) {
+        if (PAYMENT_TIMES.get(i) > TIMES.get(k)) {
+          expected += DISCOUNTED_AMOUNTS.get(i);
+        }
+      }
+      double[] values = new double[NB_PATHS];
+      for (int path = 0; path < NB_PATHS; path++) {
+        values[path] = test.deflatedValue(paths, path, k);
+      }
+      HullWhitePathSimulatorTest.assertMean(values, expected);
+    }
+  }
+
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ * 
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static org.testng.Assert.assertEquals;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.pricer.impl.rate.model.HullWhiteOneFactorPiecewiseConstantInterestRateModel;
+import com.opengamma.strata.pricer.index.HullWhiteOneFactorPiecewiseConstantParameters;
+
+/**
+ * Test {@link HullWhitePathSimulator}.
+ */
+@Test
+public class HullWhitePathSimulatorTest {
+
+  private static final HullWhiteOneFactorPiecewiseConstantParameters PARAMETERS = HullWhiteOneFactorPiecewiseConstantParameters
+      .of(0.05, DoubleArray.of(0.01, 0.011, 0.012, 0.013, 0.014), DoubleArray.of(0.5, 1.0, 2.0, 5.0));
+  private static final HullWhiteOneFactorPiecewiseConstantInterestRateModel MODEL =
+      HullWhiteOneFactorPiecewiseConstantInterestRateModel.DEFAULT;
+  private static final DoubleArray TIMES = DoubleArray.of(0.25, 0.75, 1.5, 3.0, 7.0);
+  private static final HullWhitePathSimulator SIMULATOR = HullWhitePathSimulator.of(PARAMETERS, TIMES);
+  private static final int NB_PATHS = 20_000;
+  private static final double[] PATHS = MonteCarloEngine.of(NB_PATHS, 7L, true).simulate(SIMULATOR);
+
+  //-------------------------------------------------------------------------
+  public void test_of() {
+    assertEquals(SIMULATOR.getTimes(), TIMES);
+    assertEquals(SIMULATOR.getDimension(), 10);
+    assertEquals(SIMULATOR.getStateSize(), 10);
+    assertThrowsIllegalArg(() -> HullWhitePathSimulator.of(PARAMETERS, DoubleArray.EMPTY));
+    assertThrowsIllegalArg(() -> HullWhitePathSimulator.of(PARAMETERS, DoubleArray.of(1d, 0.5)));
+    assertThrowsIllegalArg(() -> HullWhitePathSimulator.of(PARAMETERS, DoubleArray.of(-1d, 0.5)));
+  }
+
+  public void test_variance() {
+    // the bond volatility is the volatility of the state multiplied by the bond factor
+    double maturity = 10d;
+    for (int k = 0; k < TIMES.size(); k++) {
+      double time = TIMES.get(k);
+      double alpha = MODEL.alpha(PARAMETERS, 0d, time, time, maturity);
+      double b = SIMULATOR.bondFactor(k, maturity);
+      assertEquals(Math.sqrt(SIMULATOR.varianceX(k)) * b, alpha, 1e-12);
+    }
+  }
+
+  public void test_martingale() {
+    double[] maturities = new double[] {0.5, 2d, 10d};
+    for (int k = 0; k < TIMES.size(); k++) {
+      // deflator
+      double[] deflators = new double[NB_PATHS];
+      for (int path = 0; path < NB_PATHS; path++) {
+        deflators[path] = SIMULATOR.numeraireAdjustment(PATHS, path, k);
+      }
+      assertMean(deflators, 1d);
+      // deflated bonds
+      for (double maturity : maturities) {
+        if (maturity > TIMES.get(k)) {
+          double[] bonds = new double[NB_PATHS];
+          for (int path = 0; path < NB_PATHS; path++) {
+            bonds[path] = deflators[path] * SIMULATOR.bondAdjustment(PATHS, path, k, maturity);
+          }
+          assertMean(bonds, 1d);
+        }
+      }
+    }
+  }
+
+  public void test_variance_sample() {
+    int k = TIMES.size() - 1;
+    double sumSquare = 0d;
+    for (int path = 0; path < NB_PATHS; path++) {
+      double x = SIMULATOR.state(PATHS, path, k);
+      sumSquare += x * x;
+    }
+    assertEquals(sumSquare / NB_PATHS, SIMULATOR.varianceX(k), 0.05 * SIMULATOR.varianceX(k));
+  }
+
+  //-------------------------------------------------------------------------
+  // checks the sample mean is within four standard errors
+  static void assertMean(double[] values, double expected) {
+    double sum = 0d;
+    double sumSquare = 0d;
+    for (double value : values) {
+      sum += value;
+      sumSquare += value * value;
+    }
+    int n = values.length;
+    double mean = sum / n;
+    double stdError = Math.sqrt(Math.max(sumSquare / n - mean * mean, 0d) / n);
+    assertEquals(mean, expected, 4d * stdError + 1e-12);
+  }
+
+}
@@ -0,0 +1,156 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ * 
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+/**
+ * Test {@link MonteCarloEngine}.
+ */
+@Test
+public class MonteCarloEngineTest {
+
+  private static final int DIMENSION = 3;
+  /**
+   * Simulator storing the random numbers and their sum.
+   */
+  private static final PathSimulator COPY = new PathSimulator() {
+    @Override
+    public int getDimension() {
+      return DIMENSION;
+    }
+
+    @Override
+    public int getStateSize() {
+      return DIMENSION + 1;
+    }
+
+    @Override
+    public void simulate(double[] normals, int normalsOffset, double[] states, int statesOffset) {
+      double sum = 0d;
+      for (int i = 0; i < DIMENSION; i++) {
+        states[statesOffset + i] = normals[normalsOffset + i];
+        sum += normals[normalsOffset + i];
+      }
+      states[statesOffset + DIMENSION] = sum;
+    }
+  };
+
+  //-------------------------------------------------------------------------
+  public void test_of() {
+    MonteCarloEngine test = MonteCarloEngine.of(1000, 100, 12L, true);
+    assertEquals(test.getPathCount(), 1000);
+    assertEquals(test.getChunkSize(), 100);
+    assertEquals(test.getSeed(), 12L);
+    assertTrue(test.isAntithetic());
+    MonteCarloEngine test2 = MonteCarloEngine.of(1000, 12L, false);
+    assertEquals(test2.getChunkSize(), 1024);
+    assertFalse(test2.isAntithetic());
+    assertThrowsIllegalArg(() -> MonteCarloEngine.of(0, 100, 12L, false));
+    assertThrowsIllegalArg(() -> MonteCarloEngine.of(1000, 0, 12L, false));
+    assertThrowsIllegalArg(() -> MonteCarloEngine.of(1000, 99, 12L, true));
+  }
+
+  public void test_simulate() {
+    MonteCarloEngine test = MonteCarloEngine.of(1001, 64, 3L, false);
+    double[] paths = test.simulate(COPY);
+    assertEquals(paths.length, 1001 * (DIMENSION + 1));
+    double sum = 0d;
+    double sumSquare = 0d;
+    for (int path = 0; path < 1001; path++) {
+      for (int i = 0; i < DIMENSION; i++) {
+        double z = paths[path * (DIMENSION + 1) + i];
+        sum += z;
+        sumSquare += z * z;
+      }
+    }
+    int n = 1001 * DIMENSION;
+    assertEquals(sum / n, 0d, 4d / Math.sqrt(n));
+    assertEquals(sumSquare / n, 1d, 0.1);
+    // the last path of the last partial chunk is simulated
+    assertTrue(paths[1000 * (DIMENSION + 1)] != 0d);
+  }
+
+  public void test_simulate_reproducible() {
+    double[] paths1 = MonteCarloEngine.of(5000, 100, 7L, false).simulate(COPY);
+    double[] paths2 = MonteCarloEngine.of(5000, 100, 7L, false).simulate(COPY);
+    double[] paths3 = MonteCarloEngine.of(5000, 100, 8L, false).simulate(COPY);
+    assertTrue(Arrays.equals(paths1, paths2));
+    assertFalse(Arrays.equals(paths1, paths3));
+    // the paths of a chunk do not depend on the number of paths
+    double[] paths4 = MonteCarloEngine.of(250, 100, 7L, false).simulate(COPY);
+    assertTrue(Arrays.equals(paths4, Arrays.copyOf(paths1, paths4.length)));
+  }
+
+  public void test_simulate_antithetic() {
+    MonteCarloEngine test = MonteCarloEngine.of(101, 10, 5L, true);
+    double[] paths = test.simulate(COPY);
+    int stateSize = DIMENSION + 1;
+    for (int path = 0; path < 100; path += 2) {
+      for (int i = 0; i < stateSize; i++) {
+        assertEquals(paths[(path + 1) * stateSize + i], -paths[path * stateSize + i]);
+      }
+    }
+    assertTrue(paths[100 * stateSize] != 0d);
+  }
+
+  public void test_simulate_accumulator() {
+    MonteCarloEngine test = MonteCarloEngine.of(5001, 10, 9L, false);
+    double[] paths = test.simulate(COPY);
+    AtomicInteger liveCount = new AtomicInteger();
+    AtomicInteger maxLiveCount = new AtomicInteger();
+    SumAccumulator result = test.simulate(COPY, () -> new SumAccumulator(liveCount, maxLiveCount));
+    // the accumulators are combined in the order of the chunks
+    double[] expected = new double[5001];
+    for (int path = 0; path < 5001; path++) {
+      expected[path] = paths[path * (DIMENSION + 1) + DIMENSION];
+    }
+    assertTrue(Arrays.equals(result.sums.stream().mapToDouble(Double::doubleValue).toArray(), expected));
+    // the accumulators of the chunks are not all held at once
+    assertTrue(maxLiveCount.get() <= 2 * Math.max(ForkJoinPool.getCommonPoolParallelism(), 1) + 1);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Accumulator recording the sum of each path, and counting the accumulators not yet combined.
+   */
+  private static final class SumAccumulator implements PathAccumulator<SumAccumulator> {
+
+    private final List<Double> sums = new ArrayList<>();
+    private final AtomicInteger liveCount;
+
+    private SumAccumulator(AtomicInteger liveCount, AtomicInteger maxLiveCount) {
+      this.liveCount = liveCount;
+      maxLiveCount.accumulateAndGet(liveCount.incrementAndGet(), Math::max);
+    }
+
+    @Override
+    public void accumulate(double[] paths, int pathCount) {
+      for (int path = 0; path < pathCount; path++) {
+        sums.add(paths[path * (DIMENSION + 1) + DIMENSION]);
+      }
+    }
+
+    @Override
+    public SumAccumulator combinedWith(SumAccumulator other) {
+      sums.addAll(other.sums);
+      liveCount.decrementAndGet();
+      return this;
+    }
+  }
+
+}
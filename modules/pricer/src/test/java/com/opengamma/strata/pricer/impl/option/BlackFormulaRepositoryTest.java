@@ -5,11 +5,13 @@
  */
 package com.opengamma.strata.pricer.impl.option;
 
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
 import static com.opengamma.strata.product.common.PutCall.CALL;
 import static com.opengamma.strata.product.common.PutCall.PUT;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
+import java.util.Arrays;
 import java.util.function.Function;
 
 import org.testng.annotations.Test;
@@ -8349,6 +8351,113 @@ public class BlackFormulaRepositoryTest {
     BlackFormulaRepository.impliedVolatility(10., FORWARD, STRIKES_INPUT[1], -TIME_TO_EXPIRY, true);
   }
 
+  //-------------------------------------------------------------------------
+  public void impliedVolatilities() {
+    double[] times = new double[] {0.01, 0.25, 1d, 4.5, 30d};
+    double[] vols = new double[] {0.005, 0.05, 0.2, 0.8, 2.5};
+    double[] moneyness = new double[] {0.2, 0.5, 0.9, 0.99, 1d, 1.01, 1.1, 2d, 5d};
+    int size = times.length * vols.length * moneyness.length;
+    double[] forwards = new double[size];
+    double[] strikes = new double[size];
+    double[] expiries = new double[size];
+    double[] expected = new double[size];
+    double[] callPrices = new double[size];
+    double[] putPrices = new double[size];
+    int n = 0;
+    for (double time : times) {
+      for (double vol : vols) {
+        for (double m : moneyness) {
+          double strike = FORWARD * m;
+          double callPrice = BlackFormulaRepository.price(FORWARD, strike, time, vol, true);
+          double putPrice = BlackFormulaRepository.price(FORWARD, strike, time, vol, false);
+          // restrict to the options whose out-the-money price is resolved in double precision
+          if (Math.min(callPrice, putPrice) > 1e-8 * FORWARD) {
+            forwards[n] = FORWARD;
+            strikes[n] = strike;
+            expiries[n] = time;
+            expected[n] = vol;
+            callPrices[n] = callPrice;
+            putPrices[n] = putPrice;
+            n++;
+          }
+        }
+      }
+    }
+    forwards = Arrays.copyOf(forwards, n);
+    strikes = Arrays.copyOf(strikes, n);
+    expiries = Arrays.copyOf(expiries, n);
+    double[] callVols = BlackFormulaRepository.impliedVolatilities(
+        Arrays.copyOf(callPrices, n), forwards, strikes, expiries, true);
+    double[] putVols = BlackFormulaRepository.impliedVolatilities(
+        Arrays.copyOf(putPrices, n), forwards, strikes, expiries, false);
+    for (int i = 0; i < n; i++) {
+      boolean isCall = strikes[i] >= forwards[i];
+      double otmPrice = isCall ? callPrices[i] : putPrices[i];
+      double volScalar =
+          BlackFormulaRepository.impliedVolatility(otmPrice, forwards[i], strikes[i], expiries[i], isCall);
+      double volBatch = isCall ? callVols[i] : putVols[i];
+      // the generic solver stops at a tolerance of 1e-9 on the volatility
+      // the accuracy is limited by the vega for the very high volatilities
+      double vega = BlackFormulaRepository.vega(forwards[i], strikes[i], expiries[i], expected[i]);
+      assertEquals(volBatch, volScalar, 1e-6 * expected[i] + 1e-12 * FORWARD / vega);
+      assertEquals(volBatch, expected[i], 1e-10 * expected[i] + 1e-12 * FORWARD / vega);
+    }
+  }
+
+  public void impliedVolatilitiesAdjoint() {
+    int nStrikes = STRIKES_INPUT.length;
+    int nVols = VOLS.length;
+    double[] prices = new double[nStrikes * nVols];
+    double[] forwards = new double[nStrikes * nVols];
+    double[] strikes = new double[nStrikes * nVols];
+    double[] expiries = new double[nStrikes * nVols];
+    for (int i = 0; i < nStrikes; ++i) {
+      for (int j = 0; j < nVols; ++j) {
+        prices[i * nVols + j] = PRE_COMPUTER_PRICES[i][j];
+        forwards[i * nVols + j] = FORWARD;
+        strikes[i * nVols + j] = STRIKES_INPUT[i];
+        expiries[i * nVols + j] = TIME_TO_EXPIRY;
+      }
+    }
+    double[] derivatives = new double[nStrikes * nVols];
+    double[] vols =
+        BlackFormulaRepository.impliedVolatilitiesAdjoint(prices, forwards, strikes, expiries, true, derivatives);
+    for (int i = 0; i < nStrikes * nVols; ++i) {
+      ValueDerivatives expected = BlackFormulaRepository.impliedVolatilityAdjoint(
+          prices[i], forwards[i], strikes[i], expiries[i], true);
+      assertEquals(vols[i], expected.getValue(), 1e-9);
+      assertEquals(vols[i], VOLS[i % nVols], 1e-9);
+      assertEquals(derivatives[i], expected.getDerivative(0), 1e-7 * Math.abs(expected.getDerivative(0)));
+    }
+  }
+
+  public void impliedVolatilities_boundaries() {
+    double atmPrice = BlackFormulaRepository.price(FORWARD, FORWARD, TIME_TO_EXPIRY, VOLS[2], true);
+    double[] vols = BlackFormulaRepository.impliedVolatilities(
+        new double[] {0d, FORWARD - STRIKES_INPUT[0], atmPrice},
+        new double[] {FORWARD, FORWARD, FORWARD},
+        new double[] {STRIKES_INPUT[8], STRIKES_INPUT[0], FORWARD},
+        new double[] {TIME_TO_EXPIRY, TIME_TO_EXPIRY, TIME_TO_EXPIRY},
+        true);
+    assertEquals(vols[0], 0d);
+    assertEquals(vols[1], 0d);
+    assertEquals(vols[2], VOLS[2], 1e-12);
+  }
+
+  public void impliedVolatilities_invalid() {
+    double[] single = new double[] {TIME_TO_EXPIRY};
+    assertThrowsIllegalArg(() -> BlackFormulaRepository.impliedVolatilities(
+        new double[] {1d, 2d}, new double[] {FORWARD}, new double[] {FORWARD}, single, true));
+    assertThrowsIllegalArg(() -> BlackFormulaRepository.impliedVolatilities(
+        new double[] {-1d}, new double[] {FORWARD}, new double[] {FORWARD}, single, true));
+    assertThrowsIllegalArg(() -> BlackFormulaRepository.impliedVolatilities(
+        new double[] {1d}, new double[] {-FORWARD}, new double[] {FORWARD}, single, true));
+    assertThrowsIllegalArg(() -> BlackFormulaRepository.impliedVolatilities(
+        new double[] {FORWARD}, new double[] {FORWARD}, new double[] {STRIKES_INPUT[8]}, single, true));
+    assertThrowsIllegalArg(() -> BlackFormulaRepository.impliedVolatilitiesAdjoint(
+        new double[] {1d}, new double[] {FORWARD}, new double[] {FORWARD}, single, true, new double[2]));
+  }
+
   public void volInitialGuessTest() {
     int nStrikes = STRIKES_INPUT.length;
     int nVols = VOLS.length;
@@ -8,6 +8,8 @@ package com.opengamma.strata.pricer.impl.option;
 import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
 import static org.testng.AssertJUnit.assertEquals;
 
+import java.util.Arrays;
+
 import org.testng.annotations.Test;
 
 import com.opengamma.strata.basics.value.ValueDerivatives;
@@ -65,6 +67,66 @@ public class NormalFormulaRepositoryImpliedVolatilityTest {
     assertThrowsIllegalArg(() -> impliedVolatility(data, option2, 1e-6));
   }
 
+  public void implied_volatilities() {
+    double[] times = new double[] {0.01, 1d, T, 30d};
+    double[] strikes = new double[] {50d, 80d, 99d, 100d, 101d, 120d, 200d};
+    double[] vols = new double[] {0.01, 1d, 10d, 50d};
+    int size = times.length * strikes.length * vols.length;
+    double[] forwards = new double[size];
+    double[] strikesAll = new double[size];
+    double[] timesAll = new double[size];
+    double[] callPrices = new double[size];
+    double[] putPrices = new double[size];
+    double[] expected = new double[size];
+    int n = 0;
+    for (double time : times) {
+      for (double strike : strikes) {
+        for (double vol : vols) {
+          double callPrice = NormalFormulaRepository.price(FORWARD, strike, time, vol, PutCall.CALL);
+          double putPrice = NormalFormulaRepository.price(FORWARD, strike, time, vol, PutCall.PUT);
+          // restrict to the options whose out-the-money price is resolved in double precision
+          if (Math.min(callPrice, putPrice) > 1e-8 * FORWARD) {
+            forwards[n] = FORWARD;
+            strikesAll[n] = strike;
+            timesAll[n] = time;
+            callPrices[n] = callPrice;
+            putPrices[n] = putPrice;
+            expected[n] = vol;
+            n++;
+          }
+        }
+      }
+    }
+    forwards = Arrays.copyOf(forwards, n);
+    strikesAll = Arrays.copyOf(strikesAll, n);
+    timesAll = Arrays.copyOf(timesAll, n);
+    double[] callVols = NormalFormulaRepository.impliedVolatilities(
+        Arrays.copyOf(callPrices, n), forwards, strikesAll, timesAll, PutCall.CALL);
+    double[] putVols = NormalFormulaRepository.impliedVolatilities(
+        Arrays.copyOf(putPrices, n), forwards, strikesAll, timesAll, PutCall.PUT);
+    for (int i = 0; i < n; i++) {
+      PutCall putCall = strikesAll[i] >= FORWARD ? PutCall.CALL : PutCall.PUT;
+      double otmPrice = putCall.isCall() ? callPrices[i] : putPrices[i];
+      double volBatch = putCall.isCall() ? callVols[i] : putVols[i];
+      double volScalar =
+          NormalFormulaRepository.impliedVolatility(otmPrice, FORWARD, strikesAll[i], timesAll[i], 0d, 1d, putCall);
+      assertEquals(volScalar, volBatch, 1e-8 * expected[i]);
+      assertEquals(expected[i], volBatch, 1e-8 * expected[i]);
+    }
+  }
+
+  public void implied_volatilities_intrinsic() {
+    double[] vols = NormalFormulaRepository.impliedVolatilities(
+        new double[] {0d, 10d}, new double[] {FORWARD, FORWARD}, new double[] {110d, 90d}, new double[] {T, T},
+        PutCall.CALL);
+    assertEquals(0d, vols[0]);
+    assertEquals(0d, vols[1]);
+    assertThrowsIllegalArg(() -> NormalFormulaRepository.impliedVolatilities(
+        new double[] {5d}, new double[] {FORWARD}, new double[] {90d}, new double[] {T}, PutCall.CALL));
+    assertThrowsIllegalArg(() -> NormalFormulaRepository.impliedVolatilities(
+        new double[] {5d, 6d}, new double[] {FORWARD}, new double[] {90d}, new double[] {T}, PutCall.CALL));
+  }
+
   private double impliedVolatility(
       NormalFunctionData data,
       EuropeanVanillaOption option,
@@ -68,6 +68,44 @@ public class SabrExtrapolationRightFunctionTest {
     assertEquals(priceExpectedOut, priceOut, TOLERANCE_PRICE);
   }
 
+  /**
+   * Tests the prices for a set of strikes against the prices computed one strike at a time.
+   */
+  public void price_strikes() {
+    double[] strikes = new double[] {0.01, 0.05, 0.08, CUT_OFF_STRIKE, 0.12, 0.20};
+    for (PutCall putCall : PutCall.values()) {
+      double[] prices = new double[strikes.length];
+      SABR_EXTRAPOLATION.price(strikes, putCall, prices);
+      for (int i = 0; i < strikes.length; i++) {
+        assertEquals(prices[i], SABR_EXTRAPOLATION.price(strikes[i], putCall));
+      }
+    }
+  }
+
+  /**
+   * Tests the prices and derivatives for a set of strikes against those computed one strike at a time.
+   */
+  public void priceDerivatives_strikes() {
+    double[] strikes = new double[] {0.01, 0.05, 0.08, CUT_OFF_STRIKE, 0.12, 0.20};
+    for (PutCall putCall : PutCall.values()) {
+      double[] prices = new double[strikes.length];
+      double[] derivativesForward = new double[strikes.length];
+      SABR_EXTRAPOLATION.priceDerivativeForward(strikes, putCall, prices, derivativesForward);
+      double[] pricesSabr = new double[strikes.length];
+      double[][] derivativesSabr = new double[strikes.length][4];
+      SABR_EXTRAPOLATION.priceAdjointSabr(strikes, putCall, pricesSabr, derivativesSabr);
+      for (int i = 0; i < strikes.length; i++) {
+        assertEquals(prices[i], SABR_EXTRAPOLATION.price(strikes[i], putCall), TOLERANCE_PRICE);
+        assertEquals(derivativesForward[i], SABR_EXTRAPOLATION.priceDerivativeForward(strikes[i], putCall), 1e-12);
+        ValueDerivatives expected = SABR_EXTRAPOLATION.priceAdjointSabr(strikes[i], putCall);
+        assertEquals(pricesSabr[i], expected.getValue(), TOLERANCE_PRICE);
+        for (int j = 0; j < 4; j++) {
+          assertEquals(derivativesSabr[i][j], expected.getDerivative(j), 1e-12);
+        }
+      }
+    }
+  }
+
   /**
    * Tests the price for options in SABR model with extrapolation.
    */
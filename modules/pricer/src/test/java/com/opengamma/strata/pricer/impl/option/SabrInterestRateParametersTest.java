@@ -12,6 +12,7 @@ import static org.testng.Assert.assertEquals;
 
 import org.testng.annotations.Test;
 
+import com.opengamma.strata.basics.value.ValueDerivatives;
 import com.opengamma.strata.collect.array.DoubleArray;
 import com.opengamma.strata.market.ValueType;
 import com.opengamma.strata.market.surface.ConstantSurface;
@@ -147,6 +148,30 @@ public class SabrInterestRateParametersTest {
     }
   }
 
+  public void volatility_strikes() {
+    double expiry = 2.0;
+    double tenor = 3.0;
+    double forward = 0.015;
+    double[] strikes = new double[] {-0.02, 0.0, 0.01, 0.015, 0.03};
+    Surface shiftSurface = ConstantSurface.of("shift", 0.05);
+    SabrInterestRateParameters[] parameters = new SabrInterestRateParameters[] {PARAMETERS,
+        SabrInterestRateParameters.of(ALPHA_SURFACE, BETA_SURFACE, RHO_SURFACE, NU_SURFACE, shiftSurface, FUNCTION)};
+    for (SabrInterestRateParameters params : parameters) {
+      double[] strikesUsed = params == PARAMETERS ? new double[] {0.01, 0.015, 0.03} : strikes;
+      double[] volatilities = new double[strikesUsed.length];
+      double[] volatilitiesAdj = new double[strikesUsed.length];
+      double[][] volatilitiesD = new double[strikesUsed.length][6];
+      params.volatility(expiry, tenor, strikesUsed, forward, volatilities);
+      params.volatilityAdjoint(expiry, tenor, strikesUsed, forward, volatilitiesAdj, volatilitiesD);
+      for (int i = 0; i < strikesUsed.length; i++) {
+        assertEquals(volatilities[i], params.volatility(expiry, tenor, strikesUsed[i], forward));
+        ValueDerivatives expected = params.volatilityAdjoint(expiry, tenor, strikesUsed[i], forward);
+        assertEquals(volatilitiesAdj[i], expected.getValue());
+        assertEquals(DoubleArray.ofUnsafe(volatilitiesD[i]), expected.getDerivatives());
+      }
+    }
+  }
+
   //-------------------------------------------------------------------------
   public void coverage() {
     coverImmutableBean(PARAMETERS);
@@ -22,6 +22,7 @@ import org.testng.annotations.Test;
 
 import com.opengamma.strata.basics.ReferenceData;
 import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.basics.date.HolidayCalendar;
 import com.opengamma.strata.basics.index.OvernightIndexObservation;
 import com.opengamma.strata.collect.array.DoubleArray;
 import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
@@ -1021,4 +1022,49 @@ public class ForwardOvernightCompoundedRateComputationFnTest {
     }
   }
 
+  //-------------------------------------------------------------------------
+  /** Long period entirely fixed, compounded from the cumulative products of the time series. */
+  public void rateSoniaLongPeriodFixed() {
+    HolidayCalendar calendar = REF_DATA.getValue(GBP_SONIA.getFixingCalendar());
+    LocalDate startDate = date(2013, 1, 8);
+    LocalDate endDate = date(2015, 1, 8);
+    LocalDateDoubleTimeSeriesBuilder tsb = LocalDateDoubleTimeSeries.builder();
+    for (LocalDate fixing = date(2012, 12, 3); fixing.isBefore(date(2015, 2, 1)); fixing = calendar.next(fixing)) {
+      tsb.put(fixing, 0.0050 + 0.0001 * (fixing.getDayOfYear() % 17));
+    }
+    LocalDateDoubleTimeSeries timeSeries = tsb.build();
+    OvernightIndexRates mockRates = mock(OvernightIndexRates.class);
+    when(mockRates.getIndex()).thenReturn(GBP_SONIA);
+    when(mockRates.getValuationDate()).thenReturn(date(2015, 1, 20));
+    when(mockRates.getFixings()).thenReturn(timeSeries);
+    SimpleRatesProvider simpleProv = new SimpleRatesProvider(mockRates);
+    for (int cutoff = 0; cutoff < 3; cutoff++) {
+      OvernightCompoundedRateComputation ro =
+          OvernightCompoundedRateComputation.of(GBP_SONIA, startDate, endDate, cutoff, REF_DATA);
+      LocalDate lastNonCutoff = calendar.previous(endDate);
+      for (int i = 1; i < cutoff; i++) {
+        lastNonCutoff = calendar.previous(lastNonCutoff);
+      }
+      double investmentFactor = 1d;
+      double afTotal = 0d;
+      for (LocalDate fixing = startDate; fixing.isBefore(endDate); fixing = calendar.next(fixing)) {
+        LocalDate maturity = calendar.next(fixing);
+        double af = GBP_SONIA.getDayCount().yearFraction(fixing, maturity);
+        LocalDate rateFixing = fixing.isAfter(lastNonCutoff) ? lastNonCutoff : fixing;
+        investmentFactor *= 1d + af * timeSeries.get(rateFixing).getAsDouble();
+        afTotal += af;
+      }
+      double rateExpected = (investmentFactor - 1d) / afTotal;
+      double rateComputed = OBS_FWD_ONCMP.rate(ro, DUMMY_ACCRUAL_START_DATE, DUMMY_ACCRUAL_END_DATE, simpleProv);
+      assertEquals(rateComputed, rateExpected, TOLERANCE_RATE);
+    }
+    // a missing fixing is still detected
+    OvernightCompoundedRateComputation ro =
+        OvernightCompoundedRateComputation.of(GBP_SONIA, startDate, endDate, 0, REF_DATA);
+    when(mockRates.getFixings()).thenReturn(timeSeries.filter((fixing, value) -> !fixing.equals(date(2014, 3, 3))));
+    assertThrows(
+        () -> OBS_FWD_ONCMP.rate(ro, DUMMY_ACCRUAL_START_DATE, DUMMY_ACCRUAL_END_DATE, simpleProv),
+        PricingException.class);
+  }
+
 }
@@ -18,6 +18,7 @@ import com.opengamma.strata.collect.array.DoubleArray;
 import com.opengamma.strata.collect.array.DoubleMatrix;
 import com.opengamma.strata.pricer.fx.RecombiningTrinomialTreeData;
 import com.opengamma.strata.product.common.PutCall;
+import com.opengamma.strata.product.fx.BarrierType;
 
 /**
  * Test {@link TrinomialTree}.
@@ -82,4 +83,102 @@ public class TrinomialTreeTest {
     }
   }
 
+  /**
+   * Test the in-place backward induction against the induction creating new arrays at each step.
+   */
+  public void test_inPlace() {
+    LatticeSpecification lattice = new CoxRossRubinsteinLatticeSpecification();
+    double vol = VOLS[1];
+    double interest = INTERESTS[2];
+    double dividend = DIVIDENDS[1];
+    for (int nSteps : new int[] {1000, 35}) {
+      DoubleArray rebate = DoubleArray.of(nSteps + 1, i -> 2d);
+      for (double strike : STRIKES) {
+        OptionFunction european = EuropeanVanillaOptionFunction.of(strike, TIME, PutCall.CALL, nSteps);
+        OptionFunction barrier = ConstantContinuousSingleBarrierKnockoutFunction.of(
+            strike, TIME, PutCall.CALL, nSteps, BarrierType.UP, 125d, rebate);
+        OptionFunction delegate = new OptionFunction() {
+          @Override
+          public double getTimeToExpiry() {
+            return european.getTimeToExpiry();
+          }
+
+          @Override
+          public int getNumberOfSteps() {
+            return european.getNumberOfSteps();
+          }
+
+          @Override
+          public DoubleArray getPayoffAtExpiryTrinomial(DoubleArray stateValue) {
+            return european.getPayoffAtExpiryTrinomial(stateValue);
+          }
+        };
+        RecombiningTrinomialTreeData treeData = treeData(lattice, nSteps, vol, interest, dividend);
+        for (OptionFunction function : new OptionFunction[] {european, barrier, delegate}) {
+          double expectedParams = optionPriceByCopy(function, lattice, vol, interest, dividend);
+          double expectedData = optionPriceByCopy(function, treeData);
+          assertEquals(TRINOMIAL_TREE.optionPrice(function, lattice, SPOT, vol, interest, dividend), expectedParams, 1e-12);
+          assertEquals(TRINOMIAL_TREE.optionPrice(function, treeData), expectedData, 1e-12);
+          assertEquals(TRINOMIAL_TREE.optionPriceAdjoint(function, treeData).getValue(), expectedData, 1e-12);
+        }
+      }
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  private RecombiningTrinomialTreeData treeData(
+      LatticeSpecification lattice,
+      int nSteps,
+      double vol,
+      double interest,
+      double dividend) {
+
+    double dt = TIME / nSteps;
+    double[] params = lattice.getParametersTrinomial(vol, interest - dividend, dt).toArray();
+    DoubleArray time = DoubleArray.of(nSteps + 1, i -> dt * i);
+    DoubleArray df = DoubleArray.of(nSteps, i -> Math.exp(-interest * dt));
+    double[][] stateValue = new double[nSteps + 1][];
+    stateValue[0] = new double[] {SPOT };
+    List<DoubleMatrix> prob = new ArrayList<DoubleMatrix>();
+    double[] probs = new double[] {params[5], params[4], params[3] };
+    for (int i = 0; i < nSteps; ++i) {
+      int index = i;
+      stateValue[i + 1] = DoubleArray.of(2 * i + 3,
+          j -> SPOT * Math.pow(params[2], index + 1 - j) * Math.pow(params[1], j)).toArray();
+      double[][] probMatrix = new double[2 * i + 1][];
+      Arrays.fill(probMatrix, probs);
+      prob.add(DoubleMatrix.ofUnsafe(probMatrix));
+    }
+    return RecombiningTrinomialTreeData.of(DoubleMatrix.ofUnsafe(stateValue), prob, df, time);
+  }
+
+  private double optionPriceByCopy(
+      OptionFunction function,
+      LatticeSpecification lattice,
+      double vol,
+      double interest,
+      double dividend) {
+
+    int nSteps = function.getNumberOfSteps();
+    double dt = TIME / nSteps;
+    double discount = Math.exp(-interest * dt);
+    DoubleArray params = lattice.getParametersTrinomial(vol, interest - dividend, dt);
+    DoubleArray values = function.getPayoffAtExpiryTrinomial(SPOT, params.get(2), params.get(1));
+    for (int i = nSteps - 1; i > -1; --i) {
+      values = function.getNextOptionValues(
+          discount, params.get(3), params.get(4), params.get(5), values, SPOT, params.get(2), params.get(1), i);
+    }
+    return values.get(0);
+  }
+
+  private double optionPriceByCopy(OptionFunction function, RecombiningTrinomialTreeData data) {
+    int nSteps = data.getNumberOfSteps();
+    DoubleArray values = function.getPayoffAtExpiryTrinomial(data.getStateValueAtLayer(nSteps));
+    for (int i = nSteps - 1; i > -1; --i) {
+      values = function.getNextOptionValues(
+          data.getDiscountFactorAtLayer(i), data.getProbabilityAtLayer(i), data.getStateValueAtLayer(i), values, i);
+    }
+    return values.get(0);
+  }
+
 }
@@ -5,7 +5,9 @@
  */
 package com.opengamma.strata.pricer.impl.volatility.local;
 
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 import java.util.function.Function;
 
@@ -192,6 +194,60 @@ public class DupireLocalVolatilityCalculatorTest {
     }
   }
 
+  public void test_memoised() {
+    double r = 0.05;
+    double q = 0.01;
+    Function<Double, Double> interestRate = new Function<Double, Double>() {
+      @Override
+      public Double apply(Double x) {
+        return r;
+      }
+    };
+    Function<Double, Double> dividendRate = new Function<Double, Double>() {
+      @Override
+      public Double apply(Double x) {
+        return q;
+      }
+    };
+    DoubleArray timeGrid = DoubleArray.of(0.1, 0.6, 1.1);
+    DoubleArray strikeGrid = DoubleArray.of(1.1, 1.4, 2.2);
+    DupireLocalVolatilityCalculator calc = new DupireLocalVolatilityCalculator(timeGrid, strikeGrid);
+    DeformedSurface exact = CALC.localVolatilityFromImpliedVolatility(VOL_SURFACE, SPOT, interestRate, dividendRate);
+    DeformedSurface computed = calc.localVolatilityFromImpliedVolatility(VOL_SURFACE, SPOT, interestRate, dividendRate);
+    // exact at the nodes
+    for (double strike : TEST_STRIKES) {
+      for (double time : TEST_TIMES) {
+        assertEquals(computed.zValue(time, strike), exact.zValue(time, strike));
+        assertEquals(computed.zValueParameterSensitivity(time, strike), exact.zValueParameterSensitivity(time, strike));
+      }
+    }
+    // bilinear between the nodes
+    double time = 0.35;
+    double strike = 1.2;
+    double weightStrike = (strike - 1.1) / 0.3;
+    double expected = 0.5 * (1d - weightStrike) * (exact.zValue(0.1, 1.1) + exact.zValue(0.6, 1.1)) +
+        0.5 * weightStrike * (exact.zValue(0.1, 1.4) + exact.zValue(0.6, 1.4));
+    assertEquals(computed.zValue(time, strike), expected, 1.0e-14);
+    DoubleArray expectedSensi = exact.zValueParameterSensitivity(0.1, 1.1).getSensitivity()
+        .plus(exact.zValueParameterSensitivity(0.6, 1.1).getSensitivity()).multipliedBy(0.5 * (1d - weightStrike))
+        .plus(exact.zValueParameterSensitivity(0.1, 1.4).getSensitivity()
+            .plus(exact.zValueParameterSensitivity(0.6, 1.4).getSensitivity()).multipliedBy(0.5 * weightStrike));
+    assertTrue(computed.zValueParameterSensitivity(time, strike).getSensitivity()
+        .equalWithTolerance(expectedSensi, 1.0e-14));
+    // flat extrapolation
+    assertEquals(computed.zValue(0.01, 3d), exact.zValue(0.1, 2.2));
+    assertEquals(computed.zValue(2d, 0.5), exact.zValue(1.1, 1.1));
+    // the price based surface
+    DeformedSurface exactPrice = CALC.localVolatilityFromPrice(PRICE_SURFACE, SPOT, interestRate, dividendRate);
+    DeformedSurface computedPrice = calc.localVolatilityFromPrice(PRICE_SURFACE, SPOT, interestRate, dividendRate);
+    assertEquals(computedPrice.zValue(0.6, 1.4), exactPrice.zValue(0.6, 1.4));
+  }
+
+  public void test_memoised_invalid() {
+    assertThrowsIllegalArg(() -> new DupireLocalVolatilityCalculator(DoubleArray.of(0.1), DoubleArray.of(1d, 2d)));
+    assertThrowsIllegalArg(() -> new DupireLocalVolatilityCalculator(DoubleArray.of(0.1, 0.2), DoubleArray.of(2d, 1d)));
+  }
+
   private double volFromFormula(double r, double q, double time, double strike, NodalSurface surface) {
     double vol = surface.zValue(time, strike);
     double volT = 0.5 / FD_EPS * (surface.zValue(time + FD_EPS, strike) - surface.zValue(time - FD_EPS, strike));
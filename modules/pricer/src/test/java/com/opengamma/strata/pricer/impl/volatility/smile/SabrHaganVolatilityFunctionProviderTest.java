@@ -349,6 +349,37 @@ public class SabrHaganVolatilityFunctionProviderTest extends SabrVolatilityFunct
     assertThrowsIllegalArg(() -> FUNCTION.volatilityAdjoint(10 * F, STRIKE_ITM, T, dataIn));
   }
 
+  public void test_volatility_strikes() {
+    double[] strikes = new double[] {0d, 1.0E-14, 0.01, STRIKE_ITM, F, F + 1.0E-9, STRIKE_OTM, 0.15};
+    SabrFormulaData[] data = new SabrFormulaData[] {DATA, SabrFormulaData.of(ALPHA, 0d, RHO, NU),
+        SabrFormulaData.of(ALPHA, 1d, RHO, NU), SabrFormulaData.of(ALPHA, BETA, RHO, 0d),
+        SabrFormulaData.of(0d, BETA, RHO, NU)};
+    for (SabrFormulaData sabrData : data) {
+      double[] volatilities = new double[strikes.length];
+      double[][] volatilitiesD = new double[strikes.length][6];
+      double[] volatilitiesAdj = new double[strikes.length];
+      FUNCTION.volatility(F, strikes, T, sabrData, volatilities);
+      FUNCTION.volatilityAdjoint(F, strikes, T, sabrData, volatilitiesAdj, volatilitiesD);
+      for (int i = 0; i < strikes.length; i++) {
+        assertEquals(volatilities[i], FUNCTION.volatility(F, strikes[i], T, sabrData));
+        ValueDerivatives expected = FUNCTION.volatilityAdjoint(F, strikes[i], T, sabrData);
+        assertEquals(volatilitiesAdj[i], expected.getValue());
+        for (int j = 0; j < 6; j++) {
+          assertEquals(volatilitiesD[i][j], expected.getDerivative(j));
+        }
+      }
+    }
+  }
+
+  public void test_volatility_strikes_invalid() {
+    double[] strikes = new double[] {STRIKE_ITM, -0.01};
+    assertThrowsIllegalArg(() -> FUNCTION.volatility(F, strikes, T, DATA, new double[2]));
+    assertThrowsIllegalArg(() -> FUNCTION.volatility(F, new double[] {STRIKE_ITM}, T, DATA, new double[0]));
+    assertThrowsIllegalArg(() -> FUNCTION.volatilityAdjoint(F, strikes, T, DATA, new double[2], new double[2][6]));
+    assertThrowsIllegalArg(
+        () -> FUNCTION.volatilityAdjoint(F, new double[] {STRIKE_ITM}, T, DATA, new double[1], new double[0][6]));
+  }
+
   public void coverage() {
     coverImmutableBean(FUNCTION);
   }
@@ -0,0 +1,190 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.swaption;
+
+import static com.opengamma.strata.basics.currency.Currency.EUR;
+import static com.opengamma.strata.basics.date.BusinessDayConventions.MODIFIED_FOLLOWING;
+import static com.opengamma.strata.basics.date.DayCounts.THIRTY_U_360;
+import static com.opengamma.strata.basics.index.IborIndices.EUR_EURIBOR_6M;
+import static com.opengamma.strata.basics.schedule.Frequency.P12M;
+import static com.opengamma.strata.basics.schedule.Frequency.P6M;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static com.opengamma.strata.product.common.LongShort.LONG;
+import static com.opengamma.strata.product.common.LongShort.SHORT;
+import static com.opengamma.strata.product.common.PayReceive.PAY;
+import static com.opengamma.strata.product.common.PayReceive.RECEIVE;
+import static org.testng.Assert.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
+import com.opengamma.strata.basics.date.AdjustableDate;
+import com.opengamma.strata.basics.date.BusinessDayAdjustment;
+import com.opengamma.strata.basics.date.DaysAdjustment;
+import com.opengamma.strata.basics.date.HolidayCalendarId;
+import com.opengamma.strata.basics.date.HolidayCalendarIds;
+import com.opengamma.strata.basics.schedule.PeriodicSchedule;
+import com.opengamma.strata.basics.schedule.StubConvention;
+import com.opengamma.strata.basics.value.ValueSchedule;
+import com.opengamma.strata.pricer.impl.montecarlo.MonteCarloEngine;
+import com.opengamma.strata.pricer.index.HullWhiteIborFutureDataSet;
+import com.opengamma.strata.pricer.index.HullWhiteOneFactorPiecewiseConstantParametersProvider;
+import com.opengamma.strata.pricer.rate.ImmutableRatesProvider;
+import com.opengamma.strata.pricer.swap.PaymentEventPricer;
+import com.opengamma.strata.product.common.LongShort;
+import com.opengamma.strata.product.common.PayReceive;
+import com.opengamma.strata.product.swap.FixedRateCalculation;
+import com.opengamma.strata.product.swap.IborRateCalculation;
+import com.opengamma.strata.product.swap.NotionalSchedule;
+import com.opengamma.strata.product.swap.PaymentSchedule;
+import com.opengamma.strata.product.swap.RateCalculationSwapLeg;
+import com.opengamma.strata.product.swap.Swap;
+import com.opengamma.strata.product.swap.SwapLeg;
+import com.opengamma.strata.product.swaption.CashSettlement;
+import com.opengamma.strata.product.swaption.CashSettlementMethod;
+import com.opengamma.strata.product.swaption.PhysicalSettlement;
+import com.opengamma.strata.product.swaption.ResolvedSwaption;
+import com.opengamma.strata.product.swaption.Swaption;
+import com.opengamma.strata.product.swaption.SwaptionSettlement;
+
+/**
+ * Test {@link HullWhiteMonteCarloSwaptionPhysicalProductPricer}.
+ */
+@Test
+public class HullWhiteMonteCarloSwaptionPhysicalProductPricerTest {
+
+  private static final ReferenceData REF_DATA = ReferenceData.standard();
+  private static final LocalDate VALUATION = LocalDate.of(2011, 7, 7);
+  private static final LocalDate EXPIRY = LocalDate.of(2016, 7, 7);
+  private static final HolidayCalendarId CALENDAR = HolidayCalendarIds.SAT_SUN;
+  private static final BusinessDayAdjustment BDA_MF = BusinessDayAdjustment.of(MODIFIED_FOLLOWING, CALENDAR);
+  private static final LocalDate SETTLE = LocalDate.of(2016, 7, 11);
+  private static final double NOTIONAL = 100000000; //100m
+  private static final double RATE = 0.0175;
+
+  private static final HullWhiteOneFactorPiecewiseConstantParametersProvider HW_PROVIDER =
+      HullWhiteIborFutureDataSet.createHullWhiteProvider(VALUATION);
+  private static final ImmutableRatesProvider RATE_PROVIDER = HullWhiteIborFutureDataSet.createRatesProvider(VALUATION);
+  private static final ImmutableRatesProvider RATE_PROVIDER_AFTER_EXPIRY =
+      HullWhiteIborFutureDataSet.createRatesProvider(EXPIRY.plusDays(1));
+  private static final HullWhiteOneFactorPiecewiseConstantParametersProvider HW_PROVIDER_AFTER_EXPIRY =
+      HullWhiteIborFutureDataSet.createHullWhiteProvider(EXPIRY.plusDays(1));
+
+  private static final HullWhiteSwaptionPhysicalProductPricer PRICER_ANALYTIC =
+      HullWhiteSwaptionPhysicalProductPricer.DEFAULT;
+  private static final HullWhiteMonteCarloSwaptionPhysicalProductPricer PRICER =
+      new HullWhiteMonteCarloSwaptionPhysicalProductPricer(
+          MonteCarloEngine.of(50_000, 1L, true), PaymentEventPricer.standard());
+
+  //-------------------------------------------------------------------------
+  public void test_presentValue() {
+    for (double strike : new double[] {0.01, RATE, 0.025}) {
+      for (LongShort longShort : new LongShort[] {LONG, SHORT}) {
+        for (PayReceive payReceive : new PayReceive[] {PAY, RECEIVE}) {
+          ResolvedSwaption swaption = swaption(strike, longShort, payReceive, PhysicalSettlement.DEFAULT);
+          CurrencyAmount computed = PRICER.presentValue(swaption, RATE_PROVIDER, HW_PROVIDER);
+          CurrencyAmount expected = PRICER_ANALYTIC.presentValue(swaption, RATE_PROVIDER, HW_PROVIDER);
+          assertEquals(computed.getCurrency(), EUR);
+          // within 1% of the price or 1bp of the notional
+          assertEquals(computed.getAmount(), expected.getAmount(),
+              Math.max(Math.abs(expected.getAmount()) * 1e-2, NOTIONAL * 1e-4));
+        }
+      }
+    }
+  }
+
+  public void test_presentValue_default() {
+    ResolvedSwaption swaption = swaption(RATE, LONG, RECEIVE, PhysicalSettlement.DEFAULT);
+    CurrencyAmount computed =
+        HullWhiteMonteCarloSwaptionPhysicalProductPricer.DEFAULT.presentValue(swaption, RATE_PROVIDER, HW_PROVIDER);
+    CurrencyAmount expected = PRICER_ANALYTIC.presentValue(swaption, RATE_PROVIDER, HW_PROVIDER);
+    assertEquals(computed.getAmount(), expected.getAmount(), Math.abs(expected.getAmount()) * 1e-2);
+  }
+
+  public void test_presentValue_afterExpiry() {
+    ResolvedSwaption swaption = swaption(RATE, LONG, RECEIVE, PhysicalSettlement.DEFAULT);
+    CurrencyAmount computed = PRICER.presentValue(swaption, RATE_PROVIDER_AFTER_EXPIRY, HW_PROVIDER_AFTER_EXPIRY);
+    assertEquals(computed, CurrencyAmount.of(EUR, 0d));
+  }
+
+  public void test_currencyExposure() {
+    ResolvedSwaption swaption = swaption(RATE, LONG, PAY, PhysicalSettlement.DEFAULT);
+    MultiCurrencyAmount computed = PRICER.currencyExposure(swaption, RATE_PROVIDER, HW_PROVIDER);
+    assertEquals(computed, MultiCurrencyAmount.of(PRICER.presentValue(swaption, RATE_PROVIDER, HW_PROVIDER)));
+  }
+
+  public void validate_physical_settlement() {
+    CashSettlement cash = CashSettlement.builder()
+        .cashSettlementMethod(CashSettlementMethod.PAR_YIELD)
+        .settlementDate(SETTLE)
+        .build();
+    ResolvedSwaption swaption = swaption(RATE, LONG, PAY, cash);
+    assertThrowsIllegalArg(() -> PRICER.presentValue(swaption, RATE_PROVIDER, HW_PROVIDER));
+  }
+
+  //-------------------------------------------------------------------------
+  @Test(enabled = false)
+  public void performance() {
+    ResolvedSwaption swaption = swaption(RATE, LONG, RECEIVE, PhysicalSettlement.DEFAULT);
+    double expected = PRICER_ANALYTIC.presentValue(swaption, RATE_PROVIDER, HW_PROVIDER).getAmount();
+    System.out.println("Analytic: " + expected);
+    for (int nbPaths : new int[] {1_000, 10_000, 100_000, 1_000_000}) {
+      for (boolean antithetic : new boolean[] {false, true}) {
+        HullWhiteMonteCarloSwaptionPhysicalProductPricer pricer = new HullWhiteMonteCarloSwaptionPhysicalProductPricer(
+            MonteCarloEngine.of(nbPaths, 1L, antithetic), PaymentEventPricer.standard());
+        pricer.presentValue(swaption, RATE_PROVIDER, HW_PROVIDER);
+        long start = System.nanoTime();
+        double computed = pricer.presentValue(swaption, RATE_PROVIDER, HW_PROVIDER).getAmount();
+        long end = System.nanoTime();
+        System.out.println("Paths: " + nbPaths + ", antithetic: " + antithetic + ", error: " + (computed - expected) +
+            ", time: " + (end - start) / 1_000_000 + "ms, paths per second: " + nbPaths * 1e9 / (end - start));
+      }
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  private static ResolvedSwaption swaption(
+      double strike,
+      LongShort longShort,
+      PayReceive fixedPayReceive,
+      SwaptionSettlement settlement) {
+
+    LocalDate end = SETTLE.plusYears(5);
+    SwapLeg fixedLeg = RateCalculationSwapLeg.builder()
+        .payReceive(fixedPayReceive)
+        .accrualSchedule(PeriodicSchedule.of(SETTLE, end, P12M, BDA_MF, StubConvention.SHORT_FINAL, false))
+        .paymentSchedule(PaymentSchedule.builder().paymentFrequency(P12M).paymentDateOffset(DaysAdjustment.NONE).build())
+        .notionalSchedule(NotionalSchedule.of(EUR, NOTIONAL))
+        .calculation(FixedRateCalculation.builder().dayCount(THIRTY_U_360).rate(ValueSchedule.of(strike)).build())
+        .build();
+    SwapLeg iborLeg = RateCalculationSwapLeg.builder()
+        .payReceive(fixedPayReceive.isPay() ? RECEIVE : PAY)
+        .accrualSchedule(PeriodicSchedule.of(SETTLE, end, P6M, BDA_MF, StubConvention.SHORT_FINAL, false))
+        .paymentSchedule(PaymentSchedule.builder().paymentFrequency(P6M).paymentDateOffset(DaysAdjustment.NONE).build())
+        .notionalSchedule(NotionalSchedule.of(EUR, NOTIONAL))
+        .calculation(IborRateCalculation.builder()
+            .index(EUR_EURIBOR_6M)
+            .fixingDateOffset(DaysAdjustment.ofBusinessDays(-2, CALENDAR, BDA_MF))
+            .build())
+        .build();
+    return Swaption.builder()
+        .expiryDate(AdjustableDate.of(EXPIRY, BDA_MF))
+        .expiryTime(LocalTime.NOON)
+        .expiryZone(ZoneOffset.UTC)
+        .swaptionSettlement(settlement)
+        .longShort(longShort)
+        .underlying(Swap.of(fixedLeg, iborLeg))
+        .build()
+        .resolve(REF_DATA);
+  }
+
+}
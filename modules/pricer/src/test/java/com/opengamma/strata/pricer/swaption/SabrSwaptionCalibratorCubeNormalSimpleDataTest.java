@@ -122,7 +122,40 @@ public class SabrSwaptionCalibratorCubeNormalSimpleDataTest {
     SabrParametersSwaptionVolatilities calibrated = SABR_CALIBRATION.calibrateWithFixedBetaAndShift(NAME_SABR,
         EUR_FIXED_1Y_EURIBOR_6M, CALIBRATION_TIME, ACT_365F, TENORS_SIMPLE, DATA_SIMPLE,
         MULTICURVE, betaSurface, shiftSurface, INTERPOLATOR_2D);
+    checkCalibration(calibrated, shift);
+  }
+
+  @Test
+  public void normal_cube_parallel() {
+    double beta = 0.50;
+    Surface betaSurface = ConstantSurface.of("Beta", beta)
+        .withMetadata(DefaultSurfaceMetadata.builder()
+            .xValueType(ValueType.YEAR_FRACTION).yValueType(ValueType.YEAR_FRACTION)
+            .zValueType(ValueType.SABR_BETA).surfaceName("Beta").build());
+    double shift = 0.0300;
+    Surface shiftSurface = ConstantSurface.of("Shift", shift)
+        .withMetadata(DefaultSurfaceMetadata.builder()
+            .xValueType(ValueType.YEAR_FRACTION).yValueType(ValueType.YEAR_FRACTION).surfaceName("Shift").build());
+    SabrParametersSwaptionVolatilities calibrated = SABR_CALIBRATION.calibrateWithFixedBetaAndShift(NAME_SABR,
+        EUR_FIXED_1Y_EURIBOR_6M, CALIBRATION_TIME, ACT_365F, TENORS_SIMPLE, DATA_SIMPLE,
+        MULTICURVE, betaSurface, shiftSurface, INTERPOLATOR_2D);
+    SabrParametersSwaptionVolatilities calibratedParallel = SABR_CALIBRATION.calibrateWithFixedBetaAndShiftParallel(
+        NAME_SABR, EUR_FIXED_1Y_EURIBOR_6M, CALIBRATION_TIME, ACT_365F, TENORS_SIMPLE, DATA_SIMPLE,
+        MULTICURVE, betaSurface, shiftSurface, INTERPOLATOR_2D, true);
+    checkCalibration(calibratedParallel, shift);
+    SabrParametersSwaptionVolatilities calibratedWarm = SABR_CALIBRATION.calibrateWithFixedBetaAndShiftParallel(
+        NAME_SABR, EUR_FIXED_1Y_EURIBOR_6M, CALIBRATION_TIME, ACT_365F, TENORS_SIMPLE, DATA_SIMPLE,
+        MULTICURVE, betaSurface, shiftSurface, INTERPOLATOR_2D, true, calibrated);
+    checkCalibration(calibratedWarm, shift);
+    // same nodes, in the same order
+    SurfaceMetadata metadata = calibrated.getParameters().getAlphaSurface().getMetadata();
+    assertEquals(calibratedParallel.getParameters().getAlphaSurface().getMetadata(), metadata);
+    assertEquals(calibratedWarm.getParameters().getAlphaSurface().getMetadata(), metadata);
+    assertEquals(
+        calibratedParallel.getDataSensitivityAlpha().get().size(), calibrated.getDataSensitivityAlpha().get().size());
+  }
 
+  private void checkCalibration(SabrParametersSwaptionVolatilities calibrated, double shift) {
     for (int looptenor = 0; looptenor < TENORS_SIMPLE.size(); looptenor++) {
       double tenor = TENORS_SIMPLE.get(looptenor).get(ChronoUnit.YEARS);
       for (int loopexpiry = 0; loopexpiry < EXPIRIES_SIMPLE.size(); loopexpiry++) {
@@ -0,0 +1,429 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.report.aggregation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.basics.currency.FxRateProvider;
+import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.tuple.Pair;
+import com.opengamma.strata.data.MarketDataName;
+import com.opengamma.strata.data.scenario.CurrencyValuesArray;
+import com.opengamma.strata.data.scenario.MultiCurrencyValuesArray;
+import com.opengamma.strata.data.scenario.ScenarioArray;
+import com.opengamma.strata.data.scenario.ScenarioFxRateProvider;
+import com.opengamma.strata.market.param.CurrencyParameterSensitivities;
+import com.opengamma.strata.market.param.CurrencyParameterSensitivity;
+
+/**
+ * Mutable accumulator that sums the values of a measure.
+ * <p>
+ * Values are added in place, without creating intermediate immutable values.
+ * An accumulator is created for the type of the first value and only accepts values of compatible types.
+ * Accumulators are not thread-safe, parallel aggregation uses one accumulator per thread
+ * and {@linkplain #combine(Accumulator) combines} them at the end.
+ */
+abstract class Accumulator {
+
+  /**
+   * Creates an accumulator suitable for the specified value.
+   * <p>
+   * Doubles are only summed if the measure is additive, as many measures of type double,
+   * such as par rates or implied volatilities, are not meaningful when summed.
+   *
+   * @param value  the first value to be accumulated
+   * @param additive  whether the measure is additive, allowing doubles to be summed
+   * @return the accumulator, empty
+   * @throws IllegalArgumentException if values of the type cannot be aggregated
+   */
+  static Accumulator of(Object value, boolean additive) {
+    if (value instanceof Double) {
+      if (!additive) {
+        throw new IllegalArgumentException(
+            "Unable to aggregate values of type Double of a measure that is not summable");
+      }
+      return new DoubleAccumulator();
+    }
+    if (value instanceof CurrencyAmount || value instanceof MultiCurrencyAmount) {
+      return new AmountAccumulator();
+    }
+    if (value instanceof CurrencyValuesArray || value instanceof MultiCurrencyValuesArray) {
+      return new ValuesArrayAccumulator();
+    }
+    if (value instanceof CurrencyParameterSensitivities) {
+      return new SensitivitiesAccumulator();
+    }
+    if (value instanceof ScenarioArray) {
+      return new ScenarioArrayAccumulator(additive);
+    }
+    throw new IllegalArgumentException("Unable to aggregate values of type " + value.getClass().getSimpleName());
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Adds a value to the accumulator.
+   *
+   * @param value  the value to add
+   * @throws IllegalArgumentException if the value is not compatible with the accumulator
+   */
+  abstract void add(Object value);
+
+  /**
+   * Adds the values of another accumulator to this accumulator.
+   * <p>
+   * The other accumulator must not be used afterwards, as its state may be shared with this accumulator.
+   *
+   * @param other  the other accumulator
+   * @throws IllegalArgumentException if the accumulators are not compatible
+   */
+  void combine(Accumulator other) {
+    if (other.getClass() != getClass()) {
+      throw new IllegalArgumentException(
+          "Unable to aggregate " + other.getClass().getSimpleName() + " with " + getClass().getSimpleName());
+    }
+    combineSameType(other);
+  }
+
+  /**
+   * Adds the values of another accumulator of the same type to this accumulator.
+   *
+   * @param other  the other accumulator, of the same type as this accumulator
+   */
+  abstract void combineSameType(Accumulator other);
+
+  /**
+   * Returns the accumulated value.
+   *
+   * @return the accumulated value
+   */
+  abstract Object result();
+
+  /**
+   * Returns the accumulated value converted to the reporting currency.
+   * <p>
+   * Values that are not monetary are returned unchanged.
+   *
+   * @param reportingCurrency  the reporting currency
+   * @param fxProvider  the FX rates of each scenario
+   * @return the accumulated value in the reporting currency
+   */
+  abstract Object convertedTo(Currency reportingCurrency, ScenarioFxRateProvider fxProvider);
+
+  // throws an exception for a value of the wrong type
+  static IllegalArgumentException incompatible(Object value, Accumulator accumulator) {
+    return new IllegalArgumentException(
+        "Unable to aggregate values of type " + value.getClass().getSimpleName() + " with " +
+            accumulator.getClass().getSimpleName());
+  }
+
+  // the FX rates of a single scenario
+  private static FxRateProvider singleScenario(ScenarioFxRateProvider fxProvider) {
+    return fxProvider.fxRateProvider(0);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Sums doubles.
+   */
+  static final class DoubleAccumulator extends Accumulator {
+    private double total;
+
+    @Override
+    void add(Object value) {
+      if (!(value instanceof Double)) {
+        throw incompatible(value, this);
+      }
+      total += (Double) value;
+    }
+
+    @Override
+    void combineSameType(Accumulator other) {
+      total += ((DoubleAccumulator) other).total;
+    }
+
+    @Override
+    Object result() {
+      return total;
+    }
+
+    @Override
+    Object convertedTo(Currency reportingCurrency, ScenarioFxRateProvider fxProvider) {
+      return total;
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Sums currency amounts and multi-currency amounts, keeping each currency separate.
+   */
+  static final class AmountAccumulator extends Accumulator {
+    private final Map<Currency, double[]> totals = new TreeMap<>();
+
+    @Override
+    void add(Object value) {
+      if (value instanceof CurrencyAmount) {
+        add((CurrencyAmount) value);
+      } else if (value instanceof MultiCurrencyAmount) {
+        ((MultiCurrencyAmount) value).getAmounts().forEach(this::add);
+      } else {
+        throw incompatible(value, this);
+      }
+    }
+
+    private void add(CurrencyAmount amount) {
+      totals.computeIfAbsent(amount.getCurrency(), c -> new double[1])[0] += amount.getAmount();
+    }
+
+    @Override
+    void combineSameType(Accumulator other) {
+      ((AmountAccumulator) other).totals.forEach((ccy, total) -> add(CurrencyAmount.of(ccy, total[0])));
+    }
+
+    @Override
+    Object result() {
+      Map<Currency, Double> amounts = new TreeMap<>();
+      totals.forEach((ccy, total) -> amounts.put(ccy, total[0]));
+      return MultiCurrencyAmount.of(amounts);
+    }
+
+    @Override
+    Object convertedTo(Currency reportingCurrency, ScenarioFxRateProvider fxProvider) {
+      FxRateProvider fxRates = singleScenario(fxProvider);
+      double total = 0d;
+      for (Entry<Currency, double[]> entry : totals.entrySet()) {
+        total += fxRates.convert(entry.getValue()[0], entry.getKey(), reportingCurrency);
+      }
+      return CurrencyAmount.of(reportingCurrency, total);
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Sums currency values arrays and multi-currency values arrays, keeping each currency separate.
+   */
+  static final class ValuesArrayAccumulator extends Accumulator {
+    private final Map<Currency, double[]> totals = new TreeMap<>();
+    private int scenarioCount = -1;
+
+    @Override
+    void add(Object value) {
+      if (value instanceof CurrencyValuesArray) {
+        CurrencyValuesArray array = (CurrencyValuesArray) value;
+        add(array.getCurrency(), array.getValues());
+      } else if (value instanceof MultiCurrencyValuesArray) {
+        ((MultiCurrencyValuesArray) value).getValues().forEach(this::add);
+      } else {
+        throw incompatible(value, this);
+      }
+    }
+
+    private void add(Currency currency, DoubleArray values) {
+      if (scenarioCount < 0) {
+        scenarioCount = values.size();
+      }
+      ArgChecker.isTrue(
+          values.size() == scenarioCount,
+          "Unable to aggregate arrays with different scenario counts, {} and {}",
+          scenarioCount,
+          values.size());
+      double[] total = totals.computeIfAbsent(currency, c -> new double[scenarioCount]);
+      for (int i = 0; i < scenarioCount; i++) {
+        total[i] += values.get(i);
+      }
+    }
+
+    @Override
+    void combineSameType(Accumulator other) {
+      ((ValuesArrayAccumulator) other).totals.forEach((ccy, total) -> add(ccy, DoubleArray.ofUnsafe(total)));
+    }
+
+    @Override
+    Object result() {
+      Map<Currency, DoubleArray> values = new TreeMap<>();
+      totals.forEach((ccy, total) -> values.put(ccy, DoubleArray.copyOf(total)));
+      return MultiCurrencyValuesArray.of(values);
+    }
+
+    @Override
+    Object convertedTo(Currency reportingCurrency, ScenarioFxRateProvider fxProvider) {
+      double[] converted = new double[Math.max(scenarioCount, 0)];
+      for (Entry<Currency, double[]> entry : totals.entrySet()) {
+        double[] total = entry.getValue();
+        for (int i = 0; i < converted.length; i++) {
+          converted[i] += fxProvider.convert(total[i], entry.getKey(), reportingCurrency, i);
+        }
+      }
+      return CurrencyValuesArray.of(reportingCurrency, DoubleArray.ofUnsafe(converted));
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Sums parameter sensitivities, keeping each market data name and currency separate.
+   * <p>
+   * The parameter metadata is taken from the first sensitivity of each name and currency.
+   */
+  static final class SensitivitiesAccumulator extends Accumulator {
+    private final Map<Pair<MarketDataName<?>, Currency>, CurrencyParameterSensitivity> templates =
+        new LinkedHashMap<>();
+    private final Map<Pair<MarketDataName<?>, Currency>, double[]> totals = new LinkedHashMap<>();
+
+    @Override
+    void add(Object value) {
+      if (!(value instanceof CurrencyParameterSensitivities)) {
+        throw incompatible(value, this);
+      }
+      ((CurrencyParameterSensitivities) value).getSensitivities().forEach(this::add);
+    }
+
+    private void add(CurrencyParameterSensitivity sensitivity) {
+      Pair<MarketDataName<?>, Currency> key = Pair.of(sensitivity.getMarketDataName(), sensitivity.getCurrency());
+      DoubleArray values = sensitivity.getSensitivity();
+      double[] total = totals.get(key);
+      if (total == null) {
+        templates.put(key, sensitivity);
+        totals.put(key, values.toArray());
+        return;
+      }
+      ArgChecker.isTrue(
+          values.size() == total.length,
+          "Unable to aggregate sensitivities to {} with different parameter counts, {} and {}",
+          key.getFirst(),
+          total.length,
+          values.size());
+      for (int i = 0; i < total.length; i++) {
+        total[i] += values.get(i);
+      }
+    }
+
+    @Override
+    void combineSameType(Accumulator other) {
+      SensitivitiesAccumulator otherAccumulator = (SensitivitiesAccumulator) other;
+      otherAccumulator.totals.forEach((key, total) -> add(
+          otherAccumulator.templates.get(key).withSensitivity(DoubleArray.ofUnsafe(total))));
+    }
+
+    @Override
+    Object result() {
+      List<CurrencyParameterSensitivity> sensitivities = new ArrayList<>(totals.size());
+      totals.forEach((key, total) -> sensitivities.add(
+          templates.get(key).withSensitivity(DoubleArray.copyOf(total))));
+      return CurrencyParameterSensitivities.of(sensitivities);
+    }
+
+    @Override
+    Object convertedTo(Currency reportingCurrency, ScenarioFxRateProvider fxProvider) {
+      return ((CurrencyParameterSensitivities) result()).convertedTo(reportingCurrency, singleScenario(fxProvider));
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Sums scenario arrays element by element, using an accumulator for each scenario.
+   */
+  static final class ScenarioArrayAccumulator extends Accumulator {
+    private final boolean additive;
+    private Accumulator[] scenarios;
+
+    private ScenarioArrayAccumulator(boolean additive) {
+      this.additive = additive;
+    }
+
+    @Override
+    void add(Object value) {
+      if (!(value instanceof ScenarioArray)) {
+        throw incompatible(value, this);
+      }
+      ScenarioArray<?> array = (ScenarioArray<?>) value;
+      if (scenarios == null) {
+        scenarios = new Accumulator[array.getScenarioCount()];
+      }
+      ArgChecker.isTrue(
+          array.getScenarioCount() == scenarios.length,
+          "Unable to aggregate arrays with different scenario counts, {} and {}",
+          scenarios.length,
+          array.getScenarioCount());
+      for (int i = 0; i < scenarios.length; i++) {
+        Object scenarioValue = array.get(i);
+        if (scenarios[i] == null) {
+          scenarios[i] = Accumulator.of(scenarioValue, additive);
+        }
+        scenarios[i].add(scenarioValue);
+      }
+    }
+
+    @Override
+    void combineSameType(Accumulator other) {
+      Accumulator[] otherScenarios = ((ScenarioArrayAccumulator) other).scenarios;
+      if (otherScenarios == null) {
+        return;
+      }
+      if (scenarios == null) {
+        scenarios = Arrays.copyOf(otherScenarios, otherScenarios.length);
+        return;
+      }
+      ArgChecker.isTrue(
+          otherScenarios.length == scenarios.length,
+          "Unable to aggregate arrays with different scenario counts, {} and {}",
+          scenarios.length,
+          otherScenarios.length);
+      for (int i = 0; i < scenarios.length; i++) {
+        if (scenarios[i] == null) {
+          scenarios[i] = otherScenarios[i];
+        } else if (otherScenarios[i] != null) {
+          scenarios[i].combine(otherScenarios[i]);
+        }
+      }
+    }
+
+    @Override
+    Object result() {
+      return ScenarioArray.of(scenarios == null ? 0 : scenarios.length, i -> scenarios[i].result());
+    }
+
+    @Override
+    Object convertedTo(Currency reportingCurrency, ScenarioFxRateProvider fxProvider) {
+      return ScenarioArray.of(
+          scenarios == null ? 0 : scenarios.length,
+          i -> scenarios[i].convertedTo(reportingCurrency, new SingleScenarioFxRateProvider(fxProvider, i)));
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Provides the FX rates of one scenario of another provider as a single scenario.
+   */
+  private static final class SingleScenarioFxRateProvider implements ScenarioFxRateProvider {
+    private final ScenarioFxRateProvider underlying;
+    private final int scenarioIndex;
+
+    private SingleScenarioFxRateProvider(ScenarioFxRateProvider underlying, int scenarioIndex) {
+      this.underlying = underlying;
+      this.scenarioIndex = scenarioIndex;
+    }
+
+    @Override
+    public int getScenarioCount() {
+      return 1;
+    }
+
+    @Override
+    public FxRateProvider fxRateProvider(int scenarioIndex) {
+      return underlying.fxRateProvider(this.scenarioIndex);
+    }
+  }
+
+}
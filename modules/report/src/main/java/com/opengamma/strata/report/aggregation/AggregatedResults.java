@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.report.aggregation;
+
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.opengamma.strata.calc.Results;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.Messages;
+import com.opengamma.strata.collect.result.Result;
+
+/**
+ * Results aggregated by key, as produced by {@link ResultsAggregator}.
+ * <p>
+ * The results contain one row for each key, in the order the keys were first found in the targets.
+ * The columns are the same as the columns of the aggregated results.
+ * <p>
+ * This class is immutable and thread-safe if the keys are immutable.
+ *
+ * @param <K>  the type of the key
+ */
+public final class AggregatedResults<K> {
+
+  /**
+   * The keys, one for each row of the results.
+   */
+  private final ImmutableList<K> keys;
+  /**
+   * The aggregated results.
+   */
+  private final Results results;
+  /**
+   * The row of each key.
+   */
+  private final ImmutableMap<K, Integer> rows;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance from the keys and the aggregated results.
+   *
+   * @param <K>  the type of the key
+   * @param keys  the keys, one for each row of the results
+   * @param results  the aggregated results
+   * @return the aggregated results
+   */
+  public static <K> AggregatedResults<K> of(List<K> keys, Results results) {
+    return new AggregatedResults<>(keys, results);
+  }
+
+  // restricted constructor
+  private AggregatedResults(List<K> keys, Results results) {
+    ArgChecker.notNull(keys, "keys");
+    ArgChecker.notNull(results, "results");
+    ArgChecker.isTrue(
+        keys.size() == results.getRowCount(),
+        "The number of keys ({}) must equal the number of rows of the results ({})",
+        keys.size(),
+        results.getRowCount());
+    this.keys = ImmutableList.copyOf(keys);
+    this.results = results;
+    ImmutableMap.Builder<K, Integer> builder = ImmutableMap.builder();
+    for (int i = 0; i < keys.size(); i++) {
+      builder.put(keys.get(i), i);
+    }
+    this.rows = builder.build();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the keys, one for each row of the results.
+   *
+   * @return the keys
+   */
+  public ImmutableList<K> getKeys() {
+    return keys;
+  }
+
+  /**
+   * Gets the aggregated results, with one row for each key.
+   *
+   * @return the results
+   */
+  public Results getResults() {
+    return results;
+  }
+
+  /**
+   * Returns the aggregated result for a key and column.
+   *
+   * @param key  the key
+   * @param columnIndex  the index of the column
+   * @return the aggregated result
+   * @throws IllegalArgumentException if the key is not found
+   */
+  public Result<?> get(K key, int columnIndex) {
+    Integer row = rows.get(key);
+    if (row == null) {
+      throw new IllegalArgumentException(Messages.format("Key not found: {}", key));
+    }
+    return results.get(row, columnIndex);
+  }
+
+  @Override
+  public String toString() {
+    return Messages.format("AggregatedResults[keys={}, results={}]", keys, results);
+  }
+
+}
@@ -0,0 +1,349 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.report.aggregation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Function;
+
+import com.opengamma.strata.basics.CalculationTarget;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.calc.runner.AggregatingCalculationListener;
+import com.opengamma.strata.calc.runner.CalculationResult;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.Messages;
+import com.opengamma.strata.collect.result.FailureReason;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.data.scenario.CurrencyValuesArray;
+import com.opengamma.strata.data.scenario.ScenarioFxRateProvider;
+import com.opengamma.strata.report.aggregation.Accumulator.ValuesArrayAccumulator;
+
+/**
+ * Calculation listener that calculates historical value at risk and expected shortfall
+ * as the results of the calculations arrive.
+ * <p>
+ * The listener receives the present value of each target in a set of historical scenarios,
+ * as a {@code CurrencyValuesArray} or {@code MultiCurrencyValuesArray}.
+ * The first scenario is the base scenario, the profit and loss in each of the other scenarios
+ * is the difference between the present value in the scenario and the base present value.
+ * <p>
+ * The targets are grouped into aggregation nodes by key, for example by desk.
+ * The present values of each target are added to the accumulator of its node as they arrive,
+ * and are then discarded. Only one vector of present values is held for each node and currency.
+ * When the calculations are complete, the present values of each node are converted
+ * to the reporting currency and the measures are calculated for each node and for the whole portfolio.
+ * The tail scenarios are found by partial sorting, rather than sorting all the scenarios.
+ * <p>
+ * If the tail contains {@code k} scenarios, determined from the confidence level as
+ * {@code ceil((1 - confidenceLevel) * scenarioCount)}, the value at risk is the {@code k}-th largest loss
+ * and the expected shortfall is the average of the {@code k} largest losses.
+ * <p>
+ * The listener must only be used for one set of calculations.
+ *
+ * @param <K>  the type of the key of the aggregation nodes
+ */
+public final class HistoricalRiskListener<K> extends AggregatingCalculationListener<HistoricalRiskResults<K>> {
+
+  /**
+   * Tolerance used when calculating the size of the tail, avoiding rounding up due to floating point error.
+   */
+  private static final double TAIL_TOLERANCE = 1e-9;
+
+  /**
+   * The function deriving the key of the node of each target.
+   */
+  private final Function<? super CalculationTarget, ? extends K> keyFunction;
+  /**
+   * The index of the column containing the present values.
+   */
+  private final int columnIndex;
+  /**
+   * The confidence level.
+   */
+  private final double confidenceLevel;
+  /**
+   * The reporting currency.
+   */
+  private final Currency reportingCurrency;
+  /**
+   * The FX rates of each scenario.
+   */
+  private final ScenarioFxRateProvider fxProvider;
+  /**
+   * The present values of each node.
+   * The listener is invoked by one thread at a time, so this does not need to be thread-safe.
+   */
+  private final Map<K, ValuesArrayAccumulator> nodes = new LinkedHashMap<>();
+  /**
+   * The first failure of each node.
+   */
+  private final Map<K, Result<?>> failures = new LinkedHashMap<>();
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains a listener.
+   *
+   * @param <K>  the type of the key of the aggregation nodes
+   * @param keyFunction  the function deriving the key of the node of each target, not returning null
+   * @param columnIndex  the index of the column containing the present values
+   * @param confidenceLevel  the confidence level, such as 0.99
+   * @param reportingCurrency  the reporting currency
+   * @param fxProvider  the FX rates of each scenario
+   * @return the listener
+   */
+  public static <K> HistoricalRiskListener<K> of(
+      Function<? super CalculationTarget, ? extends K> keyFunction,
+      int columnIndex,
+      double confidenceLevel,
+      Currency reportingCurrency,
+      ScenarioFxRateProvider fxProvider) {
+
+    return new HistoricalRiskListener<>(keyFunction, columnIndex, confidenceLevel, reportingCurrency, fxProvider);
+  }
+
+  // restricted constructor
+  private HistoricalRiskListener(
+      Function<? super CalculationTarget, ? extends K> keyFunction,
+      int columnIndex,
+      double confidenceLevel,
+      Currency reportingCurrency,
+      ScenarioFxRateProvider fxProvider) {
+
+    this.keyFunction = ArgChecker.notNull(keyFunction, "keyFunction");
+    this.columnIndex = ArgChecker.notNegative(columnIndex, "columnIndex");
+    this.confidenceLevel = ArgChecker.inRangeExclusive(confidenceLevel, 0d, 1d, "confidenceLevel");
+    this.reportingCurrency = ArgChecker.notNull(reportingCurrency, "reportingCurrency");
+    this.fxProvider = ArgChecker.notNull(fxProvider, "fxProvider");
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public void resultReceived(CalculationTarget target, CalculationResult calculationResult) {
+    if (calculationResult.getColumnIndex() != columnIndex) {
+      return;
+    }
+    K key = ArgChecker.notNull(keyFunction.apply(target), "key");
+    ValuesArrayAccumulator node = nodes.computeIfAbsent(key, k -> new ValuesArrayAccumulator());
+    if (failures.containsKey(key)) {
+      return;
+    }
+    Result<?> result = calculationResult.getResult();
+    if (result.isFailure()) {
+      failures.put(key, result);
+      return;
+    }
+    try {
+      node.add(result.getValue());
+    } catch (IllegalArgumentException ex) {
+      failures.put(key, Result.failure(FailureReason.CALCULATION_FAILED, ex));
+    }
+  }
+
+  @Override
+  protected HistoricalRiskResults<K> createAggregateResult() {
+    // the profit and loss of each node that did not fail
+    Map<K, double[]> nodePnls = new LinkedHashMap<>();
+    Map<K, Result<HistoricalRiskMeasures>> nodeResults = new LinkedHashMap<>();
+    for (Entry<K, ValuesArrayAccumulator> entry : nodes.entrySet()) {
+      K key = entry.getKey();
+      Result<?> failure = failures.get(key);
+      if (failure == null) {
+        try {
+          Object values = entry.getValue().convertedTo(reportingCurrency, fxProvider);
+          nodePnls.put(key, pnl(((CurrencyValuesArray) values).getValues().toArrayUnsafe()));
+        } catch (RuntimeException ex) {
+          failure = Result.failure(
+              FailureReason.CALCULATION_FAILED, ex, "Unable to calculate profit and loss: {}", ex.getMessage());
+        }
+      }
+      if (failure != null) {
+        nodeResults.put(key, Result.failure(failure));
+      }
+    }
+    if (nodePnls.isEmpty() && nodeResults.isEmpty()) {
+      return HistoricalRiskResults.of(
+          Result.failure(FailureReason.MISSING_DATA, "No present values received"), nodeResults);
+    }
+    // the total profit and loss, which is only available if no node failed
+    Result<HistoricalRiskMeasures> total;
+    Tail totalTail = null;
+    if (!nodeResults.isEmpty()) {
+      total = Result.failure(nodeResults.values());
+    } else {
+      try {
+        double[] totalPnl = sum(nodePnls.values());
+        totalTail = Tail.of(totalPnl, confidenceLevel);
+        total = Result.success(measures(totalPnl, totalTail, totalTail));
+      } catch (RuntimeException ex) {
+        total = Result.failure(ex);
+      }
+    }
+    // the standalone measures of a node do not depend on the portfolio,
+    // only the component measures are omitted if the portfolio measures are not available
+    for (Entry<K, double[]> entry : nodePnls.entrySet()) {
+      double[] pnl = entry.getValue();
+      try {
+        Tail tail = Tail.of(pnl, confidenceLevel);
+        nodeResults.put(entry.getKey(), Result.success(measures(pnl, tail, totalTail)));
+      } catch (RuntimeException ex) {
+        nodeResults.put(entry.getKey(), Result.failure(ex));
+      }
+    }
+    return HistoricalRiskResults.of(total, nodeResults);
+  }
+
+  // the profit and loss of each scenario relative to the base scenario
+  private static double[] pnl(double[] presentValues) {
+    ArgChecker.isTrue(presentValues.length > 1, "At least two scenarios are required, including the base scenario");
+    double[] pnl = new double[presentValues.length - 1];
+    for (int i = 0; i < pnl.length; i++) {
+      pnl[i] = presentValues[i + 1] - presentValues[0];
+    }
+    return pnl;
+  }
+
+  // sums the profit and loss vectors
+  private static double[] sum(Iterable<double[]> pnls) {
+    double[] total = null;
+    for (double[] pnl : pnls) {
+      if (total == null) {
+        total = pnl.clone();
+      } else {
+        ArgChecker.isTrue(pnl.length == total.length, "All targets must have the same number of scenarios");
+        for (int i = 0; i < total.length; i++) {
+          total[i] += pnl[i];
+        }
+      }
+    }
+    return total;
+  }
+
+  // calculates the measures of a node, with the component measures defined by the tail of the portfolio if known
+  private HistoricalRiskMeasures measures(double[] pnl, Tail tail, Tail portfolioTail) {
+    if (portfolioTail == null) {
+      return HistoricalRiskMeasures.of(
+          confidenceLevel,
+          pnl.length,
+          CurrencyAmount.of(reportingCurrency, -pnl[tail.varScenario]),
+          CurrencyAmount.of(reportingCurrency, -mean(pnl, tail.scenarios)));
+    }
+    return HistoricalRiskMeasures.of(
+        confidenceLevel,
+        pnl.length,
+        CurrencyAmount.of(reportingCurrency, -pnl[tail.varScenario]),
+        CurrencyAmount.of(reportingCurrency, -mean(pnl, tail.scenarios)),
+        CurrencyAmount.of(reportingCurrency, -pnl[portfolioTail.varScenario]),
+        CurrencyAmount.of(reportingCurrency, -mean(pnl, portfolioTail.scenarios)));
+  }
+
+  // the mean of the profit and loss over the specified scenarios
+  private static double mean(double[] pnl, int[] scenarios) {
+    double total = 0d;
+    for (int scenario : scenarios) {
+      total += pnl[scenario];
+    }
+    return total / scenarios.length;
+  }
+
+  @Override
+  public String toString() {
+    return Messages.format(
+        "HistoricalRiskListener[columnIndex={}, confidenceLevel={}, reportingCurrency={}]",
+        columnIndex,
+        confidenceLevel,
+        reportingCurrency);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The scenarios in the tail of a profit and loss distribution.
+   */
+  static final class Tail {
+    /** The scenarios with the largest losses, in no particular order. */
+    private final int[] scenarios;
+    /** The scenario defining the value at risk, with the smallest loss in the tail. */
+    private final int varScenario;
+
+    private Tail(int[] scenarios, int varScenario) {
+      this.scenarios = scenarios;
+      this.varScenario = varScenario;
+    }
+
+    /**
+     * Finds the tail of the distribution.
+     * <p>
+     * This uses quickselect to partially sort the scenarios, in linear time on average.
+     *
+     * @param pnl  the profit and loss of each scenario
+     * @param confidenceLevel  the confidence level
+     * @return the tail
+     */
+    static Tail of(double[] pnl, double confidenceLevel) {
+      int size = Math.max(1, (int) Math.ceil((1d - confidenceLevel) * pnl.length - TAIL_TOLERANCE));
+      int[] indices = new int[pnl.length];
+      for (int i = 0; i < indices.length; i++) {
+        indices[i] = i;
+      }
+      // partition so that the first 'size' indices have the smallest profit and loss
+      // three-way partitioning keeps this linear when many scenarios have the same profit and loss
+      int low = 0;
+      int high = indices.length - 1;
+      int target = size - 1;
+      while (low < high) {
+        int[] bounds = partition(pnl, indices, low, high, (low + high) >>> 1);
+        if (target < bounds[0]) {
+          high = bounds[0] - 1;
+        } else if (target >= bounds[1]) {
+          low = bounds[1];
+        } else {
+          break;
+        }
+      }
+      int[] scenarios = new int[size];
+      System.arraycopy(indices, 0, scenarios, 0, size);
+      return new Tail(scenarios, indices[target]);
+    }
+
+    // partitions the indices into values less than, equal to and greater than the pivot (Dutch national flag)
+    // returns the start of the values equal to the pivot and the start of the values greater than the pivot
+    private static int[] partition(double[] pnl, int[] indices, int low, int high, int pivot) {
+      double pivotValue = pnl[indices[pivot]];
+      int less = low;
+      int i = low;
+      int greater = high + 1;
+      while (i < greater) {
+        double value = pnl[indices[i]];
+        if (value < pivotValue) {
+          swap(indices, i++, less++);
+        } else if (value > pivotValue) {
+          swap(indices, i, --greater);
+        } else {
+          i++;
+        }
+      }
+      return new int[] {less, greater};
+    }
+
+    private static void swap(int[] indices, int i, int j) {
+      int temp = indices[i];
+      indices[i] = indices[j];
+      indices[j] = temp;
+    }
+
+    // the scenarios of the tail, for testing
+    int[] getScenarios() {
+      return scenarios.clone();
+    }
+
+    // the scenario defining the value at risk, for testing
+    int getVarScenario() {
+      return varScenario;
+    }
+  }
+
+}
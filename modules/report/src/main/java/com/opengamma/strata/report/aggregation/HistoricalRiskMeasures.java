@@ -0,0 +1,570 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.report.aggregation;
+
+import java.util.Optional;
+
+import org.joda.beans.BeanDefinition;
+import org.joda.beans.ImmutableBean;
+import org.joda.beans.PropertyDefinition;
+
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import org.joda.beans.Bean;
+import org.joda.beans.BeanBuilder;
+import org.joda.beans.JodaBeanUtils;
+import org.joda.beans.MetaProperty;
+import org.joda.beans.Property;
+import org.joda.beans.impl.direct.DirectFieldsBeanBuilder;
+import org.joda.beans.impl.direct.DirectMetaBean;
+import org.joda.beans.impl.direct.DirectMetaProperty;
+import org.joda.beans.impl.direct.DirectMetaPropertyMap;
+
+/**
+ * Historical value at risk and expected shortfall of a node of an aggregation.
+ * <p>
+ * The measures are derived from the profit and loss of the node in each historical scenario.
+ * Losses are expressed as positive amounts.
+ * <p>
+ * The component measures are the contributions of the node to the measures of the whole portfolio.
+ * The component value at risk is the loss of the node in the scenario defining the value at risk
+ * of the portfolio, and the component expected shortfall is the average loss of the node in the
+ * scenarios defining the expected shortfall of the portfolio.
+ * The component measures of the nodes sum to the measures of the portfolio.
+ * They are not available if the measures of the portfolio could not be calculated,
+ * for example because the calculations of another node failed.
+ */
+@BeanDefinition(builderScope = "private")
+public final class HistoricalRiskMeasures implements ImmutableBean {
+
+  /**
+   * The confidence level, such as 0.99.
+   */
+  @PropertyDefinition
+  private final double confidenceLevel;
+  /**
+   * The number of profit and loss scenarios.
+   */
+  @PropertyDefinition
+  private final int scenarioCount;
+  /**
+   * The value at risk, the loss that is not exceeded at the confidence level.
+   */
+  @PropertyDefinition(validate = "notNull")
+  private final CurrencyAmount valueAtRisk;
+  /**
+   * The expected shortfall, the average loss in the scenarios beyond the confidence level.
+   */
+  @PropertyDefinition(validate = "notNull")
+  private final CurrencyAmount expectedShortfall;
+  /**
+   * The contribution of the node to the value at risk of the portfolio.
+   * <p>
+   * This is empty if the value at risk of the portfolio could not be calculated.
+   */
+  @PropertyDefinition(get = "optional")
+  private final CurrencyAmount componentValueAtRisk;
+  /**
+   * The contribution of the node to the expected shortfall of the portfolio.
+   * <p>
+   * This is empty if the expected shortfall of the portfolio could not be calculated.
+   */
+  @PropertyDefinition(get = "optional")
+  private final CurrencyAmount componentExpectedShortfall;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance without the component measures.
+   * <p>
+   * This is used when the measures of the portfolio could not be calculated.
+   *
+   * @param confidenceLevel  the confidence level
+   * @param scenarioCount  the number of profit and loss scenarios
+   * @param valueAtRisk  the value at risk
+   * @param expectedShortfall  the expected shortfall
+   * @return the measures
+   */
+  public static HistoricalRiskMeasures of(
+      double confidenceLevel,
+      int scenarioCount,
+      CurrencyAmount valueAtRisk,
+      CurrencyAmount expectedShortfall) {
+
+    return new HistoricalRiskMeasures(confidenceLevel, scenarioCount, valueAtRisk, expectedShortfall, null, null);
+  }
+
+  /**
+   * Obtains an instance.
+   *
+   * @param confidenceLevel  the confidence level
+   * @param scenarioCount  the number of profit and loss scenarios
+   * @param valueAtRisk  the value at risk
+   * @param expectedShortfall  the expected shortfall
+   * @param componentValueAtRisk  the contribution to the value at risk of the portfolio
+   * @param componentExpectedShortfall  the contribution to the expected shortfall of the portfolio
+   * @return the measures
+   */
+  public static HistoricalRiskMeasures of(
+      double confidenceLevel,
+      int scenarioCount,
+      CurrencyAmount valueAtRisk,
+      CurrencyAmount expectedShortfall,
+      CurrencyAmount componentValueAtRisk,
+      CurrencyAmount componentExpectedShortfall) {
+
+    return new HistoricalRiskMeasures(
+        confidenceLevel,
+        scenarioCount,
+        valueAtRisk,
+        expectedShortfall,
+        componentValueAtRisk,
+        componentExpectedShortfall);
+  }
+
+  //------------------------- AUTOGENERATED START -------------------------
+  ///CLOVER:OFF
+  /**
+   * The meta-bean for {@code HistoricalRiskMeasures}.
+   * @return the meta-bean, not null
+   */
+  public static HistoricalRiskMeasures.Meta meta() {
+    return HistoricalRiskMeasures.Meta.INSTANCE;
+  }
+
+  static {
+    JodaBeanUtils.registerMetaBean(HistoricalRiskMeasures.Meta.INSTANCE);
+  }
+
+  private HistoricalRiskMeasures(
+      double confidenceLevel,
+      int scenarioCount,
+      CurrencyAmount valueAtRisk,
+      CurrencyAmount expectedShortfall,
+      CurrencyAmount componentValueAtRisk,
+      CurrencyAmount componentExpectedShortfall) {
+    JodaBeanUtils.notNull(valueAtRisk, "valueAtRisk");
+    JodaBeanUtils.notNull(expectedShortfall, "expectedShortfall");
+    this.confidenceLevel = confidenceLevel;
+    this.scenarioCount = scenarioCount;
+    this.valueAtRisk = valueAtRisk;
+    this.expectedShortfall = expectedShortfall;
+    this.componentValueAtRisk = componentValueAtRisk;
+    this.componentExpectedShortfall = componentExpectedShortfall;
+  }
+
+  @Override
+  public HistoricalRiskMeasures.Meta metaBean() {
+    return HistoricalRiskMeasures.Meta.INSTANCE;
+  }
+
+  @Override
+  public <R> Property<R> property(String propertyName) {
+    return metaBean().<R>metaProperty(propertyName).createProperty(this);
+  }
+
+  @Override
+  public Set<String> propertyNames() {
+    return metaBean().metaPropertyMap().keySet();
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the confidence level, such as 0.99.
+   * @return the value of the property
+   */
+  public double getConfidenceLevel() {
+    return confidenceLevel;
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the number of profit and loss scenarios.
+   * @return the value of the property
+   */
+  public int getScenarioCount() {
+    return scenarioCount;
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the value at risk, the loss that is not exceeded at the confidence level.
+   * @return the value of the property, not null
+   */
+  public CurrencyAmount getValueAtRisk() {
+    return valueAtRisk;
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the expected shortfall, the average loss in the scenarios beyond the confidence level.
+   * @return the value of the property, not null
+   */
+  public CurrencyAmount getExpectedShortfall() {
+    return expectedShortfall;
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the contribution of the node to the value at risk of the portfolio.
+   * <p>
+   * This is empty if the value at risk of the portfolio could not be calculated.
+   * @return the optional value of the property, not null
+   */
+  public Optional<CurrencyAmount> getComponentValueAtRisk() {
+    return Optional.ofNullable(componentValueAtRisk);
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * Gets the contribution of the node to the expected shortfall of the portfolio.
+   * <p>
+   * This is empty if the expected shortfall of the portfolio could not be calculated.
+   * @return the optional value of the property, not null
+   */
+  public Optional<CurrencyAmount> getComponentExpectedShortfall() {
+    return Optional.ofNullable(componentExpectedShortfall);
+  }
+
+  //-----------------------------------------------------------------------
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (obj != null && obj.getClass() == this.getClass()) {
+      HistoricalRiskMeasures other = (HistoricalRiskMeasures) obj;
+      return JodaBeanUtils.equal(confidenceLevel, other.confidenceLevel) &&
+          (scenarioCount == other.scenarioCount) &&
+          JodaBeanUtils.equal(valueAtRisk, other.valueAtRisk) &&
+          JodaBeanUtils.equal(expectedShortfall, other.expectedShortfall) &&
+          JodaBeanUtils.equal(componentValueAtRisk, other.componentValueAtRisk) &&
+          JodaBeanUtils.equal(componentExpectedShortfall, other.componentExpectedShortfall);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = getClass().hashCode();
+    hash = hash * 31 + JodaBeanUtils.hashCode(confidenceLevel);
+    hash = hash * 31 + JodaBeanUtils.hashCode(scenarioCount);
+    hash = hash * 31 + JodaBeanUtils.hashCode(valueAtRisk);
+    hash = hash * 31 + JodaBeanUtils.hashCode(expectedShortfall);
+    hash = hash * 31 + JodaBeanUtils.hashCode(componentValueAtRisk);
+    hash = hash * 31 + JodaBeanUtils.hashCode(componentExpectedShortfall);
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder buf = new StringBuilder(224);
+    buf.append("HistoricalRiskMeasures{");
+    buf.append("confidenceLevel").append('=').append(confidenceLevel).append(',').append(' ');
+    buf.append("scenarioCount").append('=').append(scenarioCount).append(',').append(' ');
+    buf.append("valueAtRisk").append('=').append(valueAtRisk).append(',').append(' ');
+    buf.append("expectedShortfall").append('=').append(expectedShortfall).append(',').append(' ');
+    buf.append("componentValueAtRisk").append('=').append(componentValueAtRisk).append(',').append(' ');
+    buf.append("componentExpectedShortfall").append('=').append(JodaBeanUtils.toString(componentExpectedShortfall));
+    buf.append('}');
+    return buf.toString();
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * The meta-bean for {@code HistoricalRiskMeasures}.
+   */
+  public static final class Meta extends DirectMetaBean {
+    /**
+     * The singleton instance of the meta-bean.
+     */
+    static final Meta INSTANCE = new Meta();
+
+    /**
+     * The meta-property for the {@code confidenceLevel} property.
+     */
+    private final MetaProperty<Double> confidenceLevel = DirectMetaProperty.ofImmutable(
+        this, "confidenceLevel", HistoricalRiskMeasures.class, Double.TYPE);
+    /**
+     * The meta-property for the {@code scenarioCount} property.
+     */
+    private final MetaProperty<Integer> scenarioCount = DirectMetaProperty.ofImmutable(
+        this, "scenarioCount", HistoricalRiskMeasures.class, Integer.TYPE);
+    /**
+     * The meta-property for the {@code valueAtRisk} property.
+     */
+    private final MetaProperty<CurrencyAmount> valueAtRisk = DirectMetaProperty.ofImmutable(
+        this, "valueAtRisk", HistoricalRiskMeasures.class, CurrencyAmount.class);
+    /**
+     * The meta-property for the {@code expectedShortfall} property.
+     */
+    private final MetaProperty<CurrencyAmount> expectedShortfall = DirectMetaProperty.ofImmutable(
+        this, "expectedShortfall", HistoricalRiskMeasures.class, CurrencyAmount.class);
+    /**
+     * The meta-property for the {@code componentValueAtRisk} property.
+     */
+    private final MetaProperty<CurrencyAmount> componentValueAtRisk = DirectMetaProperty.ofImmutable(
+        this, "componentValueAtRisk", HistoricalRiskMeasures.class, CurrencyAmount.class);
+    /**
+     * The meta-property for the {@code componentExpectedShortfall} property.
+     */
+    private final MetaProperty<CurrencyAmount> componentExpectedShortfall = DirectMetaProperty.ofImmutable(
+        this, "componentExpectedShortfall", HistoricalRiskMeasures.class, CurrencyAmount.class);
+    /**
+     * The meta-properties.
+     */
+    private final Map<String, MetaProperty<?>> metaPropertyMap$ = new DirectMetaPropertyMap(
+        this, null,
+        "confidenceLevel",
+        "scenarioCount",
+        "valueAtRisk",
+        "expectedShortfall",
+        "componentValueAtRisk",
+        "componentExpectedShortfall");
+
+    /**
+     * Restricted constructor.
+     */
+    private Meta() {
+    }
+
+    @Override
+    protected MetaProperty<?> metaPropertyGet(String propertyName) {
+      switch (propertyName.hashCode()) {
+        case 35181338:  // confidenceLevel
+          return confidenceLevel;
+        case -1203198113:  // scenarioCount
+          return scenarioCount;
+        case -1940881805:  // valueAtRisk
+          return valueAtRisk;
+        case -560880097:  // expectedShortfall
+          return expectedShortfall;
+        case 745666870:  // componentValueAtRisk
+          return componentValueAtRisk;
+        case 630112930:  // componentExpectedShortfall
+          return componentExpectedShortfall;
+      }
+      return super.metaPropertyGet(propertyName);
+    }
+
+    @Override
+    public BeanBuilder<? extends HistoricalRiskMeasures> builder() {
+      return new HistoricalRiskMeasures.Builder();
+    }
+
+    @Override
+    public Class<? extends HistoricalRiskMeasures> beanType() {
+      return HistoricalRiskMeasures.class;
+    }
+
+    @Override
+    public Map<String, MetaProperty<?>> metaPropertyMap() {
+      return metaPropertyMap$;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * The meta-property for the {@code confidenceLevel} property.
+     * @return the meta-property, not null
+     */
+    public MetaProperty<Double> confidenceLevel() {
+      return confidenceLevel;
+    }
+
+    /**
+     * The meta-property for the {@code scenarioCount} property.
+     * @return the meta-property, not null
+     */
+    public MetaProperty<Integer> scenarioCount() {
+      return scenarioCount;
+    }
+
+    /**
+     * The meta-property for the {@code valueAtRisk} property.
+     * @return the meta-property, not null
+     */
+    public MetaProperty<CurrencyAmount> valueAtRisk() {
+      return valueAtRisk;
+    }
+
+    /**
+     * The meta-property for the {@code expectedShortfall} property.
+     * @return the meta-property, not null
+     */
+    public MetaProperty<CurrencyAmount> expectedShortfall() {
+      return expectedShortfall;
+    }
+
+    /**
+     * The meta-property for the {@code componentValueAtRisk} property.
+     * @return the meta-property, not null
+     */
+    public MetaProperty<CurrencyAmount> componentValueAtRisk() {
+      return componentValueAtRisk;
+    }
+
+    /**
+     * The meta-property for the {@code componentExpectedShortfall} property.
+     * @return the meta-property, not null
+     */
+    public MetaProperty<CurrencyAmount> componentExpectedShortfall() {
+      return componentExpectedShortfall;
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    protected Object propertyGet(Bean bean, String propertyName, boolean quiet) {
+      switch (propertyName.hashCode()) {
+        case 35181338:  // confidenceLevel
+          return ((HistoricalRiskMeasures) bean).getConfidenceLevel();
+        case -1203198113:  // scenarioCount
+          return ((HistoricalRiskMeasures) bean).getScenarioCount();
+        case -1940881805:  // valueAtRisk
+          return ((HistoricalRiskMeasures) bean).getValueAtRisk();
+        case -560880097:  // expectedShortfall
+          return ((HistoricalRiskMeasures) bean).getExpectedShortfall();
+        case 745666870:  // componentValueAtRisk
+          return ((HistoricalRiskMeasures) bean).componentValueAtRisk;
+        case 630112930:  // componentExpectedShortfall
+          return ((HistoricalRiskMeasures) bean).componentExpectedShortfall;
+      }
+      return super.propertyGet(bean, propertyName, quiet);
+    }
+
+    @Override
+    protected void propertySet(Bean bean, String propertyName, Object newValue, boolean quiet) {
+      metaProperty(propertyName);
+      if (quiet) {
+        return;
+      }
+      throw new UnsupportedOperationException("Property cannot be written: " + propertyName);
+    }
+
+  }
+
+  //-----------------------------------------------------------------------
+  /**
+   * The bean-builder for {@code HistoricalRiskMeasures}.
+   */
+  private static final class Builder extends DirectFieldsBeanBuilder<HistoricalRiskMeasures> {
+
+    private double confidenceLevel;
+    private int scenarioCount;
+    private CurrencyAmount valueAtRisk;
+    private CurrencyAmount expectedShortfall;
+    private CurrencyAmount componentValueAtRisk;
+    private CurrencyAmount componentExpectedShortfall;
+
+    /**
+     * Restricted constructor.
+     */
+    private Builder() {
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    public Object get(String propertyName) {
+      switch (propertyName.hashCode()) {
+        case 35181338:  // confidenceLevel
+          return confidenceLevel;
+        case -1203198113:  // scenarioCount
+          return scenarioCount;
+        case -1940881805:  // valueAtRisk
+          return valueAtRisk;
+        case -560880097:  // expectedShortfall
+          return expectedShortfall;
+        case 745666870:  // componentValueAtRisk
+          return componentValueAtRisk;
+        case 630112930:  // componentExpectedShortfall
+          return componentExpectedShortfall;
+        default:
+          throw new NoSuchElementException("Unknown property: " + propertyName);
+      }
+    }
+
+    @Override
+    public Builder set(String propertyName, Object newValue) {
+      switch (propertyName.hashCode()) {
+        case 35181338:  // confidenceLevel
+          this.confidenceLevel = (Double) newValue;
+          break;
+        case -1203198113:  // scenarioCount
+          this.scenarioCount = (Integer) newValue;
+          break;
+        case -1940881805:  // valueAtRisk
+          this.valueAtRisk = (CurrencyAmount) newValue;
+          break;
+        case -560880097:  // expectedShortfall
+          this.expectedShortfall = (CurrencyAmount) newValue;
+          break;
+        case 745666870:  // componentValueAtRisk
+          this.componentValueAtRisk = (CurrencyAmount) newValue;
+          break;
+        case 630112930:  // componentExpectedShortfall
+          this.componentExpectedShortfall = (CurrencyAmount) newValue;
+          break;
+        default:
+          throw new NoSuchElementException("Unknown property: " + propertyName);
+      }
+      return this;
+    }
+
+    @Override
+    public Builder set(MetaProperty<?> property, Object value) {
+      super.set(property, value);
+      return this;
+    }
+
+    @Override
+    public Builder setString(String propertyName, String value) {
+      setString(meta().metaProperty(propertyName), value);
+      return this;
+    }
+
+    @Override
+    public Builder setString(MetaProperty<?> property, String value) {
+      super.setString(property, value);
+      return this;
+    }
+
+    @Override
+    public Builder setAll(Map<String, ? extends Object> propertyValueMap) {
+      super.setAll(propertyValueMap);
+      return this;
+    }
+
+    @Override
+    public HistoricalRiskMeasures build() {
+      return new HistoricalRiskMeasures(
+          confidenceLevel,
+          scenarioCount,
+          valueAtRisk,
+          expectedShortfall,
+          componentValueAtRisk,
+          componentExpectedShortfall);
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    public String toString() {
+      StringBuilder buf = new StringBuilder(224);
+      buf.append("HistoricalRiskMeasures.Builder{");
+      buf.append("confidenceLevel").append('=').append(JodaBeanUtils.toString(confidenceLevel)).append(',').append(' ');
+      buf.append("scenarioCount").append('=').append(JodaBeanUtils.toString(scenarioCount)).append(',').append(' ');
+      buf.append("valueAtRisk").append('=').append(JodaBeanUtils.toString(valueAtRisk)).append(',').append(' ');
+      buf.append("expectedShortfall").append('=').append(JodaBeanUtils.toString(expectedShortfall)).append(',').append(' ');
+      buf.append("componentValueAtRisk").append('=').append(JodaBeanUtils.toString(componentValueAtRisk)).append(',').append(' ');
+      buf.append("componentExpectedShortfall").append('=').append(JodaBeanUtils.toString(componentExpectedShortfall));
+      buf.append('}');
+      return buf.toString();
+    }
+
+  }
+
+  ///CLOVER:ON
+  //-------------------------- AUTOGENERATED END --------------------------
+}
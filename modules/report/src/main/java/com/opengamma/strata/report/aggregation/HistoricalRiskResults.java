@@ -0,0 +1,97 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.report.aggregation;
+
+import java.util.Map;
+
+import com.google.common.collect.ImmutableMap;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.Messages;
+import com.opengamma.strata.collect.result.Result;
+
+/**
+ * Historical risk measures of a portfolio and of each of its aggregation nodes,
+ * as produced by {@link HistoricalRiskListener}.
+ * <p>
+ * This class is immutable and thread-safe if the keys are immutable.
+ *
+ * @param <K>  the type of the key of the nodes
+ */
+public final class HistoricalRiskResults<K> {
+
+  /**
+   * The measures of the whole portfolio.
+   */
+  private final Result<HistoricalRiskMeasures> total;
+  /**
+   * The measures of each node, keyed by the key of the node.
+   */
+  private final ImmutableMap<K, Result<HistoricalRiskMeasures>> nodes;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance from the measures of the portfolio and the nodes.
+   *
+   * @param <K>  the type of the key of the nodes
+   * @param total  the measures of the whole portfolio
+   * @param nodes  the measures of each node
+   * @return the results
+   */
+  public static <K> HistoricalRiskResults<K> of(
+      Result<HistoricalRiskMeasures> total,
+      Map<K, Result<HistoricalRiskMeasures>> nodes) {
+
+    return new HistoricalRiskResults<>(total, nodes);
+  }
+
+  // restricted constructor
+  private HistoricalRiskResults(Result<HistoricalRiskMeasures> total, Map<K, Result<HistoricalRiskMeasures>> nodes) {
+    this.total = ArgChecker.notNull(total, "total");
+    this.nodes = ImmutableMap.copyOf(ArgChecker.notNull(nodes, "nodes"));
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the measures of the whole portfolio.
+   * <p>
+   * This is a failure if the profit and loss of any node could not be determined.
+   *
+   * @return the measures of the portfolio
+   */
+  public Result<HistoricalRiskMeasures> getTotal() {
+    return total;
+  }
+
+  /**
+   * Gets the measures of each node, keyed by the key of the node.
+   *
+   * @return the measures of the nodes
+   */
+  public ImmutableMap<K, Result<HistoricalRiskMeasures>> getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Returns the measures of the specified node.
+   *
+   * @param key  the key of the node
+   * @return the measures of the node
+   * @throws IllegalArgumentException if the node is not found
+   */
+  public Result<HistoricalRiskMeasures> get(K key) {
+    Result<HistoricalRiskMeasures> result = nodes.get(key);
+    if (result == null) {
+      throw new IllegalArgumentException(Messages.format("Key not found: {}", key));
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return Messages.format("HistoricalRiskResults[total={}, nodes={}]", total, nodes);
+  }
+
+}
@@ -0,0 +1,277 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.report.aggregation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import com.google.common.collect.ImmutableSet;
+import com.opengamma.strata.basics.CalculationTarget;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.calc.Measure;
+import com.opengamma.strata.calc.Results;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.result.FailureReason;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.data.scenario.ScenarioFxRateProvider;
+import com.opengamma.strata.product.Trade;
+import com.opengamma.strata.product.TradeInfo;
+
+/**
+ * Aggregates the rows of a set of results by a key derived from the calculation targets.
+ * <p>
+ * The rows of the results are grouped by key, for example the desk or counterparty of each trade.
+ * The values of each column are then summed within each group, producing one row per group.
+ * The following types of value can be aggregated:
+ * <ul>
+ *   <li>{@code Double}, only for the measures specified as summable
+ *   <li>{@code CurrencyAmount} and {@code MultiCurrencyAmount}, summed by currency
+ *   <li>{@code CurrencyValuesArray} and {@code MultiCurrencyValuesArray}, summed by currency and scenario
+ *   <li>{@code CurrencyParameterSensitivities}, summed by market data name and currency
+ *   <li>{@code ScenarioArray} of any of the above, summed by scenario
+ * </ul>
+ * Many measures of type {@code Double}, such as par rates or implied volatilities, are not additive.
+ * Doubles are therefore only summed for the measures passed to {@link #withSummableMeasures(Set)},
+ * the cells of other measures of type {@code Double} are failures.
+ * <p>
+ * Amounts in different currencies are kept separate unless a reporting currency is specified.
+ * In that case the sum of each group is converted to the reporting currency once, rather than converting each row.
+ * <p>
+ * The rows are reduced in parallel using the common fork-join pool.
+ * Each thread sums into mutable accumulators, which are combined at the end, avoiding intermediate values.
+ * If any row of a group has a failure, or a value that cannot be aggregated, the cell of the group is a failure.
+ * <p>
+ * This class is immutable and thread-safe if the key function is thread-safe.
+ *
+ * @param <K>  the type of the key
+ */
+public final class ResultsAggregator<K> {
+
+  /**
+   * The function deriving the key of each target.
+   */
+  private final Function<? super CalculationTarget, ? extends K> keyFunction;
+  /**
+   * The measures whose values of type {@code Double} are summed.
+   */
+  private final ImmutableSet<Measure> summableMeasures;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an aggregator that groups rows using the specified function of the target.
+   * <p>
+   * The function must not return null.
+   *
+   * @param <K>  the type of the key
+   * @param keyFunction  the function deriving the key of each target
+   * @return the aggregator
+   */
+  public static <K> ResultsAggregator<K> of(Function<? super CalculationTarget, ? extends K> keyFunction) {
+    return new ResultsAggregator<>(keyFunction, ImmutableSet.of());
+  }
+
+  /**
+   * Obtains an aggregator that groups rows using the specified function of the trade information.
+   * <p>
+   * For example, {@code ResultsAggregator.ofTradeInfo(info -> info.getCounterparty())} groups by counterparty.
+   * Targets that are not trades are passed empty trade information.
+   * The function must not return null.
+   *
+   * @param <K>  the type of the key
+   * @param keyFunction  the function deriving the key from the trade information
+   * @return the aggregator
+   */
+  public static <K> ResultsAggregator<K> ofTradeInfo(Function<? super TradeInfo, ? extends K> keyFunction) {
+    ArgChecker.notNull(keyFunction, "keyFunction");
+    return new ResultsAggregator<>(
+        target -> keyFunction.apply(target instanceof Trade ? ((Trade) target).getInfo() : TradeInfo.empty()),
+        ImmutableSet.of());
+  }
+
+  // restricted constructor
+  private ResultsAggregator(
+      Function<? super CalculationTarget, ? extends K> keyFunction,
+      Set<? extends Measure> summableMeasures) {
+
+    this.keyFunction = ArgChecker.notNull(keyFunction, "keyFunction");
+    this.summableMeasures = ImmutableSet.copyOf(summableMeasures);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns a copy of this aggregator that sums the values of type {@code Double} of the specified measures.
+   * <p>
+   * Only additive measures must be specified. By default no values of type {@code Double} are summed.
+   *
+   * @param summableMeasures  the measures whose values of type {@code Double} are summed
+   * @return an aggregator summing the values of type {@code Double} of the measures
+   */
+  public ResultsAggregator<K> withSummableMeasures(Set<? extends Measure> summableMeasures) {
+    ArgChecker.notNull(summableMeasures, "summableMeasures");
+    return new ResultsAggregator<>(keyFunction, summableMeasures);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Aggregates the results, keeping amounts in different currencies separate.
+   *
+   * @param targets  the targets of the calculations, one for each row of the results
+   * @param results  the results of the calculations
+   * @return the aggregated results, with one row for each key
+   */
+  public AggregatedResults<K> aggregate(List<? extends CalculationTarget> targets, Results results) {
+    return aggregate(targets, results, null, null);
+  }
+
+  /**
+   * Aggregates the results, converting the amounts of each group to the reporting currency.
+   * <p>
+   * Single amounts and sensitivities are converted using the FX rates of the first scenario.
+   * Values that are not monetary are not converted.
+   *
+   * @param targets  the targets of the calculations, one for each row of the results
+   * @param results  the results of the calculations
+   * @param reportingCurrency  the reporting currency
+   * @param fxProvider  the FX rates of each scenario
+   * @return the aggregated results, with one row for each key
+   */
+  public AggregatedResults<K> aggregate(
+      List<? extends CalculationTarget> targets,
+      Results results,
+      Currency reportingCurrency,
+      ScenarioFxRateProvider fxProvider) {
+
+    ArgChecker.notNull(targets, "targets");
+    ArgChecker.notNull(results, "results");
+    ArgChecker.isTrue(
+        targets.size() == results.getRowCount(),
+        "The number of targets ({}) must equal the number of rows of the results ({})",
+        targets.size(),
+        results.getRowCount());
+    ArgChecker.isTrue(
+        (reportingCurrency == null) == (fxProvider == null),
+        "The reporting currency and FX rates must both be specified, or neither");
+
+    int columnCount = results.getColumnCount();
+    boolean[] additive = new boolean[columnCount];
+    for (int column = 0; column < columnCount; column++) {
+      additive[column] = summableMeasures.contains(results.getColumns().get(column).getMeasure());
+    }
+    Map<K, GroupAccumulator> groups = IntStream.range(0, results.getRowCount())
+        .parallel()
+        .collect(
+            LinkedHashMap::new,
+            (map, row) -> add(map, row, targets, results, additive),
+            (map, other) -> other.forEach((key, group) -> map.merge(key, group, GroupAccumulator::combine)));
+
+    List<K> keys = new ArrayList<>(groups.keySet());
+    List<Result<?>> cells = new ArrayList<>(keys.size() * columnCount);
+    for (GroupAccumulator group : groups.values()) {
+      for (int column = 0; column < columnCount; column++) {
+        cells.add(group.result(column, reportingCurrency, fxProvider));
+      }
+    }
+    return AggregatedResults.of(keys, Results.of(results.getColumns(), cells));
+  }
+
+  // adds a row of results to the group of its target
+  private void add(
+      Map<K, GroupAccumulator> groups,
+      int row,
+      List<? extends CalculationTarget> targets,
+      Results results,
+      boolean[] additive) {
+
+    K key = ArgChecker.notNull(keyFunction.apply(targets.get(row)), "key");
+    groups.computeIfAbsent(key, k -> new GroupAccumulator(additive)).add(results, row);
+  }
+
+  @Override
+  public String toString() {
+    return "ResultsAggregator[" + keyFunction + ", summableMeasures=" + summableMeasures + "]";
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The accumulators of each column of a group, or the failure of the column.
+   */
+  private static final class GroupAccumulator {
+    private final boolean[] additive;
+    private final Accumulator[] accumulators;
+    private final Result<?>[] failures;
+
+    private GroupAccumulator(boolean[] additive) {
+      this.additive = additive;
+      this.accumulators = new Accumulator[additive.length];
+      this.failures = new Result<?>[additive.length];
+    }
+
+    // adds the results of a row
+    private void add(Results results, int row) {
+      for (int column = 0; column < accumulators.length; column++) {
+        if (failures[column] != null) {
+          continue;
+        }
+        Result<?> result = results.get(row, column);
+        if (result.isFailure()) {
+          failures[column] = result;
+          continue;
+        }
+        Object value = result.getValue();
+        try {
+          if (accumulators[column] == null) {
+            accumulators[column] = Accumulator.of(value, additive[column]);
+          }
+          accumulators[column].add(value);
+        } catch (IllegalArgumentException ex) {
+          failures[column] = Result.failure(FailureReason.CALCULATION_FAILED, ex);
+        }
+      }
+    }
+
+    // combines with another group, which is discarded
+    private GroupAccumulator combine(GroupAccumulator other) {
+      for (int column = 0; column < accumulators.length; column++) {
+        if (failures[column] != null) {
+          continue;
+        }
+        if (other.failures[column] != null) {
+          failures[column] = other.failures[column];
+        } else if (accumulators[column] == null) {
+          accumulators[column] = other.accumulators[column];
+        } else if (other.accumulators[column] != null) {
+          try {
+            accumulators[column].combine(other.accumulators[column]);
+          } catch (IllegalArgumentException ex) {
+            failures[column] = Result.failure(FailureReason.CALCULATION_FAILED, ex);
+          }
+        }
+      }
+      return this;
+    }
+
+    // the result of a column, converted if the reporting currency is specified
+    private Result<?> result(int column, Currency reportingCurrency, ScenarioFxRateProvider fxProvider) {
+      if (failures[column] != null) {
+        return failures[column];
+      }
+      try {
+        return Result.success(reportingCurrency == null ?
+            accumulators[column].result() :
+            accumulators[column].convertedTo(reportingCurrency, fxProvider));
+      } catch (RuntimeException ex) {
+        return Result.failure(
+            FailureReason.CALCULATION_FAILED, ex, "Unable to convert aggregated value: {}", ex.getMessage());
+      }
+    }
+  }
+
+}
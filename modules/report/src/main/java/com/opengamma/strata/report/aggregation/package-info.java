@@ -0,0 +1,10 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+
+/**
+ * Types for aggregating the results of calculations by a key, such as the desk or counterparty.
+ */
+package com.opengamma.strata.report.aggregation;
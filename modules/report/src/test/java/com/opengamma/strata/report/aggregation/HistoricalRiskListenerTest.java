@@ -0,0 +1,216 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.report.aggregation;
+
+import static com.opengamma.strata.basics.currency.Currency.GBP;
+import static com.opengamma.strata.basics.currency.Currency.USD;
+import static com.opengamma.strata.collect.CollectProjectAssertions.assertThat;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static org.testng.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.strata.basics.CalculationTarget;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.basics.currency.FxRateProvider;
+import com.opengamma.strata.calc.runner.CalculationResult;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.result.FailureReason;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.data.scenario.CurrencyValuesArray;
+import com.opengamma.strata.data.scenario.ScenarioFxRateProvider;
+import com.opengamma.strata.report.aggregation.HistoricalRiskListener.Tail;
+
+/**
+ * Test {@link HistoricalRiskListener}.
+ */
+@Test
+public class HistoricalRiskListenerTest {
+
+  private static final int SCENARIOS = 101;
+  private static final double TOLERANCE = 1e-9;
+
+  /** FX rates with GBP/USD of 2 in every scenario. */
+  private static final ScenarioFxRateProvider FX_RATES = new ScenarioFxRateProvider() {
+    @Override
+    public int getScenarioCount() {
+      return SCENARIOS;
+    }
+
+    @Override
+    public FxRateProvider fxRateProvider(int scenarioIndex) {
+      return (base, counter) -> base.equals(counter) ? 1d : (base.equals(GBP) ? 2d : 0.5d);
+    }
+  };
+
+  //-------------------------------------------------------------------------
+  public void test_measures() {
+    Random random = new Random(1);
+    double[] pv1 = randomValues(random);
+    double[] pv2 = randomValues(random);
+    double[] pv3 = randomValues(random);
+
+    HistoricalRiskListener<String> test =
+        HistoricalRiskListener.of(target -> ((Desk) target).name, 0, 0.95, USD, FX_RATES);
+    test.resultReceived(new Desk("A"), result(0, CurrencyValuesArray.of(USD, DoubleArray.copyOf(pv1))));
+    test.resultReceived(new Desk("A"), result(1, CurrencyValuesArray.of(USD, DoubleArray.copyOf(pv1))));
+    test.resultReceived(new Desk("B"), result(0, CurrencyValuesArray.of(USD, DoubleArray.copyOf(pv2))));
+    test.resultReceived(new Desk("A"), result(0, CurrencyValuesArray.of(GBP, DoubleArray.copyOf(pv3))));
+    test.calculationsComplete();
+    HistoricalRiskResults<String> results = test.result();
+
+    // the result of the second column is ignored
+    // reference calculation, fully sorting the scenarios
+    double[] pnlA = pnl(pv1, pv3, 2d);
+    double[] pnlB = pnl(pv2, pv2, 0d);
+    double[] total = new double[SCENARIOS - 1];
+    for (int i = 0; i < total.length; i++) {
+      total[i] = pnlA[i] + pnlB[i];
+    }
+    int[] totalOrder = order(total);
+    int tailSize = 5;
+
+    HistoricalRiskMeasures totalMeasures = results.getTotal().getValue();
+    assertEquals(totalMeasures.getConfidenceLevel(), 0.95);
+    assertEquals(totalMeasures.getScenarioCount(), SCENARIOS - 1);
+    assertAmount(totalMeasures.getValueAtRisk(), -total[totalOrder[tailSize - 1]]);
+    assertAmount(totalMeasures.getExpectedShortfall(), -mean(total, totalOrder, tailSize));
+    assertAmount(totalMeasures.getComponentValueAtRisk().get(), totalMeasures.getValueAtRisk().getAmount());
+
+    HistoricalRiskMeasures measuresA = results.get("A").getValue();
+    int[] orderA = order(pnlA);
+    assertAmount(measuresA.getValueAtRisk(), -pnlA[orderA[tailSize - 1]]);
+    assertAmount(measuresA.getExpectedShortfall(), -mean(pnlA, orderA, tailSize));
+    assertAmount(measuresA.getComponentValueAtRisk().get(), -pnlA[totalOrder[tailSize - 1]]);
+    assertAmount(measuresA.getComponentExpectedShortfall().get(), -mean(pnlA, totalOrder, tailSize));
+
+    // the components sum to the total
+    HistoricalRiskMeasures measuresB = results.get("B").getValue();
+    assertAmount(
+        measuresA.getComponentValueAtRisk().get().plus(measuresB.getComponentValueAtRisk().get()),
+        totalMeasures.getValueAtRisk().getAmount());
+    assertAmount(
+        measuresA.getComponentExpectedShortfall().get().plus(measuresB.getComponentExpectedShortfall().get()),
+        totalMeasures.getExpectedShortfall().getAmount());
+    assertThrowsIllegalArg(() -> results.get("C"));
+  }
+
+  public void test_failure() {
+    HistoricalRiskListener<String> test =
+        HistoricalRiskListener.of(target -> ((Desk) target).name, 0, 0.99, USD, FX_RATES);
+    test.resultReceived(new Desk("A"), result(0, CurrencyValuesArray.of(USD, DoubleArray.filled(SCENARIOS))));
+    test.resultReceived(new Desk("B"), CalculationResult.of(0, 0, Result.failure(FailureReason.MISSING_DATA, "Bad")));
+    test.resultReceived(new Desk("B"), result(0, CurrencyValuesArray.of(USD, DoubleArray.filled(SCENARIOS))));
+    test.calculationsComplete();
+    HistoricalRiskResults<String> results = test.result();
+    assertThat(results.get("B")).isFailure(FailureReason.MISSING_DATA);
+    assertThat(results.getTotal()).isFailure(FailureReason.MISSING_DATA);
+    // the standalone measures of the healthy node are available, but not the component measures
+    HistoricalRiskMeasures measuresA = results.get("A").getValue();
+    assertAmount(measuresA.getValueAtRisk(), 0d);
+    assertAmount(measuresA.getExpectedShortfall(), 0d);
+    assertEquals(measuresA.getComponentValueAtRisk(), Optional.empty());
+    assertEquals(measuresA.getComponentExpectedShortfall(), Optional.empty());
+  }
+
+  public void test_noResults() {
+    HistoricalRiskListener<String> test =
+        HistoricalRiskListener.of(target -> ((Desk) target).name, 0, 0.99, USD, FX_RATES);
+    test.calculationsComplete();
+    assertThat(test.result().getTotal()).isFailure(FailureReason.MISSING_DATA);
+    assertEquals(test.result().getNodes().size(), 0);
+  }
+
+  public void test_invalid() {
+    assertThrowsIllegalArg(() -> HistoricalRiskListener.of(t -> t, 0, 1d, USD, FX_RATES));
+    assertThrowsIllegalArg(() -> HistoricalRiskListener.of(t -> t, -1, 0.99, USD, FX_RATES));
+  }
+
+  public void test_tail() {
+    Random random = new Random(2);
+    for (int n = 1; n < 200; n += 7) {
+      double[] pnl = new double[n];
+      for (int i = 0; i < n; i++) {
+        // include ties
+        pnl[i] = random.nextInt(n / 2 + 1);
+      }
+      int[] order = order(pnl);
+      Tail tail = Tail.of(pnl, 0.9);
+      int size = Math.max(1, (int) Math.ceil(0.1 * n - 1e-9));
+      assertEquals(tail.getScenarios().length, size);
+      assertEquals(pnl[tail.getVarScenario()], pnl[order[size - 1]]);
+      double[] tailValues = Arrays.stream(tail.getScenarios()).mapToDouble(i -> pnl[i]).sorted().toArray();
+      double[] expected = Arrays.stream(order).limit(size).mapToDouble(i -> pnl[i]).toArray();
+      assertEquals(tailValues, expected);
+    }
+  }
+
+  public void test_tail_equalValues() {
+    // a flat book has the same profit and loss in most scenarios
+    int n = 1_000_000;
+    double[] pnl = new double[n];
+    pnl[10] = -2d;
+    pnl[20] = -1d;
+    Tail tail = Tail.of(pnl, 0.999);
+    assertEquals(tail.getScenarios().length, 1000);
+    assertEquals(pnl[tail.getVarScenario()], 0d);
+    assertEquals(Arrays.stream(tail.getScenarios()).mapToDouble(i -> pnl[i]).sum(), -3d);
+  }
+
+  //-------------------------------------------------------------------------
+  private static double[] randomValues(Random random) {
+    double[] values = new double[SCENARIOS];
+    for (int i = 0; i < SCENARIOS; i++) {
+      values[i] = random.nextGaussian() * 1000;
+    }
+    return values;
+  }
+
+  // the profit and loss of the first values, plus the second values converted at the rate
+  private static double[] pnl(double[] values1, double[] values2, double fxRate) {
+    double[] pnl = new double[SCENARIOS - 1];
+    for (int i = 0; i < pnl.length; i++) {
+      pnl[i] = (values1[i + 1] - values1[0]) + fxRate * (values2[i + 1] - values2[0]);
+    }
+    return pnl;
+  }
+
+  // the indices of the values, sorted by value
+  private static int[] order(double[] values) {
+    return IntStream.range(0, values.length)
+        .boxed()
+        .sorted((i, j) -> Double.compare(values[i], values[j]))
+        .mapToInt(i -> i)
+        .toArray();
+  }
+
+  private static double mean(double[] values, int[] order, int size) {
+    return Arrays.stream(order).limit(size).mapToDouble(i -> values[i]).average().getAsDouble();
+  }
+
+  private static void assertAmount(CurrencyAmount amount, double expected) {
+    assertEquals(amount.getCurrency(), USD);
+    assertEquals(amount.getAmount(), expected, TOLERANCE);
+  }
+
+  private static CalculationResult result(int columnIndex, CurrencyValuesArray values) {
+    return CalculationResult.of(0, columnIndex, Result.success(values));
+  }
+
+  private static final class Desk implements CalculationTarget {
+    private final String name;
+
+    private Desk(String name) {
+      this.name = name;
+    }
+  }
+
+}
@@ -0,0 +1,240 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.report.aggregation;
+
+import static com.opengamma.strata.basics.currency.Currency.EUR;
+import static com.opengamma.strata.basics.currency.Currency.GBP;
+import static com.opengamma.strata.basics.currency.Currency.USD;
+import static com.opengamma.strata.collect.CollectProjectAssertions.assertThat;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static org.testng.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.opengamma.strata.basics.CalculationTarget;
+import com.opengamma.strata.basics.StandardId;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.basics.currency.FxRateProvider;
+import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
+import com.opengamma.strata.calc.ColumnHeader;
+import com.opengamma.strata.calc.ColumnName;
+import com.opengamma.strata.calc.Measure;
+import com.opengamma.strata.calc.Results;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.result.FailureReason;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.data.scenario.CurrencyValuesArray;
+import com.opengamma.strata.data.scenario.MultiCurrencyValuesArray;
+import com.opengamma.strata.data.scenario.ScenarioArray;
+import com.opengamma.strata.data.scenario.ScenarioFxRateProvider;
+import com.opengamma.strata.market.curve.CurveName;
+import com.opengamma.strata.market.param.CurrencyParameterSensitivities;
+import com.opengamma.strata.market.param.CurrencyParameterSensitivity;
+import com.opengamma.strata.measure.Measures;
+import com.opengamma.strata.product.Trade;
+import com.opengamma.strata.product.TradeInfo;
+
+/**
+ * Test {@link ResultsAggregator} and {@link AggregatedResults}.
+ */
+@Test
+public class ResultsAggregatorTest {
+
+  private static final StandardId CPTY1 = StandardId.of("cpty", "1");
+  private static final StandardId CPTY2 = StandardId.of("cpty", "2");
+  private static final CurveName CURVE = CurveName.of("Curve");
+  private static final List<ColumnHeader> COLUMNS = ImmutableList.of(
+      header("PV", Measures.PRESENT_VALUE),
+      header("Sens", Measures.BUCKETED_PV01));
+
+  /** FX rates of two scenarios, GBP/USD is 1.5 in the first and 2 in the second. */
+  private static final ScenarioFxRateProvider FX_RATES = new ScenarioFxRateProvider() {
+    @Override
+    public int getScenarioCount() {
+      return 2;
+    }
+
+    @Override
+    public FxRateProvider fxRateProvider(int scenarioIndex) {
+      return (base, counter) -> rate(base, counter, scenarioIndex == 0 ? 1.5 : 2d);
+    }
+  };
+
+  //-------------------------------------------------------------------------
+  public void test_amountsAndSensitivities() {
+    List<TestTrade> trades = ImmutableList.of(trade(CPTY1), trade(CPTY2), trade(CPTY1));
+    Results results = Results.of(COLUMNS, ImmutableList.of(
+        Result.success(CurrencyAmount.of(USD, 1d)),
+        Result.success(sensitivities(GBP, 1d, 2d)),
+        Result.success(CurrencyAmount.of(USD, 10d)),
+        Result.success(sensitivities(GBP, 10d, 20d)),
+        Result.success(MultiCurrencyAmount.of(CurrencyAmount.of(USD, 2d), CurrencyAmount.of(GBP, 3d))),
+        Result.success(sensitivities(USD, 3d, 4d))));
+
+    ResultsAggregator<Optional<StandardId>> test = ResultsAggregator.ofTradeInfo(TradeInfo::getCounterparty);
+    AggregatedResults<Optional<StandardId>> aggregated = test.aggregate(trades, results);
+    assertEquals(aggregated.getKeys(), ImmutableList.of(Optional.of(CPTY1), Optional.of(CPTY2)));
+    assertEquals(aggregated.getResults().getColumns(), COLUMNS);
+    assertThat(aggregated.get(Optional.of(CPTY1), 0))
+        .hasValue(MultiCurrencyAmount.of(CurrencyAmount.of(USD, 3d), CurrencyAmount.of(GBP, 3d)));
+    assertThat(aggregated.get(Optional.of(CPTY1), 1))
+        .hasValue(sensitivities(GBP, 1d, 2d).combinedWith(sensitivities(USD, 3d, 4d)));
+    assertThat(aggregated.get(Optional.of(CPTY2), 0)).hasValue(MultiCurrencyAmount.of(USD, 10d));
+    assertThrowsIllegalArg(() -> aggregated.get(Optional.empty(), 0));
+
+    AggregatedResults<Optional<StandardId>> converted = test.aggregate(trades, results, USD, FX_RATES);
+    assertThat(converted.get(Optional.of(CPTY1), 0)).hasValue(CurrencyAmount.of(USD, 3d + 3d * 1.5));
+    assertThat(converted.get(Optional.of(CPTY1), 1))
+        .hasValue(sensitivities(USD, 1.5, 3d).combinedWith(sensitivities(USD, 3d, 4d)));
+  }
+
+  public void test_scenarios() {
+    List<TestTrade> trades = ImmutableList.of(trade(CPTY1), trade(CPTY1));
+    ScenarioArray<CurrencyParameterSensitivities> sens1 =
+        ScenarioArray.of(sensitivities(GBP, 1d, 2d), sensitivities(GBP, 3d, 4d));
+    ScenarioArray<CurrencyParameterSensitivities> sens2 =
+        ScenarioArray.of(sensitivities(GBP, 10d, 20d), sensitivities(GBP, 30d, 40d));
+    Results results = Results.of(COLUMNS, ImmutableList.of(
+        Result.success(CurrencyValuesArray.of(USD, DoubleArray.of(1d, 2d))),
+        Result.success(sens1),
+        Result.success(MultiCurrencyValuesArray.of(
+            MultiCurrencyAmount.of(CurrencyAmount.of(GBP, 1d)),
+            MultiCurrencyAmount.of(CurrencyAmount.of(GBP, 2d), CurrencyAmount.of(USD, 3d)))),
+        Result.success(sens2)));
+
+    AggregatedResults<Optional<StandardId>> aggregated =
+        ResultsAggregator.ofTradeInfo(TradeInfo::getCounterparty).aggregate(trades, results, USD, FX_RATES);
+    assertThat(aggregated.get(Optional.of(CPTY1), 0))
+        .hasValue(CurrencyValuesArray.of(USD, DoubleArray.of(1d + 1.5, 2d + 3d + 4d)));
+    assertThat(aggregated.get(Optional.of(CPTY1), 1))
+        .hasValue(ScenarioArray.of(sensitivities(USD, 16.5, 33d), sensitivities(USD, 66d, 88d)));
+  }
+
+  public void test_failures() {
+    List<TestTrade> trades = ImmutableList.of(trade(CPTY1), trade(CPTY1), trade(CPTY2));
+    Result<?> failure = Result.failure(FailureReason.MISSING_DATA, "Missing");
+    Results results = Results.of(COLUMNS, ImmutableList.of(
+        Result.success(CurrencyAmount.of(USD, 1d)),
+        Result.success("foo"),
+        failure,
+        Result.success(sensitivities(GBP, 1d, 2d)),
+        Result.success(CurrencyAmount.of(EUR, 1d)),
+        Result.success(2d)));
+
+    AggregatedResults<Optional<StandardId>> aggregated =
+        ResultsAggregator.ofTradeInfo(TradeInfo::getCounterparty).aggregate(trades, results);
+    assertEquals(aggregated.get(Optional.of(CPTY1), 0), failure);
+    assertThat(aggregated.get(Optional.of(CPTY1), 1)).isFailure(FailureReason.CALCULATION_FAILED);
+    // doubles are not summed unless the measure is summable
+    assertThat(aggregated.get(Optional.of(CPTY2), 1)).isFailure(FailureReason.CALCULATION_FAILED);
+
+    // missing FX rate
+    AggregatedResults<Optional<StandardId>> converted =
+        ResultsAggregator.ofTradeInfo(TradeInfo::getCounterparty).aggregate(trades, results, USD, FX_RATES);
+    assertThat(converted.get(Optional.of(CPTY2), 0)).isFailure(FailureReason.CALCULATION_FAILED);
+  }
+
+  public void test_summableMeasures() {
+    List<TestTrade> trades = ImmutableList.of(trade(CPTY1), trade(CPTY1));
+    List<ColumnHeader> columns = ImmutableList.of(
+        header("PV", Measures.PRESENT_VALUE),
+        header("Rate", Measures.PAR_RATE),
+        header("Scenarios", Measures.PRESENT_VALUE));
+    Results results = Results.of(columns, ImmutableList.of(
+        Result.success(1d),
+        Result.success(0.01),
+        Result.success(ScenarioArray.of(1d, 2d)),
+        Result.success(2d),
+        Result.success(0.02),
+        Result.success(ScenarioArray.of(3d, 4d))));
+
+    ResultsAggregator<Optional<StandardId>> test = ResultsAggregator.ofTradeInfo(TradeInfo::getCounterparty)
+        .withSummableMeasures(ImmutableSet.of(Measures.PRESENT_VALUE));
+    AggregatedResults<Optional<StandardId>> aggregated = test.aggregate(trades, results);
+    assertThat(aggregated.get(Optional.of(CPTY1), 0)).hasValue(3d);
+    assertThat(aggregated.get(Optional.of(CPTY1), 1)).isFailure(FailureReason.CALCULATION_FAILED);
+    assertThat(aggregated.get(Optional.of(CPTY1), 2)).hasValue(ScenarioArray.of(4d, 6d));
+    assertThrowsIllegalArg(() -> test.withSummableMeasures(null));
+  }
+
+  public void test_parallel() {
+    int count = 10_000;
+    List<TestTrade> trades = IntStream.range(0, count)
+        .mapToObj(i -> trade(i % 2 == 0 ? CPTY1 : CPTY2))
+        .collect(Collectors.toList());
+    Results results = Results.of(ImmutableList.of(COLUMNS.get(0)), IntStream.range(0, count)
+        .mapToObj(i -> Result.success(CurrencyAmount.of(USD, i)))
+        .collect(Collectors.toList()));
+
+    AggregatedResults<Optional<StandardId>> aggregated =
+        ResultsAggregator.ofTradeInfo(TradeInfo::getCounterparty).aggregate(trades, results);
+    assertEquals(aggregated.getKeys(), ImmutableList.of(Optional.of(CPTY1), Optional.of(CPTY2)));
+    double evenSum = (count / 2 - 1) * (double) count / 2;
+    assertThat(aggregated.get(Optional.of(CPTY1), 0)).hasValue(MultiCurrencyAmount.of(USD, evenSum));
+    assertThat(aggregated.get(Optional.of(CPTY2), 0)).hasValue(MultiCurrencyAmount.of(USD, evenSum + count / 2));
+  }
+
+  public void test_of() {
+    List<CalculationTarget> targets = ImmutableList.of(trade(CPTY1), new CalculationTarget() {});
+    Results results = Results.of(ImmutableList.of(COLUMNS.get(0)), ImmutableList.of(
+        Result.success(CurrencyAmount.of(USD, 1d)),
+        Result.success(CurrencyAmount.of(USD, 2d))));
+    AggregatedResults<Boolean> aggregated = ResultsAggregator.of(t -> t instanceof Trade).aggregate(targets, results);
+    assertEquals(aggregated.getKeys(), ImmutableList.of(true, false));
+    assertThat(aggregated.get(false, 0)).hasValue(MultiCurrencyAmount.of(USD, 2d));
+    assertThrowsIllegalArg(() -> ResultsAggregator.of(t -> true).aggregate(ImmutableList.of(), results));
+    assertThrowsIllegalArg(() -> ResultsAggregator.of(t -> true).aggregate(targets, results, USD, null));
+  }
+
+  //-------------------------------------------------------------------------
+  private static ColumnHeader header(String name, Measure measure) {
+    return ColumnHeader.of(ColumnName.of(name), measure);
+  }
+
+  private static CurrencyParameterSensitivities sensitivities(Currency currency, double... values) {
+    return CurrencyParameterSensitivities.of(
+        CurrencyParameterSensitivity.of(CURVE, currency, DoubleArray.copyOf(values)));
+  }
+
+  private static double rate(Currency base, Currency counter, double gbpUsd) {
+    if (base.equals(counter)) {
+      return 1d;
+    }
+    if (base.equals(GBP) && counter.equals(USD)) {
+      return gbpUsd;
+    }
+    if (base.equals(USD) && counter.equals(GBP)) {
+      return 1d / gbpUsd;
+    }
+    throw new IllegalArgumentException("No FX rate for " + base + "/" + counter);
+  }
+
+  private static TestTrade trade(StandardId counterparty) {
+    return new TestTrade(TradeInfo.builder().counterparty(counterparty).build());
+  }
+
+  private static final class TestTrade implements Trade {
+    private final TradeInfo info;
+
+    private TestTrade(TradeInfo info) {
+      this.info = info;
+    }
+
+    @Override
+    public TradeInfo getInfo() {
+      return info;
+    }
+  }
+
+}